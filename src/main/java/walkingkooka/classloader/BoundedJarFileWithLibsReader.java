@@ -0,0 +1,372 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import walkingkooka.Binary;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.text.CharSequences;
+import walkingkooka.text.LineEnding;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipException;
+
+/**
+ * Reads a {@link JarInputStream} including its libs directory like {@link ClassLoaderResourceProviders#jarFileWithLibs(JarInputStream, LineEnding)},
+ * while enforcing limits as bytes are streamed.
+ * <ul>
+ * <li>An entry larger than the entry limit fails the entire read.</li>
+ * <li>All entries including those of nested archives larger than the archive limit fails the entire read.</li>
+ * <li>An entry larger than the spill threshold is written to a spill file rather than held on the heap.</li>
+ * <li>Spill files are deleted if the read fails, otherwise when the returned provider is closed.</li>
+ * </ul>
+ */
+final class BoundedJarFileWithLibsReader {
+
+    private final static String SPILL_PREFIX = "spill";
+
+    private final static String SPILL_SUFFIX = ".tmp";
+
+    static BoundedJarFileWithLibsReader with(final LineEnding lineEnding,
+                                             final long maxArchiveBytes,
+                                             final long maxEntryBytes,
+                                             final long spillBytes,
+                                             final Path spillDirectory,
+                                             final ClassLoaderResourceProviderMetrics metrics) {
+        return new BoundedJarFileWithLibsReader(
+            lineEnding,
+            maxArchiveBytes,
+            maxEntryBytes,
+            spillBytes,
+            spillDirectory,
+            metrics
+        );
+    }
+
+    private BoundedJarFileWithLibsReader(final LineEnding lineEnding,
+                                         final long maxArchiveBytes,
+                                         final long maxEntryBytes,
+                                         final long spillBytes,
+                                         final Path spillDirectory,
+                                         final ClassLoaderResourceProviderMetrics metrics) {
+        this.lineEnding = lineEnding;
+        this.maxArchiveBytes = maxArchiveBytes;
+        this.maxEntryBytes = maxEntryBytes;
+        this.spillBytes = spillBytes;
+        this.spillDirectory = spillDirectory;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Reads the archive and its libs into a {@link SpillFileClassLoaderResourceProvider} for each archive, searched in
+     * the same order as {@link ClassLoaderResourceProviders#jarFileWithLibs(JarInputStream, LineEnding)}, so only the
+     * limits differ. Each owns its spill files. If the read fails any spill files already written are deleted.
+     */
+    CloseableClassLoaderResourceProvider read(final JarInputStream inputStream) throws IOException {
+        final List<ClassLoaderResourceProvider> providers = Lists.array();
+
+        boolean success = false;
+        try {
+            this.read(
+                inputStream,
+                providers
+            );
+            success = true;
+        } finally {
+            if (false == success) {
+                for (final Path spill : this.spills) {
+                    deleteIfPossible(spill);
+                }
+            }
+        }
+
+        // a single provider is returned as is, otherwise the cascade closes each provider
+        return (CloseableClassLoaderResourceProvider) CascadingClassLoaderResourceProvider.with(providers);
+    }
+
+    /**
+     * Reads the entries of the archive into a provider, then reads each lib in order. This gives the same search order
+     * as a {@link CascadingClassLoaderResourceProvider} of the archive followed by its libs.
+     */
+    private void read(final JarInputStream inputStream,
+                      final List<ClassLoaderResourceProvider> providers) throws IOException {
+        final List<Object> libs = Lists.array();
+        final Map<ClassLoaderResourcePath, ClassLoaderResource> pathToResource = Maps.sorted();
+        final Map<ClassLoaderResourcePath, Path> pathToFile = Maps.sorted();
+        final Set<Path> files = Sets.hash();
+
+        final Manifest manifest = inputStream.getManifest();
+        if (null != manifest) {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            manifest.write(bytes);
+
+            pathToResource.put(
+                ClassLoaderResourcePath.MANIFEST,
+                ClassLoaderResource.with(
+                    Binary.with(bytes.toByteArray())
+                )
+            );
+        }
+
+        for (; ; ) {
+            final JarEntry entry = inputStream.getNextJarEntry();
+            if (null == entry) {
+                break;
+            }
+            if (entry.isDirectory()) {
+                continue;
+            }
+
+            final String name = entry.getName();
+            final Object content = this.readEntry(
+                name,
+                inputStream
+            );
+
+            if (name.startsWith(ZipArchiveClassLoaderResourceProvider.LIBS)) {
+                libs.add(content);
+            } else {
+                final ClassLoaderResourcePath path = ClassLoaderResourcePath.parse(
+                    name.startsWith("/") ?
+                        name :
+                        "/" + name
+                );
+                if (content instanceof Path) {
+                    final Path file = (Path) content;
+                    files.add(file);
+
+                    pathToFile.put(
+                        path,
+                        file
+                    );
+                    pathToResource.remove(path);
+                } else {
+                    pathToResource.put(
+                        path,
+                        ClassLoaderResource.with(
+                            Binary.with((byte[]) content)
+                        )
+                    );
+                    pathToFile.remove(path);
+                }
+            }
+        }
+
+        if (MultiReleaseJar.isMultiRelease(manifest)) {
+            resolve(
+                pathToResource,
+                pathToFile
+            );
+        }
+
+        // spill files that were replaced by a later entry or a versioned entry are not needed
+        files.removeAll(pathToFile.values());
+        for (final Path file : files) {
+            Files.deleteIfExists(file);
+        }
+
+        providers.add(
+            SpillFileClassLoaderResourceProvider.with(
+                pathToResource,
+                pathToFile,
+                this.lineEnding
+            )
+        );
+
+        for (final Object lib : libs) {
+            this.readLib(
+                lib,
+                providers
+            );
+        }
+    }
+
+    /**
+     * Replaces base entries with versioned entries, which may be held on the heap or in a spill file.
+     */
+    private static void resolve(final Map<ClassLoaderResourcePath, ClassLoaderResource> pathToResource,
+                                final Map<ClassLoaderResourcePath, Path> pathToFile) {
+        final Set<ClassLoaderResourcePath> paths = Sets.sorted();
+        paths.addAll(pathToResource.keySet());
+        paths.addAll(pathToFile.keySet());
+
+        for (final Map.Entry<ClassLoaderResourcePath, ClassLoaderResourcePath> baseAndVersioned : MultiReleaseJar.resolve(paths, MultiReleaseJar.FEATURE).entrySet()) {
+            final ClassLoaderResourcePath base = baseAndVersioned.getKey();
+            final ClassLoaderResourcePath versioned = baseAndVersioned.getValue();
+
+            final ClassLoaderResource resource = pathToResource.get(versioned);
+            if (null != resource) {
+                pathToResource.put(base, resource);
+                pathToFile.remove(base);
+            } else {
+                pathToFile.put(base, pathToFile.get(versioned));
+                pathToResource.remove(base);
+            }
+        }
+    }
+
+    /**
+     * Reads a nested lib. The bytes of the lib itself are no longer counted against the archive limit once its
+     * entries are read, so each byte is only counted once.
+     */
+    private void readLib(final Object content,
+                         final List<ClassLoaderResourceProvider> providers) throws IOException {
+        if (content instanceof Path) {
+            final Path file = (Path) content;
+            try {
+                this.archiveBytes -= Files.size(file);
+
+                try (final InputStream fileInputStream = Files.newInputStream(file);
+                     final JarInputStream libJarInputStream = new JarInputStream(fileInputStream)) {
+                    this.read(
+                        libJarInputStream,
+                        providers
+                    );
+                }
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        } else {
+            final byte[] bytes = (byte[]) content;
+            this.archiveBytes -= bytes.length;
+
+            try (final JarInputStream libJarInputStream = new JarInputStream(new ByteArrayInputStream(bytes))) {
+                this.read(
+                    libJarInputStream,
+                    providers
+                );
+            }
+        }
+    }
+
+    /**
+     * Reads the current entry returning either a byte[] or the {@link Path} of the spill file if the entry was too large.
+     */
+    private Object readEntry(final String name,
+                             final InputStream inputStream) throws IOException {
+        final ClassLoaderResourceProviderMetrics metrics = this.metrics;
+        final byte[] buffer = this.buffer;
+
+        final ByteArrayOutputStream heap = new ByteArrayOutputStream();
+        OutputStream output = heap;
+        Path spill = null;
+        long entryBytes = 0;
+
+        try {
+            for (; ; ) {
+                final int count = inputStream.read(buffer);
+                if (count < 0) {
+                    break;
+                }
+
+                entryBytes += count;
+                if (entryBytes > this.maxEntryBytes) {
+                    metrics.increment(ClassLoaderResourceProviderMetric.ENTRY_LIMIT_EXCEEDED);
+                    throw new ZipException("Entry " + CharSequences.quoteAndEscape(name) + " exceeds " + this.maxEntryBytes + " bytes");
+                }
+
+                this.archiveBytes += count;
+                if (this.archiveBytes > this.maxArchiveBytes) {
+                    metrics.increment(ClassLoaderResourceProviderMetric.ARCHIVE_LIMIT_EXCEEDED);
+                    throw new ZipException("Archive exceeds " + this.maxArchiveBytes + " bytes at " + CharSequences.quoteAndEscape(name));
+                }
+
+                if (null == spill && entryBytes > this.spillBytes) {
+                    spill = Files.createTempFile(
+                        this.spillDirectory,
+                        SPILL_PREFIX,
+                        SPILL_SUFFIX
+                    );
+                    this.spills.add(spill);
+                    output = Files.newOutputStream(spill);
+                    heap.writeTo(output);
+                }
+
+                output.write(buffer, 0, count);
+            }
+        } catch (final IOException cause) {
+            if (null != spill) {
+                output.close();
+                Files.deleteIfExists(spill);
+            }
+            throw cause;
+        }
+
+        final Object content;
+        if (null != spill) {
+            output.close();
+            metrics.increment(ClassLoaderResourceProviderMetric.SPILLED_ENTRIES);
+            metrics.add(ClassLoaderResourceProviderMetric.SPILLED_BYTES, entryBytes);
+            content = spill;
+        } else {
+            metrics.add(ClassLoaderResourceProviderMetric.HEAP_BYTES, entryBytes);
+            content = heap.toByteArray();
+        }
+        return content;
+    }
+
+    private static void deleteIfPossible(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (final IOException ignore) {
+            // the original failure is more important
+        }
+    }
+
+    private final byte[] buffer = new byte[8192];
+
+    private final LineEnding lineEnding;
+
+    private final long maxArchiveBytes;
+
+    private final long maxEntryBytes;
+
+    private final long spillBytes;
+
+    private final Path spillDirectory;
+
+    private final ClassLoaderResourceProviderMetrics metrics;
+
+    /**
+     * The total bytes read so far including nested archives, less the bytes of nested archives already expanded.
+     */
+    private long archiveBytes;
+
+    /**
+     * Every spill file created, deleted if the read fails.
+     */
+    private final List<Path> spills = Lists.array();
+
+    @Override
+    public String toString() {
+        return this.metrics.toString();
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import walkingkooka.collect.map.Maps;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * A {@link ClassLoaderResourceProvider} that caches the resources and misses of another provider, evicting the least
+ * recently used entries when the total bytes exceed a limit. Streams, ranges and transfers are served from the cached
+ * resource, so resources of a JAR or URL are not read and inflated again. Metadata is answered from a cached resource
+ * or miss when possible. A lazy or released resource is weighed by its metadata size, so caching it does not read its
+ * content. When {@link MemoryPressure} reports the heap is nearly full the cache shrinks to its floor.
+ */
+final class CachingClassLoaderResourceProvider implements ClassLoaderResourceProvider,
+    MemoryPressureListener {
+
+    /**
+     * The bytes charged for every entry in addition to the size of the resource, so misses are also bounded.
+     */
+    final static long ENTRY_BYTES = 64;
+
+    static CachingClassLoaderResourceProvider with(final ClassLoaderResourceProvider provider,
+                                                   final long maxBytes,
+                                                   final long floorBytes,
+                                                   final ClassLoaderResourceProviderMetrics metrics) {
+        return with(
+            provider,
+            maxBytes,
+            floorBytes,
+            metrics,
+            MemoryPressure.INSTANCE
+        );
+    }
+
+    static CachingClassLoaderResourceProvider with(final ClassLoaderResourceProvider provider,
+                                                   final long maxBytes,
+                                                   final long floorBytes,
+                                                   final ClassLoaderResourceProviderMetrics metrics,
+                                                   final MemoryPressure memoryPressure) {
+        Objects.requireNonNull(provider, "provider");
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Invalid maxBytes " + maxBytes + " <= 0");
+        }
+        if (floorBytes < 0 || floorBytes > maxBytes) {
+            throw new IllegalArgumentException("Invalid floorBytes " + floorBytes + " not between 0 and " + maxBytes);
+        }
+        Objects.requireNonNull(metrics, "metrics");
+        Objects.requireNonNull(memoryPressure, "memoryPressure");
+
+        final CachingClassLoaderResourceProvider caching = new CachingClassLoaderResourceProvider(
+            provider,
+            maxBytes,
+            floorBytes,
+            metrics
+        );
+        memoryPressure.add(caching);
+        return caching;
+    }
+
+    private CachingClassLoaderResourceProvider(final ClassLoaderResourceProvider provider,
+                                               final long maxBytes,
+                                               final long floorBytes,
+                                               final ClassLoaderResourceProviderMetrics metrics) {
+        this.provider = provider;
+        this.maxBytes = maxBytes;
+        this.floorBytes = floorBytes;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Optional<ClassLoaderResource> load(final ClassLoaderResourcePath path) {
+        Objects.requireNonNull(path, "path");
+
+        Optional<ClassLoaderResource> resource = this.get(path);
+        if (null == resource) {
+            this.metrics.increment(ClassLoaderResourceProviderMetric.CACHE_MISSES);
+
+            resource = this.provider.load(path);
+            this.put(
+                path,
+                resource,
+                this.weight(
+                    path,
+                    resource
+                )
+            );
+        } else {
+            this.metrics.increment(ClassLoaderResourceProviderMetric.CACHE_HITS);
+        }
+
+        return resource;
+    }
+
+    /**
+     * Answers from a cached resource or miss without asking the wrapped provider, otherwise asks the wrapped provider
+     * for its metadata and caches a miss.
+     */
+    @Override
+    public Optional<ClassLoaderResourceMetadata> metadata(final ClassLoaderResourcePath path) {
+        Objects.requireNonNull(path, "path");
+
+        final Optional<ClassLoaderResource> cached = this.get(path);
+
+        Optional<ClassLoaderResourceMetadata> metadata;
+        if (null != cached && false == cached.isPresent()) {
+            this.metrics.increment(ClassLoaderResourceProviderMetric.CACHE_HITS);
+            metadata = Optional.empty();
+        } else {
+            final OptionalLong size = null != cached ?
+                cached.get()
+                    .sizeIfLoaded() :
+                OptionalLong.empty();
+            if (size.isPresent()) {
+                this.metrics.increment(ClassLoaderResourceProviderMetric.CACHE_HITS);
+                metadata = Optional.of(
+                    ClassLoaderResourceMetadata.with(
+                        size.getAsLong(),
+                        Optional.empty(), // compressedSize
+                        Optional.empty(), // lastModified
+                        this
+                    )
+                );
+            } else {
+                metadata = this.provider.metadata(path);
+                if (false == metadata.isPresent()) {
+                    this.put(
+                        path,
+                        Optional.empty(),
+                        ENTRY_BYTES
+                    );
+                }
+            }
+        }
+
+        return metadata;
+    }
+
+    private synchronized Optional<ClassLoaderResource> get(final ClassLoaderResourcePath path) {
+        return this.pathToResource.get(path);
+    }
+
+    /**
+     * Adds the resource or miss unless it alone is larger than the limit, then evicts until within the limit.
+     */
+    private synchronized void put(final ClassLoaderResourcePath path,
+                                  final Optional<ClassLoaderResource> resource,
+                                  final long weight) {
+        if (weight <= this.maxBytes) {
+            this.pathToResource.put(
+                path,
+                resource
+            );
+            final Long previous = this.pathToWeight.put(
+                path,
+                weight
+            );
+            this.bytes += weight - (null != previous ? previous : 0);
+
+            this.evict(this.maxBytes);
+        }
+    }
+
+    /**
+     * Removes the least recently used entries until the total is within the given limit.
+     */
+    private void evict(final long maxBytes) {
+        final Iterator<ClassLoaderResourcePath> iterator = this.pathToResource.keySet()
+            .iterator();
+
+        while (this.bytes > maxBytes && iterator.hasNext()) {
+            this.bytes -= this.pathToWeight.remove(
+                iterator.next()
+            );
+            iterator.remove();
+
+            this.metrics.increment(ClassLoaderResourceProviderMetric.CACHE_EVICTIONS);
+        }
+    }
+
+    /**
+     * Evicts the least recently used entries until the cache is within its floor.
+     */
+    @Override
+    public synchronized void onMemoryPressure() {
+        if (this.bytes > this.floorBytes) {
+            this.evict(this.floorBytes);
+            this.metrics.increment(ClassLoaderResourceProviderMetric.MEMORY_PRESSURE_SHRINKS);
+        }
+    }
+
+    /**
+     * Weighs a resource by the size of its value if it is already on the heap, otherwise by the size from its metadata,
+     * so the content of a lazy or released resource is not read only to be weighed.
+     */
+    private long weight(final ClassLoaderResourcePath path,
+                        final Optional<ClassLoaderResource> resource) {
+        long size = 0;
+
+        if (resource.isPresent()) {
+            final OptionalLong loaded = resource.get()
+                .sizeIfLoaded();
+            size = loaded.isPresent() ?
+                loaded.getAsLong() :
+                Math.max(
+                    0,
+                    this.provider.metadata(path)
+                        .map(ClassLoaderResourceMetadata::size)
+                        .orElse(0L)
+                );
+        }
+
+        return ENTRY_BYTES + size;
+    }
+
+    /**
+     * The total bytes of all cached entries.
+     */
+    synchronized long bytes() {
+        return this.bytes;
+    }
+
+    @Override
+    public void release(final ClassLoaderResourcePath path) {
+        this.provider.release(path);
+    }
+
+    private final ClassLoaderResourceProvider provider;
+
+    private final long maxBytes;
+
+    /**
+     * The bytes kept when the heap is nearly full.
+     */
+    private final long floorBytes;
+
+    private final ClassLoaderResourceProviderMetrics metrics;
+
+    /**
+     * Cached resources and misses in access order, guarded by this.
+     */
+    private final LinkedHashMap<ClassLoaderResourcePath, Optional<ClassLoaderResource>> pathToResource = new LinkedHashMap<>(
+        16,
+        0.75f,
+        true // access order
+    );
+
+    /**
+     * The weight of each cached resource or miss when it was added, guarded by this.
+     */
+    private final Map<ClassLoaderResourcePath, Long> pathToWeight = Maps.hash();
+
+    private long bytes;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.provider.toString();
+    }
+}
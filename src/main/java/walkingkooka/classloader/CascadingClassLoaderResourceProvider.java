@@ -17,11 +17,22 @@
 
 package walkingkooka.classloader;
 
+import walkingkooka.Binary;
 import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.collect.set.Sets;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
 
 /**
  * A {@link ClassLoaderResourceProvider} that tries each of the given {@link ClassLoaderResourceProvider} one by one
@@ -30,8 +41,10 @@ import java.util.Optional;
  * <br>
  * This will be particularly useful when assembling a {@link ClassLoaderResourceProvider} that supports a JAR file
  * with a lib directory, with all resources including the contents of the lib dir being searched.
+ * <br>
+ * Closing closes each of the given providers that is {@link Closeable}.
  */
-final class CascadingClassLoaderResourceProvider implements ClassLoaderResourceProvider {
+final class CascadingClassLoaderResourceProvider implements CloseableClassLoaderResourceProvider {
 
     static ClassLoaderResourceProvider with(final List<ClassLoaderResourceProvider> providers) {
         Objects.requireNonNull(providers, "providers");
@@ -72,6 +85,157 @@ final class CascadingClassLoaderResourceProvider implements ClassLoaderResourceP
         return resource;
     }
 
+    /**
+     * Gives each provider a single batch of the paths that earlier providers did not have.
+     */
+    @Override
+    public Map<ClassLoaderResourcePath, ClassLoaderResource> loadAll(final Collection<ClassLoaderResourcePath> paths) {
+        Objects.requireNonNull(paths, "paths");
+
+        final Map<ClassLoaderResourcePath, ClassLoaderResource> pathToResource = Maps.sorted();
+        final Set<ClassLoaderResourcePath> remaining = Sets.sorted();
+        remaining.addAll(paths);
+
+        for (final ClassLoaderResourceProvider provider : this.providers) {
+            if (remaining.isEmpty()) {
+                break;
+            }
+
+            final Map<ClassLoaderResourcePath, ClassLoaderResource> loaded = provider.loadAll(remaining);
+            pathToResource.putAll(loaded);
+            remaining.removeAll(loaded.keySet());
+        }
+
+        return pathToResource;
+    }
+
+    @Override
+    public Optional<ClassLoaderResource> loadName(final CharSequence name) {
+        Optional<ClassLoaderResource> resource = Optional.empty();
+
+        for (final ClassLoaderResourceProvider provider : this.providers) {
+            resource = provider.loadName(name);
+            if (resource.isPresent()) {
+                break;
+            }
+        }
+
+        return resource;
+    }
+
+    @Override
+    public Optional<InputStream> inputStreamName(final CharSequence name) {
+        Optional<InputStream> inputStream = Optional.empty();
+
+        for (final ClassLoaderResourceProvider provider : this.providers) {
+            inputStream = provider.inputStreamName(name);
+            if (inputStream.isPresent()) {
+                break;
+            }
+        }
+
+        return inputStream;
+    }
+
+    @Override
+    public Optional<InputStream> inputStream(final ClassLoaderResourcePath path) {
+        Optional<InputStream> inputStream = Optional.empty();
+
+        for (final ClassLoaderResourceProvider provider : this.providers) {
+            inputStream = provider.inputStream(path);
+            if (inputStream.isPresent()) {
+                break;
+            }
+        }
+
+        return inputStream;
+    }
+
+    @Override
+    public Optional<ClassLoaderResourceMetadata> metadata(final ClassLoaderResourcePath path) {
+        Optional<ClassLoaderResourceMetadata> metadata = Optional.empty();
+
+        for (final ClassLoaderResourceProvider provider : this.providers) {
+            metadata = provider.metadata(path);
+            if (metadata.isPresent()) {
+                break;
+            }
+        }
+
+        return metadata;
+    }
+
+    @Override
+    public Optional<Binary> range(final ClassLoaderResourcePath path,
+                                  final long offset,
+                                  final int length) {
+        Optional<Binary> range = Optional.empty();
+
+        for (final ClassLoaderResourceProvider provider : this.providers) {
+            range = provider.range(
+                path,
+                offset,
+                length
+            );
+            if (range.isPresent()) {
+                break;
+            }
+        }
+
+        return range;
+    }
+
+    @Override
+    public OptionalLong transferTo(final ClassLoaderResourcePath path,
+                                   final WritableByteChannel channel) throws IOException {
+        OptionalLong count = OptionalLong.empty();
+
+        for (final ClassLoaderResourceProvider provider : this.providers) {
+            count = provider.transferTo(
+                path,
+                channel
+            );
+            if (count.isPresent()) {
+                break;
+            }
+        }
+
+        return count;
+    }
+
+    @Override
+    public void release(final ClassLoaderResourcePath path) {
+        for (final ClassLoaderResourceProvider provider : this.providers) {
+            provider.release(path);
+        }
+    }
+
+    /**
+     * Closes every provider that is {@link Closeable}, even if closing an earlier provider fails.
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failed = null;
+
+        for (final ClassLoaderResourceProvider provider : this.providers) {
+            if (provider instanceof Closeable) {
+                try {
+                    ((Closeable) provider).close();
+                } catch (final IOException cause) {
+                    if (null == failed) {
+                        failed = cause;
+                    } else {
+                        failed.addSuppressed(cause);
+                    }
+                }
+            }
+        }
+
+        if (null != failed) {
+            throw failed;
+        }
+    }
+
     private final List<ClassLoaderResourceProvider> providers;
 
     @Override
@@ -20,7 +20,13 @@ package walkingkooka.classloader;
 import walkingkooka.Binary;
 import walkingkooka.HasValue;
 
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.function.Supplier;
 
 /**
  * A resource loaded by a {@link ClassLoaderResourceProvider}.
@@ -35,41 +41,235 @@ public final class ClassLoaderResource implements HasValue<Binary> {
             Objects.requireNonNull(
                 value,
                 "value"
-            )
+            ),
+            null,
+            false
         );
     }
 
-    private ClassLoaderResource(final Binary value) {
+    /**
+     * Creates a {@link ClassLoaderResource} whose {@link Binary} is produced by the {@link Supplier} when
+     * {@link #value()} is first called, so resources that are never used are never read. The {@link Supplier} must
+     * return the same content every time, as it may be called more than once if threads race or if weak is true and
+     * the cached value has been garbage collected.
+     */
+    public static ClassLoaderResource lazy(final Supplier<Binary> supplier,
+                                           final boolean weak) {
+        return new ClassLoaderResource(
+            null,
+            Objects.requireNonNull(supplier, "supplier"),
+            weak
+        );
+    }
+
+    /**
+     * Creates a {@link ClassLoaderResource} that holds the given {@link Binary} until {@link #release()} is called,
+     * after which it is weakly cached and read again from the {@link Supplier} when needed.
+     */
+    static ClassLoaderResource releasable(final Binary value,
+                                          final Supplier<Binary> supplier) {
+        return new ClassLoaderResource(
+            Objects.requireNonNull(value, "value"),
+            Objects.requireNonNull(supplier, "supplier"),
+            true
+        );
+    }
+
+    private ClassLoaderResource(final Binary value,
+                                final Supplier<Binary> supplier,
+                                final boolean weak) {
         this.value = value;
+        this.supplier = supplier;
+        this.weak = weak;
     }
 
     // Value............................................................................................................
 
     @Override
     public Binary value() {
-        return this.value;
+        Binary value = this.value;
+        if (null == value) {
+            final Reference<Binary> reference = this.reference;
+            if (null != reference) {
+                value = reference.get();
+            }
+            if (null == value) {
+                value = this.supplier.get();
+                if (null == value) {
+                    throw new NullPointerException("Supplier returned null " + this.supplier);
+                }
+                if (this.weak) {
+                    this.reference = new WeakReference<>(value);
+                } else {
+                    this.value = value;
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Returns the size of the value if it is already on the heap, without reading a lazy or released value.
+     */
+    OptionalLong sizeIfLoaded() {
+        Binary value = this.value;
+        if (null == value) {
+            final Reference<Binary> reference = this.reference;
+            if (null != reference) {
+                value = reference.get();
+            }
+        }
+        return null != value ?
+            OptionalLong.of(value.size()) :
+            OptionalLong.empty();
     }
 
-    private final Binary value;
+    /**
+     * Releases the value of a resource created by {@link #releasable(Binary, Supplier)} so it is only weakly held and
+     * may be garbage collected, doing nothing for other resources.
+     */
+    void release() {
+        final Binary value = this.value;
+        if (null != value && null != this.supplier) {
+            this.reference = new WeakReference<>(value);
+            this.value = null;
+        }
+    }
+
+    /**
+     * The value, which is null for a lazy resource until first needed or always null if it is weakly cached.
+     */
+    private volatile Binary value;
+
+    /**
+     * Produces the value of a lazy resource, null otherwise.
+     */
+    private final Supplier<Binary> supplier;
+
+    /**
+     * When true the value of a lazy resource is held by {@link #reference} and may be garbage collected.
+     */
+    private final boolean weak;
+
+    private volatile Reference<Binary> reference;
+
+    // digest...........................................................................................................
+
+    /**
+     * The algorithm used to compute the {@link #digest()}.
+     */
+    public final static String DIGEST_ALGORITHM = "SHA-256";
+
+    /**
+     * Returns the SHA-256 digest of the content, which is computed once when first requested.
+     */
+    public Binary digest() {
+        return Binary.with(
+            this.digestBytes()
+        );
+    }
+
+    /**
+     * Returns a strong HTTP entity tag holding the hex encoded {@link #digest()}, surrounded by double quotes.
+     */
+    public String etag() {
+        String etag = this.etag;
+        if (null == etag) {
+            final byte[] digest = this.digestBytes();
+            final char[] chars = new char[2 + digest.length * 2];
+
+            int i = 0;
+            chars[i++] = '"';
+            for (final byte b : digest) {
+                chars[i++] = HEX[(b >> 4) & 0xF];
+                chars[i++] = HEX[b & 0xF];
+            }
+            chars[i] = '"';
+
+            etag = new String(chars);
+            this.etag = etag;
+        }
+        return etag;
+    }
+
+    private final static char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Lazily computed, benign races may compute the same value more than once.
+     */
+    private volatile String etag;
+
+    private byte[] digestBytes() {
+        byte[] digest = this.digest;
+        if (null == digest) {
+            try {
+                digest = MessageDigest.getInstance(DIGEST_ALGORITHM)
+                    .digest(
+                        this.value().value()
+                    );
+            } catch (final NoSuchAlgorithmException cause) {
+                // every Java platform supports SHA-256
+                throw new IllegalStateException(cause.getMessage(), cause);
+            }
+            this.digest = digest;
+        }
+        return digest;
+    }
+
+    /**
+     * Lazily computed and never modified after it is set.
+     */
+    private volatile byte[] digest;
 
     // Object...........................................................................................................
 
+    /**
+     * The hash code of the {@link Binary} is computed once and cached.
+     */
     @Override
     public int hashCode() {
-        return this.value.hashCode();
+        int hashCode = this.hashCode;
+        if (0 == hashCode) {
+            hashCode = this.value().hashCode();
+            this.hashCode = hashCode;
+        }
+        return hashCode;
     }
 
+    /**
+     * Zero when not yet computed, like {@link String#hashCode()}.
+     */
+    private int hashCode;
+
+    /**
+     * When both resources have computed their {@link #digest()} the digests are compared instead of the content.
+     */
     @Override
     public boolean equals(final Object other) {
         return this == other || other instanceof ClassLoaderResource && this.equals0((ClassLoaderResource) other);
     }
 
     private boolean equals0(final ClassLoaderResource other) {
-        return this.value.equals(other.value);
+        final boolean equals;
+
+        final int hashCode = this.hashCode;
+        final int otherHashCode = other.hashCode;
+        if (0 != hashCode && 0 != otherHashCode && hashCode != otherHashCode) {
+            equals = false;
+        } else {
+            final byte[] digest = this.digest;
+            final byte[] otherDigest = other.digest;
+
+            equals = null != digest && null != otherDigest ?
+                MessageDigest.isEqual(digest, otherDigest) :
+                this.value().equals(other.value());
+        }
+
+        return equals;
     }
 
     @Override
     public String toString() {
-        return this.value.toString();
+        return this.value().toString();
     }
 }
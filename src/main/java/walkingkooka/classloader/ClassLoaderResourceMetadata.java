@@ -0,0 +1,127 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Metadata about a resource that a {@link ClassLoaderResourceProvider} can return without reading its content, such as
+ * from a zip central directory or file attributes.
+ */
+public final class ClassLoaderResourceMetadata {
+
+    /**
+     * Creates a new {@link ClassLoaderResourceMetadata}
+     */
+    public static ClassLoaderResourceMetadata with(final long size,
+                                                   final Optional<Long> compressedSize,
+                                                   final Optional<Instant> lastModified,
+                                                   final ClassLoaderResourceProvider origin) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Invalid size " + size + " < 0");
+        }
+        Objects.requireNonNull(compressedSize, "compressedSize");
+        Objects.requireNonNull(lastModified, "lastModified");
+        Objects.requireNonNull(origin, "origin");
+
+        return new ClassLoaderResourceMetadata(
+            size,
+            compressedSize,
+            lastModified,
+            origin
+        );
+    }
+
+    private ClassLoaderResourceMetadata(final long size,
+                                        final Optional<Long> compressedSize,
+                                        final Optional<Instant> lastModified,
+                                        final ClassLoaderResourceProvider origin) {
+        this.size = size;
+        this.compressedSize = compressedSize;
+        this.lastModified = lastModified;
+        this.origin = origin;
+    }
+
+    /**
+     * The uncompressed size in bytes.
+     */
+    public long size() {
+        return this.size;
+    }
+
+    private final long size;
+
+    /**
+     * The compressed size in bytes, only present for compressed archive entries.
+     */
+    public Optional<Long> compressedSize() {
+        return this.compressedSize;
+    }
+
+    private final Optional<Long> compressedSize;
+
+    public Optional<Instant> lastModified() {
+        return this.lastModified;
+    }
+
+    private final Optional<Instant> lastModified;
+
+    /**
+     * The {@link ClassLoaderResourceProvider} that holds the resource.
+     */
+    public ClassLoaderResourceProvider origin() {
+        return this.origin;
+    }
+
+    private final ClassLoaderResourceProvider origin;
+
+    // Object...........................................................................................................
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+            this.size,
+            this.compressedSize,
+            this.lastModified,
+            this.origin
+        );
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return this == other || other instanceof ClassLoaderResourceMetadata && this.equals0((ClassLoaderResourceMetadata) other);
+    }
+
+    private boolean equals0(final ClassLoaderResourceMetadata other) {
+        return this.size == other.size &&
+            this.compressedSize.equals(other.compressedSize) &&
+            this.lastModified.equals(other.lastModified) &&
+            this.origin.equals(other.origin);
+    }
+
+    @Override
+    public String toString() {
+        return this.size +
+            this.compressedSize.map(c -> " compressed " + c).orElse("") +
+            this.lastModified.map(l -> " " + l).orElse("") +
+            " " +
+            this.origin;
+    }
+}
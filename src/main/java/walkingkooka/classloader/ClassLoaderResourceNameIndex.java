@@ -0,0 +1,149 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import walkingkooka.Cast;
+
+import java.util.Map;
+
+/**
+ * An immutable open addressing hash table keyed by resource names without a leading slash, that may be probed with the
+ * characters of any {@link CharSequence} from an offset, so a lookup does not need to create a {@link String} or
+ * {@link ClassLoaderResourcePath}. Hashes are computed like {@link String#hashCode()}.
+ */
+final class ClassLoaderResourceNameIndex<V> {
+
+    static <V> ClassLoaderResourceNameIndex<V> with(final Map<String, V> nameToValue) {
+        final int size = nameToValue.size();
+
+        int capacity = 2;
+        while (capacity < size * 2) {
+            capacity <<= 1;
+        }
+
+        final String[] names = new String[capacity];
+        final Object[] values = new Object[capacity];
+        final int mask = capacity - 1;
+
+        for (final Map.Entry<String, V> nameAndValue : nameToValue.entrySet()) {
+            final String name = nameAndValue.getKey();
+
+            int slot = spread(name.hashCode()) & mask;
+            while (null != names[slot]) {
+                slot = (slot + 1) & mask;
+            }
+            names[slot] = name;
+            values[slot] = nameAndValue.getValue();
+        }
+
+        return new ClassLoaderResourceNameIndex<>(
+            names,
+            values,
+            size
+        );
+    }
+
+    private ClassLoaderResourceNameIndex(final String[] names,
+                                         final Object[] values,
+                                         final int size) {
+        this.names = names;
+        this.values = values;
+        this.mask = names.length - 1;
+        this.size = size;
+    }
+
+    V get(final String name) {
+        return this.get(
+            name,
+            0
+        );
+    }
+
+    /**
+     * Returns the value for the characters of the given name starting at the offset, or null.
+     */
+    V get(final CharSequence name,
+          final int start) {
+        final int length = name.length();
+
+        int hash = 0;
+        for (int i = start; i < length; i++) {
+            hash = 31 * hash + name.charAt(i);
+        }
+
+        final String[] names = this.names;
+        final int mask = this.mask;
+
+        V value = null;
+        int slot = spread(hash) & mask;
+
+        for (; ; ) {
+            final String candidate = names[slot];
+            if (null == candidate) {
+                break;
+            }
+            if (matches(candidate, name, start)) {
+                value = Cast.to(this.values[slot]);
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return value;
+    }
+
+    private static boolean matches(final String candidate,
+                                   final CharSequence name,
+                                   final int start) {
+        final int length = candidate.length();
+
+        boolean matches = length == name.length() - start;
+        if (matches) {
+            for (int i = 0; i < length; i++) {
+                if (candidate.charAt(i) != name.charAt(start + i)) {
+                    matches = false;
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    private final String[] names;
+
+    private final Object[] values;
+
+    private final int mask;
+
+    private final int size;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.size + " names";
+    }
+}
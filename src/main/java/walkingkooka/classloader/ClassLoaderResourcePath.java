@@ -85,13 +85,206 @@ final public class ClassLoaderResourcePath
                 classLoaderResourcePath = MANIFEST;
                 break;
             default:
-                classLoaderResourcePath = parseNonManifest(path);
+                classLoaderResourcePath = parseInterned(path);
                 break;
         }
 
         return classLoaderResourcePath;
     }
 
+    /**
+     * Parses the {@link String} into a {@link ClassLoaderResourcePath} returning empty rather than throwing if it is
+     * missing the leading slash, has an empty component or a parent component that escapes the root.
+     */
+    public static Optional<ClassLoaderResourcePath> tryParse(final String path) {
+        Objects.requireNonNull(path, "path");
+
+        ClassLoaderResourcePath classLoaderResourcePath = null;
+
+        if (path.length() > 0 && SEPARATOR.character() == path.charAt(0)) {
+            if (SEPARATOR_STRING.equals(path) || isNormalized(path)) {
+                classLoaderResourcePath = parse(path);
+            } else {
+                classLoaderResourcePath = INTERNED.get(path);
+                if (null == classLoaderResourcePath) {
+                    classLoaderResourcePath = tryParseNonNormalized(path);
+                    if (null != classLoaderResourcePath) {
+                        INTERNED.put(classLoaderResourcePath);
+                    }
+                }
+            }
+        }
+
+        return Optional.ofNullable(classLoaderResourcePath);
+    }
+
+    /**
+     * Resolves current and parent components without throwing, returning null where {@link #parse(String)} would fail.
+     * Trailing separators are ignored like {@link #parse(String)}.
+     */
+    private static ClassLoaderResourcePath tryParseNonNormalized(final String path) {
+        final char separator = SEPARATOR.character();
+
+        int end = path.length();
+        while (end > 1 && separator == path.charAt(end - 1)) {
+            end--;
+        }
+
+        ClassLoaderResourcePath result = ROOT;
+        int start = 1;
+
+        while (null != result && start < end) {
+            int next = path.indexOf(separator, start);
+            if (-1 == next || next > end) {
+                next = end;
+            }
+
+            final int componentLength = next - start;
+            final boolean dot = '.' == path.charAt(start);
+
+            if (0 == componentLength) {
+                result = null;
+            } else if (dot && 2 == componentLength && '.' == path.charAt(start + 1)) {
+                result = result.parent()
+                    .orElse(null);
+            } else if (false == (dot && 1 == componentLength)) {
+                result = result.append(
+                    ClassLoaderResourceName.with(
+                        path.substring(start, next)
+                    )
+                );
+            }
+
+            start = next + 1;
+        }
+
+        return result;
+    }
+
+    /**
+     * The number of slots in {@link #INTERNED}.
+     */
+    private final static int INTERNED_SLOTS = 4096;
+
+    /**
+     * Recently parsed paths, so parsing a hot path again returns the same instance without allocating.
+     */
+    private final static ClassLoaderResourcePathInterner INTERNED = ClassLoaderResourcePathInterner.with(INTERNED_SLOTS);
+
+    private static ClassLoaderResourcePath parseInterned(final String path) {
+        ClassLoaderResourcePath classLoaderResourcePath = INTERNED.get(path);
+        if (null == classLoaderResourcePath) {
+            classLoaderResourcePath = isNormalized(path) ?
+                parseNormalized(path) :
+                parseNonManifest(path);
+            INTERNED.put(classLoaderResourcePath);
+        }
+        return classLoaderResourcePath;
+    }
+
+    /**
+     * Parses a resource name such as the name given to {@link ClassLoader#getResourceAsStream(String)}, where the
+     * leading separator is optional.
+     */
+    static ClassLoaderResourcePath parseName(final CharSequence name) {
+        Objects.requireNonNull(name, "name");
+
+        final String string = name.toString();
+        return parse(
+            nameStart(string) > 0 ?
+                string :
+                SEPARATOR_STRING.concat(string)
+        );
+    }
+
+    /**
+     * Returns the index of the first character after the optional leading separator of a resource name.
+     */
+    static int nameStart(final CharSequence name) {
+        return name.length() > 0 && SEPARATOR.character() == name.charAt(0) ?
+            1 :
+            0;
+    }
+
+    /**
+     * Returns true if the characters of the name from start are the {@link #MANIFEST} ignoring case.
+     */
+    static boolean isManifest(final CharSequence name,
+                              final int start) {
+        final int length = MANIFEST_STRING.length() - 1;
+
+        boolean manifest = name.length() - start == length;
+        if (manifest) {
+            for (int i = 0; i < length; i++) {
+                final char c = name.charAt(start + i);
+                final char m = MANIFEST_STRING.charAt(1 + i);
+                if (c != m && Character.toUpperCase(c) != m) {
+                    manifest = false;
+                    break;
+                }
+            }
+        }
+        return manifest;
+    }
+
+    private static boolean isNormalized(final String path) {
+        return isNormalized(
+            path,
+            1
+        );
+    }
+
+    /**
+     * Returns true if the characters of the name from start are not empty, have no empty, current or parent components
+     * and do not end with a separator.
+     */
+    static boolean isNormalized(final CharSequence name,
+                                final int start) {
+        final int length = name.length();
+        final char separator = SEPARATOR.character();
+
+        boolean normalized = true;
+        int componentStart = start;
+        int componentLength = 0;
+
+        for (int i = start; i <= length; i++) {
+            if (i == length || separator == name.charAt(i)) {
+                if (0 == componentLength ||
+                    '.' == name.charAt(componentStart) && (1 == componentLength || 2 == componentLength && '.' == name.charAt(componentStart + 1))) {
+                    normalized = false;
+                    break;
+                }
+                componentStart = i + 1;
+                componentLength = 0;
+            } else {
+                componentLength++;
+            }
+        }
+
+        return normalized;
+    }
+
+    /**
+     * Parses a path without empty, current or parent components, sharing the interned parent when available.
+     */
+    private static ClassLoaderResourcePath parseNormalized(final String path) {
+        final int last = path.lastIndexOf(SEPARATOR.character());
+
+        return new ClassLoaderResourcePath(
+            path,
+            ClassLoaderResourceName.with(
+                path.substring(last + 1)
+            ),
+            Optional.of(
+                0 == last ?
+                    ROOT :
+                    parse(
+                        path.substring(0, last)
+                    )
+            )
+        );
+    }
+
     private static ClassLoaderResourcePath parseNonManifest(final String path) {
         boolean dontWrap = false;
 
@@ -150,6 +343,31 @@ final public class ClassLoaderResourcePath
         this.path = path;
         this.name = name;
         this.parent = parent;
+
+        final boolean manifest = path.equalsIgnoreCase(MANIFEST_STRING);
+        this.manifest = manifest;
+        this.hashCode = manifest ?
+            MANIFEST_STRING.hashCode() :
+            path.hashCode();
+        this.depth = depth(path);
+    }
+
+    /**
+     * Counts the separators in the path, with the root having a depth of 0.
+     */
+    private static int depth(final String path) {
+        final int length = path.length();
+        final char separator = SEPARATOR.character();
+
+        int depth = 0;
+        if (length > 1) {
+            for (int i = 0; i < length; i++) {
+                if (separator == path.charAt(i)) {
+                    depth++;
+                }
+            }
+        }
+        return depth;
     }
 
     // value............................................................................................................
@@ -213,6 +431,26 @@ final public class ClassLoaderResourcePath
         return this.name;
     }
 
+    /**
+     * Tests if this is the direct parent of the given {@link ClassLoaderResourcePath}, checking the depth before the
+     * parent is compared.
+     */
+    boolean isParentOf(final ClassLoaderResourcePath child) {
+        return this.depth + 1 == child.depth &&
+            this.equals(
+                child.parent.orElse(null)
+            );
+    }
+
+    /**
+     * The number of components, which is 0 for the {@link #ROOT}.
+     */
+    int depth() {
+        return this.depth;
+    }
+
+    private final int depth;
+
     /**
      * {@link PathSeparator} getter.
      */
@@ -231,24 +469,45 @@ final public class ClassLoaderResourcePath
 
     // Comparable.......................................................................................................
 
+    /**
+     * Paths are compared case-sensitively, except for the manifest which is compared as {@link #MANIFEST} in any case,
+     * so ordering is consistent with {@link #equals(Object)}.
+     */
     @Override
     public int compareTo(final ClassLoaderResourcePath other) {
         Objects.requireNonNull(other, "other");
 
-        return ClassLoaderResourceName.CASE_SENSITIVITY.comparator()
-            .compare(
-                this.path,
-                other.path
-            );
+        return this.manifest && other.manifest ?
+            0 :
+            this.comparable()
+                .compareTo(
+                    other.comparable()
+                );
+    }
+
+    private String comparable() {
+        return this.manifest ?
+            MANIFEST_STRING :
+            this.path;
     }
 
     // Object...........................................................................................................
 
+    /**
+     * The hash code is computed when the path is created, with every case of the manifest sharing the same value.
+     */
     @Override
     public int hashCode() {
-        return this.path.hashCode();
+        return this.hashCode;
     }
 
+    private final int hashCode;
+
+    /**
+     * True when this path is the {@link #MANIFEST} in any case.
+     */
+    private final boolean manifest;
+
     @Override
     public boolean equals(final Object other) {
         return (this == other) ||
@@ -256,9 +515,10 @@ final public class ClassLoaderResourcePath
     }
 
     private boolean equals0(final ClassLoaderResourcePath other) {
-        return this.path.equalsIgnoreCase(MANIFEST_STRING) ?
-            this.path.equalsIgnoreCase(other.path) :
-            ClassLoaderResourceName.CASE_SENSITIVITY.equals(this.path, other.path);
+        return this.hashCode == other.hashCode &&
+            this.manifest == other.manifest &&
+            this.depth == other.depth &&
+            (this.manifest || this.path.equals(other.path));
     }
 
     @Override
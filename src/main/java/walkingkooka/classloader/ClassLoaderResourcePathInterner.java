@@ -0,0 +1,87 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A concurrent, bounded table of weakly held {@link ClassLoaderResourcePath} keyed by their {@link String} value.
+ * Each value maps to a single slot, a newer path replaces whatever was held by its slot, and a path that is no longer
+ * referenced elsewhere may be garbage collected. A lookup that hits allocates nothing.
+ */
+final class ClassLoaderResourcePathInterner {
+
+    static ClassLoaderResourcePathInterner with(final int slots) {
+        if (slots <= 0 || Integer.bitCount(slots) != 1) {
+            throw new IllegalArgumentException("Invalid slots " + slots + " must be a power of two");
+        }
+        return new ClassLoaderResourcePathInterner(slots);
+    }
+
+    private ClassLoaderResourcePathInterner(final int slots) {
+        this.table = new AtomicReferenceArray<>(slots);
+        this.mask = slots - 1;
+    }
+
+    /**
+     * Returns the interned {@link ClassLoaderResourcePath} with exactly the given value or null.
+     */
+    ClassLoaderResourcePath get(final String path) {
+        final WeakReference<ClassLoaderResourcePath> reference = this.table.get(
+            this.slot(path)
+        );
+
+        ClassLoaderResourcePath interned = null;
+        if (null != reference) {
+            interned = reference.get();
+            if (null != interned && false == interned.value().equals(path)) {
+                interned = null;
+            }
+        }
+        return interned;
+    }
+
+    /**
+     * Interns the given {@link ClassLoaderResourcePath} replacing any other in the same slot.
+     */
+    void put(final ClassLoaderResourcePath path) {
+        final String value = path.value();
+
+        this.table.set(
+            this.slot(value),
+            new WeakReference<>(path)
+        );
+    }
+
+    private int slot(final String path) {
+        final int hash = path.hashCode();
+        return (hash ^ (hash >>> 16)) & this.mask;
+    }
+
+    private final AtomicReferenceArray<WeakReference<ClassLoaderResourcePath>> table;
+
+    private final int mask;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.table.length() + " slots";
+    }
+}
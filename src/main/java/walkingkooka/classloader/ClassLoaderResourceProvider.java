@@ -1,8 +1,18 @@
 package walkingkooka.classloader;
 
+import walkingkooka.Binary;
+import walkingkooka.collect.map.Maps;
 import walkingkooka.reflect.ClassName;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
 
 /**
  * A provider that tries to locate any given {@link ClassName}. At runtime there will potentially be several of these
@@ -14,4 +24,134 @@ public interface ClassLoaderResourceProvider {
      * Returns the class for the given {@link ClassName}.
      */
     Optional<ClassLoaderResource> load(final ClassLoaderResourcePath path);
+
+    /**
+     * Loads all the given {@link ClassLoaderResourcePath paths} returning the resources that exist, missing paths are
+     * absent from the returned {@link Map}. The default loads each path in turn, providers reading from an archive
+     * should override this to read the entries in the order they appear in the archive.
+     */
+    default Map<ClassLoaderResourcePath, ClassLoaderResource> loadAll(final Collection<ClassLoaderResourcePath> paths) {
+        Objects.requireNonNull(paths, "paths");
+
+        final Map<ClassLoaderResourcePath, ClassLoaderResource> pathToResource = Maps.sorted();
+
+        for (final ClassLoaderResourcePath path : paths) {
+            this.load(path)
+                .ifPresent(r -> pathToResource.put(path, r));
+        }
+
+        return pathToResource;
+    }
+
+    /**
+     * Returns the resource for the given name, such as the name given to {@link ClassLoader#getResource(String)}, where
+     * the leading slash is optional. The default parses the name into a {@link ClassLoaderResourcePath}, providers
+     * with an index should override this to probe it with the characters of the name directly.
+     */
+    default Optional<ClassLoaderResource> loadName(final CharSequence name) {
+        return this.load(
+            ClassLoaderResourcePath.parseName(name)
+        );
+    }
+
+    /**
+     * Called by a {@link ClassLoader} once the class file at the given {@link ClassLoaderResourcePath} has been defined,
+     * so a provider holding its bytes on the heap may release them. The default does nothing.
+     */
+    default void release(final ClassLoaderResourcePath path) {
+        Objects.requireNonNull(path, "path");
+    }
+
+    /**
+     * Returns an {@link InputStream} for the given name, where the leading slash is optional, see {@link #loadName(CharSequence)}.
+     */
+    default Optional<InputStream> inputStreamName(final CharSequence name) {
+        return this.inputStream(
+            ClassLoaderResourcePath.parseName(name)
+        );
+    }
+
+    /**
+     * Returns an {@link InputStream} for the given {@link ClassLoaderResourcePath}. Providers that read from a file or
+     * archive should override this so large resources are streamed without being fully read into memory.
+     * The caller must close the returned {@link InputStream}.
+     */
+    default Optional<InputStream> inputStream(final ClassLoaderResourcePath path) {
+        return this.load(path)
+            .map(r -> r.value().inputStream());
+    }
+
+    /**
+     * Returns {@link ClassLoaderResourceMetadata} for the given {@link ClassLoaderResourcePath} or empty if the resource
+     * does not exist. The default loads the resource to find its size, providers that can answer from a zip central
+     * directory or file attributes should override this so the content is not read.
+     */
+    default Optional<ClassLoaderResourceMetadata> metadata(final ClassLoaderResourcePath path) {
+        return this.load(path)
+            .map(r -> ClassLoaderResourceMetadata.with(
+                    r.value()
+                        .size(),
+                    Optional.empty(), // compressedSize
+                    Optional.empty(), // lastModified
+                    this
+                )
+            );
+    }
+
+    /**
+     * Reads up to length bytes of the resource for the given {@link ClassLoaderResourcePath} starting at the offset,
+     * which allows a header or HTTP range to be read without loading the whole resource. Fewer bytes are returned when
+     * the range extends past the end of the resource, and empty if the resource does not exist.
+     */
+    default Optional<Binary> range(final ClassLoaderResourcePath path,
+                                   final long offset,
+                                   final int length) {
+        ClassLoaderResourceRanges.check(
+            offset,
+            length
+        );
+
+        final Optional<InputStream> inputStream = this.inputStream(path);
+        if (inputStream.isPresent()) {
+            try (final InputStream in = inputStream.get()) {
+                return Optional.of(
+                    Binary.with(
+                        ClassLoaderResourceRanges.read(
+                            in,
+                            offset,
+                            length
+                        )
+                    )
+                );
+            } catch (final IOException cause) {
+                throw new ClassFormatError("Error reading " + path + ", " + cause.getMessage());
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Writes the resource for the given {@link ClassLoaderResourcePath} to the {@link WritableByteChannel} returning the
+     * number of bytes written, or empty if the resource does not exist. Providers that read from a file or archive
+     * should override this to use {@link java.nio.channels.FileChannel#transferTo(long, long, WritableByteChannel)}
+     * where possible, the default writes the loaded bytes with a single buffer.
+     */
+    default OptionalLong transferTo(final ClassLoaderResourcePath path,
+                                    final WritableByteChannel channel) throws IOException {
+        Objects.requireNonNull(channel, "channel");
+
+        final Optional<ClassLoaderResource> resource = this.load(path);
+        return resource.isPresent() ?
+            OptionalLong.of(
+                WritableByteChannels.write(
+                    ByteBuffer.wrap(
+                        resource.get()
+                            .value()
+                            .value()
+                    ),
+                    channel
+                )
+            ) :
+            OptionalLong.empty();
+    }
 }
@@ -28,8 +28,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.channels.WritableByteChannel;
 import java.util.Enumeration;
 import java.util.Objects;
+import java.util.OptionalLong;
 import java.util.Set;
 
 /**
@@ -73,8 +75,11 @@ final class ClassLoaderResourceProviderClassLoader extends ClassLoader {
     }
 
     /**
-     * Loads and defines the identified class file. This method first attempts to load the class using the parent {@link ClassLoader} and if that fails
-     * tries using the {@link ClassLoaderResourceProvider}.
+     * Loads and defines the identified class file. The parent {@link ClassLoader} is asked first when it has the class
+     * file as a resource, otherwise the {@link ClassLoaderResourceProvider} is asked first, so a class from the provider
+     * is loaded without the parent throwing a {@link ClassNotFoundException}. A stackless {@link ClassNotFoundException}
+     * is thrown when neither has the class. Nothing is remembered about missing classes, so a class added to the
+     * provider or parent later is found.
      */
     @Override
     protected synchronized Class<?> loadClass(final String name,
@@ -83,15 +88,12 @@ final class ClassLoaderResourceProviderClassLoader extends ClassLoader {
 
         Class<?> klass = this.findLoadedClass(name);
         if (null == klass) {
-            try {
-                klass = super.loadClass(name, resolve);
-            } catch (final ClassNotFoundException e) {
-                if (null == klass) {
-                    klass = this.loadClassUsingClassLoaderResourceProvider(
-                        name,
-                        resolve
-                    );
-                }
+            klass = this.loadClassOrNull(
+                name,
+                resolve
+            );
+            if (null == klass) {
+                throw ClassLoaderResourceProviderClassLoaderClassNotFoundException.with(name);
             }
         }
 
@@ -99,29 +101,124 @@ final class ClassLoaderResourceProviderClassLoader extends ClassLoader {
     }
 
     /**
-     * Attempts to load and then define a {@link Class} using the {@link ClassLoaderResourceProvider} to retrieve the bytes.
-     * If the class name is invalid the {@link IllegalArgumentException} thrown by {@link ClassName} is wrapped inside a {@link ClassNotFoundException}.
+     * Tries the parent if it has the class file and then the {@link ClassLoaderResourceProvider}. If the parent does
+     * not have the class file it is still asked last, because it may define classes without class files.
+     */
+    private Class<?> loadClassOrNull(final String name,
+                                     final boolean resolve) throws ClassNotFoundException {
+        final String classFile = classFileOrNull(name);
+        final boolean parentHasClassFile = null == classFile ||
+            null != this.getParent()
+                .getResource(classFile);
+
+        Class<?> klass = null;
+        if (parentHasClassFile) {
+            klass = this.loadClassUsingParentOrNull(
+                name,
+                resolve
+            );
+        }
+        if (null == klass && null != classFile) {
+            klass = this.loadClassUsingClassLoaderResourceProvider(
+                name,
+                classFile,
+                resolve
+            );
+        }
+        if (null == klass && false == parentHasClassFile) {
+            klass = this.loadClassUsingParentOrNull(
+                name,
+                resolve
+            );
+        }
+
+        return klass;
+    }
+
+    private Class<?> loadClassUsingParentOrNull(final String name,
+                                                final boolean resolve) {
+        Class<?> klass;
+        try {
+            klass = super.loadClass(name, resolve);
+        } catch (final ClassNotFoundException ignore) {
+            klass = null;
+        }
+        return klass;
+    }
+
+    /**
+     * Returns the class file resource name for the given binary class name, or null if the name is empty, has an empty component or contains a
+     * separator.
+     */
+    static String classFileOrNull(final String name) {
+        final int length = name.length();
+        final char[] chars = new char[length + CLASS_FILE_SUFFIX.length()];
+
+        boolean valid = length > 0;
+        char previous = '.';
+
+        for (int i = 0; valid && i < length; i++) {
+            final char c = name.charAt(i);
+            if ('.' == c) {
+                valid = '.' != previous;
+                chars[i] = ROOT;
+            } else {
+                valid = ROOT != c;
+                chars[i] = c;
+            }
+            previous = c;
+        }
+
+        final String classFile;
+        if (valid && '.' != previous) {
+            CLASS_FILE_SUFFIX.getChars(
+                0,
+                CLASS_FILE_SUFFIX.length(),
+                chars,
+                length
+            );
+            classFile = new String(chars);
+        } else {
+            classFile = null;
+        }
+        return classFile;
+    }
+
+    private final static String CLASS_FILE_SUFFIX = ".class";
+
+    /**
+     * Attempts to load and then define a {@link Class} using the {@link ClassLoaderResourceProvider} to retrieve the bytes, returning null
+     * if it is not found. Once defined the {@link ClassLoaderResourceProvider} is told it may release the class file.
      */
     private Class<?> loadClassUsingClassLoaderResourceProvider(final String name,
+                                                               final String classFile,
                                                                final boolean resolve) throws ClassNotFoundException {
-        final ClassName className = ClassName.with(name);
+        Class<?> klass = null;
 
-        try (final InputStream resource = this.getResourceAsStream(className.filename())) {
-            if (null == resource) {
-                throw new ClassNotFoundException(name);
+        try (final InputStream resource = this.inputStreamOrNull(classFile)) {
+            if (null != resource) {
+                klass = this.definePackagesClassAndMaybeResolve(
+                    resource.readAllBytes(),
+                    name,
+                    resolve,
+                    ClassName.with(name)
+                );
             }
-            return this.definePackagesClassAndMaybeResolve(
-                resource.readAllBytes(),
-                name,
-                resolve,
-                className
-            );
         } catch (final IOException cause) {
             throw new ClassNotFoundException(
                 cause.getMessage(),
                 cause
             );
         }
+
+        if (null != klass) {
+            final ClassLoaderResourcePath path = pathOrNull(classFile);
+            if (null != path) {
+                this.provider.release(path);
+            }
+        }
+
+        return klass;
     }
 
     /**
@@ -167,13 +264,16 @@ final class ClassLoaderResourceProviderClassLoader extends ClassLoader {
     }
 
     /**
-     * Attempts to locate the resource using the given {@link ClassLoader} and then asks the {@link ClassLoaderResourceProvider}
+     * Attempts to locate the resource using the parent {@link ClassLoader} and then asks the {@link ClassLoaderResourceProvider}
+     * for a stream. The parent is asked directly, rather than through {@link #getResource(String)}, so the
+     * {@link ClassLoaderResourceProvider} is only asked once.
      */
     @Override
     public InputStream getResourceAsStream(final String name) {
         Objects.requireNonNull(name, "name");
 
-        InputStream resource = super.getResourceAsStream(name);
+        InputStream resource = this.getParent()
+            .getResourceAsStream(name);
         if (null == resource) {
             resource = this.inputStreamOrNull(name);
         }
@@ -186,11 +286,8 @@ final class ClassLoaderResourceProviderClassLoader extends ClassLoader {
     @Override
     public URL getResource(final String name) {
         URL url = super.getResource(name);
-        if (null == url) {
-            final InputStream inputStream = this.inputStreamOrNull(name);
-            if (null != inputStream) {
-                url = this.createUrl(name, inputStream);
-            }
+        if (null == url && this.exists(name)) {
+            url = this.createUrl(name);
         }
         return url;
     }
@@ -204,15 +301,14 @@ final class ClassLoaderResourceProviderClassLoader extends ClassLoader {
 
         Enumeration<URL> resources = super.getResources(name);
 
-        // chain if ClassLoaderResourceProvider returns an InputStream.
-        final InputStream input = this.inputStreamOrNull(name);
-        if (null != input) {
+        // chain if ClassLoaderResourceProvider has the resource.
+        if (this.exists(name)) {
             resources = Enumerations.chain(
                 Lists.of(
                     resources,
                     Enumerations.iterator(
                         Iterators.one(
-                            this.createUrl(name, input)
+                            this.createUrl(name)
                         )
                     )
                 )
@@ -222,9 +318,20 @@ final class ClassLoaderResourceProviderClassLoader extends ClassLoader {
     }
 
     /**
-     * Creates a {@link URL} with {@link ClassLoaderResourceProviderClassLoaderUrlStreamHandler} which also holds the {@link InputStream}.
+     * Tests if the {@link ClassLoaderResourceProvider} has the named resource using its metadata, so no stream is opened.
+     */
+    private boolean exists(final String name) {
+        final ClassLoaderResourcePath path = pathOrNull(name);
+        return null != path &&
+            this.provider.metadata(path)
+                .isPresent();
+    }
+
+    /**
+     * Creates a {@link URL} with {@link ClassLoaderResourceProviderClassLoaderUrlStreamHandler}, the resource is only
+     * opened when {@link URL#openStream()} is called.
      */
-    private URL createUrl(final String name, final InputStream input) {
+    private URL createUrl(final String name) {
         try {
             return new URL(
                 ClassLoaderResourceProviderClassLoader.PROTOCOL,
@@ -233,7 +340,6 @@ final class ClassLoaderResourceProviderClassLoader extends ClassLoader {
                 name,
                 ClassLoaderResourceProviderClassLoaderUrlStreamHandler.with(
                     name,
-                    input,
                     this
                 )
             );
@@ -244,29 +350,72 @@ final class ClassLoaderResourceProviderClassLoader extends ClassLoader {
 
     /**
      * Attempts to resolve the given name to an {@link InputStream}. Null will be returned if it is unknown.
+     * Normalized names are given directly to the {@link ClassLoaderResourceProvider} so indexed providers can find them
+     * without a {@link ClassLoaderResourcePath} being parsed.
      */
     InputStream inputStreamOrNull(final String name) {
-        InputStream resource = null;
-
-        if (name.length() > 0) {
-            ClassLoaderResourcePath path = null;
-            try {
-                path = ClassLoaderResourcePath.parse(
-                    ClassLoaderResourceProviderClassLoader.ROOT != name.charAt(0) ?
-                        ClassLoaderResourcePath.SEPARATOR.string()
-                            .concat(name)
-                        : name
+        final InputStream inputStream;
+
+        if (ClassLoaderResourcePath.isNormalized(name, ClassLoaderResourcePath.nameStart(name))) {
+            inputStream = this.provider.inputStreamName(name)
+                .orElse(null);
+        } else {
+            final ClassLoaderResourcePath path = pathOrNull(name);
+            inputStream = null != path ?
+                this.provider.inputStream(path)
+                    .orElse(null) :
+                null;
+        }
+
+        return inputStream;
+    }
+
+    /**
+     * Writes the named resource to the given {@link WritableByteChannel} without creating a {@link URL}. The parent
+     * {@link ClassLoader} is consulted first like {@link #getResourceAsStream(String)}, and then the
+     * {@link ClassLoaderResourceProvider} which may transfer the bytes directly from a file.
+     */
+    OptionalLong transferTo(final String name,
+                            final WritableByteChannel channel) throws IOException {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(channel, "channel");
+
+        final OptionalLong count;
+
+        try (final InputStream parent = this.getParent().getResourceAsStream(name)) {
+            if (null != parent) {
+                count = OptionalLong.of(
+                    WritableByteChannels.copy(
+                        parent,
+                        channel
+                    )
                 );
-                resource = this.provider.load(path)
-                    .map(r -> r.value().inputStream())
-                    .orElse(null);
-            } catch (final IllegalArgumentException cause) {
-                if (null != path) {
-                    throw cause;
-                }
+            } else {
+                final ClassLoaderResourcePath path = pathOrNull(name);
+                count = null != path ?
+                    this.provider.transferTo(
+                        path,
+                        channel
+                    ) :
+                    OptionalLong.empty();
             }
         }
-        return resource;
+
+        return count;
+    }
+
+    /**
+     * Parses the given resource name adding a leading slash if necessary, returning null for an empty or invalid name.
+     */
+    private static ClassLoaderResourcePath pathOrNull(final String name) {
+        return name.length() > 0 ?
+            ClassLoaderResourcePath.tryParse(
+                ClassLoaderResourceProviderClassLoader.ROOT != name.charAt(0) ?
+                    ClassLoaderResourcePath.SEPARATOR.string()
+                        .concat(name) :
+                    name
+            ).orElse(null) :
+            null;
     }
 
     private final static char ROOT = ClassLoaderResourcePath.SEPARATOR.character();
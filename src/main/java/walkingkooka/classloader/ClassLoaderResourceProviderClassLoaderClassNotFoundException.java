@@ -0,0 +1,44 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+/**
+ * A {@link ClassNotFoundException} without a stack trace, thrown by {@link ClassLoaderResourceProviderClassLoader}
+ * when neither the parent nor the {@link ClassLoaderResourceProvider} has a class, so probing for optional classes does
+ * not fill in a stack trace each time.
+ */
+final class ClassLoaderResourceProviderClassLoaderClassNotFoundException extends ClassNotFoundException {
+
+    private final static long serialVersionUID = 1L;
+
+    static ClassLoaderResourceProviderClassLoaderClassNotFoundException with(final String name) {
+        return new ClassLoaderResourceProviderClassLoaderClassNotFoundException(name);
+    }
+
+    private ClassLoaderResourceProviderClassLoaderClassNotFoundException(final String name) {
+        super(name);
+    }
+
+    /**
+     * No stack trace is captured.
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -17,6 +17,8 @@
 
 package walkingkooka.classloader;
 
+import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.net.URLConnection;
@@ -30,17 +32,20 @@ final class ClassLoaderResourceProviderClassLoaderUrlConnection extends URLConne
      * Factory that is called by {@link ClassLoaderResourceProviderClassLoaderUrlStreamHandler}
      */
     static ClassLoaderResourceProviderClassLoaderUrlConnection with(final URL url,
-                                                                    final InputStream input) {
-        return new ClassLoaderResourceProviderClassLoaderUrlConnection(url, input);
+                                                                    final String name,
+                                                                    final ClassLoaderResourceProviderClassLoader loader) {
+        return new ClassLoaderResourceProviderClassLoaderUrlConnection(url, name, loader);
     }
 
     /**
      * Private constructor use factory
      */
     private ClassLoaderResourceProviderClassLoaderUrlConnection(final URL url,
-                                                                final InputStream input) {
+                                                                final String name,
+                                                                final ClassLoaderResourceProviderClassLoader loader) {
         super(url);
-        this.input = input;
+        this.name = name;
+        this.loader = loader;
     }
 
     @Override
@@ -48,15 +53,21 @@ final class ClassLoaderResourceProviderClassLoaderUrlConnection extends URLConne
         // nop
     }
 
+    /**
+     * Opens the resource, failing if it has since disappeared. The caller must close the returned {@link InputStream}.
+     */
     @Override
-    public InputStream getInputStream() {
-        return this.input;
+    public InputStream getInputStream() throws IOException {
+        final InputStream input = this.loader.inputStreamOrNull(this.name);
+        if (null == input) {
+            throw new FileNotFoundException(this.url.toString());
+        }
+        return input;
     }
 
-    /**
-     * The returned {@link InputStream}.
-     */
-    private final InputStream input;
+    private final String name;
+
+    private final ClassLoaderResourceProviderClassLoader loader;
 
     /**
      * Returns {@link URL#toString()}
@@ -17,49 +17,47 @@
 
 package walkingkooka.classloader;
 
-import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLStreamHandler;
 
 /**
- * A {@link URLStreamHandler} that expected a single {@link URL} and returns a {@link InputStream}.
+ * A {@link URLStreamHandler} that expected a single {@link URL} and returns a {@link URLConnection} which opens the
+ * resource when its {@link InputStream} is requested.
  */
 final class ClassLoaderResourceProviderClassLoaderUrlStreamHandler extends URLStreamHandler {
 
     /**
      * Factory called by {@link ClassLoaderResourceProviderClassLoader}
      */
-    static ClassLoaderResourceProviderClassLoaderUrlStreamHandler with(final String name, final InputStream input,
+    static ClassLoaderResourceProviderClassLoaderUrlStreamHandler with(final String name,
                                                                        final ClassLoaderResourceProviderClassLoader loader) {
-        return new ClassLoaderResourceProviderClassLoaderUrlStreamHandler(name, input, loader);
+        return new ClassLoaderResourceProviderClassLoaderUrlStreamHandler(name, loader);
     }
 
     /**
      * Private constructor use factory.
      */
-    private ClassLoaderResourceProviderClassLoaderUrlStreamHandler(final String name, final InputStream input,
+    private ClassLoaderResourceProviderClassLoaderUrlStreamHandler(final String name,
                                                                    final ClassLoaderResourceProviderClassLoader loader) {
         super();
 
         this.name = name;
-        this.input = input;
         this.loader = loader;
     }
 
     /**
-     * Returns the cached {@link InputStream} or retrieves it from the {@link ClassLoaderResourceProviderClassLoader} if this is the second time this has been
-     * called.
+     * Returns a {@link URLConnection} that asks the {@link ClassLoaderResourceProviderClassLoader} for the resource
+     * each time its {@link InputStream} is requested.
      */
     @Override
-    protected URLConnection openConnection(final URL url) throws IOException {
-        InputStream input = this.input;
-        this.input = null;
-        if (null == input) {
-            input = this.loader.inputStreamOrNull(this.name);
-        }
-        return ClassLoaderResourceProviderClassLoaderUrlConnection.with(url, input);
+    protected URLConnection openConnection(final URL url) {
+        return ClassLoaderResourceProviderClassLoaderUrlConnection.with(
+            url,
+            this.name,
+            this.loader
+        );
     }
 
     /**
@@ -76,11 +74,6 @@ final class ClassLoaderResourceProviderClassLoaderUrlStreamHandler extends URLSt
      */
     private final String name;
 
-    /**
-     * The original {@link InputStream} that is returned only once when opened.
-     */
-    private InputStream input;
-
     private final ClassLoaderResourceProviderClassLoader loader;
 
     @Override
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+/**
+ * The counters recorded by a {@link ClassLoaderResourceProviderMetrics}.
+ */
+public enum ClassLoaderResourceProviderMetric {
+
+    /**
+     * Bytes of entry content held on the heap while reading an archive.
+     */
+    HEAP_BYTES,
+
+    /**
+     * Entries whose content was written to a spill file rather than held on the heap.
+     */
+    SPILLED_ENTRIES,
+
+    /**
+     * Bytes of entry content written to spill files.
+     */
+    SPILLED_BYTES,
+
+    /**
+     * Archives that were rejected because a single entry exceeded the entry limit.
+     */
+    ENTRY_LIMIT_EXCEEDED,
+
+    /**
+     * Archives that were rejected because all entries together exceeded the archive limit.
+     */
+    ARCHIVE_LIMIT_EXCEEDED,
+
+    /**
+     * Loads answered by a caching provider without asking the wrapped provider, including cached misses.
+     */
+    CACHE_HITS,
+
+    /**
+     * Loads that a caching provider passed to the wrapped provider.
+     */
+    CACHE_MISSES,
+
+    /**
+     * Entries removed by a caching provider to stay within its byte limit.
+     */
+    CACHE_EVICTIONS,
+
+    /**
+     * Times a caching provider shrunk to its floor, or a directory provider emptied its caches, because the heap was
+     * nearly full.
+     */
+    MEMORY_PRESSURE_SHRINKS,
+
+    /**
+     * Loads answered from the local disk tier of a tiered cache without asking the wrapped provider.
+     */
+    DISK_CACHE_HITS,
+
+    /**
+     * Loads that the local disk tier of a tiered cache passed to the wrapped provider.
+     */
+    DISK_CACHE_MISSES,
+
+    /**
+     * Files of the local disk tier of a tiered cache that were ignored because their digest did not match.
+     */
+    DISK_CACHE_CORRUPTIONS,
+
+    /**
+     * Loads that waited for a load of the same path already in flight rather than asking the wrapped provider.
+     */
+    COALESCED_LOADS
+}
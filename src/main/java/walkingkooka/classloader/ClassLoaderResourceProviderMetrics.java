@@ -0,0 +1,82 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread safe set of counters, one for each {@link ClassLoaderResourceProviderMetric}, that may be passed to
+ * {@link ClassLoaderResourceProviders} factories and then read at any time.
+ */
+public final class ClassLoaderResourceProviderMetrics {
+
+    private final static ClassLoaderResourceProviderMetric[] METRICS = ClassLoaderResourceProviderMetric.values();
+
+    /**
+     * Creates a new {@link ClassLoaderResourceProviderMetrics} with all counters at zero.
+     */
+    public static ClassLoaderResourceProviderMetrics empty() {
+        return new ClassLoaderResourceProviderMetrics();
+    }
+
+    private ClassLoaderResourceProviderMetrics() {
+        super();
+    }
+
+    /**
+     * Returns the current value of the given counter.
+     */
+    public long get(final ClassLoaderResourceProviderMetric metric) {
+        return this.counters.get(metric.ordinal());
+    }
+
+    void increment(final ClassLoaderResourceProviderMetric metric) {
+        this.add(metric, 1);
+    }
+
+    void add(final ClassLoaderResourceProviderMetric metric,
+             final long delta) {
+        this.counters.addAndGet(metric.ordinal(), delta);
+    }
+
+    private final AtomicLongArray counters = new AtomicLongArray(METRICS.length);
+
+    // Object...........................................................................................................
+
+    /**
+     * Returns all non zero counters, eg <code>HEAP_BYTES=123, SPILLED_ENTRIES=1</code>
+     */
+    @Override
+    public String toString() {
+        final StringBuilder b = new StringBuilder();
+
+        for (final ClassLoaderResourceProviderMetric metric : METRICS) {
+            final long value = this.get(metric);
+            if (0 != value) {
+                if (b.length() > 0) {
+                    b.append(", ");
+                }
+                b.append(metric)
+                    .append('=')
+                    .append(value);
+            }
+        }
+
+        return b.toString();
+    }
+}
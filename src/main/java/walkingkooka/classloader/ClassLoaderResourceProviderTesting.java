@@ -17,8 +17,11 @@
 
 package walkingkooka.classloader;
 
+import walkingkooka.Binary;
 import walkingkooka.test.Testing;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 
 public interface ClassLoaderResourceProviderTesting extends Testing {
@@ -51,4 +54,86 @@ public interface ClassLoaderResourceProviderTesting extends Testing {
             () -> "load " + path
         );
     }
+
+    default void loadAllAndCheck(final ClassLoaderResourceProvider provider,
+                                 final Collection<ClassLoaderResourcePath> paths,
+                                 final Map<ClassLoaderResourcePath, ClassLoaderResource> expected) {
+        this.checkEquals(
+            expected,
+            provider.loadAll(paths),
+            () -> "loadAll " + paths
+        );
+    }
+
+    default void loadNameAndCheck(final ClassLoaderResourceProvider provider,
+                                  final CharSequence name) {
+        this.loadNameAndCheck(
+            provider,
+            name,
+            Optional.empty()
+        );
+    }
+
+    default void loadNameAndCheck(final ClassLoaderResourceProvider provider,
+                                  final CharSequence name,
+                                  final ClassLoaderResource expected) {
+        this.loadNameAndCheck(
+            provider,
+            name,
+            Optional.of(expected)
+        );
+    }
+
+    default void loadNameAndCheck(final ClassLoaderResourceProvider provider,
+                                  final CharSequence name,
+                                  final Optional<ClassLoaderResource> expected) {
+        this.checkEquals(
+            expected,
+            provider.loadName(name),
+            () -> "loadName " + name
+        );
+    }
+
+    default void rangeAndCheck(final ClassLoaderResourceProvider provider,
+                               final ClassLoaderResourcePath path,
+                               final long offset,
+                               final int length) {
+        this.rangeAndCheck(
+            provider,
+            path,
+            offset,
+            length,
+            Optional.empty()
+        );
+    }
+
+    default void rangeAndCheck(final ClassLoaderResourceProvider provider,
+                               final ClassLoaderResourcePath path,
+                               final long offset,
+                               final int length,
+                               final Binary expected) {
+        this.rangeAndCheck(
+            provider,
+            path,
+            offset,
+            length,
+            Optional.of(expected)
+        );
+    }
+
+    default void rangeAndCheck(final ClassLoaderResourceProvider provider,
+                               final ClassLoaderResourcePath path,
+                               final long offset,
+                               final int length,
+                               final Optional<Binary> expected) {
+        this.checkEquals(
+            expected,
+            provider.range(
+                path,
+                offset,
+                length
+            ),
+            () -> "range " + path + " " + offset + " " + length
+        );
+    }
 }
@@ -25,11 +25,21 @@ import walkingkooka.text.LineEnding;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URLClassLoader;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.JarInputStream;
@@ -37,6 +47,52 @@ import java.util.jar.Manifest;
 
 public final class ClassLoaderResourceProviders implements PublicStaticHelper {
 
+    /**
+     * Wraps the given {@link ClassLoaderResourceProvider} like {@link #caching(ClassLoaderResourceProvider, long, ClassLoaderResourceProviderMetrics)},
+     * discarding hits, misses and evictions.
+     */
+    public static ClassLoaderResourceProvider caching(final ClassLoaderResourceProvider provider,
+                                                      final long maxBytes) {
+        return caching(
+            provider,
+            maxBytes,
+            ClassLoaderResourceProviderMetrics.empty()
+        );
+    }
+
+    /**
+     * Wraps the given {@link ClassLoaderResourceProvider} caching resources and misses, evicting the least recently
+     * used when the cached bytes exceed maxBytes. Hits, misses and evictions are recorded in the given
+     * {@link ClassLoaderResourceProviderMetrics}. Once {@link #registerMemoryPressure()} is called the cache is emptied
+     * when a heap pool is nearly full after a garbage collection.
+     */
+    public static ClassLoaderResourceProvider caching(final ClassLoaderResourceProvider provider,
+                                                      final long maxBytes,
+                                                      final ClassLoaderResourceProviderMetrics metrics) {
+        return caching(
+            provider,
+            maxBytes,
+            0, // floorBytes
+            metrics
+        );
+    }
+
+    /**
+     * Wraps the given {@link ClassLoaderResourceProvider} like {@link #caching(ClassLoaderResourceProvider, long, ClassLoaderResourceProviderMetrics)},
+     * shrinking to floorBytes rather than emptying when a heap pool is nearly full after a garbage collection.
+     */
+    public static ClassLoaderResourceProvider caching(final ClassLoaderResourceProvider provider,
+                                                      final long maxBytes,
+                                                      final long floorBytes,
+                                                      final ClassLoaderResourceProviderMetrics metrics) {
+        return CachingClassLoaderResourceProvider.with(
+            provider,
+            maxBytes,
+            floorBytes,
+            metrics
+        );
+    }
+
     /**
      * {@see CascadingClassLoaderResourceProvider}
      */
@@ -44,6 +100,59 @@ public final class ClassLoaderResourceProviders implements PublicStaticHelper {
         return CascadingClassLoaderResourceProvider.with(providers);
     }
 
+    /**
+     * Wraps a {@link ClassLoaderResourceProvider} so concurrent loads of the same {@link ClassLoaderResourcePath} share
+     * a single load of the wrapped provider and its {@link ClassLoaderResource}, which avoids duplicate reads when
+     * many threads ask for the same classes as a plugin starts. Loads that waited are recorded in the given
+     * {@link ClassLoaderResourceProviderMetrics}.
+     */
+    public static ClassLoaderResourceProvider coalescing(final ClassLoaderResourceProvider provider,
+                                                         final ClassLoaderResourceProviderMetrics metrics) {
+        return CoalescingClassLoaderResourceProvider.with(
+            provider,
+            metrics
+        );
+    }
+
+    /**
+     * Reads a JAR file including a lib directory like {@link #jarFileWithLibs(JarInputStream, LineEnding)} while
+     * enforcing limits as bytes are streamed. An entry larger than the entry limit, or all entries of the archive and
+     * its nested archives together larger than the archive limit, fail with a {@link java.util.zip.ZipException}.
+     * Entries larger than the spill threshold are written to temporary files in the spill directory rather than held
+     * on the heap. Limits exceeded, heap and spilled bytes are recorded in the given {@link ClassLoaderResourceProviderMetrics}.
+     * Spill files are deleted if the read fails, otherwise when the returned provider is closed.
+     */
+    public static CloseableClassLoaderResourceProvider boundedJarFileWithLibs(final JarInputStream inputStream,
+                                                                              final LineEnding lineEnding,
+                                                                              final long maxArchiveBytes,
+                                                                              final long maxEntryBytes,
+                                                                              final long spillBytes,
+                                                                              final Path spillDirectory,
+                                                                              final ClassLoaderResourceProviderMetrics metrics) throws IOException {
+        Objects.requireNonNull(inputStream, "inputStream");
+        Objects.requireNonNull(lineEnding, "lineEnding");
+        if (maxArchiveBytes <= 0) {
+            throw new IllegalArgumentException("Invalid maxArchiveBytes " + maxArchiveBytes + " <= 0");
+        }
+        if (maxEntryBytes <= 0) {
+            throw new IllegalArgumentException("Invalid maxEntryBytes " + maxEntryBytes + " <= 0");
+        }
+        if (spillBytes < 0) {
+            throw new IllegalArgumentException("Invalid spillBytes " + spillBytes + " < 0");
+        }
+        Objects.requireNonNull(spillDirectory, "spillDirectory");
+        Objects.requireNonNull(metrics, "metrics");
+
+        return BoundedJarFileWithLibsReader.with(
+            lineEnding,
+            maxArchiveBytes,
+            maxEntryBytes,
+            spillBytes,
+            spillDirectory,
+            metrics
+        ).read(inputStream);
+    }
+
     /**
      * {@see ClassLoaderResourceProviderClassLoader}
      */
@@ -55,6 +164,43 @@ public final class ClassLoaderResourceProviders implements PublicStaticHelper {
         );
     }
 
+    /**
+     * {@see DirectoryClassLoaderResourceProvider}
+     */
+    public static ClassLoaderResourceProvider directory(final Path root,
+                                                        final LineEnding lineEnding) {
+        return DirectoryClassLoaderResourceProvider.with(
+            root,
+            lineEnding
+        );
+    }
+
+    /**
+     * Supports reading a JAR file including a lib directory like {@link #mappedJarFileWithLibs(Path, LineEnding)}, but
+     * each nested archive is extracted once into the cache directory, keyed by its digest, and then memory mapped.
+     * The cache directory may be shared by several processes and repeated deployments, and least recently used
+     * archives are deleted once the cache grows beyond the given maximum.
+     */
+    public static ClassLoaderResourceProvider extractedJarFileWithLibs(final Path file,
+                                                                       final LineEnding lineEnding,
+                                                                       final Path cacheDirectory,
+                                                                       final long maxCacheBytes) throws IOException {
+        Objects.requireNonNull(file, "file");
+        Objects.requireNonNull(lineEnding, "lineEnding");
+        Objects.requireNonNull(cacheDirectory, "cacheDirectory");
+
+        return ZipArchiveClassLoaderResourceProvider.withLibs(
+            ZipArchive.map(file),
+            lineEnding,
+            ContentAddressedZipArchiveLibOpener.with(
+                ContentAddressedFileStore.with(
+                    cacheDirectory,
+                    maxCacheBytes
+                )
+            )
+        );
+    }
+
     /**
      * {@see FakeClassLoaderResourceProvider}
      */
@@ -62,6 +208,49 @@ public final class ClassLoaderResourceProviders implements PublicStaticHelper {
         return new FakeClassLoaderResourceProvider();
     }
 
+    /**
+     * Serves files and listings below a root {@link Path} of any {@link java.nio.file.FileSystem}, such as the default
+     * file system, a zip file system opened over a JAR file or an in memory file system. Attributes and listings are
+     * cached for at most the given number of paths each.
+     */
+    public static ClassLoaderResourceProvider fileSystem(final Path root,
+                                                         final LineEnding lineEnding,
+                                                         final int maxCacheEntries) {
+        return DirectoryClassLoaderResourceProvider.with(
+            root,
+            lineEnding,
+            maxCacheEntries
+        );
+    }
+
+    /**
+     * Serves files and listings like {@link #fileSystem(Path, LineEnding, int)}, recording caches emptied because of
+     * memory pressure in the given {@link ClassLoaderResourceProviderMetrics}.
+     */
+    public static ClassLoaderResourceProvider fileSystem(final Path root,
+                                                         final LineEnding lineEnding,
+                                                         final int maxCacheEntries,
+                                                         final ClassLoaderResourceProviderMetrics metrics) {
+        return DirectoryClassLoaderResourceProvider.with(
+            root,
+            lineEnding,
+            maxCacheEntries,
+            metrics
+        );
+    }
+
+    /**
+     * {@see IndexedUrlClassLoaderClassLoaderResourceProvider}
+     * The returned provider should be closed to close the {@link URLClassLoader} it creates for non file URLs.
+     */
+    public static CloseableClassLoaderResourceProvider indexedUrlClassLoader(final URLClassLoader urlClassLoader,
+                                                                             final LineEnding lineEnding) throws IOException {
+        return IndexedUrlClassLoaderClassLoaderResourceProvider.with(
+            urlClassLoader,
+            lineEnding
+        );
+    }
+
     /**
      * {@see JarFileClassLoaderResourceProvider}
      */
@@ -77,13 +266,60 @@ public final class ClassLoaderResourceProviders implements PublicStaticHelper {
      * Supports reading a JAR file including support for searching a lib directory.
      * This is intended to support JAR file archive with required libraries in a single archive.
      * Note libs ordering is dependent on the order archives appear in the JAR file.
+     * Entries of a multi-release JAR file are resolved for the running feature version.
      */
     public static ClassLoaderResourceProvider jarFileWithLibs(final JarInputStream inputStream,
                                                               final LineEnding lineEnding) throws IOException {
         Objects.requireNonNull(inputStream, "inputStream");
         Objects.requireNonNull(lineEnding, "lineEnding");
 
-        final List<ClassLoaderResourceProvider> libs = Lists.array();
+        return jarFileWithLibs(
+            inputStream,
+            lineEnding,
+            null, // file
+            Lists.empty() // libs
+        );
+    }
+
+    /**
+     * Opts in to caches releasing entries when the heap is nearly full. A collection usage threshold is set on every heap
+     * memory pool that supports one and has none, and memory notifications are received. These are JVM wide settings,
+     * so this is never done implicitly. Calling this again does nothing.
+     */
+    public static void registerMemoryPressure() {
+        MemoryPressure.INSTANCE.register();
+    }
+
+    /**
+     * Reads a JAR file including a lib directory like {@link #jarFileWithLibs(JarInputStream, LineEnding)}, except the
+     * bytes of each class file are released once a {@link ClassLoader} has defined its class, rather than held for the
+     * life of the provider. A class file that is later asked for as a resource is read again from the JAR file.
+     */
+    public static ClassLoaderResourceProvider releasingJarFileWithLibs(final Path file,
+                                                                       final LineEnding lineEnding) throws IOException {
+        Objects.requireNonNull(file, "file");
+        Objects.requireNonNull(lineEnding, "lineEnding");
+
+        try (final InputStream fileInputStream = Files.newInputStream(file);
+             final JarInputStream inputStream = new JarInputStream(fileInputStream)) {
+            return jarFileWithLibs(
+                inputStream,
+                lineEnding,
+                file,
+                Lists.empty() // libs
+            );
+        }
+    }
+
+    /**
+     * When file is not null class files are {@link ClassLoaderResource#releasable(Binary, java.util.function.Supplier)}
+     * and read again from the file, through the given nested libs.
+     */
+    private static ClassLoaderResourceProvider jarFileWithLibs(final JarInputStream inputStream,
+                                                               final LineEnding lineEnding,
+                                                               final Path file,
+                                                               final List<String> libs) throws IOException {
+        final List<ClassLoaderResourceProvider> providers = Lists.array();
         final Map<ClassLoaderResourcePath, ClassLoaderResource> pathToResource = Maps.sorted();
 
         final Manifest manifest = inputStream.getManifest();
@@ -118,28 +354,50 @@ public final class ClassLoaderResourceProviders implements PublicStaticHelper {
             final byte[] bytes = bytesOutputStream.toByteArray();
 
             if (name.startsWith("libs/")) {
+                final List<String> nestedLibs = Lists.array();
+                nestedLibs.addAll(libs);
+                nestedLibs.add(name);
+
                 try (final JarInputStream libJarInputStream = new JarInputStream(new ByteArrayInputStream(bytes))) {
-                    libs.add(
+                    providers.add(
                         jarFileWithLibs(
                             libJarInputStream,
-                            lineEnding
+                            lineEnding,
+                            file,
+                            nestedLibs
                         )
                     );
                 }
             } else {
+                final Binary binary = Binary.with(bytes);
+
                 pathToResource.put(
                     ClassLoaderResourcePath.parse(
                         name.startsWith("/") ?
                             name :
                             "/" + name
                     ),
-                    ClassLoaderResource.with(
-                        Binary.with(bytes)
-                    )
+                    null != file && name.endsWith(".class") ?
+                        ClassLoaderResource.releasable(
+                            binary,
+                            () -> reread(
+                                file,
+                                libs,
+                                name
+                            )
+                        ) :
+                        ClassLoaderResource.with(binary)
                 );
             }
         }
 
+        if (MultiReleaseJar.isMultiRelease(manifest)) {
+            MultiReleaseJar.resolve(
+                pathToResource,
+                MultiReleaseJar.FEATURE
+            );
+        }
+
         final List<ClassLoaderResourceProvider> all = Lists.array();
         all.add(
             map(
@@ -147,11 +405,51 @@ public final class ClassLoaderResourceProviders implements PublicStaticHelper {
                 lineEnding
             )
         );
-        all.addAll(libs);
+        all.addAll(providers);
 
         return cascading(all);
     }
 
+    /**
+     * Reads the named entry again from the JAR file, opening each of the nested libs in turn. Only the central
+     * directory of the file and of each nested lib is read to locate the entry, rather than streaming the file.
+     */
+    private static Binary reread(final Path file,
+                                 final List<String> libs,
+                                 final String name) {
+        try {
+            ZipArchive archive = ZipArchive.map(file);
+            for (final String lib : libs) {
+                archive = archive.nested(
+                    entry(
+                        archive,
+                        lib
+                    )
+                );
+            }
+
+            return Binary.with(
+                archive.read(
+                    entry(
+                        archive,
+                        name
+                    )
+                )
+            );
+        } catch (final IOException cause) {
+            throw new ClassFormatError("Error reading " + name + " from " + file + ", " + cause.getMessage());
+        }
+    }
+
+    private static ZipArchiveEntry entry(final ZipArchive archive,
+                                         final String name) throws IOException {
+        final ZipArchiveEntry entry = archive.entry(name);
+        if (null == entry) {
+            throw new FileNotFoundException(name);
+        }
+        return entry;
+    }
+
     private static ClassLoaderResource manifest(final Manifest manifest) throws IOException {
         try (final ByteArrayOutputStream bytes = new ByteArrayOutputStream()) {
             manifest.write(bytes);
@@ -174,6 +472,114 @@ public final class ClassLoaderResourceProviders implements PublicStaticHelper {
         );
     }
 
+    /**
+     * Supports reading a JAR file including a lib directory similar to {@link #jarFileWithLibs(JarInputStream, LineEnding)},
+     * but the file is memory mapped and only its central directory is read up front. STORED nested archives are read
+     * directly from the mapped file, DEFLATED nested archives are inflated once, and individual entries are inflated
+     * only when they are loaded.
+     */
+    public static ClassLoaderResourceProvider mappedJarFileWithLibs(final Path file,
+                                                                    final LineEnding lineEnding) throws IOException {
+        Objects.requireNonNull(file, "file");
+        Objects.requireNonNull(lineEnding, "lineEnding");
+
+        return ZipArchiveClassLoaderResourceProvider.withLibs(
+            ZipArchive.map(file),
+            lineEnding
+        );
+    }
+
+    /**
+     * Eagerly loads a JAR file including a lib directory like {@link #jarFileWithLibs(JarInputStream, LineEnding)}, but
+     * the central directory is read sequentially from a memory mapped file and inflating entries along with nested
+     * archives happens in parallel using the given {@link ForkJoinPool}. The cascade order matches the archive order.
+     */
+    public static ClassLoaderResourceProvider parallelJarFileWithLibs(final Path file,
+                                                                      final LineEnding lineEnding,
+                                                                      final ForkJoinPool pool) throws IOException {
+        Objects.requireNonNull(file, "file");
+        Objects.requireNonNull(lineEnding, "lineEnding");
+        Objects.requireNonNull(pool, "pool");
+
+        final ZipArchive archive = ZipArchive.map(file);
+        try {
+            return pool.invoke(
+                ZipArchiveJarFileWithLibsTask.with(
+                    archive,
+                    lineEnding
+                )
+            );
+        } catch (final UncheckedIOException cause) {
+            throw cause.getCause();
+        }
+    }
+
+    /**
+     * Wraps a slow {@link ClassLoaderResourceProvider}, such as one reading from a network file system, with a heap
+     * cache of maxHeapBytes in front of a content addressed cache of maxDiskBytes in the given directory. The disk
+     * cache survives restarts, so a cold start reads local disk rather than the wrapped provider. The namespace must
+     * identify the origin and version of the resources, for example the archive path with its size and last modified
+     * time, so a redeployed archive or another provider sharing the directory never sees these resources. Hits, misses
+     * and evictions of both tiers are recorded in the given {@link ClassLoaderResourceProviderMetrics}.
+     */
+    public static ClassLoaderResourceProvider tieredCaching(final ClassLoaderResourceProvider provider,
+                                                            final String namespace,
+                                                            final long maxHeapBytes,
+                                                            final Path directory,
+                                                            final long maxDiskBytes,
+                                                            final ClassLoaderResourceProviderMetrics metrics) throws IOException {
+        return caching(
+            DiskCachingClassLoaderResourceProvider.with(
+                provider,
+                namespace,
+                ContentAddressedFileStore.with(
+                    directory,
+                    maxDiskBytes
+                ),
+                metrics
+            ),
+            maxHeapBytes,
+            metrics
+        );
+    }
+
+    /**
+     * Writes the named resource of the given {@link ClassLoader} to the {@link WritableByteChannel}, returning the
+     * number of bytes written or empty if the resource was not found. A {@link ClassLoader} created by
+     * {@link #classLoader(ClassLoader, ClassLoaderResourceProvider)} writes without creating a {@link java.net.URL},
+     * using {@link ClassLoaderResourceProvider#transferTo(ClassLoaderResourcePath, WritableByteChannel)}, other
+     * {@link ClassLoader classloaders} are read using {@link ClassLoader#getResourceAsStream(String)}.
+     */
+    public static OptionalLong transferTo(final ClassLoader classLoader,
+                                          final String name,
+                                          final WritableByteChannel channel) throws IOException {
+        Objects.requireNonNull(classLoader, "classLoader");
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(channel, "channel");
+
+        final OptionalLong count;
+
+        if (classLoader instanceof ClassLoaderResourceProviderClassLoader) {
+            count = ((ClassLoaderResourceProviderClassLoader) classLoader).transferTo(
+                name,
+                channel
+            );
+        } else {
+            try (final InputStream inputStream = classLoader.getResourceAsStream(name)) {
+                count = null != inputStream ?
+                    OptionalLong.of(
+                        WritableByteChannels.copy(
+                            inputStream,
+                            channel
+                        )
+                    ) :
+                    OptionalLong.empty();
+            }
+        }
+
+        return count;
+    }
+
     /**
      * {@see UrlClassLoaderClassLoaderResourceProvider}
      */
@@ -181,6 +587,22 @@ public final class ClassLoaderResourceProviders implements PublicStaticHelper {
         return UrlClassLoaderClassLoaderResourceProvider.with(urlClassLoader);
     }
 
+    /**
+     * Serves files below a root directory from an index that is updated incrementally as a {@link java.nio.file.WatchService}
+     * reports changes. After each batch of changes the generation is incremented and the listener receives the new
+     * generation and the changed paths, allowing the owner to replace only the affected {@link ClassLoader}.
+     * The returned provider must be closed to stop watching.
+     */
+    public static WatchingClassLoaderResourceProvider watchingDirectory(final Path root,
+                                                                        final LineEnding lineEnding,
+                                                                        final BiConsumer<Long, Set<ClassLoaderResourcePath>> listener) throws IOException {
+        return WatchServiceClassLoaderResourceProvider.with(
+            root,
+            lineEnding,
+            listener
+        );
+    }
+
     /**
      * Stop creation
      */
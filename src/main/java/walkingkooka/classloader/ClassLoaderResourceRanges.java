@@ -0,0 +1,131 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import walkingkooka.reflect.PublicStaticHelper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Helpers that read an offset and length range of a resource.
+ */
+final class ClassLoaderResourceRanges implements PublicStaticHelper {
+
+    /**
+     * Validates the offset and length of a range.
+     */
+    static void check(final long offset,
+                      final int length) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Invalid offset " + offset + " < 0");
+        }
+        if (length < 0) {
+            throw new IllegalArgumentException("Invalid length " + length + " < 0");
+        }
+    }
+
+    /**
+     * Reads the range from the given {@link InputStream} skipping the bytes before the offset. Fewer bytes are returned
+     * if the end is reached first. The {@link InputStream} is not closed.
+     */
+    static byte[] read(final InputStream inputStream,
+                       final long offset,
+                       final int length) throws IOException {
+        long skip = offset;
+        while (skip > 0) {
+            final long skipped = inputStream.skip(skip);
+            if (skipped <= 0) {
+                // skip may return 0 before the end, read one byte to find out
+                if (-1 == inputStream.read()) {
+                    return new byte[0];
+                }
+                skip--;
+            } else {
+                skip -= skipped;
+            }
+        }
+
+        return inputStream.readNBytes(length);
+    }
+
+    /**
+     * Reads the range from the given file positioning a {@link SeekableByteChannel} at the offset, so only the bytes
+     * within the range are read.
+     */
+    static byte[] read(final Path file,
+                       final long offset,
+                       final int length) throws IOException {
+        try (final SeekableByteChannel channel = Files.newByteChannel(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final byte[] bytes = new byte[(int) Math.max(
+                0,
+                Math.min(length, size - offset)
+            )];
+
+            channel.position(offset);
+
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    // file truncated since the size was taken
+                    break;
+                }
+            }
+
+            return buffer.hasRemaining() ?
+                Arrays.copyOf(bytes, buffer.position()) :
+                bytes;
+        }
+    }
+
+    /**
+     * Copies the range from the given {@link ByteBuffer}, without changing its position.
+     */
+    static byte[] read(final ByteBuffer buffer,
+                       final long offset,
+                       final int length) {
+        final int remaining = buffer.remaining();
+        final byte[] bytes;
+
+        if (offset >= remaining) {
+            bytes = new byte[0];
+        } else {
+            final int start = (int) offset;
+            bytes = new byte[Math.min(length, remaining - start)];
+            buffer.duplicate()
+                .position(buffer.position() + start)
+                .get(bytes);
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Stop creation
+     */
+    private ClassLoaderResourceRanges() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link ClassLoaderResourceProvider} where concurrent loads of the same {@link ClassLoaderResourcePath} share a
+ * single load of the wrapped provider. The first thread loads while the others wait for its result, which is not kept
+ * once the load completes, so a later load asks the wrapped provider again. Streams and metadata, which is how a
+ * {@link ClassLoader} reads classes and resources, are served from the shared load. A load of a path that the same
+ * thread is already loading, such as from a listener of the wrapped provider, asks the wrapped provider directly
+ * rather than waiting on itself. Transfers are not shared and always ask the wrapped provider.
+ */
+final class CoalescingClassLoaderResourceProvider implements ClassLoaderResourceProvider {
+
+    static CoalescingClassLoaderResourceProvider with(final ClassLoaderResourceProvider provider,
+                                                      final ClassLoaderResourceProviderMetrics metrics) {
+        return new CoalescingClassLoaderResourceProvider(
+            Objects.requireNonNull(provider, "provider"),
+            Objects.requireNonNull(metrics, "metrics")
+        );
+    }
+
+    private CoalescingClassLoaderResourceProvider(final ClassLoaderResourceProvider provider,
+                                                  final ClassLoaderResourceProviderMetrics metrics) {
+        this.provider = provider;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Optional<ClassLoaderResource> load(final ClassLoaderResourcePath path) {
+        Objects.requireNonNull(path, "path");
+
+        final InFlight future = new InFlight();
+        final InFlight inFlight = this.inFlight.putIfAbsent(
+            path,
+            future
+        );
+
+        final Optional<ClassLoaderResource> resource;
+        if (null != inFlight && Thread.currentThread() == inFlight.thread) {
+            // re-entrant load, waiting would never complete
+            resource = this.provider.load(path);
+        } else if (null != inFlight) {
+            this.metrics.increment(ClassLoaderResourceProviderMetric.COALESCED_LOADS);
+            resource = join(inFlight);
+        } else {
+            try {
+                resource = this.provider.load(path);
+                future.complete(resource);
+            } catch (final RuntimeException | Error cause) {
+                future.completeExceptionally(cause);
+                throw cause;
+            } finally {
+                this.inFlight.remove(
+                    path,
+                    future
+                );
+            }
+        }
+
+        return resource;
+    }
+
+    /**
+     * Waits for the load of another thread, rethrowing the same {@link RuntimeException} or {@link Error} if it failed.
+     */
+    private static Optional<ClassLoaderResource> join(final CompletableFuture<Optional<ClassLoaderResource>> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException cause) {
+            final Throwable thrown = cause.getCause();
+            if (thrown instanceof RuntimeException) {
+                throw (RuntimeException) thrown;
+            }
+            if (thrown instanceof Error) {
+                throw (Error) thrown;
+            }
+            throw cause;
+        }
+    }
+
+    /**
+     * Streams the bytes of the shared load.
+     */
+    @Override
+    public Optional<InputStream> inputStream(final ClassLoaderResourcePath path) {
+        return this.load(path)
+            .map(r -> r.value().inputStream());
+    }
+
+    /**
+     * Streams the bytes of the shared load, the wrapped provider is not asked directly even if it has an index.
+     */
+    @Override
+    public Optional<InputStream> inputStreamName(final CharSequence name) {
+        return this.inputStream(
+            ClassLoaderResourcePath.parseName(name)
+        );
+    }
+
+    /**
+     * Answers from the shared load.
+     */
+    @Override
+    public Optional<ClassLoaderResourceMetadata> metadata(final ClassLoaderResourcePath path) {
+        return ClassLoaderResourceProvider.super.metadata(path);
+    }
+
+    @Override
+    public OptionalLong transferTo(final ClassLoaderResourcePath path,
+                                   final WritableByteChannel channel) throws IOException {
+        return this.provider.transferTo(
+            path,
+            channel
+        );
+    }
+
+    /**
+     * The number of loads currently in flight.
+     */
+    int inFlight() {
+        return this.inFlight.size();
+    }
+
+    @Override
+    public void release(final ClassLoaderResourcePath path) {
+        this.provider.release(path);
+    }
+
+    private final ClassLoaderResourceProvider provider;
+
+    private final ClassLoaderResourceProviderMetrics metrics;
+
+    /**
+     * Loads that have started but not completed, removed by the loading thread when done.
+     */
+    private final ConcurrentMap<ClassLoaderResourcePath, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * A load that has started, remembering the loading thread so a re-entrant load can be detected.
+     */
+    private final static class InFlight extends CompletableFuture<Optional<ClassLoaderResource>> {
+
+        final Thread thread = Thread.currentThread();
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.provider.toString();
+    }
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import walkingkooka.collect.list.Lists;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A directory of files each named by the digest of their content, which may be shared by several processes.
+ * <ul>
+ * <li>Files are written to a temporary file in the same directory and then atomically renamed, so a reader never sees a partially written file.</li>
+ * <li>The last modified time of a file is updated each time it is used, eviction removes the least recently used files
+ * until the total size is within the maximum. A running estimate of the total is kept so the directory is only listed
+ * when the first file is written or the estimate exceeds the maximum.</li>
+ * <li>Temporary files left behind by writers that crashed are deleted by eviction once they are an hour old.</li>
+ * <li>Eviction holds an exclusive lock on a lock file so two processes never evict at the same time. A file that is
+ * deleted while another process has it open or mapped remains readable by that process.</li>
+ * </ul>
+ */
+final class ContentAddressedFileStore {
+
+    private final static String DIGEST_ALGORITHM = "SHA-256";
+
+    private final static String LOCK_FILE = ".lock";
+
+    private final static String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Temporary files older than this were left by a writer that crashed.
+     */
+    private final static long STALE_TEMP_MILLIS = 60 * 60 * 1000;
+
+    static ContentAddressedFileStore with(final Path directory,
+                                          final long maxBytes) throws IOException {
+        Objects.requireNonNull(directory, "directory");
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Invalid maxBytes " + maxBytes + " <= 0");
+        }
+
+        return new ContentAddressedFileStore(
+            Files.createDirectories(directory),
+            maxBytes
+        );
+    }
+
+    /**
+     * Returns the hex encoded digest of the remaining bytes in the given {@link ByteBuffer}, without changing its position.
+     */
+    static String digest(final ByteBuffer content) {
+        final MessageDigest digest = messageDigest();
+        digest.update(content.duplicate());
+        return hex(digest.digest());
+    }
+
+    /**
+     * Returns the hex encoded digest of the given bytes.
+     */
+    static String digest(final byte[] content) {
+        return hex(
+            messageDigest()
+                .digest(content)
+        );
+    }
+
+    private static MessageDigest messageDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (final NoSuchAlgorithmException cause) {
+            throw new IllegalStateException(DIGEST_ALGORITHM + " missing", cause);
+        }
+    }
+
+    private static String hex(final byte[] bytes) {
+        final char[] chars = new char[bytes.length * 2];
+
+        for (int i = 0; i < bytes.length; i++) {
+            final int b = bytes[i];
+            chars[i * 2] = Character.forDigit((b >> 4) & 0xF, 16);
+            chars[i * 2 + 1] = Character.forDigit(b & 0xF, 16);
+        }
+
+        return new String(chars);
+    }
+
+    private ContentAddressedFileStore(final Path directory,
+                                      final long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the file with the given key if it exists, marking it as recently used, or null.
+     */
+    Path get(final String key) throws IOException {
+        final Path file = this.file(key);
+
+        Path found = null;
+        try {
+            Files.setLastModifiedTime(
+                file,
+                FileTime.fromMillis(System.currentTimeMillis())
+            );
+            found = file;
+        } catch (final NoSuchFileException ignore) {
+            // not cached or evicted by another process
+        }
+        return found;
+    }
+
+    /**
+     * Atomically writes the content with the given key, evicting older files if the store may now be too large.
+     * If another process wrote the same key at the same time, either file may win as both hold the same content.
+     */
+    Path put(final String key,
+             final ByteBuffer content) throws IOException {
+        final Path file = this.file(key);
+        final Path temp = Files.createTempFile(
+            this.directory,
+            key,
+            TEMP_SUFFIX
+        );
+
+        try {
+            try (final FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                final ByteBuffer write = content.duplicate();
+                while (write.hasRemaining()) {
+                    channel.write(write);
+                }
+                channel.force(true);
+            }
+
+            try {
+                Files.move(
+                    temp,
+                    file,
+                    StandardCopyOption.ATOMIC_MOVE
+                );
+            } catch (final FileAlreadyExistsException ignore) {
+                // some platforms refuse to replace, the existing file holds the same content
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        if (this.add(content.remaining())) {
+            this.evict(file);
+        }
+        return file;
+    }
+
+    /**
+     * Adds the size of a written file to the estimate, returning true if the directory must be listed because the
+     * estimate is unknown or over the maximum.
+     */
+    private synchronized boolean add(final long size) {
+        long bytes = this.bytes;
+        if (bytes >= 0) {
+            bytes += size;
+            this.bytes = bytes;
+        }
+        return bytes < 0 || bytes > this.maxBytes;
+    }
+
+    /**
+     * The estimated total size of the files, -1 until the directory is first listed. Files written or deleted by other
+     * processes are only seen when the directory is listed again.
+     */
+    synchronized long bytes() {
+        return this.bytes;
+    }
+
+    private long bytes = -1;
+
+    /**
+     * Deletes the least recently used files until the store is within its maximum size, never deleting the given file,
+     * and then sets the estimate to the remaining total.
+     */
+    private void evict(final Path keep) throws IOException {
+        final Path directory = this.directory;
+
+        final long total;
+
+        // FileLock only excludes other processes, threads within this JVM are serialized here
+        synchronized (EVICTING) {
+            total = this.evictLocked(
+                directory,
+                keep
+            );
+        }
+
+        synchronized (this) {
+            this.bytes = total;
+        }
+    }
+
+    private final static Object EVICTING = new Object();
+
+    private long evictLocked(final Path directory,
+                             final Path keep) throws IOException {
+        try (final FileChannel lock = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             final FileLock ignored = lock.lock()) {
+            final List<Map.Entry<Path, BasicFileAttributes>> files = Lists.array();
+            long total = 0;
+
+            final long staleTemp = System.currentTimeMillis() - STALE_TEMP_MILLIS;
+
+            try (final DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (final Path file : stream) {
+                    final String name = file.getFileName().toString();
+                    if (name.equals(LOCK_FILE)) {
+                        continue;
+                    }
+                    try {
+                        final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                        if (name.endsWith(TEMP_SUFFIX)) {
+                            if (attributes.lastModifiedTime().toMillis() < staleTemp) {
+                                deleteIfPossible(file);
+                            }
+                            continue;
+                        }
+                        files.add(
+                            new SimpleImmutableEntry<>(
+                                file,
+                                attributes
+                            )
+                        );
+                        total += attributes.size();
+                    } catch (final NoSuchFileException ignore) {
+                        // deleted by another process
+                    }
+                }
+            }
+
+            files.sort(
+                Comparator.comparing(e -> e.getValue().lastModifiedTime())
+            );
+
+            final long maxBytes = this.maxBytes;
+            for (final Map.Entry<Path, BasicFileAttributes> fileAndAttributes : files) {
+                if (total <= maxBytes) {
+                    break;
+                }
+                final Path file = fileAndAttributes.getKey();
+                if (file.equals(keep)) {
+                    continue;
+                }
+                if (deleteIfPossible(file)) {
+                    total -= fileAndAttributes.getValue().size();
+                }
+            }
+
+            return total;
+        }
+    }
+
+    /**
+     * Deletes the file, returning false if it could not be deleted.
+     */
+    private static boolean deleteIfPossible(final Path file) {
+        boolean deleted;
+        try {
+            Files.deleteIfExists(file);
+            deleted = true;
+        } catch (final IOException ignore) {
+            // file may be in use on platforms that forbid deleting open files
+            deleted = false;
+        }
+        return deleted;
+    }
+
+    private Path file(final String key) {
+        return this.directory.resolve(key);
+    }
+
+    private final Path directory;
+
+    private final long maxBytes;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.directory.toString();
+    }
+}
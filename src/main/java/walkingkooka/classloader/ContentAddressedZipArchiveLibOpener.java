@@ -0,0 +1,83 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * A {@link ZipArchiveLibOpener} that extracts each nested archive once into a {@link ContentAddressedFileStore} and
+ * then memory maps the extracted file. The key is the digest of the raw possibly compressed entry, so a cached
+ * archive is found again without inflating it.
+ */
+final class ContentAddressedZipArchiveLibOpener implements ZipArchiveLibOpener {
+
+    private final static String SUFFIX = ".jar";
+
+    static ContentAddressedZipArchiveLibOpener with(final ContentAddressedFileStore store) {
+        return new ContentAddressedZipArchiveLibOpener(
+            Objects.requireNonNull(store, "store")
+        );
+    }
+
+    private ContentAddressedZipArchiveLibOpener(final ContentAddressedFileStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public ZipArchive open(final ZipArchive archive,
+                           final ZipArchiveEntry lib) throws IOException {
+        final ContentAddressedFileStore store = this.store;
+        final String key = lib.method + "-" + ContentAddressedFileStore.digest(archive.data(lib)) + SUFFIX;
+
+        Path file = store.get(key);
+        if (null != file && Files.size(file) != lib.size) {
+            file = null;
+        }
+
+        ZipArchive extracted = null;
+        if (null != file) {
+            try {
+                extracted = ZipArchive.map(file);
+            } catch (final NoSuchFileException evicted) {
+                // evicted by another process between get and map
+            }
+        }
+
+        if (null == extracted) {
+            extracted = ZipArchive.map(
+                store.put(
+                    key,
+                    archive.contents(lib)
+                )
+            );
+        }
+
+        return extracted;
+    }
+
+    private final ContentAddressedFileStore store;
+
+    @Override
+    public String toString() {
+        return this.store.toString();
+    }
+}
@@ -0,0 +1,552 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import walkingkooka.Binary;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.text.LineEnding;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * A {@link ClassLoaderResourceProvider} that reads files below a root directory, such as an exploded plugin. The root
+ * may belong to any {@link java.nio.file.FileSystem}, such as the default file system or a zip file system.
+ * <ul>
+ * <li>Files are read using the channel of the file system, which is a {@link java.nio.channels.FileChannel} for the
+ * default file system, into a buffer sized from the file attributes.</li>
+ * <li>Directories return a listing of the files directly within, in the same format as {@link MapClassLoaderResourceProvider}.</li>
+ * <li>File attributes and listings of existing files and directories are cached up to a maximum number of entries, so
+ * repeated loads of the same path do not repeat the stat or directory scan. Missing files and empty directories are
+ * never cached, so a file added later is found. Both caches are emptied when {@link MemoryPressure} reports the heap
+ * is nearly full, which is recorded as {@link ClassLoaderResourceProviderMetric#MEMORY_PRESSURE_SHRINKS}.</li>
+ * <li>The manifest is located ignoring case, even on case sensitive file systems.</li>
+ * </ul>
+ */
+final class DirectoryClassLoaderResourceProvider implements ClassLoaderResourceProvider,
+    MemoryPressureListener {
+
+    private final static String META_INF = "META-INF";
+
+    /**
+     * The cache size used when none is given, a larger or unbounded cache must be requested explicitly.
+     */
+    final static int DEFAULT_MAX_CACHE_ENTRIES = 1024;
+
+    static DirectoryClassLoaderResourceProvider with(final Path root,
+                                                     final LineEnding lineEnding) {
+        return with(
+            root,
+            lineEnding,
+            DEFAULT_MAX_CACHE_ENTRIES
+        );
+    }
+
+    static DirectoryClassLoaderResourceProvider with(final Path root,
+                                                     final LineEnding lineEnding,
+                                                     final int maxCacheEntries) {
+        return with(
+            root,
+            lineEnding,
+            maxCacheEntries,
+            ClassLoaderResourceProviderMetrics.empty()
+        );
+    }
+
+    static DirectoryClassLoaderResourceProvider with(final Path root,
+                                                     final LineEnding lineEnding,
+                                                     final int maxCacheEntries,
+                                                     final ClassLoaderResourceProviderMetrics metrics) {
+        Objects.requireNonNull(root, "root");
+        Objects.requireNonNull(lineEnding, "lineEnding");
+        Objects.requireNonNull(metrics, "metrics");
+
+        final DirectoryClassLoaderResourceProvider provider = new DirectoryClassLoaderResourceProvider(
+            root.toAbsolutePath()
+                .normalize(),
+            lineEnding,
+            LruCache.with(maxCacheEntries),
+            LruCache.with(maxCacheEntries),
+            metrics
+        );
+        MemoryPressure.INSTANCE.add(provider);
+        return provider;
+    }
+
+    private DirectoryClassLoaderResourceProvider(final Path root,
+                                                 final LineEnding lineEnding,
+                                                 final LruCache<ClassLoaderResourcePath, BasicFileAttributes> pathToAttributes,
+                                                 final LruCache<ClassLoaderResourcePath, ClassLoaderResource> pathToListing,
+                                                 final ClassLoaderResourceProviderMetrics metrics) {
+        this.root = root;
+        this.lineEnding = lineEnding;
+        this.pathToAttributes = pathToAttributes;
+        this.pathToListing = pathToListing;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Optional<ClassLoaderResource> load(final ClassLoaderResourcePath path) {
+        Objects.requireNonNull(path, "path");
+
+        try {
+            ClassLoaderResource resource = null;
+
+            final Path file = ClassLoaderResourcePath.MANIFEST.equals(path) ?
+                this.manifest() :
+                this.file(path);
+            if (null != file) {
+                final BasicFileAttributes attributes = this.attributes(
+                    path,
+                    file
+                );
+                if (null != attributes) {
+                    resource = attributes.isDirectory() ?
+                        this.listing(
+                            path,
+                            file
+                        ) :
+                        attributes.isRegularFile() ?
+                            read(
+                                file,
+                                attributes.size()
+                            ) :
+                            null;
+                }
+            }
+
+            return Optional.ofNullable(resource);
+        } catch (final NoSuchFileException deleted) {
+            // deleted after its attributes were cached
+            this.pathToAttributes.remove(path);
+            this.pathToListing.remove(path);
+            return Optional.empty();
+        } catch (final IOException cause) {
+            throw new ClassFormatError("Error reading " + path + " from " + this.root + ", " + cause.getMessage());
+        }
+    }
+
+    @Override
+    public Optional<InputStream> inputStream(final ClassLoaderResourcePath path) {
+        Objects.requireNonNull(path, "path");
+
+        try {
+            final Path file = this.regularFile(path);
+            return null != file ?
+                Optional.of(
+                    Files.newInputStream(file)
+                ) :
+                ClassLoaderResourceProvider.super.inputStream(path);
+        } catch (final NoSuchFileException deleted) {
+            this.pathToAttributes.remove(path);
+            return Optional.empty();
+        } catch (final IOException cause) {
+            throw new ClassFormatError("Error reading " + path + " from " + this.root + ", " + cause.getMessage());
+        }
+    }
+
+    @Override
+    public Optional<ClassLoaderResourceMetadata> metadata(final ClassLoaderResourcePath path) {
+        Objects.requireNonNull(path, "path");
+
+        try {
+            final Path file = this.regularFile(path);
+            final BasicFileAttributes attributes = null != file ?
+                this.attributes(
+                    path,
+                    file
+                ) :
+                null;
+            return null != attributes ?
+                Optional.of(
+                    metadata(
+                        attributes,
+                        this
+                    )
+                ) :
+                ClassLoaderResourceProvider.super.metadata(path);
+        } catch (final IOException cause) {
+            throw new ClassFormatError("Error reading " + path + " from " + this.root + ", " + cause.getMessage());
+        }
+    }
+
+    /**
+     * Creates {@link ClassLoaderResourceMetadata} for a file from its {@link BasicFileAttributes}.
+     */
+    static ClassLoaderResourceMetadata metadata(final BasicFileAttributes attributes,
+                                                final ClassLoaderResourceProvider origin) {
+        return ClassLoaderResourceMetadata.with(
+            attributes.size(),
+            Optional.empty(), // compressedSize
+            Optional.of(
+                attributes.lastModifiedTime()
+                    .toInstant()
+            ),
+            origin
+        );
+    }
+
+    @Override
+    public Optional<Binary> range(final ClassLoaderResourcePath path,
+                                  final long offset,
+                                  final int length) {
+        Objects.requireNonNull(path, "path");
+        ClassLoaderResourceRanges.check(
+            offset,
+            length
+        );
+
+        try {
+            final Path file = this.regularFile(path);
+            return null != file ?
+                Optional.of(
+                    Binary.with(
+                        ClassLoaderResourceRanges.read(
+                            file,
+                            offset,
+                            length
+                        )
+                    )
+                ) :
+                ClassLoaderResourceProvider.super.range(
+                    path,
+                    offset,
+                    length
+                );
+        } catch (final NoSuchFileException deleted) {
+            this.pathToAttributes.remove(path);
+            return Optional.empty();
+        } catch (final IOException cause) {
+            throw new ClassFormatError("Error reading " + path + " from " + this.root + ", " + cause.getMessage());
+        }
+    }
+
+    @Override
+    public OptionalLong transferTo(final ClassLoaderResourcePath path,
+                                   final WritableByteChannel channel) throws IOException {
+        Objects.requireNonNull(path, "path");
+        Objects.requireNonNull(channel, "channel");
+
+        final Path file = this.regularFile(path);
+
+        OptionalLong count;
+        if (null != file) {
+            try {
+                count = OptionalLong.of(
+                    WritableByteChannels.transfer(
+                        file,
+                        channel
+                    )
+                );
+            } catch (final NoSuchFileException deleted) {
+                this.pathToAttributes.remove(path);
+                count = OptionalLong.empty();
+            }
+        } else {
+            count = ClassLoaderResourceProvider.super.transferTo(
+                path,
+                channel
+            );
+        }
+        return count;
+    }
+
+    /**
+     * Returns the regular file for the given path or null if it is missing or not a regular file.
+     */
+    private Path regularFile(final ClassLoaderResourcePath path) throws IOException {
+        Path file = ClassLoaderResourcePath.MANIFEST.equals(path) ?
+            this.manifest() :
+            this.file(path);
+        if (null != file) {
+            final BasicFileAttributes attributes = this.attributes(
+                path,
+                file
+            );
+            if (null == attributes || false == attributes.isRegularFile()) {
+                file = null;
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Resolves the given {@link ClassLoaderResourcePath} one name at a time against the root, returning null if the
+     * result escapes the root.
+     */
+    private Path file(final ClassLoaderResourcePath path) {
+        final Path root = this.root;
+        Path file = root;
+
+        for (final String name : path.value().split(ClassLoaderResourcePath.SEPARATOR.string())) {
+            if (false == name.isEmpty()) {
+                file = file.resolve(name);
+            }
+        }
+
+        file = file.normalize();
+        return file.startsWith(root) ?
+            file :
+            null;
+    }
+
+    /**
+     * Converts a {@link Path} below the root into a {@link ClassLoaderResourcePath}.
+     */
+    static ClassLoaderResourcePath path(final Path root,
+                                        final Path file) {
+        final StringBuilder b = new StringBuilder();
+
+        for (final Path name : root.relativize(file)) {
+            final String string = name.toString();
+            if (false == string.isEmpty()) {
+                b.append(ClassLoaderResourcePath.SEPARATOR.character())
+                    .append(string);
+            }
+        }
+
+        return b.length() == 0 ?
+            ClassLoaderResourcePath.ROOT :
+            ClassLoaderResourcePath.parse(b.toString());
+    }
+
+    /**
+     * Finds the manifest ignoring case, remembering only a manifest that was found, so one added later is found like
+     * any other missing file.
+     */
+    private Path manifest() throws IOException {
+        Path manifest = this.manifest;
+        if (null == manifest) {
+            manifest = this.findManifest();
+            this.manifest = manifest;
+        }
+        return manifest;
+    }
+
+    private volatile Path manifest;
+
+    private Path findManifest() throws IOException {
+        final String manifestName = ClassLoaderResourcePath.MANIFEST.name()
+            .value();
+
+        Path manifest = null;
+        try (final DirectoryStream<Path> metaInf = Files.newDirectoryStream(this.root.resolve(META_INF))) {
+            for (final Path file : metaInf) {
+                if (manifestName.equalsIgnoreCase(file.getFileName().toString())) {
+                    manifest = file;
+                    break;
+                }
+            }
+        } catch (final NoSuchFileException | NotDirectoryException ignore) {
+            // no META-INF directory
+        }
+        return manifest;
+    }
+
+    /**
+     * Returns the cached attributes for the given path, reading them the first time or null if the file does not exist.
+     * Missing files are not cached, so a file created later is found.
+     */
+    private BasicFileAttributes attributes(final ClassLoaderResourcePath path,
+                                           final Path file) throws IOException {
+        BasicFileAttributes attributes = this.pathToAttributes.get(path);
+        if (null == attributes) {
+            try {
+                attributes = Files.readAttributes(
+                    file,
+                    BasicFileAttributes.class
+                );
+                this.pathToAttributes.put(
+                    path,
+                    attributes
+                );
+            } catch (final NoSuchFileException missing) {
+                attributes = null;
+            }
+        }
+        return attributes;
+    }
+
+    /**
+     * Forgets all cached attributes and listings, which are read again when next needed.
+     */
+    @Override
+    public void onMemoryPressure() {
+        final LruCache<ClassLoaderResourcePath, BasicFileAttributes> pathToAttributes = this.pathToAttributes;
+        final LruCache<ClassLoaderResourcePath, ClassLoaderResource> pathToListing = this.pathToListing;
+
+        if (pathToAttributes.size() > 0 || pathToListing.size() > 0) {
+            pathToAttributes.clear();
+            pathToListing.clear();
+            this.metrics.increment(ClassLoaderResourceProviderMetric.MEMORY_PRESSURE_SHRINKS);
+        }
+    }
+
+    private final ClassLoaderResourceProviderMetrics metrics;
+
+    /**
+     * Attributes of recently loaded paths that exist.
+     */
+    private final LruCache<ClassLoaderResourcePath, BasicFileAttributes> pathToAttributes;
+
+    /**
+     * Reads the file into an array sized by the given size, growing the array if the file has since grown.
+     */
+    static ClassLoaderResource read(final Path file,
+                                    final long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("File too large " + file);
+        }
+
+        try (final SeekableByteChannel channel = Files.newByteChannel(file, StandardOpenOption.READ)) {
+            byte[] bytes = new byte[(int) size];
+            int count = 0;
+
+            for (; ; ) {
+                if (count == bytes.length) {
+                    final long current = channel.size();
+                    if (current <= count) {
+                        break;
+                    }
+                    bytes = Arrays.copyOf(
+                        bytes,
+                        (int) Math.min(current, Integer.MAX_VALUE)
+                    );
+                }
+
+                final int read = channel.read(
+                    ByteBuffer.wrap(
+                        bytes,
+                        count,
+                        bytes.length - count
+                    )
+                );
+                if (read < 0) {
+                    break;
+                }
+                count += read;
+            }
+
+            return ClassLoaderResource.with(
+                Binary.with(
+                    count == bytes.length ?
+                        bytes :
+                        Arrays.copyOf(bytes, count)
+                )
+            );
+        }
+    }
+
+    /**
+     * Returns the cached listing for the given directory, scanning it the first time.
+     */
+    private ClassLoaderResource listing(final ClassLoaderResourcePath path,
+                                        final Path directory) throws IOException {
+        ClassLoaderResource listing = this.pathToListing.get(path);
+        if (null == listing) {
+            listing = this.listing(directory);
+            if (null != listing) {
+                this.pathToListing.put(
+                    path,
+                    listing
+                );
+            }
+        }
+        return listing;
+    }
+
+    /**
+     * Listings of recently loaded directories with files, directories without files are not cached.
+     */
+    private final LruCache<ClassLoaderResourcePath, ClassLoaderResource> pathToListing;
+
+    /**
+     * Builds a text file holding the sorted names of the files directly within the given directory or returns null if there are none.
+     */
+    private ClassLoaderResource listing(final Path directory) throws IOException {
+        final List<String> names = Lists.array();
+
+        try (final DirectoryStream<Path> files = Files.newDirectoryStream(directory, Files::isRegularFile)) {
+            for (final Path file : files) {
+                names.add(
+                    file.getFileName()
+                        .toString()
+                );
+            }
+        }
+
+        names.sort(null);
+
+        return listing(
+            names,
+            this.lineEnding
+        );
+    }
+
+    /**
+     * Builds a text file holding the given names each followed by the line ending, or returns null if there are none.
+     */
+    static ClassLoaderResource listing(final Collection<String> names,
+                                       final LineEnding lineEnding) {
+        ClassLoaderResource listing = null;
+
+        if (false == names.isEmpty()) {
+            final StringBuilder text = new StringBuilder();
+            for (final String name : names) {
+                text.append(name)
+                    .append(lineEnding);
+            }
+
+            listing = ClassLoaderResource.with(
+                Binary.with(
+                    text.toString()
+                        .getBytes(StandardCharsets.UTF_8)
+                )
+            );
+        }
+        return listing;
+    }
+
+    private final Path root;
+
+    private final LineEnding lineEnding;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.root.toString();
+    }
+}
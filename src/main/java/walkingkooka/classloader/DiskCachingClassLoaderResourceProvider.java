@@ -0,0 +1,211 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A {@link ClassLoaderResourceProvider} that keeps the resources of a slow provider in a {@link ContentAddressedFileStore}
+ * on local disk, which survives restarts and may be shared by several processes.
+ * <ul>
+ * <li>Each resource is stored under the digest of its content, and a small file keyed by the digest of the namespace
+ * and path holds that content digest, so identical resources at different paths are stored once. The namespace
+ * identifies the origin of the resources, such as an archive and its version, so a directory shared by several
+ * providers or kept across a redeploy never serves resources of another origin.</li>
+ * <li>Content is read from disk with a {@link java.nio.channels.FileChannel} and its digest verified before it is
+ * returned, a file that does not match is deleted and the resource loaded from the wrapped provider again.</li>
+ * <li>Misses are not stored, a heap cache in front such as {@link CachingClassLoaderResourceProvider} should remember them.</li>
+ * <li>Failures reading or writing the disk are treated as a miss, so a broken cache never fails a load.</li>
+ * </ul>
+ */
+final class DiskCachingClassLoaderResourceProvider implements ClassLoaderResourceProvider {
+
+    private final static String PATH_SUFFIX = ".path";
+
+    private final static String RESOURCE_SUFFIX = ".resource";
+
+    static DiskCachingClassLoaderResourceProvider with(final ClassLoaderResourceProvider provider,
+                                                       final String namespace,
+                                                       final ContentAddressedFileStore store,
+                                                       final ClassLoaderResourceProviderMetrics metrics) {
+        Objects.requireNonNull(provider, "provider");
+        Objects.requireNonNull(namespace, "namespace");
+        if (namespace.isEmpty()) {
+            throw new IllegalArgumentException("Empty namespace");
+        }
+
+        return new DiskCachingClassLoaderResourceProvider(
+            provider,
+            namespace,
+            Objects.requireNonNull(store, "store"),
+            Objects.requireNonNull(metrics, "metrics")
+        );
+    }
+
+    private DiskCachingClassLoaderResourceProvider(final ClassLoaderResourceProvider provider,
+                                                   final String namespace,
+                                                   final ContentAddressedFileStore store,
+                                                   final ClassLoaderResourceProviderMetrics metrics) {
+        this.provider = provider;
+        this.namespace = namespace;
+        this.store = store;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Optional<ClassLoaderResource> load(final ClassLoaderResourcePath path) {
+        Objects.requireNonNull(path, "path");
+
+        final String pathKey = this.pathKey(path);
+
+        Optional<ClassLoaderResource> resource;
+        try {
+            resource = this.loadStored(pathKey);
+        } catch (final IOException ignore) {
+            // unreadable cache, load from the wrapped provider
+            resource = Optional.empty();
+        }
+
+        if (resource.isPresent()) {
+            this.metrics.increment(ClassLoaderResourceProviderMetric.DISK_CACHE_HITS);
+        } else {
+            this.metrics.increment(ClassLoaderResourceProviderMetric.DISK_CACHE_MISSES);
+
+            resource = this.provider.load(path);
+            if (resource.isPresent()) {
+                try {
+                    this.store(
+                        pathKey,
+                        resource.get()
+                    );
+                } catch (final IOException ignore) {
+                    // unwritable cache, the resource is still returned
+                }
+            }
+        }
+
+        return resource;
+    }
+
+    /**
+     * The key of the file holding the content digest, the namespace ends with a NUL which never appears in a path.
+     */
+    private String pathKey(final ClassLoaderResourcePath path) {
+        return ContentAddressedFileStore.digest(
+            (this.namespace + '\0' + path.value())
+                .getBytes(StandardCharsets.UTF_8)
+        ) + PATH_SUFFIX;
+    }
+
+    /**
+     * Returns the stored resource for the given path key, or empty if either file is missing or the content digest
+     * does not match.
+     */
+    private Optional<ClassLoaderResource> loadStored(final String pathKey) throws IOException {
+        final ContentAddressedFileStore store = this.store;
+
+        ClassLoaderResource resource = null;
+
+        try {
+            final Path pathFile = store.get(pathKey);
+            if (null != pathFile) {
+                final String digest = new String(
+                    Files.readAllBytes(pathFile),
+                    StandardCharsets.US_ASCII
+                );
+
+                final Path resourceFile = store.get(digest + RESOURCE_SUFFIX);
+                if (null != resourceFile) {
+                    resource = DirectoryClassLoaderResourceProvider.read(
+                        resourceFile,
+                        Files.size(resourceFile)
+                    );
+
+                    if (false == digest.equals(
+                        ContentAddressedFileStore.digest(
+                            resource.value()
+                                .value()
+                        )
+                    )) {
+                        this.metrics.increment(ClassLoaderResourceProviderMetric.DISK_CACHE_CORRUPTIONS);
+                        Files.deleteIfExists(resourceFile);
+                        resource = null;
+                    }
+                }
+            }
+        } catch (final NoSuchFileException ignore) {
+            // evicted by another process between get and read
+            resource = null;
+        }
+
+        return Optional.ofNullable(resource);
+    }
+
+    /**
+     * Writes the content under its digest and then the path file that refers to it.
+     */
+    private void store(final String pathKey,
+                       final ClassLoaderResource resource) throws IOException {
+        final ContentAddressedFileStore store = this.store;
+
+        final byte[] content = resource.value()
+            .value();
+        final String digest = ContentAddressedFileStore.digest(content);
+
+        store.put(
+            digest + RESOURCE_SUFFIX,
+            ByteBuffer.wrap(content)
+        );
+        store.put(
+            pathKey,
+            ByteBuffer.wrap(
+                digest.getBytes(StandardCharsets.US_ASCII)
+            )
+        );
+    }
+
+    @Override
+    public void release(final ClassLoaderResourcePath path) {
+        this.provider.release(path);
+    }
+
+    private final ClassLoaderResourceProvider provider;
+
+    /**
+     * Identifies the origin of the resources, included in the key of every path.
+     */
+    private final String namespace;
+
+    private final ContentAddressedFileStore store;
+
+    private final ClassLoaderResourceProviderMetrics metrics;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.provider + " " + this.namespace + " " + this.store;
+    }
+}
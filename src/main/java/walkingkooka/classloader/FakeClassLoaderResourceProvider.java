@@ -17,11 +17,39 @@
 
 package walkingkooka.classloader;
 
+import walkingkooka.Binary;
+
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
 import java.util.Optional;
+import java.util.OptionalLong;
 
 public class FakeClassLoaderResourceProvider implements ClassLoaderResourceProvider {
     @Override
     public Optional<ClassLoaderResource> load(final ClassLoaderResourcePath path) {
         throw new UnsupportedOperationException();
     }
+
+    @Override
+    public Optional<InputStream> inputStream(final ClassLoaderResourcePath path) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Optional<Binary> range(final ClassLoaderResourcePath path,
+                                  final long offset,
+                                  final int length) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public OptionalLong transferTo(final ClassLoaderResourcePath path,
+                                   final WritableByteChannel channel) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Optional<ClassLoaderResourceMetadata> metadata(final ClassLoaderResourcePath path) {
+        throw new UnsupportedOperationException();
+    }
 }
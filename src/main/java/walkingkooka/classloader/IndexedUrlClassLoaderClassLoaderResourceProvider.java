@@ -0,0 +1,375 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import walkingkooka.Binary;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.text.LineEnding;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+
+/**
+ * A {@link ClassLoaderResourceProvider} that resolves the <code>file:</code> URLs of a {@link URLClassLoader} once into
+ * {@link ZipArchiveClassLoaderResourceProvider} and {@link DirectoryClassLoaderResourceProvider}, and builds a single
+ * index of every file path to the first provider holding it, in URL order. A file is then loaded with one probe
+ * without any {@link java.net.URLConnection}, and a path that is neither an indexed file nor directory is answered
+ * without touching any archive or directory. Runs of other URLs are served by a {@link URLClassLoader} holding only
+ * those URLs, which are consulted in URL order.
+ * <br>
+ * Unlike {@link UrlClassLoaderClassLoaderResourceProvider} the parent of the given {@link URLClassLoader} is not
+ * consulted, and archives and directories are read as they were when this provider was created. Entries of
+ * multi-release archives are indexed under their base name like {@link ZipArchiveClassLoaderResourceProvider}.
+ * <br>
+ * Closing this provider closes the {@link URLClassLoader} created for other URLs, but not the given {@link URLClassLoader}.
+ */
+final class IndexedUrlClassLoaderClassLoaderResourceProvider implements CloseableClassLoaderResourceProvider {
+
+    private final static String FILE_PROTOCOL = "file";
+
+    static IndexedUrlClassLoaderClassLoaderResourceProvider with(final URLClassLoader urlClassLoader,
+                                                                 final LineEnding lineEnding) throws IOException {
+        Objects.requireNonNull(urlClassLoader, "urlClassLoader");
+        Objects.requireNonNull(lineEnding, "lineEnding");
+
+        final List<ClassLoaderResourceProvider> providers = Lists.array();
+        final Map<ClassLoaderResourcePath, Integer> index = Maps.hash();
+        final List<URL> others = Lists.array();
+        final List<ClassLoaderResourceProvider> otherProviders = Lists.array();
+        final List<URLClassLoader> otherUrlClassLoaders = Lists.array();
+
+        for (final URL url : urlClassLoader.getURLs()) {
+            final Path file = file(url);
+            if (null == file) {
+                others.add(url);
+                continue;
+            }
+
+            if (Files.isDirectory(file)) {
+                addOthers(others, providers, otherProviders, otherUrlClassLoaders);
+
+                final Path root = file.toAbsolutePath()
+                    .normalize();
+                indexDirectory(
+                    root,
+                    providers.size(),
+                    index
+                );
+                providers.add(
+                    DirectoryClassLoaderResourceProvider.with(
+                        root,
+                        lineEnding
+                    )
+                );
+            } else if (Files.isRegularFile(file)) {
+                addOthers(others, providers, otherProviders, otherUrlClassLoaders);
+
+                final ZipArchive archive = ZipArchive.map(file);
+                final int position = providers.size();
+
+                // a class only present under META-INF/versions/N/ of a multi-release jar is also indexed under its base name
+                for (final Map.Entry<String, ZipArchiveEntry> nameAndEntry : MultiReleaseJar.index(
+                    archive.entries(),
+                    e -> e.name,
+                    ZipArchiveClassLoaderResourceProvider.isMultiRelease(
+                        archive,
+                        ZipArchiveClassLoaderResourceProvider.manifest(archive)
+                    ),
+                    MultiReleaseJar.FEATURE
+                ).entrySet()) {
+                    if (false == nameAndEntry.getValue().isDirectory()) {
+                        // entries with names that are not valid paths such as "a//b" can never be loaded and are skipped
+                        ClassLoaderResourcePath.tryParse(
+                            ClassLoaderResourcePath.SEPARATOR.string() + nameAndEntry.getKey()
+                        ).ifPresent(
+                            p -> index.putIfAbsent(
+                                p,
+                                position
+                            )
+                        );
+                    }
+                }
+                providers.add(
+                    ZipArchiveClassLoaderResourceProvider.with(
+                        archive,
+                        lineEnding
+                    )
+                );
+            }
+            // missing files are ignored like URLClassLoader
+        }
+        addOthers(others, providers, otherProviders, otherUrlClassLoaders);
+
+        final Set<ClassLoaderResourcePath> directories = Sets.hash();
+        for (final ClassLoaderResourcePath path : index.keySet()) {
+            Optional<ClassLoaderResourcePath> parent = path.parent();
+            while (parent.isPresent() && directories.add(parent.get())) {
+                parent = parent.get()
+                    .parent();
+            }
+        }
+
+        int firstOther = providers.size();
+        if (false == otherProviders.isEmpty()) {
+            firstOther = providers.indexOf(otherProviders.get(0));
+        }
+
+        return new IndexedUrlClassLoaderClassLoaderResourceProvider(
+            Maps.immutable(index),
+            directories,
+            Lists.immutable(providers),
+            firstOther,
+            cascading(providers),
+            cascading(otherProviders),
+            Lists.immutable(otherUrlClassLoaders),
+            urlClassLoader
+        );
+    }
+
+    private static ClassLoaderResourceProvider cascading(final List<ClassLoaderResourceProvider> providers) {
+        return providers.isEmpty() ?
+            (p) -> Optional.empty() :
+            CascadingClassLoaderResourceProvider.with(providers);
+    }
+
+    /**
+     * Returns the {@link Path} for a <code>file:</code> URL or null for any other URL.
+     */
+    private static Path file(final URL url) {
+        Path file = null;
+
+        if (FILE_PROTOCOL.equalsIgnoreCase(url.getProtocol())) {
+            try {
+                file = Paths.get(url.toURI());
+            } catch (final URISyntaxException | IllegalArgumentException ignore) {
+                // let URLClassLoader handle it
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Adds a provider for a run of non file URLs, preserving their position in the URL order.
+     */
+    private static void addOthers(final List<URL> others,
+                                  final List<ClassLoaderResourceProvider> providers,
+                                  final List<ClassLoaderResourceProvider> otherProviders,
+                                  final List<URLClassLoader> otherUrlClassLoaders) {
+        if (false == others.isEmpty()) {
+            final URLClassLoader urlClassLoader = new URLClassLoader(
+                others.toArray(new URL[0]),
+                null
+            );
+            final ClassLoaderResourceProvider provider = UrlClassLoaderClassLoaderResourceProvider.with(urlClassLoader);
+            providers.add(provider);
+            otherProviders.add(provider);
+            otherUrlClassLoaders.add(urlClassLoader);
+            others.clear();
+        }
+    }
+
+    private static void indexDirectory(final Path root,
+                                       final int position,
+                                       final Map<ClassLoaderResourcePath, Integer> index) throws IOException {
+        Files.walkFileTree(
+            root,
+            new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(final Path file,
+                                                 final BasicFileAttributes attributes) {
+                    if (attributes.isRegularFile()) {
+                        index.putIfAbsent(
+                            DirectoryClassLoaderResourceProvider.path(
+                                root,
+                                file
+                            ),
+                            position
+                        );
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            }
+        );
+    }
+
+    private IndexedUrlClassLoaderClassLoaderResourceProvider(final Map<ClassLoaderResourcePath, Integer> index,
+                                                             final Set<ClassLoaderResourcePath> directories,
+                                                             final List<ClassLoaderResourceProvider> providers,
+                                                             final int firstOther,
+                                                             final ClassLoaderResourceProvider all,
+                                                             final ClassLoaderResourceProvider others,
+                                                             final List<URLClassLoader> otherUrlClassLoaders,
+                                                             final URLClassLoader urlClassLoader) {
+        this.index = index;
+        this.directories = directories;
+        this.providers = providers;
+        this.firstOther = firstOther;
+        this.all = all;
+        this.others = others;
+        this.otherUrlClassLoaders = otherUrlClassLoaders;
+        this.urlClassLoader = urlClassLoader;
+    }
+
+    @Override
+    public Optional<ClassLoaderResource> load(final ClassLoaderResourcePath path) {
+        return this.provider(path)
+            .load(path);
+    }
+
+    @Override
+    public Optional<InputStream> inputStream(final ClassLoaderResourcePath path) {
+        return this.provider(path)
+            .inputStream(path);
+    }
+
+    @Override
+    public Optional<ClassLoaderResourceMetadata> metadata(final ClassLoaderResourcePath path) {
+        return this.provider(path)
+            .metadata(path);
+    }
+
+    @Override
+    public Optional<Binary> range(final ClassLoaderResourcePath path,
+                                  final long offset,
+                                  final int length) {
+        return this.provider(path)
+            .range(
+                path,
+                offset,
+                length
+            );
+    }
+
+    @Override
+    public OptionalLong transferTo(final ClassLoaderResourcePath path,
+                                   final WritableByteChannel channel) throws IOException {
+        return this.provider(path)
+            .transferTo(
+                path,
+                channel
+            );
+    }
+
+    /**
+     * Selects the provider that should be asked for the given path.
+     */
+    private ClassLoaderResourceProvider provider(final ClassLoaderResourcePath path) {
+        Objects.requireNonNull(path, "path");
+
+        final ClassLoaderResourceProvider provider;
+
+        final Integer position = this.index.get(path);
+        if (null != position && position < this.firstOther) {
+            provider = this.providers.get(position);
+        } else {
+            // directories, the manifest in a different case, or a non file URL may come first
+            provider = null != position || this.directories.contains(path) || ClassLoaderResourcePath.MANIFEST.equals(path) ?
+                this.all :
+                this.others;
+        }
+
+        return provider;
+    }
+
+    /**
+     * File path to the position of the first provider holding that file.
+     */
+    private final Map<ClassLoaderResourcePath, Integer> index;
+
+    /**
+     * Every directory holding an indexed file.
+     */
+    private final Set<ClassLoaderResourcePath> directories;
+
+    /**
+     * Every provider in URL order.
+     */
+    private final List<ClassLoaderResourceProvider> providers;
+
+    /**
+     * The position of the first provider for non file URLs.
+     */
+    private final int firstOther;
+
+    private final ClassLoaderResourceProvider all;
+
+    /**
+     * Only the providers for non file URLs.
+     */
+    private final ClassLoaderResourceProvider others;
+
+    /**
+     * The {@link URLClassLoader} created for each run of non file URLs, which are owned and closed by this provider.
+     */
+    private final List<URLClassLoader> otherUrlClassLoaders;
+
+    private final URLClassLoader urlClassLoader;
+
+    // Closeable........................................................................................................
+
+    /**
+     * Closes the {@link URLClassLoader} created for each run of non file URLs. The given {@link URLClassLoader} remains
+     * owned by the caller and is not closed.
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failed = null;
+
+        for (final URLClassLoader urlClassLoader : this.otherUrlClassLoaders) {
+            try {
+                urlClassLoader.close();
+            } catch (final IOException cause) {
+                if (null == failed) {
+                    failed = cause;
+                } else {
+                    failed.addSuppressed(cause);
+                }
+            }
+        }
+
+        if (null != failed) {
+            throw failed;
+        }
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return UrlClassLoaderClassLoaderResourceProvider.with(this.urlClassLoader)
+            .toString();
+    }
+}
@@ -3,13 +3,20 @@ package walkingkooka.classloader;
 import walkingkooka.Binary;
 import walkingkooka.collect.iterable.Iterables;
 import walkingkooka.collect.iterator.Iterators;
+import walkingkooka.collect.map.Maps;
 import walkingkooka.text.LineEnding;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
@@ -71,11 +78,7 @@ final class JarFileClassLoaderResourceProvider implements ClassLoaderResourcePro
     private Optional<ClassLoaderResource> loadNonManifest(final ClassLoaderResourcePath path) throws IOException {
         ClassLoaderResource resource = null;
 
-        // drop the leading slash from path#value
-        final JarEntry entry = this.file.getJarEntry(
-            path.value()
-                .substring(1)
-        );
+        final JarEntry entry = this.entry(path);
         if (null != entry) {
             if (entry.isDirectory()) {
                 resource = listing(path);
@@ -87,6 +90,164 @@ final class JarFileClassLoaderResourceProvider implements ClassLoaderResourcePro
         return Optional.ofNullable(resource);
     }
 
+    /**
+     * Probes the index with the characters of the name, only parsing a {@link ClassLoaderResourcePath} for directory
+     * listings, the manifest or names that are not normalized.
+     */
+    @Override
+    public Optional<ClassLoaderResource> loadName(final CharSequence name) {
+        Objects.requireNonNull(name, "name");
+
+        final int start = ClassLoaderResourcePath.nameStart(name);
+
+        try {
+            final Optional<ClassLoaderResource> resource;
+
+            if (ClassLoaderResourcePath.isNormalized(name, start) && false == ClassLoaderResourcePath.isManifest(name, start)) {
+                final JarEntry entry = this.index()
+                    .get(
+                        name,
+                        start
+                    );
+                if (null == entry) {
+                    resource = Optional.empty();
+                } else {
+                    resource = entry.isDirectory() ?
+                        ClassLoaderResourceProvider.super.loadName(name) :
+                        Optional.of(
+                            this.resource(entry)
+                        );
+                }
+            } else {
+                resource = ClassLoaderResourceProvider.super.loadName(name);
+            }
+
+            return resource;
+        } catch (final IOException cause) {
+            throw new ClassFormatError("Error reading " + name + " from jar file, " + cause.getMessage());
+        }
+    }
+
+    @Override
+    public Optional<InputStream> inputStreamName(final CharSequence name) {
+        Objects.requireNonNull(name, "name");
+
+        final int start = ClassLoaderResourcePath.nameStart(name);
+
+        try {
+            final Optional<InputStream> inputStream;
+
+            if (ClassLoaderResourcePath.isNormalized(name, start) && false == ClassLoaderResourcePath.isManifest(name, start)) {
+                final JarEntry entry = this.index()
+                    .get(
+                        name,
+                        start
+                    );
+                if (null == entry) {
+                    inputStream = Optional.empty();
+                } else {
+                    inputStream = entry.isDirectory() ?
+                        ClassLoaderResourceProvider.super.inputStreamName(name) :
+                        Optional.of(
+                            this.file.getInputStream(entry)
+                        );
+                }
+            } else {
+                inputStream = ClassLoaderResourceProvider.super.inputStreamName(name);
+            }
+
+            return inputStream;
+        } catch (final IOException cause) {
+            throw new ClassFormatError("Error reading " + name + " from jar file, " + cause.getMessage());
+        }
+    }
+
+    @Override
+    public Optional<InputStream> inputStream(final ClassLoaderResourcePath path) {
+        Objects.requireNonNull(path, "path");
+
+        try {
+            final JarEntry entry = ClassLoaderResourcePath.MANIFEST.equals(path) ?
+                null :
+                this.entry(path);
+            return null != entry && false == entry.isDirectory() ?
+                Optional.of(
+                    this.file.getInputStream(entry)
+                ) :
+                ClassLoaderResourceProvider.super.inputStream(path);
+        } catch (final IOException cause) {
+            throw new ClassFormatError("Error reading " + path + " from jar file, " + cause.getMessage());
+        }
+    }
+
+    @Override
+    public Optional<ClassLoaderResourceMetadata> metadata(final ClassLoaderResourcePath path) {
+        Objects.requireNonNull(path, "path");
+
+        try {
+            final JarEntry entry = ClassLoaderResourcePath.MANIFEST.equals(path) ?
+                null :
+                this.entry(path);
+            return null != entry && false == entry.isDirectory() ?
+                Optional.of(
+                    ClassLoaderResourceMetadata.with(
+                        entry.getSize(),
+                        JarEntry.DEFLATED == entry.getMethod() ?
+                            Optional.of(entry.getCompressedSize()) :
+                            Optional.empty(),
+                        Optional.ofNullable(
+                            entry.getLastModifiedTime()
+                        ).map(FileTime::toInstant),
+                        this
+                    )
+                ) :
+                ClassLoaderResourceProvider.super.metadata(path);
+        } catch (final IOException cause) {
+            throw new ClassFormatError("Error reading " + path + " from jar file, " + cause.getMessage());
+        }
+    }
+
+    @Override
+    public OptionalLong transferTo(final ClassLoaderResourcePath path,
+                                   final WritableByteChannel channel) throws IOException {
+        Objects.requireNonNull(path, "path");
+        Objects.requireNonNull(channel, "channel");
+
+        final JarEntry entry = ClassLoaderResourcePath.MANIFEST.equals(path) ?
+            null :
+            this.entry(path);
+
+        final OptionalLong count;
+        if (null != entry && false == entry.isDirectory()) {
+            try (final InputStream inputStream = this.file.getInputStream(entry)) {
+                count = OptionalLong.of(
+                    WritableByteChannels.copy(
+                        inputStream,
+                        channel
+                    )
+                );
+            }
+        } else {
+            count = ClassLoaderResourceProvider.super.transferTo(
+                path,
+                channel
+            );
+        }
+        return count;
+    }
+
+    /**
+     * Returns the entry for the given path which may be a directory entry, or null.
+     */
+    private JarEntry entry(final ClassLoaderResourcePath path) throws IOException {
+        // drop the leading slash from path#value
+        return this.index()
+            .get(
+                path.value(),
+                1
+            );
+    }
+
     /**
      * Loops over all JAR entries and builds a text file with child files in the parent path.
      */
@@ -102,10 +263,7 @@ final class JarFileClassLoaderResourceProvider implements ClassLoaderResourcePro
                 final ClassLoaderResourcePath entryPath = ClassLoaderResourcePath.parse(
                     ClassLoaderResourcePath.SEPARATOR.string() + name
                 );
-                if (parent.equals(
-                    entryPath.parent()
-                        .orElse(null)
-                )) {
+                if (parent.isParentOf(entryPath)) {
                     listing.append(
                         entryPath.name()
                             .value()
@@ -126,6 +284,47 @@ final class JarFileClassLoaderResourceProvider implements ClassLoaderResourcePro
 
     private final LineEnding lineEnding;
 
+    /**
+     * Lazily builds an index of entry name to {@link JarEntry}, with multi-release entries already resolved for the
+     * running feature version. Directory entries are also indexed without their trailing slash unless a file has the
+     * same name, so a single probe finds either.
+     */
+    private ClassLoaderResourceNameIndex<JarEntry> index() throws IOException {
+        ClassLoaderResourceNameIndex<JarEntry> index = this.index;
+        if (null == index) {
+            final JarFile file = this.file;
+
+            final Map<String, JarEntry> nameToEntry = MultiReleaseJar.index(
+                Collections.list(file.entries()),
+                JarEntry::getName,
+                MultiReleaseJar.isMultiRelease(file.getManifest()),
+                MultiReleaseJar.FEATURE
+            );
+
+            final Map<String, JarEntry> nameOrDirectoryToEntry = Maps.hash();
+            nameOrDirectoryToEntry.putAll(nameToEntry);
+
+            for (final Map.Entry<String, JarEntry> nameAndEntry : nameToEntry.entrySet()) {
+                final String name = nameAndEntry.getKey();
+                if (name.endsWith(ClassLoaderResourcePath.SEPARATOR.string())) {
+                    nameOrDirectoryToEntry.putIfAbsent(
+                        name.substring(0, name.length() - 1),
+                        nameAndEntry.getValue()
+                    );
+                }
+            }
+
+            index = ClassLoaderResourceNameIndex.with(nameOrDirectoryToEntry);
+            this.index = index;
+        }
+        return index;
+    }
+
+    /**
+     * Built by the first {@link #load(ClassLoaderResourcePath)}, racing threads build identical indices.
+     */
+    private volatile ClassLoaderResourceNameIndex<JarEntry> index;
+
     private ClassLoaderResource resource(final JarEntry entry) throws IOException {
         return ClassLoaderResource.with(
             Binary.with(
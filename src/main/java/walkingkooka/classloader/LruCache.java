@@ -0,0 +1,87 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A thread safe cache holding at most a maximum number of entries, discarding the least recently used entry when full.
+ */
+final class LruCache<K, V> {
+
+    static <K, V> LruCache<K, V> with(final int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Invalid maxEntries " + maxEntries + " <= 0");
+        }
+        return new LruCache<>(maxEntries);
+    }
+
+    private LruCache(final int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.map = new LinkedHashMap<>(
+            16,
+            0.75f,
+            true // access order
+        ) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+                return this.size() > LruCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the value for the given key marking it as recently used, or null if absent.
+     */
+    synchronized V get(final K key) {
+        return this.map.get(key);
+    }
+
+    synchronized void put(final K key,
+                          final V value) {
+        this.map.put(
+            key,
+            value
+        );
+    }
+
+    synchronized void remove(final K key) {
+        this.map.remove(key);
+    }
+
+    synchronized void clear() {
+        this.map.clear();
+    }
+
+    synchronized int size() {
+        return this.map.size();
+    }
+
+    private final int maxEntries;
+
+    private final LinkedHashMap<K, V> map;
+
+    // Object...........................................................................................................
+
+    @Override
+    public synchronized String toString() {
+        return this.map.keySet()
+            .toString();
+    }
+}
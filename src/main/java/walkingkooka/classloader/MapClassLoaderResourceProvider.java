@@ -21,10 +21,12 @@ import walkingkooka.Binary;
 import walkingkooka.collect.map.Maps;
 import walkingkooka.text.LineEnding;
 
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.stream.Collectors;
 
 /**
@@ -46,9 +48,68 @@ final class MapClassLoaderResourceProvider implements ClassLoaderResourceProvide
     private MapClassLoaderResourceProvider(final Map<ClassLoaderResourcePath, ClassLoaderResource> pathToResource,
                                            final LineEnding lineEnding) {
         this.pathToResource = pathToResource;
+
+        final Map<String, ClassLoaderResource> nameToResource = Maps.hash();
+        final Map<String, Boolean> directories = Maps.hash();
+
+        for (final Map.Entry<ClassLoaderResourcePath, ClassLoaderResource> pathAndResource : pathToResource.entrySet()) {
+            final ClassLoaderResourcePath path = pathAndResource.getKey();
+
+            nameToResource.put(
+                path.value()
+                    .substring(1),
+                pathAndResource.getValue()
+            );
+
+            path.parent()
+                .ifPresent(p -> directories.put(
+                        p.value()
+                            .substring(1),
+                        Boolean.TRUE
+                    )
+                );
+        }
+
+        this.nameToResource = ClassLoaderResourceNameIndex.with(nameToResource);
+        this.directories = ClassLoaderResourceNameIndex.with(directories);
         this.lineEnding = lineEnding;
     }
 
+    /**
+     * Probes the name index with the characters of the name, only parsing a {@link ClassLoaderResourcePath} for
+     * directory listings, the manifest whose name is case-insensitive or names that are not normalized.
+     */
+    @Override
+    public Optional<ClassLoaderResource> loadName(final CharSequence name) {
+        final int start = ClassLoaderResourcePath.nameStart(name);
+
+        final Optional<ClassLoaderResource> resource;
+
+        if (ClassLoaderResourcePath.isNormalized(name, start) && false == ClassLoaderResourcePath.isManifest(name, start)) {
+            final ClassLoaderResource found = this.nameToResource.get(
+                name,
+                start
+            );
+            if (null != found) {
+                resource = Optional.of(found);
+            } else {
+                resource = null != this.directories.get(name, start) ?
+                    ClassLoaderResourceProvider.super.loadName(name) :
+                    Optional.empty();
+            }
+        } else {
+            resource = ClassLoaderResourceProvider.super.loadName(name);
+        }
+
+        return resource;
+    }
+
+    @Override
+    public Optional<InputStream> inputStreamName(final CharSequence name) {
+        return this.loadName(name)
+            .map(r -> r.value().inputStream());
+    }
+
     @Override
     public Optional<ClassLoaderResource> load(final ClassLoaderResourcePath path) {
         final Map<ClassLoaderResourcePath, ClassLoaderResource> pathToResource = this.pathToResource;
@@ -59,10 +120,8 @@ final class MapClassLoaderResourceProvider implements ClassLoaderResourceProvide
 
             final String listing = pathToResource.keySet()
                 .stream()
-                .filter(e -> path.equals(
-                    e.parent()
-                        .orElse(null)
-                )).map(e -> e.name().value())
+                .filter(path::isParentOf)
+                .map(e -> e.name().value())
                 .collect(
                     Collectors.joining(lineEnding)
                 );
@@ -79,7 +138,53 @@ final class MapClassLoaderResourceProvider implements ClassLoaderResourceProvide
         return Optional.ofNullable(resource);
     }
 
+    /**
+     * Answers from the size of a resource on the heap without building a directory listing for a missing path.
+     */
+    @Override
+    public Optional<ClassLoaderResourceMetadata> metadata(final ClassLoaderResourcePath path) {
+        final ClassLoaderResource resource = this.pathToResource.get(path);
+        final OptionalLong size = null != resource ?
+            resource.sizeIfLoaded() :
+            OptionalLong.empty();
+
+        return size.isPresent() ?
+            Optional.of(
+                ClassLoaderResourceMetadata.with(
+                    size.getAsLong(),
+                    Optional.empty(), // compressedSize
+                    Optional.empty(), // lastModified
+                    this
+                )
+            ) :
+            null != resource || null != this.directories.get(path.value().substring(1)) ?
+                ClassLoaderResourceProvider.super.metadata(path) :
+                Optional.empty();
+    }
+
+    /**
+     * Releases the bytes of a resource created by {@link ClassLoaderResource#releasable(Binary, java.util.function.Supplier)},
+     * they are read again from their source if the resource is needed later.
+     */
+    @Override
+    public void release(final ClassLoaderResourcePath path) {
+        final ClassLoaderResource resource = this.pathToResource.get(path);
+        if (null != resource) {
+            resource.release();
+        }
+    }
+
     private final Map<ClassLoaderResourcePath, ClassLoaderResource> pathToResource;
 
+    /**
+     * The resources keyed by their path without the leading slash.
+     */
+    private final ClassLoaderResourceNameIndex<ClassLoaderResource> nameToResource;
+
+    /**
+     * The parents of every resource without the leading slash, which have a listing.
+     */
+    private final ClassLoaderResourceNameIndex<Boolean> directories;
+
     private final LineEnding lineEnding;
 }
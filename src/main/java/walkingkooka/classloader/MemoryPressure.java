@@ -0,0 +1,148 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+
+/**
+ * Notifies the registered {@link MemoryPressureListener listeners} when a heap {@link MemoryPoolMXBean} is still above
+ * its collection usage threshold after a garbage collection. Thresholds and the notification listener are JVM wide, so
+ * nothing is set or registered until {@link #register()} is called, which sets a threshold on every heap pool that
+ * supports one and has none. Listeners are held weakly so a cache that is no longer used may be collected without
+ * being removed.
+ */
+final class MemoryPressure implements NotificationListener {
+
+    /**
+     * The fraction of the maximum size of a pool, above which the pool is under pressure.
+     */
+    final static double USAGE_THRESHOLD = 0.8;
+
+    /**
+     * The singleton that caches add themselves to, which receives notifications only after {@link #register()}.
+     */
+    final static MemoryPressure INSTANCE = new MemoryPressure();
+
+    MemoryPressure() {
+        super();
+    }
+
+    /**
+     * Sets thresholds on heap pools that have none and starts listening for notifications. Calling this again does nothing.
+     */
+    synchronized void register() {
+        if (false == this.registered) {
+            this.registered = true;
+            register0(this);
+        }
+    }
+
+    private static void register0(final NotificationListener listener) {
+        for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (MemoryType.HEAP == pool.getType() && pool.isCollectionUsageThresholdSupported()) {
+                final long max = pool.getUsage()
+                    .getMax();
+                // dont replace a threshold set by the application
+                if (max > 0 && 0 == pool.getCollectionUsageThreshold()) {
+                    pool.setCollectionUsageThreshold(
+                        (long) (max * USAGE_THRESHOLD)
+                    );
+                }
+            }
+        }
+
+        ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).addNotificationListener(
+            listener,
+            null, // filter
+            null // handback
+        );
+    }
+
+    /**
+     * True once thresholds are set and notifications are received.
+     */
+    private boolean registered;
+
+    /**
+     * Adds the listener, first forgetting listeners that have been collected, so the list does not grow when pressure
+     * never occurs.
+     */
+    void add(final MemoryPressureListener listener) {
+        Objects.requireNonNull(listener, "listener");
+
+        this.addReference(
+            new WeakReference<>(listener)
+        );
+    }
+
+    /**
+     * Adds a {@link WeakReference} to a listener, which allows tests to add a reference that has already been cleared.
+     */
+    void addReference(final WeakReference<MemoryPressureListener> reference) {
+        this.listeners.removeIf(r -> null == r.get());
+        this.listeners.add(reference);
+    }
+
+    @Override
+    public void handleNotification(final Notification notification,
+                                   final Object handback) {
+        final String type = notification.getType();
+        if (MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(type) ||
+            MemoryNotificationInfo.MEMORY_THRESHOLD_EXCEEDED.equals(type)) {
+            this.fire();
+        }
+    }
+
+    /**
+     * Notifies all listeners that are still reachable, forgetting those that have been collected.
+     */
+    void fire() {
+        for (final WeakReference<MemoryPressureListener> reference : this.listeners) {
+            final MemoryPressureListener listener = reference.get();
+            if (null == listener) {
+                this.listeners.remove(reference);
+            } else {
+                listener.onMemoryPressure();
+            }
+        }
+    }
+
+    int size() {
+        return this.listeners.size();
+    }
+
+    private final List<WeakReference<MemoryPressureListener>> listeners = new CopyOnWriteArrayList<>();
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.listeners.size() + " listeners";
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import walkingkooka.collect.map.Maps;
+import walkingkooka.reflect.PublicStaticHelper;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+
+/**
+ * Helpers that resolve the entries of a multi-release JAR file, under <code>META-INF/versions/N/</code>, once for a
+ * feature version so that lookups afterwards remain a single probe.
+ */
+final class MultiReleaseJar implements PublicStaticHelper {
+
+    /**
+     * The feature version of the running JRE.
+     */
+    final static int FEATURE = Runtime.version()
+        .feature();
+
+    /**
+     * Versioned directories before this version are ignored, matching {@link java.util.jar.JarFile}.
+     */
+    private final static int BASE_VERSION = 9;
+
+    private final static String VERSIONS = "META-INF/versions/";
+
+    private final static Attributes.Name MULTI_RELEASE = new Attributes.Name("Multi-Release");
+
+    /**
+     * Tests if the {@link Manifest} is present and marks the JAR file as multi-release.
+     */
+    static boolean isMultiRelease(final Manifest manifest) {
+        return null != manifest &&
+            Boolean.parseBoolean(
+                manifest.getMainAttributes()
+                    .getValue(MULTI_RELEASE)
+            );
+    }
+
+    /**
+     * Returns the version of an entry name without a leading slash, or 0 if the entry is not within a version directory
+     * applicable to the given feature version.
+     */
+    static int version(final String name,
+                       final int feature) {
+        int version = 0;
+
+        if (name.startsWith(VERSIONS)) {
+            final int slash = name.indexOf('/', VERSIONS.length());
+            if (slash > VERSIONS.length() && slash < name.length() - 1) {
+                try {
+                    final int parsed = Integer.parseInt(
+                        name.substring(VERSIONS.length(), slash)
+                    );
+                    if (parsed >= BASE_VERSION && parsed <= feature) {
+                        version = parsed;
+                    }
+                } catch (final NumberFormatException ignore) {
+                    // not a version directory
+                }
+            }
+        }
+
+        return version;
+    }
+
+    /**
+     * Returns the base entry name for a versioned entry name, eg <code>META-INF/versions/11/a/b.class</code> returns <code>a/b.class</code>.
+     */
+    static String baseName(final String name) {
+        return name.substring(
+            name.indexOf('/', VERSIONS.length()) + 1
+        );
+    }
+
+    /**
+     * Builds a flat index of entry name to entry. If the JAR is multi-release, each base name maps to the entry from
+     * the highest version directory applicable to the feature version. Versioned entries remain available under
+     * their full name.
+     */
+    static <E> Map<String, E> index(final Collection<E> entries,
+                                    final Function<E, String> names,
+                                    final boolean multiRelease,
+                                    final int feature) {
+        final Map<String, E> index = Maps.hash();
+        final Map<String, Integer> baseNameToVersion = Maps.hash();
+
+        for (final E entry : entries) {
+            final String name = names.apply(entry);
+            index.putIfAbsent(name, entry);
+
+            if (multiRelease) {
+                final int version = version(name, feature);
+                if (version > 0) {
+                    final String baseName = baseName(name);
+                    final Integer previous = baseNameToVersion.get(baseName);
+                    if (null == previous || version > previous) {
+                        baseNameToVersion.put(baseName, version);
+                    }
+                }
+            }
+        }
+
+        for (final Map.Entry<String, Integer> baseNameAndVersion : baseNameToVersion.entrySet()) {
+            final String baseName = baseNameAndVersion.getKey();
+            index.put(
+                baseName,
+                index.get(VERSIONS + baseNameAndVersion.getValue() + "/" + baseName)
+            );
+        }
+
+        return index;
+    }
+
+    /**
+     * Returns a {@link Map} of base path to the versioned path that should replace it for the given feature version.
+     */
+    static Map<ClassLoaderResourcePath, ClassLoaderResourcePath> resolve(final Collection<ClassLoaderResourcePath> paths,
+                                                                        final int feature) {
+        final Map<ClassLoaderResourcePath, ClassLoaderResourcePath> baseToVersioned = Maps.hash();
+        final Map<ClassLoaderResourcePath, Integer> baseToVersion = Maps.hash();
+
+        for (final ClassLoaderResourcePath path : paths) {
+            final String name = path.value()
+                .substring(1);
+            final int version = version(name, feature);
+            if (version > 0) {
+                final ClassLoaderResourcePath base = ClassLoaderResourcePath.parse(
+                    ClassLoaderResourcePath.SEPARATOR.string() + baseName(name)
+                );
+                final Integer previous = baseToVersion.get(base);
+                if (null == previous || version > previous) {
+                    baseToVersion.put(base, version);
+                    baseToVersioned.put(base, path);
+                }
+            }
+        }
+
+        return baseToVersioned;
+    }
+
+    /**
+     * Replaces every base entry with the resource from the highest applicable version directory.
+     */
+    static <V> void resolve(final Map<ClassLoaderResourcePath, V> pathToValue,
+                            final int feature) {
+        for (final Map.Entry<ClassLoaderResourcePath, ClassLoaderResourcePath> baseAndVersioned : resolve(pathToValue.keySet(), feature).entrySet()) {
+            pathToValue.put(
+                baseAndVersioned.getKey(),
+                pathToValue.get(baseAndVersioned.getValue())
+            );
+        }
+    }
+
+    /**
+     * Stop creation
+     */
+    private MultiReleaseJar() {
+        throw new UnsupportedOperationException();
+    }
+}
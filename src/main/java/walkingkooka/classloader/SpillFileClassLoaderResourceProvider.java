@@ -0,0 +1,255 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import walkingkooka.Binary;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.text.LineEnding;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+
+/**
+ * A {@link ClassLoaderResourceProvider} that holds small resources on the heap and reads larger resources from spill
+ * files when their content is first needed, weakly caching those bytes. Directory listings include both. Closing
+ * deletes the spill files.
+ */
+final class SpillFileClassLoaderResourceProvider implements CloseableClassLoaderResourceProvider {
+
+    static SpillFileClassLoaderResourceProvider with(final Map<ClassLoaderResourcePath, ClassLoaderResource> pathToResource,
+                                                     final Map<ClassLoaderResourcePath, Path> pathToFile,
+                                                     final LineEnding lineEnding) {
+        Objects.requireNonNull(pathToResource, "pathToResource");
+        Objects.requireNonNull(pathToFile, "pathToFile");
+        Objects.requireNonNull(lineEnding, "lineEnding");
+
+        return new SpillFileClassLoaderResourceProvider(
+            Maps.immutable(pathToResource),
+            Maps.immutable(pathToFile),
+            lineEnding
+        );
+    }
+
+    private SpillFileClassLoaderResourceProvider(final Map<ClassLoaderResourcePath, ClassLoaderResource> pathToResource,
+                                                 final Map<ClassLoaderResourcePath, Path> pathToFile,
+                                                 final LineEnding lineEnding) {
+        this.pathToResource = pathToResource;
+        this.pathToFile = pathToFile;
+
+        final Map<ClassLoaderResourcePath, ClassLoaderResource> pathToFileResource = Maps.hash();
+        for (final Map.Entry<ClassLoaderResourcePath, Path> pathAndFile : pathToFile.entrySet()) {
+            final ClassLoaderResourcePath path = pathAndFile.getKey();
+            final Path file = pathAndFile.getValue();
+
+            pathToFileResource.put(
+                path,
+                ClassLoaderResource.lazy(
+                    () -> read(
+                        path,
+                        file
+                    ),
+                    true // weak
+                )
+            );
+        }
+        this.pathToFileResource = pathToFileResource;
+
+        this.directoryToListing = listings(
+            pathToResource,
+            pathToFile,
+            lineEnding
+        );
+    }
+
+    /**
+     * Builds the listing of every directory holding a file once, which is the names of the files directly within.
+     */
+    private static Map<ClassLoaderResourcePath, ClassLoaderResource> listings(final Map<ClassLoaderResourcePath, ClassLoaderResource> pathToResource,
+                                                                              final Map<ClassLoaderResourcePath, Path> pathToFile,
+                                                                              final LineEnding lineEnding) {
+        final Set<ClassLoaderResourcePath> paths = Sets.sorted();
+        paths.addAll(pathToResource.keySet());
+        paths.addAll(pathToFile.keySet());
+
+        final String eol = lineEnding.toString();
+        final Map<ClassLoaderResourcePath, StringBuilder> directoryToNames = Maps.sorted();
+        for (final ClassLoaderResourcePath path : paths) {
+            path.parent()
+                .ifPresent(
+                    d -> directoryToNames.computeIfAbsent(
+                        d,
+                        k -> new StringBuilder()
+                    ).append(
+                        path.name()
+                            .value()
+                    ).append(eol)
+                );
+        }
+
+        final Map<ClassLoaderResourcePath, ClassLoaderResource> directoryToListing = Maps.hash();
+        for (final Map.Entry<ClassLoaderResourcePath, StringBuilder> directoryAndNames : directoryToNames.entrySet()) {
+            directoryToListing.put(
+                directoryAndNames.getKey(),
+                ClassLoaderResource.with(
+                    Binary.with(
+                        directoryAndNames.getValue()
+                            .toString()
+                            .getBytes(StandardCharsets.UTF_8)
+                    )
+                )
+            );
+        }
+        return directoryToListing;
+    }
+
+    @Override
+    public Optional<ClassLoaderResource> load(final ClassLoaderResourcePath path) {
+        ClassLoaderResource resource = this.pathToResource.get(path);
+        if (null == resource) {
+            resource = this.pathToFileResource.get(path);
+            if (null == resource) {
+                resource = this.directoryToListing.get(path);
+            }
+        }
+
+        return Optional.ofNullable(resource);
+    }
+
+    @Override
+    public Optional<InputStream> inputStream(final ClassLoaderResourcePath path) {
+        final Path file = this.pathToResource.containsKey(path) ?
+            null :
+            this.pathToFile.get(path);
+
+        final Optional<InputStream> inputStream;
+        if (null != file) {
+            try {
+                inputStream = Optional.of(
+                    Files.newInputStream(file)
+                );
+            } catch (final IOException cause) {
+                throw new ClassFormatError("Error reading " + path + " from " + file + ", " + cause.getMessage());
+            }
+        } else {
+            inputStream = CloseableClassLoaderResourceProvider.super.inputStream(path);
+        }
+        return inputStream;
+    }
+
+    @Override
+    public Optional<ClassLoaderResourceMetadata> metadata(final ClassLoaderResourcePath path) {
+        final Path file = this.pathToResource.containsKey(path) ?
+            null :
+            this.pathToFile.get(path);
+
+        final Optional<ClassLoaderResourceMetadata> metadata;
+        if (null != file) {
+            try {
+                final BasicFileAttributes attributes = Files.readAttributes(
+                    file,
+                    BasicFileAttributes.class
+                );
+                metadata = Optional.of(
+                    DirectoryClassLoaderResourceProvider.metadata(
+                        attributes,
+                        this
+                    )
+                );
+            } catch (final IOException cause) {
+                throw new ClassFormatError("Error reading " + path + " from " + file + ", " + cause.getMessage());
+            }
+        } else {
+            metadata = CloseableClassLoaderResourceProvider.super.metadata(path);
+        }
+        return metadata;
+    }
+
+    @Override
+    public OptionalLong transferTo(final ClassLoaderResourcePath path,
+                                   final WritableByteChannel channel) throws IOException {
+        Objects.requireNonNull(channel, "channel");
+
+        final Path file = this.pathToResource.containsKey(path) ?
+            null :
+            this.pathToFile.get(path);
+
+        return null != file ?
+            OptionalLong.of(
+                WritableByteChannels.transfer(
+                    file,
+                    channel
+                )
+            ) :
+            CloseableClassLoaderResourceProvider.super.transferTo(
+                path,
+                channel
+            );
+    }
+
+    private static Binary read(final ClassLoaderResourcePath path,
+                               final Path file) {
+        try {
+            return Binary.with(
+                Files.readAllBytes(file)
+            );
+        } catch (final IOException cause) {
+            throw new ClassFormatError("Error reading " + path + " from " + file + ", " + cause.getMessage());
+        }
+    }
+
+    /**
+     * Deletes all spill files, after which resources held in spill files can no longer be read.
+     */
+    @Override
+    public void close() throws IOException {
+        for (final Path file : this.pathToFile.values()) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private final Map<ClassLoaderResourcePath, ClassLoaderResource> pathToResource;
+
+    private final Map<ClassLoaderResourcePath, Path> pathToFile;
+
+    /**
+     * Lazy resources for each spill file, read when first used and weakly cached.
+     */
+    private final Map<ClassLoaderResourcePath, ClassLoaderResource> pathToFileResource;
+
+    /**
+     * The listing of every directory holding a file, built once.
+     */
+    private final Map<ClassLoaderResourcePath, ClassLoaderResource> directoryToListing;
+
+    @Override
+    public String toString() {
+        return this.pathToFile.values()
+            .toString();
+    }
+}
@@ -22,8 +22,12 @@ import walkingkooka.text.CharSequences;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Objects;
 import java.util.Optional;
@@ -62,6 +66,68 @@ final class UrlClassLoaderClassLoaderResourceProvider implements ClassLoaderReso
         );
     }
 
+    @Override
+    public Optional<InputStream> inputStream(final ClassLoaderResourcePath path) {
+        return Optional.ofNullable(
+            this.urlClassLoader.getResourceAsStream(
+                path.value()
+                    .substring(1)
+            )
+        );
+    }
+
+    /**
+     * Finds the size from the file or the {@link java.net.URLConnection} of the resource, which for a JAR file is the
+     * size in its central directory, so the resource is not read.
+     */
+    @Override
+    public Optional<ClassLoaderResourceMetadata> metadata(final ClassLoaderResourcePath path) {
+        final URL url = this.urlClassLoader.getResource(
+            path.value()
+                .substring(1)
+        );
+
+        Optional<ClassLoaderResourceMetadata> metadata = Optional.empty();
+        if (null != url) {
+            final long size = size(url);
+            metadata = size >= 0 ?
+                Optional.of(
+                    ClassLoaderResourceMetadata.with(
+                        size,
+                        Optional.empty(), // compressedSize
+                        Optional.empty(), // lastModified
+                        this
+                    )
+                ) :
+                ClassLoaderResourceProvider.super.metadata(path);
+        }
+        return metadata;
+    }
+
+    /**
+     * Returns the size of the resource or -1 if it is unknown or a directory. File URLs are not opened because their connection opens
+     * the file when connected.
+     */
+    private static long size(final URL url) {
+        long size;
+        try {
+            if (FILE_PROTOCOL.equalsIgnoreCase(url.getProtocol())) {
+                final Path file = Paths.get(url.toURI());
+                size = Files.isRegularFile(file) ?
+                    Files.size(file) :
+                    -1; // directory listing
+            } else {
+                size = url.openConnection()
+                    .getContentLengthLong();
+            }
+        } catch (final IOException | URISyntaxException | IllegalArgumentException cause) {
+            size = -1;
+        }
+        return size;
+    }
+
+    private final static String FILE_PROTOCOL = "file";
+
     private ClassLoaderResource classLoaderResource(final InputStream inputStream,
                                                     final String path) {
         try {
@@ -0,0 +1,560 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import walkingkooka.collect.set.Sets;
+import walkingkooka.text.LineEnding;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * A {@link WatchingClassLoaderResourceProvider} that keeps an in memory index of every file below a root directory.
+ * A {@link WatchService} registered on every directory is drained by a daemon thread which updates only the changed
+ * entries of the index, increments the generation and then notifies the listener with the changed paths.
+ * Loads never touch the file system except to read the bytes of an indexed file.
+ */
+final class WatchServiceClassLoaderResourceProvider implements WatchingClassLoaderResourceProvider {
+
+    static WatchServiceClassLoaderResourceProvider with(final Path root,
+                                                        final LineEnding lineEnding,
+                                                        final BiConsumer<Long, Set<ClassLoaderResourcePath>> listener) throws IOException {
+        Objects.requireNonNull(root, "root");
+        Objects.requireNonNull(lineEnding, "lineEnding");
+        Objects.requireNonNull(listener, "listener");
+
+        final Path absolute = root.toAbsolutePath()
+            .normalize();
+
+        final WatchServiceClassLoaderResourceProvider provider = new WatchServiceClassLoaderResourceProvider(
+            absolute,
+            absolute.getFileSystem()
+                .newWatchService(),
+            lineEnding,
+            listener
+        );
+        try {
+            provider.scan(
+                absolute,
+                provider.index,
+                Sets.hash()
+            );
+        } catch (final IOException cause) {
+            provider.close();
+            throw cause;
+        }
+        provider.thread.start();
+        return provider;
+    }
+
+    private WatchServiceClassLoaderResourceProvider(final Path root,
+                                                    final WatchService watchService,
+                                                    final LineEnding lineEnding,
+                                                    final BiConsumer<Long, Set<ClassLoaderResourcePath>> listener) {
+        this.root = root;
+        this.watchService = watchService;
+        this.lineEnding = lineEnding;
+        this.listener = listener;
+
+        final Thread thread = new Thread(
+            this::watch,
+            this.getClass().getSimpleName() + " " + root
+        );
+        thread.setDaemon(true);
+        this.thread = thread;
+    }
+
+    // ClassLoaderResourceProvider......................................................................................
+
+    @Override
+    public Optional<ClassLoaderResource> load(final ClassLoaderResourcePath path) {
+        Objects.requireNonNull(path, "path");
+
+        final Index index = this.index;
+        final ClassLoaderResourcePath filePath = ClassLoaderResourcePath.MANIFEST.equals(path) ?
+            index.manifest :
+            path;
+
+        ClassLoaderResource resource = null;
+
+        final BasicFileAttributes attributes = null != filePath ?
+            index.files.get(filePath) :
+            null;
+        if (null != attributes) {
+            try {
+                resource = DirectoryClassLoaderResourceProvider.read(
+                    this.file(filePath),
+                    attributes.size()
+                );
+            } catch (final NoSuchFileException deleted) {
+                // deleted and the event has not yet been processed
+            } catch (final IOException cause) {
+                throw new ClassFormatError("Error reading " + path + " from " + this.root + ", " + cause.getMessage());
+            }
+        } else {
+            final Set<String> names = index.directories.get(path);
+            if (null != names) {
+                resource = DirectoryClassLoaderResourceProvider.listing(
+                    names,
+                    this.lineEnding
+                );
+            }
+        }
+
+        return Optional.ofNullable(resource);
+    }
+
+    @Override
+    public Optional<InputStream> inputStream(final ClassLoaderResourcePath path) {
+        Objects.requireNonNull(path, "path");
+
+        final Index index = this.index;
+        final ClassLoaderResourcePath filePath = ClassLoaderResourcePath.MANIFEST.equals(path) ?
+            index.manifest :
+            path;
+
+        Optional<InputStream> inputStream;
+        if (null != filePath && index.files.containsKey(filePath)) {
+            try {
+                inputStream = Optional.of(
+                    Files.newInputStream(
+                        this.file(filePath)
+                    )
+                );
+            } catch (final NoSuchFileException deleted) {
+                // deleted and the event has not yet been processed
+                inputStream = Optional.empty();
+            } catch (final IOException cause) {
+                throw new ClassFormatError("Error reading " + path + " from " + this.root + ", " + cause.getMessage());
+            }
+        } else {
+            inputStream = WatchingClassLoaderResourceProvider.super.inputStream(path);
+        }
+        return inputStream;
+    }
+
+    @Override
+    public Optional<ClassLoaderResourceMetadata> metadata(final ClassLoaderResourcePath path) {
+        Objects.requireNonNull(path, "path");
+
+        final Index index = this.index;
+        final ClassLoaderResourcePath filePath = ClassLoaderResourcePath.MANIFEST.equals(path) ?
+            index.manifest :
+            path;
+        final BasicFileAttributes attributes = null != filePath ?
+            index.files.get(filePath) :
+            null;
+
+        return null != attributes ?
+            Optional.of(
+                DirectoryClassLoaderResourceProvider.metadata(
+                    attributes,
+                    this
+                )
+            ) :
+            WatchingClassLoaderResourceProvider.super.metadata(path);
+    }
+
+    @Override
+    public OptionalLong transferTo(final ClassLoaderResourcePath path,
+                                   final WritableByteChannel channel) throws IOException {
+        Objects.requireNonNull(path, "path");
+        Objects.requireNonNull(channel, "channel");
+
+        final Index index = this.index;
+        final ClassLoaderResourcePath filePath = ClassLoaderResourcePath.MANIFEST.equals(path) ?
+            index.manifest :
+            path;
+
+        OptionalLong count;
+        if (null != filePath && index.files.containsKey(filePath)) {
+            try {
+                count = OptionalLong.of(
+                    WritableByteChannels.transfer(
+                        this.file(filePath),
+                        channel
+                    )
+                );
+            } catch (final NoSuchFileException deleted) {
+                // deleted and the event has not yet been processed
+                count = OptionalLong.empty();
+            }
+        } else {
+            count = WatchingClassLoaderResourceProvider.super.transferTo(
+                path,
+                channel
+            );
+        }
+        return count;
+    }
+
+    // WatchingClassLoaderResourceProvider..............................................................................
+
+    @Override
+    public long generation() {
+        return this.generation.get();
+    }
+
+    private final AtomicLong generation = new AtomicLong();
+
+    @Override
+    public void close() throws IOException {
+        this.watchService.close();
+    }
+
+    // index............................................................................................................
+
+    /**
+     * Registers every directory starting at the given directory and indexes every file, adding their paths to changed.
+     */
+    private void scan(final Path directory,
+                      final Index index,
+                      final Set<ClassLoaderResourcePath> changed) throws IOException {
+        Files.walkFileTree(
+            directory,
+            new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(final Path dir,
+                                                         final BasicFileAttributes attributes) throws IOException {
+                    WatchServiceClassLoaderResourceProvider.this.register(
+                        dir,
+                        index
+                    );
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(final Path file,
+                                                 final BasicFileAttributes attributes) {
+                    if (attributes.isRegularFile()) {
+                        WatchServiceClassLoaderResourceProvider.this.add(
+                            file,
+                            attributes,
+                            index,
+                            changed
+                        );
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(final Path file,
+                                                       final IOException cause) throws IOException {
+                    if (cause instanceof NoSuchFileException) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    throw cause;
+                }
+            }
+        );
+    }
+
+    private void register(final Path directory,
+                          final Index index) throws IOException {
+        this.keyToDirectory.put(
+            directory.register(
+                this.watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE,
+                StandardWatchEventKinds.ENTRY_MODIFY
+            ),
+            directory
+        );
+        index.directories.putIfAbsent(
+            this.path(directory),
+            new ConcurrentSkipListSet<>()
+        );
+    }
+
+    private void add(final Path file,
+                     final BasicFileAttributes attributes,
+                     final Index index,
+                     final Set<ClassLoaderResourcePath> changed) {
+        final ClassLoaderResourcePath path = this.path(file);
+
+        index.files.put(
+            path,
+            attributes
+        );
+        index.directories.computeIfAbsent(
+            path.parent()
+                .orElse(ClassLoaderResourcePath.ROOT),
+            (p) -> new ConcurrentSkipListSet<>()
+        ).add(
+            path.name()
+                .value()
+        );
+        if (ClassLoaderResourcePath.MANIFEST.equals(path)) {
+            index.manifest = path;
+        }
+        changed.add(path);
+    }
+
+    /**
+     * Removes the file or directory and everything below it from the index.
+     */
+    private void remove(final Path fileOrDirectory,
+                        final Set<ClassLoaderResourcePath> changed) {
+        final Index index = this.index;
+        final ClassLoaderResourcePath path = this.path(fileOrDirectory);
+
+        if (null != index.files.remove(path)) {
+            final Set<String> names = index.directories.get(
+                path.parent()
+                    .orElse(ClassLoaderResourcePath.ROOT)
+            );
+            if (null != names) {
+                names.remove(
+                    path.name()
+                        .value()
+                );
+            }
+            if (path.equals(index.manifest)) {
+                index.manifest = null;
+            }
+            changed.add(path);
+        } else {
+            if (null != index.directories.remove(path)) {
+                final String prefix = path.value() + ClassLoaderResourcePath.SEPARATOR.string();
+
+                index.directories.keySet()
+                    .removeIf(d -> d.value().startsWith(prefix));
+
+                for (final ClassLoaderResourcePath file : index.files.keySet()) {
+                    if (file.value().startsWith(prefix)) {
+                        index.files.remove(file);
+                        if (file.equals(index.manifest)) {
+                            index.manifest = null;
+                        }
+                        changed.add(file);
+                    }
+                }
+            }
+        }
+    }
+
+    private void modify(final Path file,
+                        final Set<ClassLoaderResourcePath> changed) throws IOException {
+        try {
+            final BasicFileAttributes attributes = Files.readAttributes(
+                file,
+                BasicFileAttributes.class,
+                LinkOption.NOFOLLOW_LINKS
+            );
+            if (attributes.isRegularFile()) {
+                this.add(
+                    file,
+                    attributes,
+                    this.index,
+                    changed
+                );
+            }
+        } catch (final NoSuchFileException deleted) {
+            // a delete event will follow
+        }
+    }
+
+    private ClassLoaderResourcePath path(final Path file) {
+        return DirectoryClassLoaderResourceProvider.path(
+            this.root,
+            file
+        );
+    }
+
+    private Path file(final ClassLoaderResourcePath path) {
+        Path file = this.root;
+
+        for (final String name : path.value().split(ClassLoaderResourcePath.SEPARATOR.string())) {
+            if (false == name.isEmpty()) {
+                file = file.resolve(name);
+            }
+        }
+        return file;
+    }
+
+    /**
+     * The current index, replaced in a single write when it is rebuilt so readers never see a partial index.
+     */
+    private volatile Index index = new Index();
+
+    /**
+     * The files and directories below the root. Only the watch thread updates an index.
+     */
+    private final static class Index {
+
+        /**
+         * Every regular file below the root.
+         */
+        final Map<ClassLoaderResourcePath, BasicFileAttributes> files = new ConcurrentHashMap<>();
+
+        /**
+         * Every directory below and including the root with the sorted names of the files directly within.
+         */
+        final Map<ClassLoaderResourcePath, Set<String>> directories = new ConcurrentHashMap<>();
+
+        /**
+         * The path of the manifest in its actual case, or null if there is none.
+         */
+        volatile ClassLoaderResourcePath manifest;
+    }
+
+    // watch............................................................................................................
+
+    /**
+     * Runs on the watch thread until the {@link WatchService} is closed. All ready keys are drained before the
+     * generation is incremented, so a burst of changes becomes a single notification.
+     */
+    private void watch() {
+        final WatchService watchService = this.watchService;
+
+        try {
+            for (; ; ) {
+                final Set<ClassLoaderResourcePath> changed = Sets.hash();
+
+                WatchKey key = watchService.take();
+                while (null != key) {
+                    this.process(
+                        key,
+                        changed
+                    );
+                    key = watchService.poll();
+                }
+
+                if (false == changed.isEmpty()) {
+                    final long generation = this.generation.incrementAndGet();
+                    try {
+                        this.listener.accept(
+                            generation,
+                            Sets.immutable(changed)
+                        );
+                    } catch (final RuntimeException ignore) {
+                        // a failing listener must not stop watching
+                    }
+                }
+            }
+        } catch (final ClosedWatchServiceException | InterruptedException stop) {
+            // closed
+        }
+    }
+
+    private void process(final WatchKey key,
+                         final Set<ClassLoaderResourcePath> changed) {
+        final Path directory = this.keyToDirectory.get(key);
+
+        for (final WatchEvent<?> event : key.pollEvents()) {
+            final WatchEvent.Kind<?> kind = event.kind();
+
+            try {
+                if (StandardWatchEventKinds.OVERFLOW == kind) {
+                    this.rescan(changed);
+                } else if (null != directory) {
+                    final Path file = directory.resolve((Path) event.context());
+
+                    if (StandardWatchEventKinds.ENTRY_CREATE == kind) {
+                        if (Files.isDirectory(file, LinkOption.NOFOLLOW_LINKS)) {
+                            this.scan(
+                                file,
+                                this.index,
+                                changed
+                            );
+                        } else {
+                            this.modify(
+                                file,
+                                changed
+                            );
+                        }
+                    } else if (StandardWatchEventKinds.ENTRY_DELETE == kind) {
+                        this.remove(
+                            file,
+                            changed
+                        );
+                    } else {
+                        this.modify(
+                            file,
+                            changed
+                        );
+                    }
+                }
+            } catch (final IOException cause) {
+                // the file or directory was deleted while being indexed, a delete event will follow
+            }
+        }
+
+        if (false == key.reset()) {
+            this.keyToDirectory.remove(key);
+        }
+    }
+
+    /**
+     * Events were lost, build a new index and then replace the current index, readers continue to use the current
+     * index until the new index is complete.
+     */
+    void rescan(final Set<ClassLoaderResourcePath> changed) throws IOException {
+        final Index index = new Index();
+
+        this.scan(
+            this.root,
+            index,
+            changed
+        );
+
+        changed.addAll(this.index.files.keySet());
+        this.index = index;
+    }
+
+    private final Map<WatchKey, Path> keyToDirectory = new ConcurrentHashMap<>();
+
+    private final WatchService watchService;
+
+    private final Thread thread;
+
+    private final BiConsumer<Long, Set<ClassLoaderResourcePath>> listener;
+
+    private final Path root;
+
+    private final LineEnding lineEnding;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.root.toString();
+    }
+}
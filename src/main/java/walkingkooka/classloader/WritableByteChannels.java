@@ -0,0 +1,128 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import walkingkooka.reflect.PublicStaticHelper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Helpers that write resource bytes to a {@link WritableByteChannel}.
+ */
+final class WritableByteChannels implements PublicStaticHelper {
+
+    /**
+     * The size of the buffer used when copying from an {@link InputStream}.
+     */
+    private final static int BUFFER_SIZE = 8192;
+
+    /**
+     * Writes all the remaining bytes of the given {@link ByteBuffer}, returning the number of bytes written.
+     */
+    static long write(final ByteBuffer buffer,
+                      final WritableByteChannel channel) throws IOException {
+        final long count = buffer.remaining();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        return count;
+    }
+
+    /**
+     * Transfers a region of the given file using {@link FileChannel#transferTo(long, long, WritableByteChannel)} so
+     * the bytes may be sent by the operating system without being copied into the heap. The channel should be
+     * blocking, as a transfer that writes nothing is treated as the end of the file.
+     */
+    static long transfer(final Path file,
+                         final long position,
+                         final long count,
+                         final WritableByteChannel channel) throws IOException {
+        try (final FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long transferred = 0;
+
+            while (transferred < count) {
+                final long written = fileChannel.transferTo(
+                    position + transferred,
+                    count - transferred,
+                    channel
+                );
+                if (written <= 0) {
+                    // end of file
+                    break;
+                }
+                transferred += written;
+            }
+
+            return transferred;
+        }
+    }
+
+    /**
+     * Transfers the whole of the given file.
+     */
+    static long transfer(final Path file,
+                         final WritableByteChannel channel) throws IOException {
+        return transfer(
+            file,
+            0,
+            Long.MAX_VALUE, // until the end of the file
+            channel
+        );
+    }
+
+    /**
+     * Copies the given {@link InputStream} a buffer at a time, returning the number of bytes written. The
+     * {@link InputStream} is not closed.
+     */
+    static long copy(final InputStream inputStream,
+                     final WritableByteChannel channel) throws IOException {
+        final byte[] bytes = new byte[BUFFER_SIZE];
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long count = 0;
+
+        for (; ; ) {
+            final int read = inputStream.read(bytes);
+            if (-1 == read) {
+                break;
+            }
+            buffer.clear()
+                .limit(read);
+            count += write(
+                buffer,
+                channel
+            );
+        }
+
+        return count;
+    }
+
+    /**
+     * Stop creation
+     */
+    private WritableByteChannels() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,430 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * A random access reader of a zip or jar archive held in a {@link ByteBuffer}. Only the central directory is read
+ * when the archive is created, entries are located by offset and inflated only when they are read.
+ * <br>
+ * The {@link ByteBuffer} may be a memory mapped file or a slice of another {@link ZipArchive} which allows STORED
+ * nested archives to be read without copying their bytes.
+ */
+final class ZipArchive {
+
+    private final static int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+
+    private final static int END_OF_CENTRAL_DIRECTORY_LENGTH = 22;
+
+    private final static int CENTRAL_DIRECTORY_HEADER = 0x02014b50;
+
+    private final static int CENTRAL_DIRECTORY_HEADER_LENGTH = 46;
+
+    private final static int LOCAL_FILE_HEADER = 0x04034b50;
+
+    private final static int LOCAL_FILE_HEADER_LENGTH = 30;
+
+    private final static int MAX_COMMENT_LENGTH = 0xFFFF;
+
+    /**
+     * Memory maps the given file and reads its central directory.
+     */
+    static ZipArchive map(final Path file) throws IOException {
+        Objects.requireNonNull(file, "file");
+
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new ZipException("Archive too large to map " + file);
+            }
+            return with(
+                channel.map(
+                    FileChannel.MapMode.READ_ONLY,
+                    0,
+                    size
+                ),
+                file.toString(),
+                file
+            );
+        }
+    }
+
+    /**
+     * Reads the central directory of the archive held by the given {@link ByteBuffer}.
+     */
+    static ZipArchive with(final ByteBuffer buffer,
+                           final String name) throws IOException {
+        Objects.requireNonNull(buffer, "buffer");
+        Objects.requireNonNull(name, "name");
+
+        return with(
+            buffer,
+            name,
+            null
+        );
+    }
+
+    private static ZipArchive with(final ByteBuffer buffer,
+                                   final String name,
+                                   final Path file) throws IOException {
+        final ByteBuffer littleEndian = buffer.slice()
+            .order(ByteOrder.LITTLE_ENDIAN);
+
+        return new ZipArchive(
+            littleEndian,
+            entries(
+                littleEndian,
+                name
+            ),
+            name,
+            file
+        );
+    }
+
+    private static List<ZipArchiveEntry> entries(final ByteBuffer buffer,
+                                                 final String name) throws IOException {
+        final int end = endOfCentralDirectory(buffer, name);
+
+        final int count = buffer.getShort(end + 10) & 0xFFFF;
+        final long centralDirectoryOffset = buffer.getInt(end + 16) & 0xFFFFFFFFL;
+        if (0xFFFF == count || 0xFFFFFFFFL == centralDirectoryOffset) {
+            throw new ZipException("Zip64 archives are not supported " + name);
+        }
+
+        // compare as a long, an offset of 2GB or more would be negative as an int
+        if (centralDirectoryOffset > buffer.limit()) {
+            throw new ZipException("Invalid central directory offset " + centralDirectoryOffset + " in " + name);
+        }
+
+        final List<ZipArchiveEntry> entries = Lists.array();
+
+        int offset = (int) centralDirectoryOffset;
+        for (int i = 0; i < count; i++) {
+            if ((long) offset + CENTRAL_DIRECTORY_HEADER_LENGTH > buffer.limit() || CENTRAL_DIRECTORY_HEADER != buffer.getInt(offset)) {
+                throw new ZipException("Invalid central directory header at " + offset + " in " + name);
+            }
+
+            final int method = buffer.getShort(offset + 10) & 0xFFFF;
+            final long dosTime = buffer.getInt(offset + 12) & 0xFFFFFFFFL;
+            final long compressedSize = buffer.getInt(offset + 20) & 0xFFFFFFFFL;
+            final long size = buffer.getInt(offset + 24) & 0xFFFFFFFFL;
+            final int nameLength = buffer.getShort(offset + 28) & 0xFFFF;
+            final int extraLength = buffer.getShort(offset + 30) & 0xFFFF;
+            final int commentLength = buffer.getShort(offset + 32) & 0xFFFF;
+            final long localHeaderOffset = buffer.getInt(offset + 42) & 0xFFFFFFFFL;
+
+            if ((long) offset + CENTRAL_DIRECTORY_HEADER_LENGTH + nameLength > buffer.limit()) {
+                throw new ZipException("Invalid central directory entry name at " + offset + " in " + name);
+            }
+
+            final byte[] entryName = new byte[nameLength];
+            buffer.duplicate()
+                .position(offset + CENTRAL_DIRECTORY_HEADER_LENGTH)
+                .get(entryName);
+
+            entries.add(
+                ZipArchiveEntry.with(
+                    new String(entryName, StandardCharsets.UTF_8),
+                    method,
+                    dosTime,
+                    compressedSize,
+                    size,
+                    localHeaderOffset
+                )
+            );
+
+            offset += CENTRAL_DIRECTORY_HEADER_LENGTH + nameLength + extraLength + commentLength;
+        }
+
+        return entries;
+    }
+
+    /**
+     * Scans backwards from the end of the archive skipping over any archive comment for the end of central directory record.
+     */
+    private static int endOfCentralDirectory(final ByteBuffer buffer,
+                                             final String name) throws IOException {
+        final int last = buffer.limit() - END_OF_CENTRAL_DIRECTORY_LENGTH;
+        final int first = Math.max(0, last - MAX_COMMENT_LENGTH);
+
+        for (int i = last; i >= first; i--) {
+            if (END_OF_CENTRAL_DIRECTORY == buffer.getInt(i)) {
+                return i;
+            }
+        }
+
+        throw new ZipException("End of central directory missing " + name);
+    }
+
+    private ZipArchive(final ByteBuffer buffer,
+                       final List<ZipArchiveEntry> entries,
+                       final String name,
+                       final Path file) {
+        this.buffer = buffer;
+        this.entries = entries;
+
+        final Map<String, ZipArchiveEntry> nameToEntry = Maps.hash();
+        for (final ZipArchiveEntry entry : entries) {
+            nameToEntry.putIfAbsent(entry.name, entry);
+        }
+        this.nameToEntry = nameToEntry;
+        this.name = name;
+        this.file = file;
+    }
+
+    /**
+     * All entries in central directory order.
+     */
+    List<ZipArchiveEntry> entries() {
+        return this.entries;
+    }
+
+    private final List<ZipArchiveEntry> entries;
+
+    /**
+     * Returns the entry with the given name or null.
+     */
+    ZipArchiveEntry entry(final String name) {
+        return this.nameToEntry.get(name);
+    }
+
+    private final Map<String, ZipArchiveEntry> nameToEntry;
+
+    /**
+     * Returns a read only slice holding the possibly compressed bytes of the given entry.
+     */
+    ByteBuffer data(final ZipArchiveEntry entry) throws IOException {
+        final int start = this.dataOffset(entry);
+
+        return this.buffer.duplicate()
+            .limit((int) (start + entry.compressedSize))
+            .position(start)
+            .slice()
+            .asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the offset of the possibly compressed bytes of the given entry, after checking its local file header.
+     */
+    private int dataOffset(final ZipArchiveEntry entry) throws IOException {
+        final ByteBuffer buffer = this.buffer;
+
+        final long localHeaderOffset = entry.localHeaderOffset;
+        if (localHeaderOffset + LOCAL_FILE_HEADER_LENGTH > buffer.limit() || LOCAL_FILE_HEADER != buffer.getInt((int) localHeaderOffset)) {
+            throw new ZipException("Invalid local file header for " + entry + " in " + this.name);
+        }
+
+        final int local = (int) localHeaderOffset;
+        final long start = localHeaderOffset +
+            LOCAL_FILE_HEADER_LENGTH +
+            (buffer.getShort(local + 26) & 0xFFFF) +
+            (buffer.getShort(local + 28) & 0xFFFF);
+        final long end = start + entry.compressedSize;
+        if (end > buffer.limit()) {
+            throw new ZipException("Truncated entry " + entry + " in " + this.name);
+        }
+
+        return (int) start;
+    }
+
+    /**
+     * Returns the uncompressed bytes of the given entry. STORED entries are returned as a slice without any copying,
+     * DEFLATED entries are inflated into a new heap buffer.
+     */
+    ByteBuffer contents(final ZipArchiveEntry entry) throws IOException {
+        final ByteBuffer data = this.data(entry);
+        return entry.isStored() ?
+            data :
+            ByteBuffer.wrap(this.inflate(entry, data));
+    }
+
+    /**
+     * Opens the given entry as a nested {@link ZipArchive}.
+     */
+    ZipArchive nested(final ZipArchiveEntry entry) throws IOException {
+        return with(
+            this.contents(entry),
+            this + "!/" + entry.name
+        );
+    }
+
+    /**
+     * Returns an {@link java.io.InputStream} that reads or inflates the given entry as it is read.
+     */
+    ZipArchiveEntryInputStream inputStream(final ZipArchiveEntry entry) throws IOException {
+        final ByteBuffer data = this.data(entry);
+
+        if (entry.isStored()) {
+            return ZipArchiveEntryInputStream.stored(data);
+        }
+        if (ZipArchiveEntry.DEFLATED != entry.method) {
+            throw new ZipException("Unsupported compression method " + entry.method + " for " + entry + " in " + this.name);
+        }
+        return ZipArchiveEntryInputStream.deflated(
+            data,
+            entry.size
+        );
+    }
+
+    /**
+     * Writes the uncompressed bytes of the given entry to the {@link WritableByteChannel}, returning the number of bytes
+     * written. STORED entries of a {@link #map(Path) mapped} archive are transferred from the file using
+     * {@link FileChannel#transferTo(long, long, WritableByteChannel)}, other STORED entries are written from the
+     * buffer and DEFLATED entries are inflated a buffer at a time.
+     */
+    long transferTo(final ZipArchiveEntry entry,
+                    final WritableByteChannel channel) throws IOException {
+        final long count;
+
+        if (entry.isStored()) {
+            final Path file = this.file;
+            count = null != file ?
+                WritableByteChannels.transfer(
+                    file,
+                    this.dataOffset(entry),
+                    entry.compressedSize,
+                    channel
+                ) :
+                WritableByteChannels.write(
+                    this.data(entry),
+                    channel
+                );
+        } else {
+            try (final InputStream inputStream = this.inputStream(entry)) {
+                count = WritableByteChannels.copy(
+                    inputStream,
+                    channel
+                );
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns a copy of the uncompressed bytes of the given entry.
+     */
+    byte[] read(final ZipArchiveEntry entry) throws IOException {
+        final ByteBuffer data = this.data(entry);
+
+        final byte[] bytes;
+        if (entry.isStored()) {
+            bytes = new byte[data.remaining()];
+            data.get(bytes);
+        } else {
+            bytes = this.inflate(entry, data);
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns up to length uncompressed bytes of the given entry starting at the offset. STORED entries copy only the
+     * range, DEFLATED entries are inflated up to the end of the range.
+     */
+    byte[] read(final ZipArchiveEntry entry,
+                final long offset,
+                final int length) throws IOException {
+        final byte[] bytes;
+
+        if (entry.isStored()) {
+            bytes = ClassLoaderResourceRanges.read(
+                this.data(entry),
+                offset,
+                length
+            );
+        } else {
+            try (final InputStream inputStream = this.inputStream(entry)) {
+                bytes = ClassLoaderResourceRanges.read(
+                    inputStream,
+                    offset,
+                    length
+                );
+            }
+        }
+
+        return bytes;
+    }
+
+    private byte[] inflate(final ZipArchiveEntry entry,
+                           final ByteBuffer data) throws IOException {
+        if (ZipArchiveEntry.DEFLATED != entry.method) {
+            throw new ZipException("Unsupported compression method " + entry.method + " for " + entry + " in " + this.name);
+        }
+        if (entry.size > Integer.MAX_VALUE) {
+            throw new ZipException("Entry too large " + entry + " in " + this.name);
+        }
+
+        final byte[] bytes = new byte[(int) entry.size];
+        final Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data);
+
+            int offset = 0;
+            while (offset < bytes.length) {
+                final int count = inflater.inflate(bytes, offset, bytes.length - offset);
+                if (0 == count && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                offset += count;
+            }
+            if (offset != bytes.length) {
+                throw new ZipException("Truncated entry " + entry + " in " + this.name);
+            }
+        } catch (final DataFormatException cause) {
+            throw new ZipException("Corrupt entry " + entry + " in " + this.name + ", " + cause.getMessage());
+        } finally {
+            inflater.end();
+        }
+
+        return bytes;
+    }
+
+    private final ByteBuffer buffer;
+
+    /**
+     * The mapped file or null if the archive was not {@link #map(Path) mapped}.
+     */
+    private final Path file;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+
+    private final String name;
+}
@@ -0,0 +1,526 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import walkingkooka.Binary;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.text.LineEnding;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.jar.Manifest;
+
+/**
+ * A {@link ClassLoaderResourceProvider} that reads entries from a {@link ZipArchive} on demand. Entries under the
+ * libs directory are not served, instead each is opened as a nested {@link ZipArchive} and cascaded after this
+ * provider in archive order, matching {@link ClassLoaderResourceProviders#jarFileWithLibs(java.util.jar.JarInputStream, LineEnding)}.
+ * Entries of a multi-release archive are resolved once for the running feature version.
+ */
+final class ZipArchiveClassLoaderResourceProvider implements ClassLoaderResourceProvider {
+
+    final static String LIBS = "libs/";
+
+    private final static String MANIFEST = ClassLoaderResourcePath.MANIFEST.value()
+        .substring(1);
+
+    /**
+     * Creates a {@link ClassLoaderResourceProvider} that serves every entry of the given {@link ZipArchive}, including
+     * those under the libs directory, like a JAR file on a class path.
+     */
+    static ZipArchiveClassLoaderResourceProvider with(final ZipArchive archive,
+                                                      final LineEnding lineEnding) throws IOException {
+        Objects.requireNonNull(archive, "archive");
+        Objects.requireNonNull(lineEnding, "lineEnding");
+
+        return new ZipArchiveClassLoaderResourceProvider(
+            archive,
+            lineEnding,
+            false
+        );
+    }
+
+    /**
+     * Creates a {@link ClassLoaderResourceProvider} for the given {@link ZipArchive} and any nested archives in its libs directory.
+     */
+    static ClassLoaderResourceProvider withLibs(final ZipArchive archive,
+                                                final LineEnding lineEnding) throws IOException {
+        return withLibs(
+            archive,
+            lineEnding,
+            ZipArchive::nested
+        );
+    }
+
+    /**
+     * Creates a {@link ClassLoaderResourceProvider} for the given {@link ZipArchive} using the {@link ZipArchiveLibOpener}
+     * to open each of the nested archives in its libs directory.
+     */
+    static ClassLoaderResourceProvider withLibs(final ZipArchive archive,
+                                                final LineEnding lineEnding,
+                                                final ZipArchiveLibOpener libs) throws IOException {
+        Objects.requireNonNull(archive, "archive");
+        Objects.requireNonNull(lineEnding, "lineEnding");
+        Objects.requireNonNull(libs, "libs");
+
+        final List<ClassLoaderResourceProvider> all = Lists.array();
+        all.add(
+            new ZipArchiveClassLoaderResourceProvider(
+                archive,
+                lineEnding,
+                true
+            )
+        );
+
+        for (final ZipArchiveEntry entry : archive.entries()) {
+            if (isLib(entry)) {
+                all.add(
+                    withLibs(
+                        libs.open(
+                            archive,
+                            entry
+                        ),
+                        lineEnding,
+                        libs
+                    )
+                );
+            }
+        }
+
+        return CascadingClassLoaderResourceProvider.with(all);
+    }
+
+    private static boolean isLib(final ZipArchiveEntry entry) {
+        return false == entry.isDirectory() && entry.name.startsWith(LIBS);
+    }
+
+    private ZipArchiveClassLoaderResourceProvider(final ZipArchive archive,
+                                                  final LineEnding lineEnding,
+                                                  final boolean libs) throws IOException {
+        this.archive = archive;
+        this.lineEnding = lineEnding;
+        this.libs = libs;
+
+        final ZipArchiveEntry manifest = manifest(archive);
+        this.manifest = manifest;
+
+        this.index = ClassLoaderResourceNameIndex.with(
+            MultiReleaseJar.index(
+                archive.entries(),
+                e -> e.name,
+                isMultiRelease(
+                    archive,
+                    manifest
+                ),
+                MultiReleaseJar.FEATURE
+            )
+        );
+
+        final Map<String, Boolean> directories = Maps.hash();
+        final char separator = ClassLoaderResourcePath.SEPARATOR.character();
+
+        for (final ZipArchiveEntry entry : archive.entries()) {
+            final String name = entry.name;
+            final int last = name.lastIndexOf(separator);
+
+            if (last > 0 && last < name.length() - 1 && false == this.isHiddenLib(entry)) {
+                directories.put(
+                    name.substring(0, last),
+                    Boolean.TRUE
+                );
+            }
+        }
+        this.directories = ClassLoaderResourceNameIndex.with(directories);
+    }
+
+    /**
+     * Returns the manifest entry ignoring case or null if the archive has no manifest.
+     */
+    static ZipArchiveEntry manifest(final ZipArchive archive) {
+        ZipArchiveEntry manifest = null;
+        for (final ZipArchiveEntry entry : archive.entries()) {
+            if (MANIFEST.equalsIgnoreCase(entry.name)) {
+                manifest = entry;
+                break;
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * Tests if the manifest entry if present marks the archive as multi-release.
+     */
+    static boolean isMultiRelease(final ZipArchive archive,
+                                  final ZipArchiveEntry manifest) throws IOException {
+        return null != manifest &&
+            MultiReleaseJar.isMultiRelease(
+                new Manifest(
+                    new ByteArrayInputStream(
+                        archive.read(manifest)
+                    )
+                )
+            );
+    }
+
+    @Override
+    public Optional<ClassLoaderResource> load(final ClassLoaderResourcePath path) {
+        Objects.requireNonNull(path, "path");
+
+        try {
+            final ZipArchiveEntry entry = this.entry(path);
+
+            return Optional.ofNullable(
+                null != entry ?
+                    ClassLoaderResource.with(
+                        Binary.with(
+                            this.archive.read(entry)
+                        )
+                    ) :
+                    this.listing(path)
+            );
+        } catch (final IOException cause) {
+            throw new ClassFormatError("Error reading " + path + " from " + this.archive + ", " + cause.getMessage());
+        }
+    }
+
+    /**
+     * Reads the file entries sorted by their local header offset so the archive is read from start to end, then any
+     * directory listings.
+     */
+    @Override
+    public Map<ClassLoaderResourcePath, ClassLoaderResource> loadAll(final Collection<ClassLoaderResourcePath> paths) {
+        Objects.requireNonNull(paths, "paths");
+
+        final Map<ClassLoaderResourcePath, ClassLoaderResource> pathToResource = Maps.sorted();
+        final Map<ClassLoaderResourcePath, ZipArchiveEntry> pathToEntry = Maps.hash();
+        final List<ClassLoaderResourcePath> others = Lists.array();
+
+        for (final ClassLoaderResourcePath path : paths) {
+            final ZipArchiveEntry entry = this.entry(path);
+            if (null != entry) {
+                pathToEntry.put(
+                    path,
+                    entry
+                );
+            } else {
+                others.add(path);
+            }
+        }
+
+        final List<ClassLoaderResourcePath> files = Lists.array();
+        files.addAll(pathToEntry.keySet());
+        files.sort(
+            Comparator.comparingLong(p -> pathToEntry.get(p).localHeaderOffset)
+        );
+
+        for (final ClassLoaderResourcePath path : files) {
+            try {
+                pathToResource.put(
+                    path,
+                    ClassLoaderResource.with(
+                        Binary.with(
+                            this.archive.read(
+                                pathToEntry.get(path)
+                            )
+                        )
+                    )
+                );
+            } catch (final IOException cause) {
+                throw new ClassFormatError("Error reading " + path + " from " + this.archive + ", " + cause.getMessage());
+            }
+        }
+
+        for (final ClassLoaderResourcePath path : others) {
+            final ClassLoaderResource listing = this.listing(path);
+            if (null != listing) {
+                pathToResource.put(
+                    path,
+                    listing
+                );
+            }
+        }
+
+        return pathToResource;
+    }
+
+    /**
+     * Probes the index with the characters of the name, only parsing a {@link ClassLoaderResourcePath} for directory
+     * listings, the manifest or names that are not normalized.
+     */
+    @Override
+    public Optional<ClassLoaderResource> loadName(final CharSequence name) {
+        Objects.requireNonNull(name, "name");
+
+        final int start = ClassLoaderResourcePath.nameStart(name);
+
+        final Optional<ClassLoaderResource> resource;
+
+        if (ClassLoaderResourcePath.isNormalized(name, start) && false == ClassLoaderResourcePath.isManifest(name, start)) {
+            final ZipArchiveEntry entry = this.entry(name, start);
+            if (null != entry) {
+                try {
+                    resource = Optional.of(
+                        ClassLoaderResource.with(
+                            Binary.with(
+                                this.archive.read(entry)
+                            )
+                        )
+                    );
+                } catch (final IOException cause) {
+                    throw new ClassFormatError("Error reading " + name + " from " + this.archive + ", " + cause.getMessage());
+                }
+            } else {
+                resource = null != this.directories.get(name, start) ?
+                    ClassLoaderResourceProvider.super.loadName(name) :
+                    Optional.empty();
+            }
+        } else {
+            resource = ClassLoaderResourceProvider.super.loadName(name);
+        }
+
+        return resource;
+    }
+
+    @Override
+    public Optional<InputStream> inputStreamName(final CharSequence name) {
+        Objects.requireNonNull(name, "name");
+
+        final int start = ClassLoaderResourcePath.nameStart(name);
+
+        final Optional<InputStream> inputStream;
+
+        if (ClassLoaderResourcePath.isNormalized(name, start) && false == ClassLoaderResourcePath.isManifest(name, start)) {
+            final ZipArchiveEntry entry = this.entry(name, start);
+            if (null != entry) {
+                try {
+                    inputStream = Optional.of(
+                        this.archive.inputStream(entry)
+                    );
+                } catch (final IOException cause) {
+                    throw new ClassFormatError("Error reading " + name + " from " + this.archive + ", " + cause.getMessage());
+                }
+            } else {
+                inputStream = null != this.directories.get(name, start) ?
+                    ClassLoaderResourceProvider.super.inputStreamName(name) :
+                    Optional.empty();
+            }
+        } else {
+            inputStream = ClassLoaderResourceProvider.super.inputStreamName(name);
+        }
+
+        return inputStream;
+    }
+
+    @Override
+    public Optional<InputStream> inputStream(final ClassLoaderResourcePath path) {
+        Objects.requireNonNull(path, "path");
+
+        final ZipArchiveEntry entry = this.entry(path);
+        try {
+            return null != entry ?
+                Optional.of(
+                    this.archive.inputStream(entry)
+                ) :
+                ClassLoaderResourceProvider.super.inputStream(path);
+        } catch (final IOException cause) {
+            throw new ClassFormatError("Error reading " + path + " from " + this.archive + ", " + cause.getMessage());
+        }
+    }
+
+    @Override
+    public Optional<ClassLoaderResourceMetadata> metadata(final ClassLoaderResourcePath path) {
+        Objects.requireNonNull(path, "path");
+
+        final ZipArchiveEntry entry = this.entry(path);
+        return null != entry ?
+            Optional.of(
+                ClassLoaderResourceMetadata.with(
+                    entry.size,
+                    entry.isStored() ?
+                        Optional.empty() :
+                        Optional.of(entry.compressedSize),
+                    entry.lastModified(),
+                    this
+                )
+            ) :
+            ClassLoaderResourceProvider.super.metadata(path);
+    }
+
+    @Override
+    public Optional<Binary> range(final ClassLoaderResourcePath path,
+                                  final long offset,
+                                  final int length) {
+        Objects.requireNonNull(path, "path");
+        ClassLoaderResourceRanges.check(
+            offset,
+            length
+        );
+
+        final ZipArchiveEntry entry = this.entry(path);
+        try {
+            return null != entry ?
+                Optional.of(
+                    Binary.with(
+                        this.archive.read(
+                            entry,
+                            offset,
+                            length
+                        )
+                    )
+                ) :
+                ClassLoaderResourceProvider.super.range(
+                    path,
+                    offset,
+                    length
+                );
+        } catch (final IOException cause) {
+            throw new ClassFormatError("Error reading " + path + " from " + this.archive + ", " + cause.getMessage());
+        }
+    }
+
+    @Override
+    public OptionalLong transferTo(final ClassLoaderResourcePath path,
+                                   final WritableByteChannel channel) throws IOException {
+        Objects.requireNonNull(path, "path");
+        Objects.requireNonNull(channel, "channel");
+
+        final ZipArchiveEntry entry = this.entry(path);
+        return null != entry ?
+            OptionalLong.of(
+                this.archive.transferTo(
+                    entry,
+                    channel
+                )
+            ) :
+            ClassLoaderResourceProvider.super.transferTo(
+                path,
+                channel
+            );
+    }
+
+    /**
+     * Returns the file entry for the given path or null if it is missing, a directory or a hidden lib.
+     */
+    private ZipArchiveEntry entry(final ClassLoaderResourcePath path) {
+        return ClassLoaderResourcePath.MANIFEST.equals(path) ?
+            this.fileOrNull(this.manifest) :
+            this.entry(
+                path.value(),
+                1
+            );
+    }
+
+    /**
+     * Returns the file entry for the characters of the name from start, which must not be the manifest, or null.
+     */
+    private ZipArchiveEntry entry(final CharSequence name,
+                                  final int start) {
+        return this.fileOrNull(
+            this.index.get(
+                name,
+                start
+            )
+        );
+    }
+
+    private ZipArchiveEntry fileOrNull(final ZipArchiveEntry entry) {
+        return null != entry && (entry.isDirectory() || this.isHiddenLib(entry)) ?
+            null :
+            entry;
+    }
+
+    /**
+     * Builds a text file holding the names of the files directly within the given directory or returns null if there are none.
+     */
+    private ClassLoaderResource listing(final ClassLoaderResourcePath parent) {
+        final String prefix = parent.isRoot() ?
+            "" :
+            parent.value()
+                .substring(1)
+                .concat(ClassLoaderResourcePath.SEPARATOR.string());
+        final int prefixLength = prefix.length();
+        final LineEnding lineEnding = this.lineEnding;
+
+        final StringBuilder listing = new StringBuilder();
+
+        for (final ZipArchiveEntry entry : this.archive.entries()) {
+            final String name = entry.name;
+            if (name.length() > prefixLength &&
+                name.startsWith(prefix) &&
+                -1 == name.indexOf(ClassLoaderResourcePath.SEPARATOR.character(), prefixLength) &&
+                false == this.isHiddenLib(entry)) {
+                listing.append(name, prefixLength, name.length())
+                    .append(lineEnding);
+            }
+        }
+
+        return listing.length() > 0 ?
+            ClassLoaderResource.with(
+                Binary.with(
+                    listing.toString()
+                        .getBytes(StandardCharsets.UTF_8)
+                )
+            ) :
+            null;
+    }
+
+    /**
+     * Libs are hidden when they are served by their own cascaded provider.
+     */
+    private boolean isHiddenLib(final ZipArchiveEntry entry) {
+        return this.libs && isLib(entry);
+    }
+
+    private final boolean libs;
+
+    private final ZipArchive archive;
+
+    /**
+     * The manifest entry if one was present, located ignoring case.
+     */
+    private final ZipArchiveEntry manifest;
+
+    /**
+     * Entry name to entry, with multi-release entries already resolved.
+     */
+    private final ClassLoaderResourceNameIndex<ZipArchiveEntry> index;
+
+    /**
+     * The parents of every served file entry without the leading slash, which have a listing.
+     */
+    private final ClassLoaderResourceNameIndex<Boolean> directories;
+
+    private final LineEnding lineEnding;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.archive.toString();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import walkingkooka.Binary;
+import walkingkooka.collect.list.Lists;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A {@link RecursiveTask} that inflates a batch of {@link ZipArchiveEntry entries} returning their paths and resources
+ * in the same order as the given entries.
+ */
+final class ZipArchiveEntriesTask extends RecursiveTask<List<Map.Entry<ClassLoaderResourcePath, ClassLoaderResource>>> {
+
+    static ZipArchiveEntriesTask with(final ZipArchive archive,
+                                      final List<ZipArchiveEntry> entries) {
+        return new ZipArchiveEntriesTask(
+            archive,
+            entries
+        );
+    }
+
+    private ZipArchiveEntriesTask(final ZipArchive archive,
+                                  final List<ZipArchiveEntry> entries) {
+        super();
+        this.archive = archive;
+        this.entries = entries;
+    }
+
+    @Override
+    protected List<Map.Entry<ClassLoaderResourcePath, ClassLoaderResource>> compute() {
+        final ZipArchive archive = this.archive;
+        final List<Map.Entry<ClassLoaderResourcePath, ClassLoaderResource>> results = Lists.array();
+
+        try {
+            for (final ZipArchiveEntry entry : this.entries) {
+                final String name = entry.name;
+
+                results.add(
+                    new SimpleImmutableEntry<>(
+                        ClassLoaderResourcePath.parse(
+                            name.startsWith("/") ?
+                                name :
+                                "/" + name
+                        ),
+                        ClassLoaderResource.with(
+                            Binary.with(
+                                archive.read(entry)
+                            )
+                        )
+                    )
+                );
+            }
+        } catch (final IOException cause) {
+            throw new UncheckedIOException(cause);
+        }
+
+        return results;
+    }
+
+    private final ZipArchive archive;
+
+    private final List<ZipArchiveEntry> entries;
+
+    @Override
+    public String toString() {
+        return this.archive + " " + this.entries;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+
+/**
+ * A single central directory record belonging to a {@link ZipArchive}. Only the fields required to locate and read
+ * the entry are kept, the local file header is only consulted when the data offset is first required.
+ */
+final class ZipArchiveEntry {
+
+    /**
+     * Entry data is stored without any compression.
+     */
+    final static int STORED = 0;
+
+    /**
+     * Entry data is compressed using raw deflate.
+     */
+    final static int DEFLATED = 8;
+
+    static ZipArchiveEntry with(final String name,
+                                final int method,
+                                final long dosTime,
+                                final long compressedSize,
+                                final long size,
+                                final long localHeaderOffset) {
+        return new ZipArchiveEntry(
+            name,
+            method,
+            dosTime,
+            compressedSize,
+            size,
+            localHeaderOffset
+        );
+    }
+
+    private ZipArchiveEntry(final String name,
+                            final int method,
+                            final long dosTime,
+                            final long compressedSize,
+                            final long size,
+                            final long localHeaderOffset) {
+        this.name = name;
+        this.method = method;
+        this.dosTime = dosTime;
+        this.compressedSize = compressedSize;
+        this.size = size;
+        this.localHeaderOffset = localHeaderOffset;
+    }
+
+    /**
+     * The entry name as it appears in the central directory, without a leading slash.
+     */
+    final String name;
+
+    final int method;
+
+    /**
+     * The last modified time and date in MS-DOS format, with the date in the high 16 bits.
+     */
+    final long dosTime;
+
+    final long compressedSize;
+
+    final long size;
+
+    final long localHeaderOffset;
+
+    boolean isDirectory() {
+        return this.name.endsWith("/");
+    }
+
+    boolean isStored() {
+        return STORED == this.method;
+    }
+
+    /**
+     * Converts the MS-DOS last modified time which has no time zone using the system default time zone like
+     * {@link java.util.zip.ZipEntry#getTime()}. An invalid date or time is returned as empty.
+     */
+    Optional<Instant> lastModified() {
+        final long dosTime = this.dosTime;
+
+        Instant instant;
+        try {
+            instant = LocalDateTime.of(
+                (int) ((dosTime >> 25) & 0x7F) + 1980,
+                (int) ((dosTime >> 21) & 0x0F),
+                (int) ((dosTime >> 16) & 0x1F),
+                (int) ((dosTime >> 11) & 0x1F),
+                (int) ((dosTime >> 5) & 0x3F),
+                (int) ((dosTime << 1) & 0x3E)
+            ).atZone(
+                ZoneId.systemDefault()
+            ).toInstant();
+        } catch (final DateTimeException invalid) {
+            instant = null;
+        }
+
+        return Optional.ofNullable(instant);
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+}
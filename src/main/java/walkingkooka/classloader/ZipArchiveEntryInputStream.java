@@ -0,0 +1,163 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * An {@link InputStream} that reads a STORED entry directly from the {@link ByteBuffer} of a {@link ZipArchive} or
+ * inflates a DEFLATED entry a buffer at a time, so the entry is never held in memory in full.
+ */
+final class ZipArchiveEntryInputStream extends InputStream {
+
+    static ZipArchiveEntryInputStream stored(final ByteBuffer data) {
+        return new ZipArchiveEntryInputStream(
+            data,
+            null,
+            data.remaining()
+        );
+    }
+
+    static ZipArchiveEntryInputStream deflated(final ByteBuffer data,
+                                               final long size) {
+        final Inflater inflater = new Inflater(true);
+        inflater.setInput(data);
+
+        return new ZipArchiveEntryInputStream(
+            data,
+            inflater,
+            size
+        );
+    }
+
+    private ZipArchiveEntryInputStream(final ByteBuffer data,
+                                       final Inflater inflater,
+                                       final long size) {
+        this.data = data;
+        this.inflater = inflater;
+        this.remaining = size;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final byte[] one = new byte[1];
+        return -1 == this.read(one, 0, 1) ?
+            -1 :
+            one[0] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] buffer,
+                    final int offset,
+                    final int length) throws IOException {
+        if (this.closed) {
+            throw new IOException("Closed");
+        }
+        if (0 == length) {
+            return 0;
+        }
+        if (this.remaining <= 0) {
+            return -1;
+        }
+
+        final int count;
+        final int max = (int) Math.min(length, this.remaining);
+        final Inflater inflater = this.inflater;
+
+        if (null == inflater) {
+            count = max;
+            this.data.get(buffer, offset, count);
+        } else {
+            try {
+                final int inflated = inflater.inflate(buffer, offset, max);
+                if (0 == inflated && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new ZipException("Truncated entry, " + this.remaining + " bytes missing");
+                }
+                count = inflated;
+            } catch (final DataFormatException cause) {
+                throw new ZipException("Corrupt entry, " + cause.getMessage());
+            }
+        }
+
+        this.remaining -= count;
+        return count;
+    }
+
+    @Override
+    public long skip(final long count) throws IOException {
+        long skipped = 0;
+
+        if (count > 0) {
+            if (null == this.inflater) {
+                skipped = Math.min(count, this.remaining);
+                this.data.position(
+                    this.data.position() + (int) skipped
+                );
+                this.remaining -= skipped;
+            } else {
+                skipped = super.skip(count);
+            }
+        }
+
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(
+            this.remaining,
+            Integer.MAX_VALUE
+        );
+    }
+
+    @Override
+    public void close() {
+        if (false == this.closed) {
+            this.closed = true;
+            if (null != this.inflater) {
+                this.inflater.end();
+            }
+        }
+    }
+
+    private final ByteBuffer data;
+
+    /**
+     * Null for STORED entries.
+     */
+    private final Inflater inflater;
+
+    /**
+     * The number of uncompressed bytes that remain.
+     */
+    private long remaining;
+
+    private boolean closed;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return (null == this.inflater ? "STORED" : "DEFLATED") + " " + this.remaining;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.text.LineEnding;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A {@link RecursiveTask} that eagerly loads every entry of a {@link ZipArchive} into a {@link MapClassLoaderResourceProvider}
+ * and recursively does the same for every archive in the libs directory. Entries are read sequentially from the
+ * central directory, while inflating happens in batches that are forked along with the nested archives.
+ * Results are always joined in archive order so the cascade order matches {@link ClassLoaderResourceProviders#jarFileWithLibs(java.util.jar.JarInputStream, LineEnding)}.
+ */
+final class ZipArchiveJarFileWithLibsTask extends RecursiveTask<ClassLoaderResourceProvider> {
+
+    /**
+     * The number of entries inflated by a single {@link ZipArchiveEntriesTask}.
+     */
+    final static int BATCH_SIZE = 64;
+
+    static ZipArchiveJarFileWithLibsTask with(final ZipArchive archive,
+                                              final LineEnding lineEnding) {
+        return new ZipArchiveJarFileWithLibsTask(
+            archive,
+            null,
+            lineEnding
+        );
+    }
+
+    private ZipArchiveJarFileWithLibsTask(final ZipArchive parent,
+                                          final ZipArchiveEntry lib,
+                                          final LineEnding lineEnding) {
+        super();
+        this.parent = parent;
+        this.lib = lib;
+        this.lineEnding = lineEnding;
+    }
+
+    @Override
+    protected ClassLoaderResourceProvider compute() {
+        final ZipArchive archive = this.archive();
+        final LineEnding lineEnding = this.lineEnding;
+
+        final List<ZipArchiveEntry> files = Lists.array();
+        final List<ZipArchiveJarFileWithLibsTask> libs = Lists.array();
+
+        for (final ZipArchiveEntry entry : archive.entries()) {
+            if (entry.isDirectory()) {
+                continue;
+            }
+            if (entry.name.startsWith(ZipArchiveClassLoaderResourceProvider.LIBS)) {
+                final ZipArchiveJarFileWithLibsTask lib = new ZipArchiveJarFileWithLibsTask(
+                    archive,
+                    entry,
+                    lineEnding
+                );
+                lib.fork();
+                libs.add(lib);
+            } else {
+                files.add(entry);
+            }
+        }
+
+        final List<ZipArchiveEntriesTask> batches = Lists.array();
+        final int count = files.size();
+        for (int i = 0; i < count; i += BATCH_SIZE) {
+            final ZipArchiveEntriesTask batch = ZipArchiveEntriesTask.with(
+                archive,
+                files.subList(
+                    i,
+                    Math.min(i + BATCH_SIZE, count)
+                )
+            );
+            batch.fork();
+            batches.add(batch);
+        }
+
+        final Map<ClassLoaderResourcePath, ClassLoaderResource> pathToResource = Maps.sorted();
+        for (final ZipArchiveEntriesTask batch : batches) {
+            for (final Map.Entry<ClassLoaderResourcePath, ClassLoaderResource> pathAndResource : batch.join()) {
+                pathToResource.put(
+                    pathAndResource.getKey(),
+                    pathAndResource.getValue()
+                );
+            }
+        }
+
+        if (isMultiRelease(archive)) {
+            MultiReleaseJar.resolve(
+                pathToResource,
+                MultiReleaseJar.FEATURE
+            );
+        }
+
+        final List<ClassLoaderResourceProvider> all = Lists.array();
+        all.add(
+            MapClassLoaderResourceProvider.with(
+                pathToResource,
+                lineEnding
+            )
+        );
+        for (final ZipArchiveJarFileWithLibsTask lib : libs) {
+            all.add(lib.join());
+        }
+
+        return CascadingClassLoaderResourceProvider.with(all);
+    }
+
+    /**
+     * Returns the archive being loaded, opening the nested archive if this task is for a lib.
+     */
+    private ZipArchive archive() {
+        final ZipArchive parent = this.parent;
+        final ZipArchiveEntry lib = this.lib;
+
+        try {
+            return null == lib ?
+                parent :
+                parent.nested(lib);
+        } catch (final IOException cause) {
+            throw new UncheckedIOException(cause);
+        }
+    }
+
+    private static boolean isMultiRelease(final ZipArchive archive) {
+        try {
+            return ZipArchiveClassLoaderResourceProvider.isMultiRelease(
+                archive,
+                ZipArchiveClassLoaderResourceProvider.manifest(archive)
+            );
+        } catch (final IOException cause) {
+            throw new UncheckedIOException(cause);
+        }
+    }
+
+    private final ZipArchive parent;
+
+    /**
+     * When present the nested archive within {@link #parent} that is loaded.
+     */
+    private final ZipArchiveEntry lib;
+
+    private final LineEnding lineEnding;
+
+    @Override
+    public String toString() {
+        return null == this.lib ?
+            this.parent.toString() :
+            this.parent + "!/" + this.lib.name;
+    }
+}
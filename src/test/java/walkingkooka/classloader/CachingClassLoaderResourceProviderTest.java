@@ -0,0 +1,536 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Binary;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.LineEnding;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class CachingClassLoaderResourceProviderTest implements ClassLoaderResourceProviderTesting,
+    ClassTesting<CachingClassLoaderResourceProvider> {
+
+    private final static ClassLoaderResourcePath PATH1 = ClassLoaderResourcePath.parse("/path1.txt");
+
+    private final static ClassLoaderResource RESOURCE1 = ClassLoaderResource.with(
+        Binary.with(new byte[10])
+    );
+
+    private final static ClassLoaderResourcePath PATH2 = ClassLoaderResourcePath.parse("/path2.txt");
+
+    private final static ClassLoaderResource RESOURCE2 = ClassLoaderResource.with(
+        Binary.with(new byte[20])
+    );
+
+    private final static ClassLoaderResourcePath UNKNOWN = ClassLoaderResourcePath.parse("/unknown.txt");
+
+    @Test
+    public void testWithNullProviderFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> CachingClassLoaderResourceProvider.with(
+                null,
+                1,
+                0,
+                ClassLoaderResourceProviderMetrics.empty()
+            )
+        );
+    }
+
+    @Test
+    public void testWithZeroMaxBytesFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> CachingClassLoaderResourceProvider.with(
+                ClassLoaderResourceProviders.fake(),
+                0,
+                0,
+                ClassLoaderResourceProviderMetrics.empty()
+            )
+        );
+    }
+
+    @Test
+    public void testWithNegativeFloorBytesFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> CachingClassLoaderResourceProvider.with(
+                ClassLoaderResourceProviders.fake(),
+                1,
+                -1,
+                ClassLoaderResourceProviderMetrics.empty()
+            )
+        );
+    }
+
+    @Test
+    public void testWithFloorBytesGreaterThanMaxBytesFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> CachingClassLoaderResourceProvider.with(
+                ClassLoaderResourceProviders.fake(),
+                1,
+                2,
+                ClassLoaderResourceProviderMetrics.empty()
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullMetricsFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> CachingClassLoaderResourceProvider.with(
+                ClassLoaderResourceProviders.fake(),
+                1,
+                0,
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullMemoryPressureFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> CachingClassLoaderResourceProvider.with(
+                ClassLoaderResourceProviders.fake(),
+                1,
+                0,
+                ClassLoaderResourceProviderMetrics.empty(),
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testLoadTwice() {
+        final Map<ClassLoaderResourcePath, Integer> loads = Maps.sorted();
+        final ClassLoaderResourceProviderMetrics metrics = ClassLoaderResourceProviderMetrics.empty();
+        final CachingClassLoaderResourceProvider provider = this.createProvider(
+            1000,
+            loads,
+            metrics
+        );
+
+        this.loadAndCheck(provider, PATH1, RESOURCE1);
+        this.loadAndCheck(provider, PATH1, RESOURCE1);
+
+        this.checkEquals(
+            Maps.of(PATH1, 1),
+            loads,
+            "loads"
+        );
+        this.metricsAndCheck(
+            metrics,
+            1,
+            1,
+            0
+        );
+        this.checkEquals(
+            CachingClassLoaderResourceProvider.ENTRY_BYTES + 10,
+            provider.bytes(),
+            "bytes"
+        );
+    }
+
+    @Test
+    public void testLoadLazyWeighedByMetadata() {
+        final int[] reads = new int[1];
+        final CachingClassLoaderResourceProvider provider = CachingClassLoaderResourceProvider.with(
+            new FakeClassLoaderResourceProvider() {
+                @Override
+                public Optional<ClassLoaderResource> load(final ClassLoaderResourcePath path) {
+                    return Optional.of(
+                        ClassLoaderResource.lazy(
+                            () -> {
+                                reads[0]++;
+                                return Binary.with(new byte[100]);
+                            },
+                            false // weak
+                        )
+                    );
+                }
+
+                @Override
+                public Optional<ClassLoaderResourceMetadata> metadata(final ClassLoaderResourcePath path) {
+                    return Optional.of(
+                        ClassLoaderResourceMetadata.with(
+                            100,
+                            Optional.empty(), // compressedSize
+                            Optional.empty(), // lastModified
+                            this
+                        )
+                    );
+                }
+            },
+            1000,
+            0, // floorBytes
+            ClassLoaderResourceProviderMetrics.empty(),
+            new MemoryPressure()
+        );
+
+        provider.load(PATH1);
+
+        this.checkEquals(
+            0,
+            reads[0],
+            "reads"
+        );
+        this.checkEquals(
+            CachingClassLoaderResourceProvider.ENTRY_BYTES + 100,
+            provider.bytes(),
+            "bytes"
+        );
+    }
+
+    @Test
+    public void testLoadUnknownTwice() {
+        final Map<ClassLoaderResourcePath, Integer> loads = Maps.sorted();
+        final ClassLoaderResourceProviderMetrics metrics = ClassLoaderResourceProviderMetrics.empty();
+        final CachingClassLoaderResourceProvider provider = this.createProvider(
+            1000,
+            loads,
+            metrics
+        );
+
+        this.loadAndCheck(provider, UNKNOWN);
+        this.loadAndCheck(provider, UNKNOWN);
+
+        this.checkEquals(
+            Maps.of(UNKNOWN, 1),
+            loads,
+            "loads"
+        );
+        this.metricsAndCheck(
+            metrics,
+            1,
+            1,
+            0
+        );
+    }
+
+    @Test
+    public void testMetadataAfterLoadCached() {
+        final Map<ClassLoaderResourcePath, Integer> loads = Maps.sorted();
+        final ClassLoaderResourceProviderMetrics metrics = ClassLoaderResourceProviderMetrics.empty();
+        final CachingClassLoaderResourceProvider provider = this.createProvider(
+            1000,
+            loads,
+            metrics
+        );
+
+        provider.load(PATH1);
+
+        // wrapped metadata throws UnsupportedOperationException
+        this.checkEquals(
+            Optional.of(
+                RESOURCE1.value()
+                    .size()
+            ),
+            provider.metadata(PATH1)
+                .map(m -> (int) m.size())
+        );
+        this.metricsAndCheck(
+            metrics,
+            1,
+            1,
+            0
+        );
+    }
+
+    @Test
+    public void testMetadataUnknownTwice() {
+        final int[] metadatas = new int[1];
+        final ClassLoaderResourceProviderMetrics metrics = ClassLoaderResourceProviderMetrics.empty();
+        final CachingClassLoaderResourceProvider provider = CachingClassLoaderResourceProvider.with(
+            new FakeClassLoaderResourceProvider() {
+                @Override
+                public Optional<ClassLoaderResourceMetadata> metadata(final ClassLoaderResourcePath path) {
+                    metadatas[0]++;
+                    return Optional.empty();
+                }
+            },
+            1000,
+            0, // floorBytes
+            metrics,
+            new MemoryPressure()
+        );
+
+        this.checkEquals(
+            Optional.empty(),
+            provider.metadata(UNKNOWN)
+        );
+        this.loadAndCheck(
+            provider,
+            UNKNOWN
+        );
+
+        this.checkEquals(
+            1,
+            metadatas[0],
+            "metadatas"
+        );
+        this.metricsAndCheck(
+            metrics,
+            1,
+            0,
+            0
+        );
+    }
+
+    @Test
+    public void testLoadEvictsLeastRecentlyUsed() {
+        final Map<ClassLoaderResourcePath, Integer> loads = Maps.sorted();
+        final ClassLoaderResourceProviderMetrics metrics = ClassLoaderResourceProviderMetrics.empty();
+
+        // room for PATH1 and PATH2 but not an additional miss
+        final CachingClassLoaderResourceProvider provider = this.createProvider(
+            CachingClassLoaderResourceProvider.ENTRY_BYTES * 2 + 10 + 20,
+            loads,
+            metrics
+        );
+
+        this.loadAndCheck(provider, PATH1, RESOURCE1);
+        this.loadAndCheck(provider, PATH2, RESOURCE2);
+        this.loadAndCheck(provider, PATH1, RESOURCE1);
+        this.loadAndCheck(provider, UNKNOWN); // evicts PATH2
+        this.loadAndCheck(provider, PATH1, RESOURCE1);
+        this.loadAndCheck(provider, PATH2, RESOURCE2);
+
+        this.checkEquals(
+            Maps.of(
+                PATH1, 1,
+                PATH2, 2,
+                UNKNOWN, 1
+            ),
+            loads,
+            "loads"
+        );
+        this.metricsAndCheck(
+            metrics,
+            2,
+            4,
+            2
+        );
+    }
+
+    @Test
+    public void testLoadLargerThanMaxBytesNotCached() {
+        final Map<ClassLoaderResourcePath, Integer> loads = Maps.sorted();
+        final ClassLoaderResourceProviderMetrics metrics = ClassLoaderResourceProviderMetrics.empty();
+        final CachingClassLoaderResourceProvider provider = this.createProvider(
+            CachingClassLoaderResourceProvider.ENTRY_BYTES + 10,
+            loads,
+            metrics
+        );
+
+        this.loadAndCheck(provider, PATH2, RESOURCE2);
+        this.loadAndCheck(provider, PATH2, RESOURCE2);
+
+        this.checkEquals(
+            Maps.of(PATH2, 2),
+            loads,
+            "loads"
+        );
+        this.metricsAndCheck(
+            metrics,
+            0,
+            2,
+            0
+        );
+        this.checkEquals(
+            0L,
+            provider.bytes(),
+            "bytes"
+        );
+    }
+
+    @Test
+    public void testMemoryPressureShrinksToFloor() {
+        final Map<ClassLoaderResourcePath, Integer> loads = Maps.sorted();
+        final ClassLoaderResourceProviderMetrics metrics = ClassLoaderResourceProviderMetrics.empty();
+        final MemoryPressure memoryPressure = new MemoryPressure();
+
+        final CachingClassLoaderResourceProvider provider = CachingClassLoaderResourceProvider.with(
+            this.loadCounting(loads),
+            1000,
+            CachingClassLoaderResourceProvider.ENTRY_BYTES + 20, // floor
+            metrics,
+            memoryPressure
+        );
+
+        this.loadAndCheck(provider, PATH1, RESOURCE1);
+        this.loadAndCheck(provider, PATH2, RESOURCE2);
+
+        memoryPressure.fire();
+
+        this.checkEquals(
+            CachingClassLoaderResourceProvider.ENTRY_BYTES + 20,
+            provider.bytes(),
+            "bytes"
+        );
+
+        this.loadAndCheck(provider, PATH1, RESOURCE1);
+        this.loadAndCheck(provider, PATH2, RESOURCE2);
+
+        this.checkEquals(
+            Maps.of(
+                PATH1, 2,
+                PATH2, 1
+            ),
+            loads,
+            "loads"
+        );
+        this.checkEquals(
+            1L,
+            metrics.get(ClassLoaderResourceProviderMetric.MEMORY_PRESSURE_SHRINKS),
+            "shrinks"
+        );
+    }
+
+    @Test
+    public void testMemoryPressureWithinFloor() {
+        final ClassLoaderResourceProviderMetrics metrics = ClassLoaderResourceProviderMetrics.empty();
+        final MemoryPressure memoryPressure = new MemoryPressure();
+
+        final CachingClassLoaderResourceProvider provider = CachingClassLoaderResourceProvider.with(
+            this.loadCounting(Maps.sorted()),
+            1000,
+            500, // floor
+            metrics,
+            memoryPressure
+        );
+
+        this.loadAndCheck(provider, PATH1, RESOURCE1);
+
+        memoryPressure.fire();
+
+        this.checkEquals(
+            CachingClassLoaderResourceProvider.ENTRY_BYTES + 10,
+            provider.bytes(),
+            "bytes"
+        );
+        this.checkEquals(
+            0L,
+            metrics.get(ClassLoaderResourceProviderMetric.MEMORY_PRESSURE_SHRINKS),
+            "shrinks"
+        );
+    }
+
+    @Test
+    public void testInputStreamCached() throws IOException {
+        final Map<ClassLoaderResourcePath, Integer> loads = Maps.sorted();
+        final CachingClassLoaderResourceProvider provider = this.createProvider(
+            1000,
+            loads,
+            ClassLoaderResourceProviderMetrics.empty()
+        );
+
+        this.loadAndCheck(provider, PATH1, RESOURCE1);
+
+        try (final InputStream inputStream = provider.inputStream(PATH1).get()) {
+            this.checkEquals(
+                RESOURCE1.value(),
+                Binary.with(
+                    inputStream.readAllBytes()
+                )
+            );
+        }
+
+        this.checkEquals(
+            Maps.of(PATH1, 1),
+            loads,
+            "loads"
+        );
+    }
+
+    private CachingClassLoaderResourceProvider createProvider(final long maxBytes,
+                                                              final Map<ClassLoaderResourcePath, Integer> loads,
+                                                              final ClassLoaderResourceProviderMetrics metrics) {
+        return CachingClassLoaderResourceProvider.with(
+            this.loadCounting(loads),
+            maxBytes,
+            0, // floorBytes
+            metrics,
+            new MemoryPressure()
+        );
+    }
+
+    private ClassLoaderResourceProvider loadCounting(final Map<ClassLoaderResourcePath, Integer> loads) {
+        final ClassLoaderResourceProvider map = ClassLoaderResourceProviders.map(
+            Maps.of(
+                PATH1,
+                RESOURCE1,
+                PATH2,
+                RESOURCE2
+            ),
+            LineEnding.NL
+        );
+
+        return new FakeClassLoaderResourceProvider() {
+            @Override
+            public Optional<ClassLoaderResource> load(final ClassLoaderResourcePath path) {
+                loads.merge(path, 1, Integer::sum);
+                return map.load(path);
+            }
+        };
+    }
+
+    private void metricsAndCheck(final ClassLoaderResourceProviderMetrics metrics,
+                                 final long hits,
+                                 final long misses,
+                                 final long evictions) {
+        this.checkEquals(
+            hits,
+            metrics.get(ClassLoaderResourceProviderMetric.CACHE_HITS),
+            "hits"
+        );
+        this.checkEquals(
+            misses,
+            metrics.get(ClassLoaderResourceProviderMetric.CACHE_MISSES),
+            "misses"
+        );
+        this.checkEquals(
+            evictions,
+            metrics.get(ClassLoaderResourceProviderMetric.CACHE_EVICTIONS),
+            "evictions"
+        );
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<CachingClassLoaderResourceProvider> type() {
+        return CachingClassLoaderResourceProvider.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -21,10 +21,20 @@ import org.junit.jupiter.api.Test;
 import walkingkooka.Binary;
 import walkingkooka.collect.list.Lists;
 import walkingkooka.collect.map.Maps;
+import walkingkooka.collect.set.Sets;
 import walkingkooka.reflect.ClassTesting;
 import walkingkooka.reflect.JavaVisibility;
 import walkingkooka.text.LineEnding;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -96,6 +106,280 @@ public class CascadingClassLoaderResourceProviderTest implements ClassLoaderReso
         );
     }
 
+    @Test
+    public void testInputStream() throws IOException {
+        final ClassLoaderResourcePath path = ClassLoaderResourcePath.parse("/resource2.txt");
+
+        final Optional<InputStream> inputStream = CascadingClassLoaderResourceProvider.with(
+            Lists.of(
+                ClassLoaderResourceProviders.map(
+                    Maps.empty(),
+                    LineEnding.NL
+                ),
+                ClassLoaderResourceProviders.map(
+                    Maps.of(
+                        path,
+                        ClassLoaderResource.with(
+                            Binary.with(
+                                new byte[]{
+                                    '1',
+                                    '2',
+                                    '3'
+                                }
+                            )
+                        )
+                    ),
+                    LineEnding.NL
+                ),
+                ClassLoaderResourceProviders.fake()
+            )
+        ).inputStream(path);
+
+        try (final InputStream in = inputStream.get()) {
+            this.checkEquals(
+                "123",
+                new String(
+                    in.readAllBytes(),
+                    StandardCharsets.UTF_8
+                )
+            );
+        }
+    }
+
+    @Test
+    public void testInputStreamName() throws IOException {
+        final Optional<InputStream> inputStream = CascadingClassLoaderResourceProvider.with(
+            Lists.of(
+                ClassLoaderResourceProviders.map(
+                    Maps.empty(),
+                    LineEnding.NL
+                ),
+                ClassLoaderResourceProviders.map(
+                    Maps.of(
+                        ClassLoaderResourcePath.parse("/resource2.txt"),
+                        ClassLoaderResource.with(
+                            Binary.with(
+                                new byte[]{
+                                    '1',
+                                    '2',
+                                    '3'
+                                }
+                            )
+                        )
+                    ),
+                    LineEnding.NL
+                ),
+                ClassLoaderResourceProviders.fake()
+            )
+        ).inputStreamName("resource2.txt");
+
+        try (final InputStream in = inputStream.get()) {
+            this.checkEquals(
+                "123",
+                new String(
+                    in.readAllBytes(),
+                    StandardCharsets.UTF_8
+                )
+            );
+        }
+    }
+
+    @Test
+    public void testLoadAll() {
+        final ClassLoaderResourcePath path1 = ClassLoaderResourcePath.parse("/resource1.txt");
+        final ClassLoaderResourcePath path2 = ClassLoaderResourcePath.parse("/resource2.txt");
+        final ClassLoaderResourcePath unknown = ClassLoaderResourcePath.parse("/unknown.txt");
+
+        final ClassLoaderResource resource1 = ClassLoaderResource.with(
+            Binary.with(new byte[1])
+        );
+        final ClassLoaderResource resource2 = ClassLoaderResource.with(
+            Binary.with(new byte[2])
+        );
+        final ClassLoaderResource ignored = ClassLoaderResource.with(
+            Binary.with(new byte[3])
+        );
+
+        final List<Set<ClassLoaderResourcePath>> batches = Lists.array();
+
+        this.loadAllAndCheck(
+            CascadingClassLoaderResourceProvider.with(
+                Lists.of(
+                    this.loadAllRecording(
+                        Maps.of(path1, resource1),
+                        batches
+                    ),
+                    this.loadAllRecording(
+                        Maps.of(path1, ignored, path2, resource2),
+                        batches
+                    ),
+                    this.loadAllRecording(
+                        Maps.empty(),
+                        batches
+                    )
+                )
+            ),
+            Lists.of(
+                path1,
+                path2,
+                unknown
+            ),
+            Maps.of(
+                path1,
+                resource1,
+                path2,
+                resource2
+            )
+        );
+
+        this.checkEquals(
+            Lists.of(
+                Sets.of(path1, path2, unknown),
+                Sets.of(path2, unknown),
+                Sets.of(unknown)
+            ),
+            batches,
+            "batches"
+        );
+    }
+
+    @Test
+    public void testLoadAllStopsWhenAllFound() {
+        final ClassLoaderResourcePath path = ClassLoaderResourcePath.parse("/resource1.txt");
+        final ClassLoaderResource resource = ClassLoaderResource.with(
+            Binary.with(new byte[1])
+        );
+
+        this.loadAllAndCheck(
+            CascadingClassLoaderResourceProvider.with(
+                Lists.of(
+                    this.loadAllRecording(
+                        Maps.of(path, resource),
+                        Lists.array()
+                    ),
+                    ClassLoaderResourceProviders.fake()
+                )
+            ),
+            Lists.of(path),
+            Maps.of(path, resource)
+        );
+    }
+
+    private ClassLoaderResourceProvider loadAllRecording(final Map<ClassLoaderResourcePath, ClassLoaderResource> pathToResource,
+                                                         final List<Set<ClassLoaderResourcePath>> batches) {
+        final ClassLoaderResourceProvider map = ClassLoaderResourceProviders.map(
+            pathToResource,
+            LineEnding.NL
+        );
+
+        return new FakeClassLoaderResourceProvider() {
+            @Override
+            public Map<ClassLoaderResourcePath, ClassLoaderResource> loadAll(final Collection<ClassLoaderResourcePath> paths) {
+                batches.add(
+                    Sets.of(
+                        paths.toArray(new ClassLoaderResourcePath[0])
+                    )
+                );
+                return map.loadAll(paths);
+            }
+        };
+    }
+
+    @Test
+    public void testRelease() {
+        final ClassLoaderResourcePath path = ClassLoaderResourcePath.parse("/resource1.txt");
+        final List<ClassLoaderResourcePath> released = Lists.array();
+
+        final ClassLoaderResourceProvider releasing = new FakeClassLoaderResourceProvider() {
+            @Override
+            public void release(final ClassLoaderResourcePath p) {
+                released.add(p);
+            }
+        };
+
+        CascadingClassLoaderResourceProvider.with(
+            Lists.of(
+                releasing,
+                ClassLoaderResourceProviders.fake(),
+                releasing
+            )
+        ).release(path);
+
+        this.checkEquals(
+            Lists.of(
+                path,
+                path
+            ),
+            released
+        );
+    }
+
+    @Test
+    public void testCloseClosesEachCloseable() throws IOException {
+        final List<String> closed = Lists.array();
+
+        final CloseableClassLoaderResourceProvider provider = (CloseableClassLoaderResourceProvider) CascadingClassLoaderResourceProvider.with(
+            Lists.of(
+                closeable("first", closed),
+                ClassLoaderResourceProviders.fake(),
+                closeable("second", closed)
+            )
+        );
+        provider.close();
+
+        this.checkEquals(
+            Lists.of(
+                "first",
+                "second"
+            ),
+            closed
+        );
+    }
+
+    @Test
+    public void testCloseFailureClosesRemaining() {
+        final List<String> closed = Lists.array();
+
+        final CloseableClassLoaderResourceProvider provider = (CloseableClassLoaderResourceProvider) CascadingClassLoaderResourceProvider.with(
+            Lists.of(
+                new TestCloseableClassLoaderResourceProvider() {
+                    @Override
+                    public void close() throws IOException {
+                        throw new IOException("first");
+                    }
+                },
+                closeable("second", closed)
+            )
+        );
+
+        final IOException thrown = assertThrows(
+            IOException.class,
+            provider::close
+        );
+        this.checkEquals(
+            "first",
+            thrown.getMessage()
+        );
+        this.checkEquals(
+            Lists.of("second"),
+            closed
+        );
+    }
+
+    private static CloseableClassLoaderResourceProvider closeable(final String name,
+                                                                  final List<String> closed) {
+        return new TestCloseableClassLoaderResourceProvider() {
+            @Override
+            public void close() {
+                closed.add(name);
+            }
+        };
+    }
+
+    private abstract static class TestCloseableClassLoaderResourceProvider extends FakeClassLoaderResourceProvider
+        implements CloseableClassLoaderResourceProvider {
+    }
+
     // ClassTesting.....................................................................................................
 
     @Override
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.HashCodeEqualsDefinedTesting2;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class ClassLoaderResourceMetadataTest implements ClassTesting<ClassLoaderResourceMetadata>,
+    HashCodeEqualsDefinedTesting2<ClassLoaderResourceMetadata>,
+    ToStringTesting<ClassLoaderResourceMetadata> {
+
+    private final static long SIZE = 123;
+
+    private final static Optional<Long> COMPRESSED_SIZE = Optional.of(45L);
+
+    private final static Optional<Instant> LAST_MODIFIED = Optional.of(
+        Instant.parse("2024-01-02T03:04:05Z")
+    );
+
+    private final static ClassLoaderResourceProvider ORIGIN = new FakeClassLoaderResourceProvider() {
+        @Override
+        public String toString() {
+            return "Origin";
+        }
+    };
+
+    @Test
+    public void testWithInvalidSizeFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> ClassLoaderResourceMetadata.with(
+                -1,
+                COMPRESSED_SIZE,
+                LAST_MODIFIED,
+                ORIGIN
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullCompressedSizeFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ClassLoaderResourceMetadata.with(
+                SIZE,
+                null,
+                LAST_MODIFIED,
+                ORIGIN
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullLastModifiedFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ClassLoaderResourceMetadata.with(
+                SIZE,
+                COMPRESSED_SIZE,
+                null,
+                ORIGIN
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullOriginFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ClassLoaderResourceMetadata.with(
+                SIZE,
+                COMPRESSED_SIZE,
+                LAST_MODIFIED,
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testWith() {
+        final ClassLoaderResourceMetadata metadata = this.createObject();
+
+        this.checkEquals(
+            SIZE,
+            metadata.size(),
+            "size"
+        );
+        this.checkEquals(
+            COMPRESSED_SIZE,
+            metadata.compressedSize(),
+            "compressedSize"
+        );
+        this.checkEquals(
+            LAST_MODIFIED,
+            metadata.lastModified(),
+            "lastModified"
+        );
+        this.checkEquals(
+            ORIGIN,
+            metadata.origin(),
+            "origin"
+        );
+    }
+
+    // equals...........................................................................................................
+
+    @Test
+    public void testEqualsDifferentSize() {
+        this.checkNotEquals(
+            ClassLoaderResourceMetadata.with(
+                999,
+                COMPRESSED_SIZE,
+                LAST_MODIFIED,
+                ORIGIN
+            )
+        );
+    }
+
+    @Test
+    public void testEqualsDifferentCompressedSize() {
+        this.checkNotEquals(
+            ClassLoaderResourceMetadata.with(
+                SIZE,
+                Optional.empty(),
+                LAST_MODIFIED,
+                ORIGIN
+            )
+        );
+    }
+
+    @Test
+    public void testEqualsDifferentLastModified() {
+        this.checkNotEquals(
+            ClassLoaderResourceMetadata.with(
+                SIZE,
+                COMPRESSED_SIZE,
+                Optional.empty(),
+                ORIGIN
+            )
+        );
+    }
+
+    @Test
+    public void testEqualsDifferentOrigin() {
+        this.checkNotEquals(
+            ClassLoaderResourceMetadata.with(
+                SIZE,
+                COMPRESSED_SIZE,
+                LAST_MODIFIED,
+                ClassLoaderResourceProviders.fake()
+            )
+        );
+    }
+
+    @Override
+    public ClassLoaderResourceMetadata createObject() {
+        return ClassLoaderResourceMetadata.with(
+            SIZE,
+            COMPRESSED_SIZE,
+            LAST_MODIFIED,
+            ORIGIN
+        );
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(
+            this.createObject(),
+            "123 compressed 45 2024-01-02T03:04:05Z Origin"
+        );
+    }
+
+    @Test
+    public void testToStringWithoutOptionals() {
+        this.toStringAndCheck(
+            ClassLoaderResourceMetadata.with(
+                SIZE,
+                Optional.empty(),
+                Optional.empty(),
+                ORIGIN
+            ),
+            "123 Origin"
+        );
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<ClassLoaderResourceMetadata> type() {
+        return ClassLoaderResourceMetadata.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.util.Map;
+
+public final class ClassLoaderResourceNameIndexTest implements ClassTesting<ClassLoaderResourceNameIndex<?>> {
+
+    @Test
+    public void testGetEmpty() {
+        this.checkEquals(
+            null,
+            ClassLoaderResourceNameIndex.with(Maps.empty())
+                .get("missing")
+        );
+    }
+
+    @Test
+    public void testGet() {
+        final ClassLoaderResourceNameIndex<Integer> index = this.createIndex();
+
+        this.checkEquals(1, index.get("a/b.class"), "a/b.class");
+        this.checkEquals(2, index.get("a/c.class"), "a/c.class");
+        this.checkEquals(3, index.get("d.txt"), "d.txt");
+    }
+
+    @Test
+    public void testGetMissing() {
+        final ClassLoaderResourceNameIndex<Integer> index = this.createIndex();
+
+        this.checkEquals(null, index.get("a"), "a");
+        this.checkEquals(null, index.get("a/b.clas"), "a/b.clas");
+        this.checkEquals(null, index.get("A/B.CLASS"), "A/B.CLASS");
+        this.checkEquals(null, index.get(""), "empty");
+    }
+
+    @Test
+    public void testGetCharSequenceWithStart() {
+        this.checkEquals(
+            1,
+            this.createIndex()
+                .get(
+                    new StringBuilder("/a/b.class"),
+                    1
+                )
+        );
+    }
+
+    @Test
+    public void testGetManyCollisions() {
+        final Map<String, Integer> nameToValue = Maps.sorted();
+        for (int i = 0; i < 1000; i++) {
+            nameToValue.put("p/" + i, i);
+        }
+        // "Aa" and "BB" have the same String#hashCode
+        nameToValue.put("Aa", -1);
+        nameToValue.put("BB", -2);
+
+        final ClassLoaderResourceNameIndex<Integer> index = ClassLoaderResourceNameIndex.with(nameToValue);
+
+        for (final Map.Entry<String, Integer> nameAndValue : nameToValue.entrySet()) {
+            this.checkEquals(
+                nameAndValue.getValue(),
+                index.get(nameAndValue.getKey()),
+                nameAndValue::getKey
+            );
+        }
+
+        this.checkEquals(
+            nameToValue.size(),
+            index.size(),
+            "size"
+        );
+    }
+
+    private ClassLoaderResourceNameIndex<Integer> createIndex() {
+        return ClassLoaderResourceNameIndex.with(
+            Maps.of(
+                "a/b.class", 1,
+                "a/c.class", 2,
+                "d.txt", 3
+            )
+        );
+    }
+
+    @Test
+    public void testToString() {
+        this.checkEquals(
+            "3 names",
+            this.createIndex()
+                .toString()
+        );
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Class<ClassLoaderResourceNameIndex<?>> type() {
+        return (Class<ClassLoaderResourceNameIndex<?>>) (Object) ClassLoaderResourceNameIndex.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
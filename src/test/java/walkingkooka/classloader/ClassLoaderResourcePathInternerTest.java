@@ -0,0 +1,135 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class ClassLoaderResourcePathInternerTest implements ClassTesting<ClassLoaderResourcePathInterner> {
+
+    @Test
+    public void testWithZeroSlotsFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> ClassLoaderResourcePathInterner.with(0)
+        );
+    }
+
+    @Test
+    public void testWithNotPowerOfTwoFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> ClassLoaderResourcePathInterner.with(3)
+        );
+    }
+
+    @Test
+    public void testGetUnknown() {
+        this.checkEquals(
+            null,
+            ClassLoaderResourcePathInterner.with(16)
+                .get("/unknown")
+        );
+    }
+
+    @Test
+    public void testPutGet() {
+        final ClassLoaderResourcePathInterner interner = ClassLoaderResourcePathInterner.with(16);
+        final ClassLoaderResourcePath path = ClassLoaderResourcePath.parse("/path/to/file.txt");
+
+        interner.put(path);
+
+        assertSame(
+            path,
+            interner.get("/path/to/file.txt")
+        );
+    }
+
+    @Test
+    public void testGetDifferentPathSameSlot() {
+        final ClassLoaderResourcePathInterner interner = ClassLoaderResourcePathInterner.with(1);
+
+        interner.put(
+            ClassLoaderResourcePath.parse("/path/to/file.txt")
+        );
+
+        this.checkEquals(
+            null,
+            interner.get("/path/to/different.txt")
+        );
+    }
+
+    @Test
+    public void testGetCaseSensitive() {
+        final ClassLoaderResourcePathInterner interner = ClassLoaderResourcePathInterner.with(1);
+
+        interner.put(
+            ClassLoaderResourcePath.parse("/path/to/file.txt")
+        );
+
+        this.checkEquals(
+            null,
+            interner.get("/PATH/to/file.txt")
+        );
+    }
+
+    @Test
+    public void testPutReplaces() {
+        final ClassLoaderResourcePathInterner interner = ClassLoaderResourcePathInterner.with(1);
+        final ClassLoaderResourcePath path = ClassLoaderResourcePath.parse("/path/to/file2.txt");
+
+        interner.put(
+            ClassLoaderResourcePath.parse("/path/to/file1.txt")
+        );
+        interner.put(path);
+
+        assertSame(
+            path,
+            interner.get("/path/to/file2.txt")
+        );
+        this.checkEquals(
+            null,
+            interner.get("/path/to/file1.txt")
+        );
+    }
+
+    @Test
+    public void testToString() {
+        this.checkEquals(
+            "16 slots",
+            ClassLoaderResourcePathInterner.with(16)
+                .toString()
+        );
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<ClassLoaderResourcePathInterner> type() {
+        return ClassLoaderResourcePathInterner.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -25,7 +25,9 @@ import walkingkooka.reflect.ClassName;
 import walkingkooka.reflect.ClassTesting2;
 import walkingkooka.reflect.JavaVisibility;
 import walkingkooka.test.ParseStringTesting;
+import walkingkooka.text.CharSequences;
 
+import java.util.Optional;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertSame;
@@ -130,6 +132,42 @@ final public class ClassLoaderResourcePathTest implements PathTesting<ClassLoade
         this.parentCheck(parent, "/path");
     }
 
+    @Test
+    public void testParseTwiceSame() {
+        final String value = "/interned/path/to/resource.txt";
+
+        assertSame(
+            ClassLoaderResourcePath.parse(value),
+            ClassLoaderResourcePath.parse(value)
+        );
+    }
+
+    @Test
+    public void testParseSharesParent() {
+        final ClassLoaderResourcePath parent = ClassLoaderResourcePath.parse("/shared/parent");
+
+        assertSame(
+            parent,
+            ClassLoaderResourcePath.parse("/shared/parent/child1.txt")
+                .parent()
+                .get()
+        );
+        assertSame(
+            parent,
+            ClassLoaderResourcePath.parse("/shared/parent/child2.txt")
+                .parent()
+                .get()
+        );
+    }
+
+    @Test
+    public void testParseTrailingSlash() {
+        final ClassLoaderResourcePath path = ClassLoaderResourcePath.parse("/path/to/");
+        this.valueAndCheck(path, "/path/to");
+        this.nameCheck(path, ClassLoaderResourceName.with("to"));
+        this.parentCheck(path, "/path");
+    }
+
     @Test
     public void testParseIncludesDot() {
         final ClassLoaderResourcePath path = ClassLoaderResourcePath.parse("/path1/./path2/./path3");
@@ -216,6 +254,98 @@ final public class ClassLoaderResourcePathTest implements PathTesting<ClassLoade
         );
     }
 
+    // tryParse.........................................................................................................
+
+    @Test
+    public void testTryParseWithNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ClassLoaderResourcePath.tryParse(null)
+        );
+    }
+
+    @Test
+    public void testTryParseMissingRequiredLeadingSlash() {
+        this.tryParseAndCheck(
+            "without-leading-slash",
+            null
+        );
+    }
+
+    @Test
+    public void testTryParseEmpty() {
+        this.tryParseAndCheck(
+            "",
+            null
+        );
+    }
+
+    @Test
+    public void testTryParseEmptyComponent() {
+        this.tryParseAndCheck(
+            "/before//after",
+            null
+        );
+    }
+
+    @Test
+    public void testTryParseStartsWithDoubleDot() {
+        this.tryParseAndCheck(
+            "/../hello",
+            null
+        );
+    }
+
+    @Test
+    public void testTryParseSlash() {
+        this.tryParseAndCheck(
+            "/",
+            "/"
+        );
+    }
+
+    @Test
+    public void testTryParse() {
+        this.tryParseAndCheck(
+            "/path/to/file.txt",
+            "/path/to/file.txt"
+        );
+    }
+
+    @Test
+    public void testTryParseTrailingSlash() {
+        this.tryParseAndCheck(
+            "/path/to/",
+            "/path/to"
+        );
+    }
+
+    @Test
+    public void testTryParseIncludesDot() {
+        this.tryParseAndCheck(
+            "/path1/./path2/./path3",
+            "/path1/path2/path3"
+        );
+    }
+
+    @Test
+    public void testTryParseIncludesDoubleDot() {
+        this.tryParseAndCheck(
+            "/path1/path2/../path3",
+            "/path1/path3"
+        );
+    }
+
+    private void tryParseAndCheck(final String text,
+                                  final String expected) {
+        this.checkEquals(
+            Optional.ofNullable(expected)
+                .map(ClassLoaderResourcePath::parse),
+            ClassLoaderResourcePath.tryParse(text),
+            () -> "tryParse " + CharSequences.quoteAndEscape(text)
+        );
+    }
+
     @Override
     public ClassLoaderResourcePath parseString(final String text) {
         return ClassLoaderResourcePath.parse(text);
@@ -358,6 +488,30 @@ final public class ClassLoaderResourcePathTest implements PathTesting<ClassLoade
         );
     }
 
+    @Test
+    public void testHashCodeManifestDifferentCase() {
+        this.checkEquals(
+            ClassLoaderResourcePath.MANIFEST.hashCode(),
+            ClassLoaderResourcePath.parse("/meta-inf/Manifest.MF")
+                .hashCode()
+        );
+    }
+
+    @Test
+    public void testCompareManifestDifferentCase() {
+        this.checkEquals(
+            0,
+            ClassLoaderResourcePath.MANIFEST.compareTo(
+                ClassLoaderResourcePath.parse("/meta-inf/manifest.mf")
+            )
+        );
+    }
+
+    @Test
+    public void testEqualsDifferentCase() {
+        this.checkNotEquals(ClassLoaderResourcePath.parse("/PATH"));
+    }
+
     @Test
     public void testEqualsDifferentPath() {
         this.checkNotEquals(ClassLoaderResourcePath.parse("/different"));
@@ -373,6 +527,101 @@ final public class ClassLoaderResourcePathTest implements PathTesting<ClassLoade
         this.compareToAndCheckMore(ClassLoaderResourcePath.parse("/before"));
     }
 
+    // depth............................................................................................................
+
+    @Test
+    public void testDepthRoot() {
+        this.depthAndCheck(
+            ClassLoaderResourcePath.ROOT,
+            0
+        );
+    }
+
+    @Test
+    public void testDepth() {
+        this.depthAndCheck(
+            ClassLoaderResourcePath.parse("/path1/path2/path3"),
+            3
+        );
+    }
+
+    @Test
+    public void testDepthManifest() {
+        this.depthAndCheck(
+            ClassLoaderResourcePath.MANIFEST,
+            2
+        );
+    }
+
+    private void depthAndCheck(final ClassLoaderResourcePath path,
+                               final int expected) {
+        this.checkEquals(
+            expected,
+            path.depth(),
+            () -> "depth " + path
+        );
+    }
+
+    // isParentOf.......................................................................................................
+
+    @Test
+    public void testIsParentOfChild() {
+        this.isParentOfAndCheck(
+            "/path1",
+            "/path1/path2",
+            true
+        );
+    }
+
+    @Test
+    public void testIsParentOfRootChild() {
+        this.isParentOfAndCheck(
+            "/",
+            "/path1",
+            true
+        );
+    }
+
+    @Test
+    public void testIsParentOfGrandChild() {
+        this.isParentOfAndCheck(
+            "/path1",
+            "/path1/path2/path3",
+            false
+        );
+    }
+
+    @Test
+    public void testIsParentOfSelf() {
+        this.isParentOfAndCheck(
+            "/path1",
+            "/path1",
+            false
+        );
+    }
+
+    @Test
+    public void testIsParentOfSibling() {
+        this.isParentOfAndCheck(
+            "/path1",
+            "/path2/path3",
+            false
+        );
+    }
+
+    private void isParentOfAndCheck(final String parent,
+                                    final String child,
+                                    final boolean expected) {
+        this.checkEquals(
+            expected,
+            ClassLoaderResourcePath.parse(parent)
+                .isParentOf(
+                    ClassLoaderResourcePath.parse(child)
+                ),
+            () -> parent + " isParentOf " + child
+        );
+    }
+
     @Override
     public ClassLoaderResourcePath root() {
         return ClassLoaderResourcePath.ROOT;
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+
+public final class ClassLoaderResourceProviderClassLoaderClassNotFoundExceptionTest implements ClassTesting<ClassLoaderResourceProviderClassLoaderClassNotFoundException> {
+
+    @Test
+    public void testWith() {
+        final ClassLoaderResourceProviderClassLoaderClassNotFoundException exception = ClassLoaderResourceProviderClassLoaderClassNotFoundException.with("test.Unknown");
+
+        this.checkEquals(
+            "test.Unknown",
+            exception.getMessage(),
+            "message"
+        );
+        this.checkEquals(
+            0,
+            exception.getStackTrace().length,
+            "stack trace"
+        );
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<ClassLoaderResourceProviderClassLoaderClassNotFoundException> type() {
+        return ClassLoaderResourceProviderClassLoaderClassNotFoundException.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -25,9 +25,13 @@ import walkingkooka.collect.list.Lists;
 import walkingkooka.reflect.ClassName;
 import walkingkooka.reflect.ClassTesting;
 import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.CharSequences;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertSame;
@@ -150,6 +154,66 @@ final public class ClassLoaderResourceProviderClassLoaderTest implements ClassTe
         );
     }
 
+    @Test
+    public void testGetResourceOpensStreamOnlyWhenRead() throws Exception {
+        final String path = "custom-class-loader-resource.txt";
+        final byte[] value = new byte[]{
+            '1',
+            '2',
+            '3'
+        };
+        final List<ClassLoaderResourcePath> opened = Lists.array();
+
+        final URL url = ClassLoaderResourceProviderClassLoader.with(
+            PARENT_CLASS_LOADER,
+            new ClassLoaderResourceProvider() {
+
+                @Override
+                public Optional<ClassLoaderResource> load(final ClassLoaderResourcePath p) {
+                    return Optional.of(
+                        ClassLoaderResource.with(
+                            Binary.with(value)
+                        )
+                    );
+                }
+
+                @Override
+                public Optional<InputStream> inputStream(final ClassLoaderResourcePath p) {
+                    opened.add(p);
+                    return ClassLoaderResourceProvider.super.inputStream(p);
+                }
+
+                @Override
+                public Optional<InputStream> inputStreamName(final CharSequence name) {
+                    return this.inputStream(
+                        ClassLoaderResourcePath.parseName(name)
+                    );
+                }
+            }
+        ).getResource(path);
+
+        this.checkEquals(
+            Lists.empty(),
+            opened,
+            "opened before openStream"
+        );
+
+        try (final InputStream inputStream = url.openStream()) {
+            this.checkEquals(
+                new String(value, StandardCharsets.UTF_8),
+                new String(inputStream.readAllBytes(), StandardCharsets.UTF_8)
+            );
+        }
+
+        this.checkEquals(
+            Lists.of(
+                ClassLoaderResourcePath.parse("/" + path)
+            ),
+            opened,
+            "opened after openStream"
+        );
+    }
+
     // getResourceAsStream..............................................................................................
 
     @Test
@@ -301,6 +365,93 @@ final public class ClassLoaderResourceProviderClassLoaderTest implements ClassTe
         );
     }
 
+    @Test
+    public void testLoadClassInvalidNameFails() {
+        this.loadClassAndFail(
+            ClassLoaderResourceProviderClassLoader.with(
+                ClassLoaderResourceProviderClassLoaderTest.PARENT_CLASS_LOADER,
+                ClassLoaderResourceProviders.fake()
+            ),
+            "invalid..Name",
+            ClassNotFoundException.class
+        );
+    }
+
+    @Test
+    public void testLoadClassUnknownTwiceLoadsTwice() {
+        final int[] loads = new int[1];
+
+        final ClassLoaderResourceProviderClassLoader classLoader = ClassLoaderResourceProviderClassLoader.with(
+            ClassLoaderResourceProviderClassLoaderTest.PARENT_CLASS_LOADER,
+            new ClassLoaderResourceProvider() {
+
+                @Override
+                public Optional<ClassLoaderResource> load(final ClassLoaderResourcePath path) {
+                    loads[0]++;
+                    return Optional.empty();
+                }
+            }
+        );
+
+        for (int i = 0; i < 2; i++) {
+            final ClassNotFoundException thrown = assertThrows(
+                ClassNotFoundException.class,
+                () -> classLoader.loadClass("clasc.Unknown404")
+            );
+            this.checkEquals(
+                0,
+                thrown.getStackTrace().length,
+                "stack trace"
+            );
+        }
+
+        this.checkEquals(
+            2,
+            loads[0],
+            "loads"
+        );
+    }
+
+    @Test
+    public void testLoadClassMissingFromParentAsksProviderFirst() {
+        final int[] parentLoads = new int[1];
+
+        final ClassLoader parent = new ClassLoader(PARENT_CLASS_LOADER) {
+            @Override
+            protected Class<?> loadClass(final String name,
+                                         final boolean resolve) throws ClassNotFoundException {
+                parentLoads[0]++;
+                return super.loadClass(name, resolve);
+            }
+        };
+
+        assertThrows(
+            ClassFormatError.class,
+            () -> ClassLoaderResourceProviderClassLoader.with(
+                parent,
+                new ClassLoaderResourceProvider() {
+
+                    @Override
+                    public Optional<ClassLoaderResource> load(final ClassLoaderResourcePath path) {
+                        return Optional.of(
+                            ClassLoaderResource.with(
+                                Binary.with(
+                                    new byte[10]
+                                )
+                            )
+                        );
+                    }
+                }
+            ).loadClass("clasc.Unknown404")
+        );
+
+        this.checkEquals(
+            0,
+            parentLoads[0],
+            "parent loads"
+        );
+    }
+
     @Test
     public void testLoadClassInvalidClassFileFails() {
         this.loadClassAndFail(
@@ -392,6 +543,81 @@ final public class ClassLoaderResourceProviderClassLoaderTest implements ClassTe
         );
     }
 
+    // classFileOrNull..................................................................................................
+
+    @Test
+    public void testClassFileOrNull() {
+        this.classFileOrNullAndCheck(
+            "walkingkooka.classloader.TestClass",
+            "walkingkooka/classloader/TestClass.class"
+        );
+    }
+
+    @Test
+    public void testClassFileOrNullUnnamedPackage() {
+        this.classFileOrNullAndCheck(
+            "Test",
+            "Test.class"
+        );
+    }
+
+    @Test
+    public void testClassFileOrNullInnerClass() {
+        this.classFileOrNullAndCheck(
+            "test.Outer$Inner",
+            "test/Outer$Inner.class"
+        );
+    }
+
+    @Test
+    public void testClassFileOrNullEmpty() {
+        this.classFileOrNullAndCheck(
+            "",
+            null
+        );
+    }
+
+    @Test
+    public void testClassFileOrNullLeadingDot() {
+        this.classFileOrNullAndCheck(
+            ".test.Test",
+            null
+        );
+    }
+
+    @Test
+    public void testClassFileOrNullTrailingDot() {
+        this.classFileOrNullAndCheck(
+            "test.Test.",
+            null
+        );
+    }
+
+    @Test
+    public void testClassFileOrNullEmptyComponent() {
+        this.classFileOrNullAndCheck(
+            "test..Test",
+            null
+        );
+    }
+
+    @Test
+    public void testClassFileOrNullSlash() {
+        this.classFileOrNullAndCheck(
+            "test/Test",
+            null
+        );
+    }
+
+    private void classFileOrNullAndCheck(final String name,
+                                         final String expected) {
+        this.checkEquals(
+            expected,
+            ClassLoaderResourceProviderClassLoader.classFileOrNull(name),
+            () -> "classFileOrNull " + CharSequences.quoteAndEscape(name)
+        );
+    }
+
     @Override
     public ClassLoaderResourceProviderClassLoader createClassLoader() {
         return ClassLoaderResourceProviderClassLoader.with(
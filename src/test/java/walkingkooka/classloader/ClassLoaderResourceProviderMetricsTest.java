@@ -0,0 +1,81 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+
+public final class ClassLoaderResourceProviderMetricsTest implements ClassTesting<ClassLoaderResourceProviderMetrics>,
+    ToStringTesting<ClassLoaderResourceProviderMetrics> {
+
+    @Test
+    public void testEmpty() {
+        final ClassLoaderResourceProviderMetrics metrics = ClassLoaderResourceProviderMetrics.empty();
+
+        for (final ClassLoaderResourceProviderMetric metric : ClassLoaderResourceProviderMetric.values()) {
+            this.checkEquals(
+                0L,
+                metrics.get(metric),
+                metric::toString
+            );
+        }
+    }
+
+    @Test
+    public void testIncrementAndAdd() {
+        final ClassLoaderResourceProviderMetrics metrics = ClassLoaderResourceProviderMetrics.empty();
+        metrics.increment(ClassLoaderResourceProviderMetric.SPILLED_ENTRIES);
+        metrics.increment(ClassLoaderResourceProviderMetric.SPILLED_ENTRIES);
+        metrics.add(ClassLoaderResourceProviderMetric.SPILLED_BYTES, 123);
+
+        this.checkEquals(
+            2L,
+            metrics.get(ClassLoaderResourceProviderMetric.SPILLED_ENTRIES)
+        );
+        this.checkEquals(
+            123L,
+            metrics.get(ClassLoaderResourceProviderMetric.SPILLED_BYTES)
+        );
+    }
+
+    @Test
+    public void testToString() {
+        final ClassLoaderResourceProviderMetrics metrics = ClassLoaderResourceProviderMetrics.empty();
+        metrics.add(ClassLoaderResourceProviderMetric.HEAP_BYTES, 123);
+        metrics.increment(ClassLoaderResourceProviderMetric.SPILLED_ENTRIES);
+
+        this.toStringAndCheck(
+            metrics,
+            "HEAP_BYTES=123, SPILLED_ENTRIES=1"
+        );
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<ClassLoaderResourceProviderMetrics> type() {
+        return ClassLoaderResourceProviderMetrics.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
@@ -28,9 +28,18 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.lang.reflect.Method;
+import java.nio.channels.Channels;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.zip.ZipException;
 import java.util.jar.JarEntry;
 import java.util.jar.JarInputStream;
 import java.util.jar.JarOutputStream;
@@ -41,6 +50,524 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 public final class ClassLoaderResourceProvidersTest implements PublicStaticHelperTesting<ClassLoaderResourceProviders>,
     ClassLoaderResourceProviderTesting {
 
+    // boundedJarFileWithLibs...........................................................................................
+
+    @Test
+    public void testBoundedJarFileWithLibsWithNullInputStreamFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ClassLoaderResourceProviders.boundedJarFileWithLibs(
+                null,
+                EOL,
+                1000,
+                100,
+                10,
+                Files.createTempDirectory("spill"),
+                ClassLoaderResourceProviderMetrics.empty()
+            )
+        );
+    }
+
+    @Test
+    public void testBoundedJarFileWithLibsWithInvalidMaxEntryBytesFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> ClassLoaderResourceProviders.boundedJarFileWithLibs(
+                new JarInputStream(
+                    new ByteArrayInputStream(
+                        new byte[0]
+                    )
+                ),
+                EOL,
+                1000,
+                0,
+                10,
+                Files.createTempDirectory("spill"),
+                ClassLoaderResourceProviderMetrics.empty()
+            )
+        );
+    }
+
+    @Test
+    public void testBoundedJarFileWithLibsEntryLimitExceededFails() throws IOException {
+        final ClassLoaderResourceProviderMetrics metrics = ClassLoaderResourceProviderMetrics.empty();
+
+        assertThrows(
+            ZipException.class,
+            () -> ClassLoaderResourceProviders.boundedJarFileWithLibs(
+                new JarInputStream(
+                    new ByteArrayInputStream(
+                        createJar(
+                            "Manifest-Version: 1.0",
+                            Maps.of(
+                                "test/too-large.txt",
+                                new byte[101]
+                            )
+                        )
+                    )
+                ),
+                EOL,
+                1000,
+                100,
+                10,
+                Files.createTempDirectory("spill"),
+                metrics
+            )
+        );
+
+        this.checkEquals(
+            1L,
+            metrics.get(ClassLoaderResourceProviderMetric.ENTRY_LIMIT_EXCEEDED)
+        );
+    }
+
+    @Test
+    public void testBoundedJarFileWithLibsArchiveLimitExceededInLibFails() throws IOException {
+        final byte[] lib = createJar(
+            "Manifest-Version: 1.0",
+            Maps.of(
+                "1.txt",
+                new byte[300],
+                "2.txt",
+                new byte[300],
+                "3.txt",
+                new byte[300]
+            )
+        );
+
+        final ClassLoaderResourceProviderMetrics metrics = ClassLoaderResourceProviderMetrics.empty();
+
+        // room for the lib but not all of its entries
+        assertThrows(
+            ZipException.class,
+            () -> ClassLoaderResourceProviders.boundedJarFileWithLibs(
+                new JarInputStream(
+                    new ByteArrayInputStream(
+                        createJar(
+                            "Manifest-Version: 1.0",
+                            Maps.of(
+                                "libs/lib.jar",
+                                lib
+                            )
+                        )
+                    )
+                ),
+                EOL,
+                lib.length + 200,
+                1000,
+                1000,
+                Files.createTempDirectory("spill"),
+                metrics
+            )
+        );
+
+        this.checkEquals(
+            1L,
+            metrics.get(ClassLoaderResourceProviderMetric.ARCHIVE_LIMIT_EXCEEDED)
+        );
+    }
+
+    @Test
+    public void testBoundedJarFileWithLibsArchiveLimitCountsLibBytesOnce() throws IOException {
+        final byte[] lib = createJar(
+            "Manifest-Version: 1.0",
+            Maps.of(
+                "1.txt",
+                new byte[90],
+                "2.txt",
+                new byte[90],
+                "3.txt",
+                new byte[90]
+            )
+        );
+
+        final ClassLoaderResourceProviderMetrics metrics = ClassLoaderResourceProviderMetrics.empty();
+
+        // room for the lib and room for its entries but not both
+        this.loadAndCheck(
+            ClassLoaderResourceProviders.boundedJarFileWithLibs(
+                new JarInputStream(
+                    new ByteArrayInputStream(
+                        createJar(
+                            "Manifest-Version: 1.0",
+                            Maps.of(
+                                "libs/lib.jar",
+                                lib
+                            )
+                        )
+                    )
+                ),
+                EOL,
+                lib.length + 200,
+                lib.length,
+                lib.length,
+                Files.createTempDirectory("spill"),
+                metrics
+            ),
+            ClassLoaderResourcePath.parse("/1.txt"),
+            ClassLoaderResource.with(
+                Binary.with(new byte[90])
+            )
+        );
+
+        this.checkEquals(
+            0L,
+            metrics.get(ClassLoaderResourceProviderMetric.ARCHIVE_LIMIT_EXCEEDED)
+        );
+    }
+
+    @Test
+    public void testBoundedJarFileWithLibsLimitExceededDeletesSpillFiles() throws IOException {
+        final Path spillDirectory = Files.createTempDirectory("spill");
+
+        assertThrows(
+            ZipException.class,
+            () -> ClassLoaderResourceProviders.boundedJarFileWithLibs(
+                new JarInputStream(
+                    new ByteArrayInputStream(
+                        createJar(
+                            "Manifest-Version: 1.0",
+                            Maps.of(
+                                "test/spilled.txt",
+                                new byte[50],
+                                "test/too-large.txt",
+                                new byte[101]
+                            )
+                        )
+                    )
+                ),
+                EOL,
+                1000,
+                100,
+                10,
+                spillDirectory,
+                ClassLoaderResourceProviderMetrics.empty()
+            )
+        );
+
+        this.checkSpillFiles(
+            spillDirectory,
+            0
+        );
+    }
+
+    @Test
+    public void testBoundedJarFileWithLibsCloseDeletesSpillFiles() throws IOException {
+        final byte[] lib = createJar(
+            "Manifest-Version: 1.0",
+            Maps.of(
+                "test/lib-spilled.txt",
+                new byte[50]
+            )
+        );
+
+        final Path spillDirectory = Files.createTempDirectory("spill");
+
+        final CloseableClassLoaderResourceProvider provider = ClassLoaderResourceProviders.boundedJarFileWithLibs(
+            new JarInputStream(
+                new ByteArrayInputStream(
+                    createJar(
+                        "Manifest-Version: 1.0",
+                        Maps.of(
+                            "test/spilled.txt",
+                            new byte[50],
+                            "libs/lib.jar",
+                            lib
+                        )
+                    )
+                )
+            ),
+            EOL,
+            1000,
+            1000,
+            10,
+            spillDirectory,
+            ClassLoaderResourceProviderMetrics.empty()
+        );
+
+        this.loadAndCheck(
+            provider,
+            ClassLoaderResourcePath.parse("/test/lib-spilled.txt"),
+            ClassLoaderResource.with(
+                Binary.with(new byte[50])
+            )
+        );
+
+        this.checkSpillFiles(
+            spillDirectory,
+            2
+        );
+
+        provider.close();
+
+        this.checkSpillFiles(
+            spillDirectory,
+            0
+        );
+    }
+
+    @Test
+    public void testBoundedJarFileWithLibsDuplicatesAndListingSameAsJarFileWithLibs() throws IOException {
+        final byte[] jar = createJar(
+            "Manifest-Version: 1.0",
+            Maps.of(
+                "dir/a.txt",
+                "a1".getBytes(StandardCharsets.UTF_8),
+                "libs/lib.jar",
+                createJar(
+                    "Manifest-Version: 1.0",
+                    Maps.of(
+                        "dir/a.txt",
+                        "a2".getBytes(StandardCharsets.UTF_8),
+                        "dir/b.txt",
+                        "b2".getBytes(StandardCharsets.UTF_8),
+                        "lib/c.txt",
+                        "c2".getBytes(StandardCharsets.UTF_8)
+                    )
+                )
+            )
+        );
+
+        final ClassLoaderResourceProvider bounded = ClassLoaderResourceProviders.boundedJarFileWithLibs(
+            new JarInputStream(
+                new ByteArrayInputStream(jar)
+            ),
+            EOL,
+            1000,
+            1000,
+            1, // spill everything but the manifest
+            Files.createTempDirectory("spill"),
+            ClassLoaderResourceProviderMetrics.empty()
+        );
+        final ClassLoaderResourceProvider jarFileWithLibs = ClassLoaderResourceProviders.jarFileWithLibs(
+            new JarInputStream(
+                new ByteArrayInputStream(jar)
+            ),
+            EOL
+        );
+
+        // the first archive wins and a directory lists only the first archive holding it
+        for (final String path : new String[]{"/dir/a.txt", "/dir/b.txt", "/lib/c.txt", "/dir", "/lib"}) {
+            this.checkEquals(
+                jarFileWithLibs.load(ClassLoaderResourcePath.parse(path))
+                    .map(ClassLoaderResource::value),
+                bounded.load(ClassLoaderResourcePath.parse(path))
+                    .map(ClassLoaderResource::value),
+                path
+            );
+        }
+
+        this.loadAndCheck(
+            bounded,
+            ClassLoaderResourcePath.parse("/dir"),
+            ClassLoaderResource.with(
+                Binary.with(
+                    "a.txt\n".getBytes(StandardCharsets.UTF_8)
+                )
+            )
+        );
+    }
+
+    private void checkSpillFiles(final Path spillDirectory,
+                                 final long expected) throws IOException {
+        try (final Stream<Path> files = Files.list(spillDirectory)) {
+            this.checkEquals(
+                expected,
+                files.count(),
+                "spill files"
+            );
+        }
+    }
+
+    @Test
+    public void testBoundedJarFileWithLibsSpills() throws IOException {
+        final byte[] small = "small".getBytes(StandardCharsets.UTF_8);
+        final byte[] large = "large-large-large".getBytes(StandardCharsets.UTF_8);
+
+        final ClassLoaderResourceProviderMetrics metrics = ClassLoaderResourceProviderMetrics.empty();
+
+        final ClassLoaderResourceProvider provider = ClassLoaderResourceProviders.boundedJarFileWithLibs(
+            new JarInputStream(
+                new ByteArrayInputStream(
+                    createJar(
+                        "Manifest-Version: 1.0",
+                        Maps.of(
+                            "test/small.txt",
+                            small,
+                            "test/large.txt",
+                            large
+                        )
+                    )
+                )
+            ),
+            EOL,
+            1000,
+            100,
+            10,
+            Files.createTempDirectory("spill"),
+            metrics
+        );
+
+        this.loadAndCheck(
+            provider,
+            ClassLoaderResourcePath.parse("/test/small.txt"),
+            ClassLoaderResource.with(
+                Binary.with(small)
+            )
+        );
+
+        this.loadAndCheck(
+            provider,
+            ClassLoaderResourcePath.parse("/test/large.txt"),
+            ClassLoaderResource.with(
+                Binary.with(large)
+            )
+        );
+
+        this.checkEquals(
+            1L,
+            metrics.get(ClassLoaderResourceProviderMetric.SPILLED_ENTRIES),
+            "spilled entries"
+        );
+        this.checkEquals(
+            (long) large.length,
+            metrics.get(ClassLoaderResourceProviderMetric.SPILLED_BYTES),
+            "spilled bytes"
+        );
+    }
+
+    // caching..........................................................................................................
+
+    @Test
+    public void testCachingWithoutMetrics() {
+        final int[] loads = new int[1];
+        final ClassLoaderResourcePath path = ClassLoaderResourcePath.parse("/test/resource.txt");
+        final ClassLoaderResource resource = ClassLoaderResource.with(
+            Binary.with(
+                "resource".getBytes(StandardCharsets.UTF_8)
+            )
+        );
+
+        final ClassLoaderResourceProvider provider = ClassLoaderResourceProviders.caching(
+            new FakeClassLoaderResourceProvider() {
+                @Override
+                public Optional<ClassLoaderResource> load(final ClassLoaderResourcePath p) {
+                    loads[0]++;
+                    return Optional.of(resource);
+                }
+            },
+            1000
+        );
+
+        this.loadAndCheck(
+            provider,
+            path,
+            resource
+        );
+        this.loadAndCheck(
+            provider,
+            path,
+            resource
+        );
+
+        this.checkEquals(
+            1,
+            loads[0],
+            "loads"
+        );
+    }
+
+    // extractedJarFileWithLibs.........................................................................................
+
+    @Test
+    public void testExtractedJarFileWithLibsWithNullFileFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ClassLoaderResourceProviders.extractedJarFileWithLibs(
+                null,
+                EOL,
+                Files.createTempDirectory("cache"),
+                1000
+            )
+        );
+    }
+
+    @Test
+    public void testExtractedJarFileWithLibsWithNullCacheDirectoryFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ClassLoaderResourceProviders.extractedJarFileWithLibs(
+                Paths.get("./src/test/resources/JarFileClassLoaderResourceProviderTest.jar"),
+                EOL,
+                null,
+                1000
+            )
+        );
+    }
+
+    @Test
+    public void testExtractedJarFileWithLibsWithLibsTwice() throws IOException {
+        final byte[] resource1 = new byte[]{
+            '1',
+            '1',
+            '1'
+        };
+
+        final byte[] libs = createJar(
+            "Manifest-Version: 1.0",
+            Maps.of(
+                "test/test-resource111.txt",
+                resource1
+            )
+        );
+
+        final Path file = Files.createTempFile(
+            "extractedJarFileWithLibs",
+            ".jar"
+        );
+        final Path cache = Files.createTempDirectory("cache");
+        try {
+            Files.write(
+                file,
+                createJar(
+                    "Manifest-Version: 1.0",
+                    Maps.of(
+                        "libs/test.jar",
+                        libs
+                    )
+                )
+            );
+
+            for (int i = 0; i < 2; i++) {
+                this.loadAndCheck(
+                    ClassLoaderResourceProviders.extractedJarFileWithLibs(
+                        file,
+                        EOL,
+                        cache,
+                        1000
+                    ),
+                    ClassLoaderResourcePath.parse("/test/test-resource111.txt"),
+                    ClassLoaderResource.with(
+                        Binary.with(
+                            resource1
+                        )
+                    )
+                );
+            }
+
+            try (final Stream<Path> cached = Files.list(cache)) {
+                this.checkEquals(
+                    1L,
+                    cached.filter(p -> p.toString().endsWith(".jar"))
+                        .count(),
+                    "cached jars"
+                );
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
     // jarFileWithLibs..................................................................................................
 
     private final static LineEnding EOL = LineEnding.NL;
@@ -71,6 +598,66 @@ public final class ClassLoaderResourceProvidersTest implements PublicStaticHelpe
         );
     }
 
+    @Test
+    public void testJarFileWithLibsMultiRelease() throws IOException {
+        this.loadAndCheck(
+            ClassLoaderResourceProviders.jarFileWithLibs(
+                new JarInputStream(
+                    new ByteArrayInputStream(
+                        multiReleaseJar(MULTI_RELEASE_MANIFEST)
+                    )
+                ),
+                EOL
+            ),
+            ClassLoaderResourcePath.parse("/test/test-resource.txt"),
+            ClassLoaderResource.with(
+                Binary.with(
+                    "9".getBytes(StandardCharsets.UTF_8)
+                )
+            )
+        );
+    }
+
+    @Test
+    public void testJarFileWithLibsMultiReleaseVersionedPath() throws IOException {
+        this.loadAndCheck(
+            ClassLoaderResourceProviders.jarFileWithLibs(
+                new JarInputStream(
+                    new ByteArrayInputStream(
+                        multiReleaseJar(MULTI_RELEASE_MANIFEST)
+                    )
+                ),
+                EOL
+            ),
+            ClassLoaderResourcePath.parse("/META-INF/versions/99999/test/test-resource.txt"),
+            ClassLoaderResource.with(
+                Binary.with(
+                    "99999".getBytes(StandardCharsets.UTF_8)
+                )
+            )
+        );
+    }
+
+    @Test
+    public void testJarFileWithLibsNotMultiRelease() throws IOException {
+        this.loadAndCheck(
+            ClassLoaderResourceProviders.jarFileWithLibs(
+                new JarInputStream(
+                    new ByteArrayInputStream(
+                        multiReleaseJar("Manifest-Version: 1.0")
+                    )
+                ),
+                EOL
+            ),
+            ClassLoaderResourcePath.parse("/test/test-resource.txt"),
+            ClassLoaderResource.with(
+                Binary.with(
+                    "base".getBytes(StandardCharsets.UTF_8)
+                )
+            )
+        );
+    }
+
     @Test
     public void testJarFileWithManifest() throws IOException {
         // Manifest will always end with empty line
@@ -118,19 +705,72 @@ public final class ClassLoaderResourceProvidersTest implements PublicStaticHelpe
 
         this.loadAndCheck(
             provider,
-            ClassLoaderResourcePath.parse("/meta-inf/manifest.MF"),
+            ClassLoaderResourcePath.parse("/meta-inf/manifest.MF"),
+            ClassLoaderResource.with(
+                Binary.with(
+                    manifest.getBytes(StandardCharsets.UTF_8)
+                )
+            )
+        );
+    }
+
+    @Test
+    public void testJarFileWithLibsWithNoLibs() throws IOException {
+        final String manifest = "Manifest-Version: 1.0\r\nKey1: Value1\r\n";
+
+        final byte[] resource1 = new byte[]{
+            '1',
+            '1',
+            '1'
+        };
+
+        final byte[] resource2 = new byte[]{
+            '2',
+            '2',
+            '2'
+        };
+
+        final byte[] jar = createJar(
+            manifest,
+            Maps.of(
+                "test/test-resource111.txt",
+                resource1,
+                "test/test-resource222.txt",
+                resource2
+            )
+        );
+
+        final ClassLoaderResourceProvider provider = ClassLoaderResourceProviders.jarFileWithLibs(
+            new JarInputStream(
+                new ByteArrayInputStream(jar)
+            ),
+            EOL
+        );
+
+        this.loadAndCheck(
+            provider,
+            ClassLoaderResourcePath.parse("/test/test-resource111.txt"),
+            ClassLoaderResource.with(
+                Binary.with(
+                    resource1
+                )
+            )
+        );
+
+        this.loadAndCheck(
+            provider,
+            ClassLoaderResourcePath.parse("/test/test-resource222.txt"),
             ClassLoaderResource.with(
                 Binary.with(
-                    manifest.getBytes(StandardCharsets.UTF_8)
+                    resource2
                 )
             )
         );
     }
 
-    @Test
-    public void testJarFileWithLibsWithNoLibs() throws IOException {
-        final String manifest = "Manifest-Version: 1.0\r\nKey1: Value1\r\n";
 
+    @Test
+    public void testJarFileWithLibsWithLibs() throws IOException {
         final byte[] resource1 = new byte[]{
             '1',
             '1',
@@ -143,16 +783,27 @@ public final class ClassLoaderResourceProvidersTest implements PublicStaticHelpe
             '2'
         };
 
-        final byte[] jar = createJar(
-            manifest,
+        final byte[] libs = createJar(
+            "Manifest-Version: 1.0",
             Maps.of(
                 "test/test-resource111.txt",
                 resource1,
                 "test/test-resource222.txt",
-                resource2
+                "ignored".getBytes(StandardCharsets.UTF_8)
+            )
+        );
+
+        final byte[] jar = createJar(
+            "Manifest-Version: 1.0",
+            Maps.of(
+                "test/test-resource222.txt",
+                resource2,
+                "libs/test.jar",
+                libs
             )
         );
 
+
         final ClassLoaderResourceProvider provider = ClassLoaderResourceProviders.jarFileWithLibs(
             new JarInputStream(
                 new ByteArrayInputStream(jar)
@@ -181,9 +832,32 @@ public final class ClassLoaderResourceProvidersTest implements PublicStaticHelpe
         );
     }
 
+    // mappedJarFileWithLibs............................................................................................
 
     @Test
-    public void testJarFileWithLibsWithLibs() throws IOException {
+    public void testMappedJarFileWithLibsWithNullFileFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ClassLoaderResourceProviders.mappedJarFileWithLibs(
+                null,
+                EOL
+            )
+        );
+    }
+
+    @Test
+    public void testMappedJarFileWithLibsWithNullLineEndingFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ClassLoaderResourceProviders.mappedJarFileWithLibs(
+                Paths.get("./src/test/resources/JarFileClassLoaderResourceProviderTest.jar"),
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testMappedJarFileWithLibsWithLibs() throws IOException {
         final byte[] resource1 = new byte[]{
             '1',
             '1',
@@ -206,41 +880,447 @@ public final class ClassLoaderResourceProvidersTest implements PublicStaticHelpe
             )
         );
 
-        final byte[] jar = createJar(
+        final Path file = Files.createTempFile(
+            "mappedJarFileWithLibs",
+            ".jar"
+        );
+        try {
+            Files.write(
+                file,
+                createJar(
+                    "Manifest-Version: 1.0",
+                    Maps.of(
+                        "test/test-resource222.txt",
+                        resource2,
+                        "libs/test.jar",
+                        libs
+                    )
+                )
+            );
+
+            final ClassLoaderResourceProvider provider = ClassLoaderResourceProviders.mappedJarFileWithLibs(
+                file,
+                EOL
+            );
+
+            this.loadAndCheck(
+                provider,
+                ClassLoaderResourcePath.parse("/test/test-resource111.txt"),
+                ClassLoaderResource.with(
+                    Binary.with(
+                        resource1
+                    )
+                )
+            );
+
+            this.loadAndCheck(
+                provider,
+                ClassLoaderResourcePath.parse("/test/test-resource222.txt"),
+                ClassLoaderResource.with(
+                    Binary.with(
+                        resource2
+                    )
+                )
+            );
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testMappedJarFileWithLibsMultiRelease() throws IOException {
+        final Path file = Files.createTempFile(
+            "mappedJarFileWithLibs",
+            ".jar"
+        );
+        try {
+            Files.write(
+                file,
+                multiReleaseJar(MULTI_RELEASE_MANIFEST)
+            );
+
+            this.loadAndCheck(
+                ClassLoaderResourceProviders.mappedJarFileWithLibs(
+                    file,
+                    EOL
+                ),
+                ClassLoaderResourcePath.parse("/test/test-resource.txt"),
+                ClassLoaderResource.with(
+                    Binary.with(
+                        "9".getBytes(StandardCharsets.UTF_8)
+                    )
+                )
+            );
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    // parallelJarFileWithLibs..........................................................................................
+
+    @Test
+    public void testParallelJarFileWithLibsWithNullFileFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ClassLoaderResourceProviders.parallelJarFileWithLibs(
+                null,
+                EOL,
+                ForkJoinPool.commonPool()
+            )
+        );
+    }
+
+    @Test
+    public void testParallelJarFileWithLibsWithNullLineEndingFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ClassLoaderResourceProviders.parallelJarFileWithLibs(
+                Paths.get("./src/test/resources/JarFileClassLoaderResourceProviderTest.jar"),
+                null,
+                ForkJoinPool.commonPool()
+            )
+        );
+    }
+
+    @Test
+    public void testParallelJarFileWithLibsWithNullPoolFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ClassLoaderResourceProviders.parallelJarFileWithLibs(
+                Paths.get("./src/test/resources/JarFileClassLoaderResourceProviderTest.jar"),
+                EOL,
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testParallelJarFileWithLibsWithLibs() throws IOException {
+        final byte[] resource1 = new byte[]{
+            '1',
+            '1',
+            '1'
+        };
+
+        final byte[] resource2 = new byte[]{
+            '2',
+            '2',
+            '2'
+        };
+
+        final byte[] libs = createJar(
             "Manifest-Version: 1.0",
             Maps.of(
+                "test/test-resource111.txt",
+                resource1,
                 "test/test-resource222.txt",
-                resource2,
-                "libs/test.jar",
-                libs
+                "ignored".getBytes(StandardCharsets.UTF_8)
             )
         );
 
+        final Path file = Files.createTempFile(
+            "parallelJarFileWithLibs",
+            ".jar"
+        );
+        try {
+            Files.write(
+                file,
+                createJar(
+                    "Manifest-Version: 1.0",
+                    Maps.of(
+                        "test/test-resource222.txt",
+                        resource2,
+                        "libs/test.jar",
+                        libs
+                    )
+                )
+            );
+
+            final ClassLoaderResourceProvider provider = ClassLoaderResourceProviders.parallelJarFileWithLibs(
+                file,
+                EOL,
+                ForkJoinPool.commonPool()
+            );
 
-        final ClassLoaderResourceProvider provider = ClassLoaderResourceProviders.jarFileWithLibs(
-            new JarInputStream(
-                new ByteArrayInputStream(jar)
+            this.loadAndCheck(
+                provider,
+                ClassLoaderResourcePath.parse("/test/test-resource111.txt"),
+                ClassLoaderResource.with(
+                    Binary.with(
+                        resource1
+                    )
+                )
+            );
+
+            this.loadAndCheck(
+                provider,
+                ClassLoaderResourcePath.parse("/test/test-resource222.txt"),
+                ClassLoaderResource.with(
+                    Binary.with(
+                        resource2
+                    )
+                )
+            );
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testParallelJarFileWithLibsMultiRelease() throws IOException {
+        final Path file = Files.createTempFile(
+            "parallelJarFileWithLibs",
+            ".jar"
+        );
+        try {
+            Files.write(
+                file,
+                multiReleaseJar(MULTI_RELEASE_MANIFEST)
+            );
+
+            this.loadAndCheck(
+                ClassLoaderResourceProviders.parallelJarFileWithLibs(
+                    file,
+                    EOL,
+                    ForkJoinPool.commonPool()
+                ),
+                ClassLoaderResourcePath.parse("/test/test-resource.txt"),
+                ClassLoaderResource.with(
+                    Binary.with(
+                        "9".getBytes(StandardCharsets.UTF_8)
+                    )
+                )
+            );
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testTransferToWithNullClassLoaderFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ClassLoaderResourceProviders.transferTo(
+                null,
+                "resource.txt",
+                Channels.newChannel(new ByteArrayOutputStream())
+            )
+        );
+    }
+
+    @Test
+    public void testTransferToWithNullNameFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ClassLoaderResourceProviders.transferTo(
+                ClassLoader.getSystemClassLoader(),
+                null,
+                Channels.newChannel(new ByteArrayOutputStream())
+            )
+        );
+    }
+
+    @Test
+    public void testTransferToWithNullChannelFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ClassLoaderResourceProviders.transferTo(
+                ClassLoader.getSystemClassLoader(),
+                "resource.txt",
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testTransferToClassLoaderResourceProviderClassLoader() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        this.checkEquals(
+            OptionalLong.of(3),
+            ClassLoaderResourceProviders.transferTo(
+                this.transferToClassLoader(),
+                "transfer/resource.txt",
+                Channels.newChannel(bytes)
+            )
+        );
+        this.checkEquals(
+            "123",
+            new String(
+                bytes.toByteArray(),
+                StandardCharsets.UTF_8
+            )
+        );
+    }
+
+    @Test
+    public void testTransferToClassLoaderResourceProviderClassLoaderUnknown() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        this.checkEquals(
+            OptionalLong.empty(),
+            ClassLoaderResourceProviders.transferTo(
+                this.transferToClassLoader(),
+                "transfer/unknown.txt",
+                Channels.newChannel(bytes)
+            )
+        );
+        this.checkEquals(
+            0,
+            bytes.size()
+        );
+    }
+
+    private ClassLoader transferToClassLoader() {
+        return ClassLoaderResourceProviders.classLoader(
+            ClassLoader.getSystemClassLoader(),
+            ClassLoaderResourceProviders.map(
+                Maps.of(
+                    ClassLoaderResourcePath.parse("/transfer/resource.txt"),
+                    ClassLoaderResource.with(
+                        Binary.with(
+                            "123".getBytes(StandardCharsets.UTF_8)
+                        )
+                    )
+                ),
+                EOL
+            )
+        );
+    }
+
+    @Test
+    public void testTransferToOtherClassLoader() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final String name = "JarFileClassLoaderResourceProviderTest.jar";
+
+        final OptionalLong count = ClassLoaderResourceProviders.transferTo(
+            ClassLoader.getSystemClassLoader(),
+            name,
+            Channels.newChannel(bytes)
+        );
+        this.checkEquals(
+            OptionalLong.of(
+                Files.size(
+                    Paths.get("./src/test/resources/" + name)
+                )
             ),
+            count
+        );
+        this.checkEquals(
+            count.getAsLong(),
+            (long) bytes.size()
+        );
+    }
+
+    @Test
+    public void testReleasingJarFileWithLibsWithNullFileFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ClassLoaderResourceProviders.releasingJarFileWithLibs(
+                null,
+                EOL
+            )
+        );
+    }
+
+    @Test
+    public void testReleasingJarFileWithLibsWithNullLineEndingFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ClassLoaderResourceProviders.releasingJarFileWithLibs(
+                Paths.get("test.jar"),
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testReleasingJarFileWithLibsLoadAfterRelease() throws IOException {
+        final byte[] class1 = "class1".getBytes(StandardCharsets.UTF_8);
+        final byte[] class2 = "class2".getBytes(StandardCharsets.UTF_8);
+        final byte[] resource3 = "resource3".getBytes(StandardCharsets.UTF_8);
+
+        final byte[] libs = createJar(
+            "Manifest-Version: 1.0",
+            Maps.of(
+                "test/Test2.class",
+                class2
+            )
+        );
+
+        final Path file = Files.createTempFile(
+            ClassLoaderResourceProvidersTest.class.getSimpleName(),
+            ".jar"
+        );
+        file.toFile()
+            .deleteOnExit();
+        Files.write(
+            file,
+            createJar(
+                "Manifest-Version: 1.0",
+                Maps.of(
+                    "test/Test1.class",
+                    class1,
+                    "libs/test.jar",
+                    libs,
+                    "test/resource3.txt",
+                    resource3
+                )
+            )
+        );
+
+        final ClassLoaderResourceProvider provider = ClassLoaderResourceProviders.releasingJarFileWithLibs(
+            file,
             EOL
         );
 
+        final ClassLoaderResourcePath path1 = ClassLoaderResourcePath.parse("/test/Test1.class");
+        final ClassLoaderResourcePath path2 = ClassLoaderResourcePath.parse("/test/Test2.class");
+        final ClassLoaderResourcePath path3 = ClassLoaderResourcePath.parse("/test/resource3.txt");
+
+        provider.release(path1);
+        provider.release(path2);
+        provider.release(path3);
+
         this.loadAndCheck(
             provider,
-            ClassLoaderResourcePath.parse("/test/test-resource111.txt"),
+            path1,
             ClassLoaderResource.with(
-                Binary.with(
-                    resource1
-                )
+                Binary.with(class1)
             )
         );
-
         this.loadAndCheck(
             provider,
-            ClassLoaderResourcePath.parse("/test/test-resource222.txt"),
+            path2,
             ClassLoaderResource.with(
-                Binary.with(
-                    resource2
-                )
+                Binary.with(class2)
+            )
+        );
+        this.loadAndCheck(
+            provider,
+            path3,
+            ClassLoaderResource.with(
+                Binary.with(resource3)
+            )
+        );
+    }
+
+    private final static String MULTI_RELEASE_MANIFEST = "Manifest-Version: 1.0\r\nMulti-Release: true\r\n";
+
+    /**
+     * Creates a JAR file with a base entry, an entry for version 9 which is always applicable and an entry for a version
+     * that is never applicable.
+     */
+    private static byte[] multiReleaseJar(final String manifest) throws IOException {
+        return createJar(
+            manifest,
+            Maps.of(
+                "test/test-resource.txt",
+                "base".getBytes(StandardCharsets.UTF_8),
+                "META-INF/versions/9/test/test-resource.txt",
+                "9".getBytes(StandardCharsets.UTF_8),
+                "META-INF/versions/99999/test/test-resource.txt",
+                "99999".getBytes(StandardCharsets.UTF_8)
             )
         );
     }
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class ClassLoaderResourceRangesTest implements ClassTesting<ClassLoaderResourceRanges> {
+
+    private final static byte[] CONTENT = "0123456789".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void testCheckInvalidOffsetFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> ClassLoaderResourceRanges.check(
+                -1,
+                0
+            )
+        );
+    }
+
+    @Test
+    public void testCheckInvalidLengthFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> ClassLoaderResourceRanges.check(
+                0,
+                -1
+            )
+        );
+    }
+
+    @Test
+    public void testReadInputStream() throws IOException {
+        this.readAndCheck(
+            ClassLoaderResourceRanges.read(
+                new ByteArrayInputStream(CONTENT),
+                2,
+                3
+            ),
+            "234"
+        );
+    }
+
+    @Test
+    public void testReadInputStreamPastEnd() throws IOException {
+        this.readAndCheck(
+            ClassLoaderResourceRanges.read(
+                new ByteArrayInputStream(CONTENT),
+                8,
+                100
+            ),
+            "89"
+        );
+    }
+
+    @Test
+    public void testReadInputStreamOffsetAfterEnd() throws IOException {
+        this.readAndCheck(
+            ClassLoaderResourceRanges.read(
+                new ByteArrayInputStream(CONTENT),
+                100,
+                1
+            ),
+            ""
+        );
+    }
+
+    @Test
+    public void testReadFile() throws IOException {
+        this.readAndCheck(
+            ClassLoaderResourceRanges.read(
+                this.file(),
+                2,
+                3
+            ),
+            "234"
+        );
+    }
+
+    @Test
+    public void testReadFilePastEnd() throws IOException {
+        this.readAndCheck(
+            ClassLoaderResourceRanges.read(
+                this.file(),
+                8,
+                100
+            ),
+            "89"
+        );
+    }
+
+    @Test
+    public void testReadFileOffsetAfterEnd() throws IOException {
+        this.readAndCheck(
+            ClassLoaderResourceRanges.read(
+                this.file(),
+                100,
+                1
+            ),
+            ""
+        );
+    }
+
+    @Test
+    public void testReadByteBuffer() {
+        final ByteBuffer buffer = ByteBuffer.wrap(CONTENT);
+        buffer.position(1);
+
+        this.readAndCheck(
+            ClassLoaderResourceRanges.read(
+                buffer,
+                2,
+                3
+            ),
+            "345"
+        );
+        this.checkEquals(
+            1,
+            buffer.position(),
+            "position"
+        );
+    }
+
+    @Test
+    public void testReadByteBufferPastEnd() {
+        this.readAndCheck(
+            ClassLoaderResourceRanges.read(
+                ByteBuffer.wrap(CONTENT),
+                8,
+                100
+            ),
+            "89"
+        );
+    }
+
+    @Test
+    public void testReadByteBufferOffsetAfterEnd() {
+        this.readAndCheck(
+            ClassLoaderResourceRanges.read(
+                ByteBuffer.wrap(CONTENT),
+                100,
+                1
+            ),
+            ""
+        );
+    }
+
+    private void readAndCheck(final byte[] bytes,
+                              final String expected) {
+        this.checkEquals(
+            expected,
+            new String(
+                bytes,
+                StandardCharsets.UTF_8
+            )
+        );
+    }
+
+    private Path file() throws IOException {
+        final Path file = Files.createTempFile(ClassLoaderResourceRangesTest.class.getSimpleName(), ".txt");
+        file.toFile()
+            .deleteOnExit();
+        Files.write(
+            file,
+            CONTENT
+        );
+        return file;
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<ClassLoaderResourceRanges> type() {
+        return ClassLoaderResourceRanges.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
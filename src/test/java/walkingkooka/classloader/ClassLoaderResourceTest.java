@@ -25,7 +25,9 @@ import walkingkooka.reflect.ClassTesting;
 import walkingkooka.reflect.JavaVisibility;
 
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public final class ClassLoaderResourceTest implements ClassTesting<ClassLoaderResource>,
@@ -40,6 +42,172 @@ public final class ClassLoaderResourceTest implements ClassTesting<ClassLoaderRe
         );
     }
 
+    @Test
+    public void testLazyNullSupplierFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ClassLoaderResource.lazy(
+                null,
+                false
+            )
+        );
+    }
+
+    @Test
+    public void testLazySupplierNotCalledUntilValue() {
+        final AtomicInteger calls = new AtomicInteger();
+
+        final ClassLoaderResource resource = ClassLoaderResource.lazy(
+            () -> {
+                calls.incrementAndGet();
+                return Binary.with("ABC".getBytes(StandardCharsets.UTF_8));
+            },
+            false
+        );
+        this.checkEquals(
+            0,
+            calls.get(),
+            "supplier calls before value"
+        );
+
+        this.checkEquals(
+            Binary.with("ABC".getBytes(StandardCharsets.UTF_8)),
+            resource.value()
+        );
+        this.checkEquals(
+            1,
+            calls.get(),
+            "supplier calls after value"
+        );
+    }
+
+    @Test
+    public void testLazySupplierCalledOnce() {
+        final AtomicInteger calls = new AtomicInteger();
+
+        final ClassLoaderResource resource = ClassLoaderResource.lazy(
+            () -> {
+                calls.incrementAndGet();
+                return Binary.with("ABC".getBytes(StandardCharsets.UTF_8));
+            },
+            false
+        );
+        resource.value();
+        resource.value();
+
+        this.checkEquals(
+            1,
+            calls.get(),
+            "supplier calls"
+        );
+    }
+
+    @Test
+    public void testLazyWeakValue() {
+        final ClassLoaderResource resource = ClassLoaderResource.lazy(
+            () -> Binary.with("ABC".getBytes(StandardCharsets.UTF_8)),
+            true
+        );
+
+        this.checkEquals(
+            Binary.with("ABC".getBytes(StandardCharsets.UTF_8)),
+            resource.value()
+        );
+        this.checkEquals(
+            resource.value(),
+            resource.value()
+        );
+    }
+
+    @Test
+    public void testLazySupplierReturnsNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ClassLoaderResource.lazy(
+                () -> null,
+                false
+            ).value()
+        );
+    }
+
+    @Test
+    public void testLazyEquals() {
+        this.checkEquals(
+            this.createObject(),
+            ClassLoaderResource.lazy(
+                () -> Binary.with("ABC".getBytes(StandardCharsets.UTF_8)),
+                true
+            )
+        );
+    }
+
+    @Test
+    public void testReleasableNullSupplierFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ClassLoaderResource.releasable(
+                Binary.with(new byte[1]),
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testReleasableSupplierNotCalledUntilReleased() {
+        final Binary value = Binary.with("ABC".getBytes(StandardCharsets.UTF_8));
+        final AtomicInteger calls = new AtomicInteger();
+
+        final ClassLoaderResource resource = ClassLoaderResource.releasable(
+            value,
+            () -> {
+                calls.incrementAndGet();
+                return value;
+            }
+        );
+
+        assertSame(
+            value,
+            resource.value()
+        );
+        this.checkEquals(
+            0,
+            calls.get(),
+            "supplier calls"
+        );
+    }
+
+    @Test
+    public void testReleasableReleaseWhileReachable() {
+        final Binary value = Binary.with("ABC".getBytes(StandardCharsets.UTF_8));
+
+        final ClassLoaderResource resource = ClassLoaderResource.releasable(
+            value,
+            () -> {
+                throw new UnsupportedOperationException();
+            }
+        );
+        resource.release();
+
+        // value is still strongly reachable so the weak reference is not cleared
+        assertSame(
+            value,
+            resource.value()
+        );
+    }
+
+    @Test
+    public void testReleaseNotReleasable() {
+        final Binary value = Binary.with("ABC".getBytes(StandardCharsets.UTF_8));
+
+        final ClassLoaderResource resource = ClassLoaderResource.with(value);
+        resource.release();
+
+        assertSame(
+            value,
+            resource.value()
+        );
+    }
+
     // equals...........................................................................................................
 
     @Test
@@ -51,6 +219,60 @@ public final class ClassLoaderResourceTest implements ClassTesting<ClassLoaderRe
         );
     }
 
+    @Test
+    public void testEqualsDifferentValueAfterHashCode() {
+        final ClassLoaderResource resource = this.createObject();
+        final ClassLoaderResource other = ClassLoaderResource.with(
+            Binary.with("Different".getBytes(StandardCharsets.UTF_8))
+        );
+        resource.hashCode();
+        other.hashCode();
+
+        this.checkNotEquals(
+            resource,
+            other
+        );
+    }
+
+    @Test
+    public void testEqualsAfterDigest() {
+        final ClassLoaderResource resource = this.createObject();
+        final ClassLoaderResource other = this.createObject();
+        resource.digest();
+        other.digest();
+
+        this.checkEquals(
+            resource,
+            other
+        );
+    }
+
+    @Test
+    public void testEqualsDifferentValueAfterDigest() {
+        final ClassLoaderResource resource = this.createObject();
+        final ClassLoaderResource other = ClassLoaderResource.with(
+            Binary.with("Different".getBytes(StandardCharsets.UTF_8))
+        );
+        resource.digest();
+        other.digest();
+
+        this.checkNotEquals(
+            resource,
+            other
+        );
+    }
+
+    @Test
+    public void testEqualsOneDigest() {
+        final ClassLoaderResource resource = this.createObject();
+        resource.digest();
+
+        this.checkEquals(
+            resource,
+            this.createObject()
+        );
+    }
+
     // hashcode/equals..................................................................................................
 
     @Override
@@ -60,6 +282,76 @@ public final class ClassLoaderResourceTest implements ClassTesting<ClassLoaderRe
         );
     }
 
+    // digest.........................................................................................................
+
+    @Test
+    public void testDigest() {
+        this.checkEquals(
+            Binary.with(
+                new byte[]{
+                    (byte) 0xb5, (byte) 0xd4, (byte) 0x04, (byte) 0x5c, (byte) 0x3f, (byte) 0x46, (byte) 0x6f, (byte) 0xa9,
+                    (byte) 0x1f, (byte) 0xe2, (byte) 0xcc, (byte) 0x6a, (byte) 0xbe, (byte) 0x79, (byte) 0x23, (byte) 0x2a,
+                    (byte) 0x1a, (byte) 0x57, (byte) 0xcd, (byte) 0xf1, (byte) 0x04, (byte) 0xf7, (byte) 0xa2, (byte) 0x6e,
+                    (byte) 0x71, (byte) 0x6e, (byte) 0x0a, (byte) 0x1e, (byte) 0x27, (byte) 0x89, (byte) 0xdf, (byte) 0x78
+                }
+            ),
+            this.createObject()
+                .digest()
+        );
+    }
+
+    @Test
+    public void testDigestTwice() {
+        final ClassLoaderResource resource = this.createObject();
+
+        this.checkEquals(
+            resource.digest(),
+            resource.digest()
+        );
+    }
+
+    @Test
+    public void testEtag() {
+        this.checkEquals(
+            "\"b5d4045c3f466fa91fe2cc6abe79232a1a57cdf104f7a26e716e0a1e2789df78\"",
+            this.createObject()
+                .etag()
+        );
+    }
+
+    @Test
+    public void testEtagDifferentValue() {
+        this.checkNotEquals(
+            this.createObject()
+                .etag(),
+            ClassLoaderResource.with(
+                Binary.with("Different".getBytes(StandardCharsets.UTF_8))
+            ).etag()
+        );
+    }
+
+    // hashCode.........................................................................................................
+
+    @Test
+    public void testHashCodeTwice() {
+        final ClassLoaderResource resource = this.createObject();
+
+        this.checkEquals(
+            resource.hashCode(),
+            resource.hashCode()
+        );
+    }
+
+    @Test
+    public void testHashCodeSameValue() {
+        this.checkEquals(
+            this.createObject()
+                .hashCode(),
+            this.createObject()
+                .hashCode()
+        );
+    }
+
     // toString.........................................................................................................
 
     @Test
@@ -0,0 +1,347 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Binary;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class CoalescingClassLoaderResourceProviderTest implements ClassLoaderResourceProviderTesting,
+    ClassTesting<CoalescingClassLoaderResourceProvider> {
+
+    private final static ClassLoaderResourcePath PATH = ClassLoaderResourcePath.parse("/path1.txt");
+
+    @Test
+    public void testWithNullProviderFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> CoalescingClassLoaderResourceProvider.with(
+                null,
+                ClassLoaderResourceProviderMetrics.empty()
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullMetricsFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> CoalescingClassLoaderResourceProvider.with(
+                ClassLoaderResourceProviders.fake(),
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testLoadSequentialNotShared() {
+        final AtomicInteger loads = new AtomicInteger();
+        final ClassLoaderResourceProviderMetrics metrics = ClassLoaderResourceProviderMetrics.empty();
+        final CoalescingClassLoaderResourceProvider provider = CoalescingClassLoaderResourceProvider.with(
+            new FakeClassLoaderResourceProvider() {
+                @Override
+                public Optional<ClassLoaderResource> load(final ClassLoaderResourcePath path) {
+                    loads.incrementAndGet();
+                    return Optional.of(
+                        resource()
+                    );
+                }
+            },
+            metrics
+        );
+
+        provider.load(PATH);
+        provider.load(PATH);
+
+        this.checkEquals(
+            2,
+            loads.get(),
+            "loads"
+        );
+        this.checkEquals(
+            0L,
+            metrics.get(ClassLoaderResourceProviderMetric.COALESCED_LOADS),
+            "coalesced"
+        );
+        this.checkEquals(
+            0,
+            provider.inFlight(),
+            "inFlight"
+        );
+    }
+
+    @Test
+    public void testLoadConcurrentShared() throws Exception {
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ClassLoaderResourceProviderMetrics metrics = ClassLoaderResourceProviderMetrics.empty();
+
+        final CoalescingClassLoaderResourceProvider provider = CoalescingClassLoaderResourceProvider.with(
+            new FakeClassLoaderResourceProvider() {
+                @Override
+                public Optional<ClassLoaderResource> load(final ClassLoaderResourcePath path) {
+                    loads.incrementAndGet();
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (final InterruptedException cause) {
+                        throw new IllegalStateException(cause);
+                    }
+                    return Optional.of(
+                        resource()
+                    );
+                }
+            },
+            metrics
+        );
+
+        final CompletableFuture<Optional<ClassLoaderResource>> first = CompletableFuture.supplyAsync(
+            () -> provider.load(PATH)
+        );
+        started.await();
+
+        final CompletableFuture<Optional<ClassLoaderResource>> second = CompletableFuture.supplyAsync(
+            () -> provider.load(PATH)
+        );
+        while (0 == metrics.get(ClassLoaderResourceProviderMetric.COALESCED_LOADS)) {
+            Thread.yield();
+        }
+        release.countDown();
+
+        assertSame(
+            first.get()
+                .get(),
+            second.get()
+                .get()
+        );
+        this.checkEquals(
+            1,
+            loads.get(),
+            "loads"
+        );
+        this.checkEquals(
+            0,
+            provider.inFlight(),
+            "inFlight"
+        );
+    }
+
+    @Test
+    public void testLoadConcurrentFailureShared() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ClassLoaderResourceProviderMetrics metrics = ClassLoaderResourceProviderMetrics.empty();
+        final ClassFormatError thrown = new ClassFormatError("Error reading " + PATH);
+
+        final CoalescingClassLoaderResourceProvider provider = CoalescingClassLoaderResourceProvider.with(
+            new FakeClassLoaderResourceProvider() {
+                @Override
+                public Optional<ClassLoaderResource> load(final ClassLoaderResourcePath path) {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (final InterruptedException cause) {
+                        throw new IllegalStateException(cause);
+                    }
+                    throw thrown;
+                }
+            },
+            metrics
+        );
+
+        final CompletableFuture<Throwable> first = CompletableFuture.supplyAsync(
+            () -> assertThrows(
+                ClassFormatError.class,
+                () -> provider.load(PATH)
+            )
+        );
+        started.await();
+
+        final CompletableFuture<Throwable> second = CompletableFuture.supplyAsync(
+            () -> assertThrows(
+                ClassFormatError.class,
+                () -> provider.load(PATH)
+            )
+        );
+        while (0 == metrics.get(ClassLoaderResourceProviderMetric.COALESCED_LOADS)) {
+            Thread.yield();
+        }
+        release.countDown();
+
+        assertSame(
+            thrown,
+            first.get()
+        );
+        assertSame(
+            thrown,
+            second.get()
+        );
+        this.checkEquals(
+            0,
+            provider.inFlight(),
+            "inFlight"
+        );
+    }
+
+    @Test
+    public void testClassLoaderGetResourceAsStreamConcurrentShared() throws Exception {
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        final ClassLoaderResourceProviderMetrics metrics = ClassLoaderResourceProviderMetrics.empty();
+
+        final ClassLoader classLoader = ClassLoaderResourceProviders.classLoader(
+            ClassLoader.getPlatformClassLoader(),
+            CoalescingClassLoaderResourceProvider.with(
+                new FakeClassLoaderResourceProvider() {
+                    @Override
+                    public Optional<ClassLoaderResource> load(final ClassLoaderResourcePath path) {
+                        loads.incrementAndGet();
+                        try {
+                            release.await();
+                        } catch (final InterruptedException cause) {
+                            throw new IllegalStateException(cause);
+                        }
+                        return Optional.of(
+                            resource()
+                        );
+                    }
+                },
+                metrics
+            )
+        );
+
+        final int count = 4;
+        final ExecutorService executor = Executors.newFixedThreadPool(count);
+        try {
+            this.getResourceAsStreamConcurrent(
+                classLoader,
+                count,
+                executor,
+                release,
+                metrics
+            );
+        } finally {
+            executor.shutdown();
+        }
+
+        this.checkEquals(
+            1,
+            loads.get(),
+            "loads"
+        );
+    }
+
+    private void getResourceAsStreamConcurrent(final ClassLoader classLoader,
+                                               final int count,
+                                               final ExecutorService executor,
+                                               final CountDownLatch release,
+                                               final ClassLoaderResourceProviderMetrics metrics) throws Exception {
+        final List<CompletableFuture<byte[]>> reads = Lists.array();
+        for (int i = 0; i < count; i++) {
+            reads.add(
+                CompletableFuture.supplyAsync(
+                    () -> {
+                        try (final InputStream inputStream = classLoader.getResourceAsStream("path1.txt")) {
+                            return inputStream.readAllBytes();
+                        } catch (final IOException cause) {
+                            throw new UncheckedIOException(cause);
+                        }
+                    },
+                    executor
+                )
+            );
+        }
+        while (metrics.get(ClassLoaderResourceProviderMetric.COALESCED_LOADS) < count - 1) {
+            Thread.yield();
+        }
+        release.countDown();
+
+        for (final CompletableFuture<byte[]> read : reads) {
+            this.checkEquals(
+                Binary.with(new byte[10]),
+                Binary.with(read.get())
+            );
+        }
+    }
+
+    @Test
+    public void testLoadReentrantSamePath() {
+        final AtomicInteger loads = new AtomicInteger();
+        final CoalescingClassLoaderResourceProvider[] provider = new CoalescingClassLoaderResourceProvider[1];
+
+        provider[0] = CoalescingClassLoaderResourceProvider.with(
+            new FakeClassLoaderResourceProvider() {
+                @Override
+                public Optional<ClassLoaderResource> load(final ClassLoaderResourcePath path) {
+                    return 1 == loads.incrementAndGet() ?
+                        provider[0].load(path) :
+                        Optional.of(
+                            resource()
+                        );
+                }
+            },
+            ClassLoaderResourceProviderMetrics.empty()
+        );
+
+        this.loadAndCheck(
+            provider[0],
+            PATH,
+            resource()
+        );
+        this.checkEquals(
+            2,
+            loads.get(),
+            "loads"
+        );
+    }
+
+    private static ClassLoaderResource resource() {
+        return ClassLoaderResource.with(
+            Binary.with(new byte[10])
+        );
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<CoalescingClassLoaderResourceProvider> type() {
+        return CoalescingClassLoaderResourceProvider.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class ContentAddressedFileStoreTest implements ClassTesting<ContentAddressedFileStore> {
+
+    @Test
+    public void testWithNullDirectoryFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ContentAddressedFileStore.with(
+                null,
+                1
+            )
+        );
+    }
+
+    @Test
+    public void testWithInvalidMaxBytesFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> ContentAddressedFileStore.with(
+                Files.createTempDirectory("store"),
+                0
+            )
+        );
+    }
+
+    @Test
+    public void testDigest() {
+        this.checkEquals(
+            "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+            ContentAddressedFileStore.digest(
+                ByteBuffer.wrap("abc".getBytes(StandardCharsets.UTF_8))
+            )
+        );
+    }
+
+    @Test
+    public void testGetUnknown() throws IOException {
+        this.checkEquals(
+            null,
+            ContentAddressedFileStore.with(
+                Files.createTempDirectory("store"),
+                100
+            ).get("unknown")
+        );
+    }
+
+    @Test
+    public void testPutThenGet() throws IOException {
+        final ContentAddressedFileStore store = ContentAddressedFileStore.with(
+            Files.createTempDirectory("store"),
+            100
+        );
+
+        final Path file = store.put(
+            "key1",
+            ByteBuffer.wrap(content('1'))
+        );
+
+        this.checkEquals(
+            file,
+            store.get("key1")
+        );
+        this.checkEquals(
+            content('1'),
+            Files.readAllBytes(file)
+        );
+    }
+
+    @Test
+    public void testPutEvictsLeastRecentlyUsed() throws IOException {
+        final Path directory = Files.createTempDirectory("store");
+        final ContentAddressedFileStore store = ContentAddressedFileStore.with(
+            directory,
+            25
+        );
+
+        final Path file1 = store.put(
+            "key1",
+            ByteBuffer.wrap(content('1'))
+        );
+        Files.setLastModifiedTime(file1, FileTime.fromMillis(1000));
+
+        final Path file2 = store.put(
+            "key2",
+            ByteBuffer.wrap(content('2'))
+        );
+        Files.setLastModifiedTime(file2, FileTime.fromMillis(2000));
+
+        store.put(
+            "key3",
+            ByteBuffer.wrap(content('3'))
+        );
+
+        this.checkEquals(
+            null,
+            store.get("key1"),
+            "key1 should have been evicted"
+        );
+        this.checkNotEquals(
+            null,
+            store.get("key2"),
+            "key2"
+        );
+        this.checkNotEquals(
+            null,
+            store.get("key3"),
+            "key3"
+        );
+    }
+
+    @Test
+    public void testPutTracksBytes() throws IOException {
+        final ContentAddressedFileStore store = ContentAddressedFileStore.with(
+            Files.createTempDirectory("store"),
+            100
+        );
+
+        this.checkEquals(
+            -1L,
+            store.bytes(),
+            "bytes before put"
+        );
+
+        store.put(
+            "key1",
+            ByteBuffer.wrap(content('1'))
+        );
+        store.put(
+            "key2",
+            ByteBuffer.wrap(content('2'))
+        );
+
+        this.checkEquals(
+            20L,
+            store.bytes(),
+            "bytes"
+        );
+    }
+
+    @Test
+    public void testPutDeletesStaleTemporaryFiles() throws IOException {
+        final Path directory = Files.createTempDirectory("store");
+
+        final Path stale = Files.write(
+            directory.resolve("stale.tmp"),
+            content('1')
+        );
+        Files.setLastModifiedTime(stale, FileTime.fromMillis(1000));
+
+        final Path recent = Files.write(
+            directory.resolve("recent.tmp"),
+            content('2')
+        );
+
+        ContentAddressedFileStore.with(
+            directory,
+            100
+        ).put(
+            "key1",
+            ByteBuffer.wrap(content('3'))
+        );
+
+        this.checkEquals(
+            false,
+            Files.exists(stale),
+            "stale temporary file"
+        );
+        this.checkEquals(
+            true,
+            Files.exists(recent),
+            "recent temporary file"
+        );
+    }
+
+    private static byte[] content(final char c) {
+        final byte[] content = new byte[10];
+        Arrays.fill(content, (byte) c);
+        return content;
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<ContentAddressedFileStore> type() {
+        return ContentAddressedFileStore.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,821 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Binary;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.LineEnding;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class DirectoryClassLoaderResourceProviderTest implements ClassLoaderResourceProviderTesting,
+    ClassTesting<DirectoryClassLoaderResourceProvider> {
+
+    private final static LineEnding EOL = LineEnding.NL;
+
+    @Test
+    public void testWithNullRootFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> DirectoryClassLoaderResourceProvider.with(
+                null,
+                EOL
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullLineEndingFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> DirectoryClassLoaderResourceProvider.with(
+                Paths.get("."),
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testLoadUnknown() throws IOException {
+        this.loadAndCheck(
+            DirectoryClassLoaderResourceProvider.with(
+                this.createDirectory(),
+                EOL
+            ),
+            ClassLoaderResourcePath.parse("/dir/unknown.txt")
+        );
+    }
+
+    @Test
+    public void testLoadFile() throws IOException {
+        this.loadAndCheck(
+            DirectoryClassLoaderResourceProvider.with(
+                this.createDirectory(),
+                EOL
+            ),
+            ClassLoaderResourcePath.parse("/dir/a.txt"),
+            resource("a")
+        );
+    }
+
+    @Test
+    public void testInputStreamFile() throws IOException {
+        final Optional<InputStream> inputStream = DirectoryClassLoaderResourceProvider.with(
+            this.createDirectory(),
+            EOL
+        ).inputStream(
+            ClassLoaderResourcePath.parse("/dir/a.txt")
+        );
+
+        try (final InputStream in = inputStream.get()) {
+            this.checkEquals(
+                "a",
+                new String(
+                    in.readAllBytes(),
+                    StandardCharsets.UTF_8
+                )
+            );
+        }
+    }
+
+    @Test
+    public void testInputStreamDirectory() throws IOException {
+        final Optional<InputStream> inputStream = DirectoryClassLoaderResourceProvider.with(
+            this.createDirectory(),
+            EOL
+        ).inputStream(
+            ClassLoaderResourcePath.parse("/dir/sub")
+        );
+
+        try (final InputStream in = inputStream.get()) {
+            this.checkEquals(
+                "c.txt\n",
+                new String(
+                    in.readAllBytes(),
+                    StandardCharsets.UTF_8
+                )
+            );
+        }
+    }
+
+    @Test
+    public void testInputStreamUnknown() throws IOException {
+        this.checkEquals(
+            Optional.empty(),
+            DirectoryClassLoaderResourceProvider.with(
+                this.createDirectory(),
+                EOL
+            ).inputStream(
+                ClassLoaderResourcePath.parse("/unknown.txt")
+            )
+        );
+    }
+
+    @Test
+    public void testTransferToFile() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        this.checkEquals(
+            OptionalLong.of(1),
+            DirectoryClassLoaderResourceProvider.with(
+                this.createDirectory(),
+                EOL
+            ).transferTo(
+                ClassLoaderResourcePath.parse("/dir/a.txt"),
+                Channels.newChannel(bytes)
+            )
+        );
+        this.checkEquals(
+            "a",
+            new String(
+                bytes.toByteArray(),
+                StandardCharsets.UTF_8
+            )
+        );
+    }
+
+    @Test
+    public void testTransferToDirectory() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        this.checkEquals(
+            OptionalLong.of(6),
+            DirectoryClassLoaderResourceProvider.with(
+                this.createDirectory(),
+                EOL
+            ).transferTo(
+                ClassLoaderResourcePath.parse("/dir/sub"),
+                Channels.newChannel(bytes)
+            )
+        );
+        this.checkEquals(
+            "c.txt\n",
+            new String(
+                bytes.toByteArray(),
+                StandardCharsets.UTF_8
+            )
+        );
+    }
+
+    @Test
+    public void testTransferToUnknown() throws IOException {
+        this.checkEquals(
+            OptionalLong.empty(),
+            DirectoryClassLoaderResourceProvider.with(
+                this.createDirectory(),
+                EOL
+            ).transferTo(
+                ClassLoaderResourcePath.parse("/unknown.txt"),
+                Channels.newChannel(new ByteArrayOutputStream())
+            )
+        );
+    }
+
+    @Test
+    public void testRangeFile() throws IOException {
+        final Path root = this.createDirectory();
+        write(
+            root.resolve("dir")
+                .resolve("digits.txt"),
+            "0123456789"
+        );
+
+        this.rangeAndCheck(
+            DirectoryClassLoaderResourceProvider.with(
+                root,
+                EOL
+            ),
+            ClassLoaderResourcePath.parse("/dir/digits.txt"),
+            2,
+            3,
+            resource("234").value()
+        );
+    }
+
+    @Test
+    public void testRangeFilePastEnd() throws IOException {
+        final Path root = this.createDirectory();
+        write(
+            root.resolve("dir")
+                .resolve("digits.txt"),
+            "0123456789"
+        );
+
+        this.rangeAndCheck(
+            DirectoryClassLoaderResourceProvider.with(
+                root,
+                EOL
+            ),
+            ClassLoaderResourcePath.parse("/dir/digits.txt"),
+            8,
+            100,
+            resource("89").value()
+        );
+    }
+
+    @Test
+    public void testRangeFileOffsetAfterEnd() throws IOException {
+        this.rangeAndCheck(
+            DirectoryClassLoaderResourceProvider.with(
+                this.createDirectory(),
+                EOL
+            ),
+            ClassLoaderResourcePath.parse("/dir/a.txt"),
+            100,
+            1,
+            resource("").value()
+        );
+    }
+
+    @Test
+    public void testRangeDirectory() throws IOException {
+        this.rangeAndCheck(
+            DirectoryClassLoaderResourceProvider.with(
+                this.createDirectory(),
+                EOL
+            ),
+            ClassLoaderResourcePath.parse("/dir/sub"),
+            0,
+            1,
+            resource("c").value()
+        );
+    }
+
+    @Test
+    public void testRangeUnknown() throws IOException {
+        this.rangeAndCheck(
+            DirectoryClassLoaderResourceProvider.with(
+                this.createDirectory(),
+                EOL
+            ),
+            ClassLoaderResourcePath.parse("/unknown.txt"),
+            0,
+            1
+        );
+    }
+
+    @Test
+    public void testMetadataFile() throws IOException {
+        final Path root = this.createDirectory();
+        final Path file = root.resolve("dir")
+            .resolve("a.txt");
+        final Instant lastModified = Instant.parse("2024-01-02T03:04:05Z");
+        Files.setLastModifiedTime(
+            file,
+            FileTime.from(lastModified)
+        );
+
+        final ClassLoaderResourceProvider provider = DirectoryClassLoaderResourceProvider.with(
+            root,
+            EOL
+        );
+
+        this.checkEquals(
+            Optional.of(
+                ClassLoaderResourceMetadata.with(
+                    1,
+                    Optional.empty(),
+                    Optional.of(lastModified),
+                    provider
+                )
+            ),
+            provider.metadata(
+                ClassLoaderResourcePath.parse("/dir/a.txt")
+            )
+        );
+    }
+
+    @Test
+    public void testMetadataUnknown() throws IOException {
+        this.checkEquals(
+            Optional.empty(),
+            DirectoryClassLoaderResourceProvider.with(
+                this.createDirectory(),
+                EOL
+            ).metadata(
+                ClassLoaderResourcePath.parse("/unknown.txt")
+            )
+        );
+    }
+
+    @Test
+    public void testLoadFileNested() throws IOException {
+        this.loadAndCheck(
+            DirectoryClassLoaderResourceProvider.with(
+                this.createDirectory(),
+                EOL
+            ),
+            ClassLoaderResourcePath.parse("/dir/sub/c.txt"),
+            resource("c")
+        );
+    }
+
+    @Test
+    public void testLoadFileTwice() throws IOException {
+        final DirectoryClassLoaderResourceProvider provider = DirectoryClassLoaderResourceProvider.with(
+            this.createDirectory(),
+            EOL
+        );
+        final ClassLoaderResourcePath path = ClassLoaderResourcePath.parse("/dir/a.txt");
+
+        this.loadAndCheck(
+            provider,
+            path,
+            resource("a")
+        );
+        this.loadAndCheck(
+            provider,
+            path,
+            resource("a")
+        );
+    }
+
+    @Test
+    public void testLoadFileGrownAfterAttributesCached() throws IOException {
+        final Path root = this.createDirectory();
+        final DirectoryClassLoaderResourceProvider provider = DirectoryClassLoaderResourceProvider.with(
+            root,
+            EOL
+        );
+        final ClassLoaderResourcePath path = ClassLoaderResourcePath.parse("/dir/a.txt");
+
+        this.loadAndCheck(
+            provider,
+            path,
+            resource("a")
+        );
+
+        write(
+            root.resolve("dir")
+                .resolve("a.txt"),
+            "abcdefghijklmnopqrstuvwxyz"
+        );
+
+        this.loadAndCheck(
+            provider,
+            path,
+            resource("abcdefghijklmnopqrstuvwxyz")
+        );
+    }
+
+    @Test
+    public void testLoadFileCreatedAfterMissing() throws IOException {
+        final Path root = this.createDirectory();
+        final DirectoryClassLoaderResourceProvider provider = DirectoryClassLoaderResourceProvider.with(
+            root,
+            EOL
+        );
+        final ClassLoaderResourcePath path = ClassLoaderResourcePath.parse("/dir/new.txt");
+
+        this.loadAndCheck(
+            provider,
+            path
+        );
+
+        write(
+            root.resolve("dir")
+                .resolve("new.txt"),
+            "new"
+        );
+
+        this.loadAndCheck(
+            provider,
+            path,
+            resource("new")
+        );
+    }
+
+    @Test
+    public void testLoadFileDeletedAfterAttributesCached() throws IOException {
+        final Path root = this.createDirectory();
+        final DirectoryClassLoaderResourceProvider provider = DirectoryClassLoaderResourceProvider.with(
+            root,
+            EOL
+        );
+        final ClassLoaderResourcePath path = ClassLoaderResourcePath.parse("/dir/a.txt");
+
+        this.loadAndCheck(
+            provider,
+            path,
+            resource("a")
+        );
+
+        Files.delete(
+            root.resolve("dir")
+                .resolve("a.txt")
+        );
+
+        this.loadAndCheck(
+            provider,
+            path
+        );
+    }
+
+    @Test
+    public void testLoadDirectory() throws IOException {
+        this.loadAndCheck(
+            DirectoryClassLoaderResourceProvider.with(
+                this.createDirectory(),
+                EOL
+            ),
+            ClassLoaderResourcePath.parse("/dir"),
+            resource("a.txt" + EOL + "b.txt" + EOL)
+        );
+    }
+
+    @Test
+    public void testLoadDirectoryWithoutFiles() throws IOException {
+        final Path root = this.createDirectory();
+        final Path empty = root.resolve("empty");
+        Files.createDirectory(empty);
+        empty.toFile()
+            .deleteOnExit();
+
+        this.loadAndCheck(
+            DirectoryClassLoaderResourceProvider.with(
+                root,
+                EOL
+            ),
+            ClassLoaderResourcePath.parse("/empty")
+        );
+    }
+
+    @Test
+    public void testLoadManifest() throws IOException {
+        this.loadAndCheck(
+            DirectoryClassLoaderResourceProvider.with(
+                this.createDirectory(),
+                EOL
+            ),
+            ClassLoaderResourcePath.MANIFEST,
+            resource("Manifest-Version: 1.0\r\n")
+        );
+    }
+
+    @Test
+    public void testLoadManifestDifferentCase() throws IOException {
+        this.loadAndCheck(
+            DirectoryClassLoaderResourceProvider.with(
+                this.createDirectory(),
+                EOL
+            ),
+            ClassLoaderResourcePath.parse("/meta-inf/manifest.MF"),
+            resource("Manifest-Version: 1.0\r\n")
+        );
+    }
+
+    @Test
+    public void testLoadManifestMissing() throws IOException {
+        final Path root = Files.createTempDirectory(DirectoryClassLoaderResourceProviderTest.class.getSimpleName());
+        root.toFile()
+            .deleteOnExit();
+
+        this.loadAndCheck(
+            DirectoryClassLoaderResourceProvider.with(
+                root,
+                EOL
+            ),
+            ClassLoaderResourcePath.MANIFEST
+        );
+    }
+
+    @Test
+    public void testLoadManifestCreatedAfterMissing() throws IOException {
+        final Path root = Files.createTempDirectory(DirectoryClassLoaderResourceProviderTest.class.getSimpleName());
+        root.toFile()
+            .deleteOnExit();
+
+        final DirectoryClassLoaderResourceProvider provider = DirectoryClassLoaderResourceProvider.with(
+            root,
+            EOL
+        );
+
+        this.loadAndCheck(
+            provider,
+            ClassLoaderResourcePath.MANIFEST
+        );
+
+        write(
+            createDirectory(root, "META-INF")
+                .resolve("MANIFEST.MF"),
+            "Manifest-Version: 1.0\r\n"
+        );
+
+        this.loadAndCheck(
+            provider,
+            ClassLoaderResourcePath.MANIFEST,
+            resource("Manifest-Version: 1.0\r\n")
+        );
+    }
+
+    @Test
+    public void testWithInvalidMaxCacheEntriesFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> DirectoryClassLoaderResourceProvider.with(
+                Paths.get("."),
+                EOL,
+                0
+            )
+        );
+    }
+
+    @Test
+    public void testLoadDirectoryCachedListing() throws IOException {
+        final Path root = this.createDirectory();
+        final DirectoryClassLoaderResourceProvider provider = DirectoryClassLoaderResourceProvider.with(
+            root,
+            EOL
+        );
+        final ClassLoaderResourcePath path = ClassLoaderResourcePath.parse("/dir");
+
+        this.loadAndCheck(
+            provider,
+            path,
+            resource("a.txt" + EOL + "b.txt" + EOL)
+        );
+
+        write(
+            root.resolve("dir")
+                .resolve("created.txt"),
+            "created"
+        );
+
+        this.loadAndCheck(
+            provider,
+            path,
+            resource("a.txt" + EOL + "b.txt" + EOL)
+        );
+    }
+
+    @Test
+    public void testLoadDirectoryListingAfterMemoryPressure() throws IOException {
+        final Path root = this.createDirectory();
+        final DirectoryClassLoaderResourceProvider provider = DirectoryClassLoaderResourceProvider.with(
+            root,
+            EOL
+        );
+        final ClassLoaderResourcePath path = ClassLoaderResourcePath.parse("/dir");
+
+        this.loadAndCheck(
+            provider,
+            path,
+            resource("a.txt" + EOL + "b.txt" + EOL)
+        );
+
+        write(
+            root.resolve("dir")
+                .resolve("created.txt"),
+            "created"
+        );
+
+        provider.onMemoryPressure();
+
+        this.loadAndCheck(
+            provider,
+            path,
+            resource("a.txt" + EOL + "b.txt" + EOL + "created.txt" + EOL)
+        );
+    }
+
+    @Test
+    public void testMemoryPressureRecordsMetric() throws IOException {
+        final ClassLoaderResourceProviderMetrics metrics = ClassLoaderResourceProviderMetrics.empty();
+        final DirectoryClassLoaderResourceProvider provider = DirectoryClassLoaderResourceProvider.with(
+            this.createDirectory(),
+            EOL,
+            DirectoryClassLoaderResourceProvider.DEFAULT_MAX_CACHE_ENTRIES,
+            metrics
+        );
+
+        this.loadAndCheck(
+            provider,
+            ClassLoaderResourcePath.parse("/dir"),
+            resource("a.txt" + EOL + "b.txt" + EOL)
+        );
+
+        provider.onMemoryPressure();
+        provider.onMemoryPressure(); // caches already empty
+
+        this.checkEquals(
+            1L,
+            metrics.get(ClassLoaderResourceProviderMetric.MEMORY_PRESSURE_SHRINKS)
+        );
+    }
+
+    @Test
+    public void testLoadDirectoryListingEvicted() throws IOException {
+        final Path root = this.createDirectory();
+        final DirectoryClassLoaderResourceProvider provider = DirectoryClassLoaderResourceProvider.with(
+            root,
+            EOL,
+            1
+        );
+        final ClassLoaderResourcePath path = ClassLoaderResourcePath.parse("/dir");
+
+        this.loadAndCheck(
+            provider,
+            path,
+            resource("a.txt" + EOL + "b.txt" + EOL)
+        );
+        this.loadAndCheck(
+            provider,
+            ClassLoaderResourcePath.parse("/dir/sub"),
+            resource("c.txt" + EOL)
+        );
+
+        write(
+            root.resolve("dir")
+                .resolve("created.txt"),
+            "created"
+        );
+
+        this.loadAndCheck(
+            provider,
+            path,
+            resource("a.txt" + EOL + "b.txt" + EOL + "created.txt" + EOL)
+        );
+    }
+
+    @Test
+    public void testLoadZipFileSystem() throws IOException {
+        final Path zip = Files.createTempFile(
+            DirectoryClassLoaderResourceProviderTest.class.getSimpleName(),
+            ".zip"
+        );
+        try {
+            try (final ZipOutputStream zipOut = new ZipOutputStream(Files.newOutputStream(zip))) {
+                for (final String name : new String[]{
+                    "META-INF/MANIFEST.MF",
+                    "dir/a.txt",
+                    "dir/b.txt"
+                }) {
+                    zipOut.putNextEntry(new ZipEntry(name));
+                    zipOut.write(
+                        name.getBytes(StandardCharsets.UTF_8)
+                    );
+                    zipOut.closeEntry();
+                }
+            }
+
+            try (final FileSystem fileSystem = FileSystems.newFileSystem(zip, (ClassLoader) null)) {
+                final DirectoryClassLoaderResourceProvider provider = DirectoryClassLoaderResourceProvider.with(
+                    fileSystem.getPath("/"),
+                    EOL,
+                    10
+                );
+
+                this.loadAndCheck(
+                    provider,
+                    ClassLoaderResourcePath.parse("/dir/a.txt"),
+                    resource("dir/a.txt")
+                );
+                this.loadAndCheck(
+                    provider,
+                    ClassLoaderResourcePath.parse("/dir"),
+                    resource("a.txt" + EOL + "b.txt" + EOL)
+                );
+                this.loadAndCheck(
+                    provider,
+                    ClassLoaderResourcePath.parse("/meta-inf/manifest.mf"),
+                    resource("META-INF/MANIFEST.MF")
+                );
+                this.loadAndCheck(
+                    provider,
+                    ClassLoaderResourcePath.parse("/dir/unknown.txt")
+                );
+            }
+        } finally {
+            Files.delete(zip);
+        }
+    }
+
+    @Test
+    public void testToString() throws IOException {
+        final Path root = this.createDirectory();
+
+        this.checkEquals(
+            root.toAbsolutePath()
+                .normalize()
+                .toString(),
+            DirectoryClassLoaderResourceProvider.with(
+                root,
+                EOL
+            ).toString()
+        );
+    }
+
+    /**
+     * Creates a temporary directory holding
+     * <pre>
+     * META-INF/manifest.mf
+     * dir/a.txt
+     * dir/b.txt
+     * dir/sub/c.txt
+     * </pre>
+     * Directories are registered for deletion before their files, so they are deleted after them.
+     */
+    private Path createDirectory() throws IOException {
+        final Path root = Files.createTempDirectory(DirectoryClassLoaderResourceProviderTest.class.getSimpleName());
+        root.toFile()
+            .deleteOnExit();
+
+        final Path metaInf = createDirectory(root, "META-INF");
+        write(
+            metaInf.resolve("manifest.mf"),
+            "Manifest-Version: 1.0\r\n"
+        );
+
+        final Path dir = createDirectory(root, "dir");
+        write(
+            dir.resolve("a.txt"),
+            "a"
+        );
+        write(
+            dir.resolve("b.txt"),
+            "b"
+        );
+
+        final Path sub = createDirectory(dir, "sub");
+        write(
+            sub.resolve("c.txt"),
+            "c"
+        );
+
+        return root;
+    }
+
+    private static Path createDirectory(final Path parent,
+                                        final String name) throws IOException {
+        final Path directory = Files.createDirectory(
+            parent.resolve(name)
+        );
+        directory.toFile()
+            .deleteOnExit();
+        return directory;
+    }
+
+    private static void write(final Path file,
+                              final String content) throws IOException {
+        Files.write(
+            file,
+            content.getBytes(StandardCharsets.UTF_8)
+        );
+        file.toFile()
+            .deleteOnExit();
+    }
+
+    private static ClassLoaderResource resource(final String content) {
+        return ClassLoaderResource.with(
+            Binary.with(
+                content.getBytes(StandardCharsets.UTF_8)
+            )
+        );
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<DirectoryClassLoaderResourceProvider> type() {
+        return DirectoryClassLoaderResourceProvider.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
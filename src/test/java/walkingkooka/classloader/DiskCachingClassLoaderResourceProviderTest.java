@@ -0,0 +1,465 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Binary;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.LineEnding;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class DiskCachingClassLoaderResourceProviderTest implements ClassLoaderResourceProviderTesting,
+    ClassTesting<DiskCachingClassLoaderResourceProvider> {
+
+    private final static ClassLoaderResourcePath PATH1 = ClassLoaderResourcePath.parse("/path1.txt");
+
+    private final static ClassLoaderResource RESOURCE1 = resource("content1");
+
+    private final static ClassLoaderResourcePath PATH2 = ClassLoaderResourcePath.parse("/dir/path2.txt");
+
+    private final static ClassLoaderResourcePath UNKNOWN = ClassLoaderResourcePath.parse("/unknown.txt");
+
+    private final static String NAMESPACE = "test.jar 123";
+
+    private final static long MAX_BYTES = 1000;
+
+    @Test
+    public void testWithNullProviderFails() throws IOException {
+        final ContentAddressedFileStore store = this.store();
+
+        assertThrows(
+            NullPointerException.class,
+            () -> DiskCachingClassLoaderResourceProvider.with(
+                null,
+                NAMESPACE,
+                store,
+                ClassLoaderResourceProviderMetrics.empty()
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullNamespaceFails() throws IOException {
+        final ContentAddressedFileStore store = this.store();
+
+        assertThrows(
+            NullPointerException.class,
+            () -> DiskCachingClassLoaderResourceProvider.with(
+                ClassLoaderResourceProviders.fake(),
+                null,
+                store,
+                ClassLoaderResourceProviderMetrics.empty()
+            )
+        );
+    }
+
+    @Test
+    public void testWithEmptyNamespaceFails() throws IOException {
+        final ContentAddressedFileStore store = this.store();
+
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> DiskCachingClassLoaderResourceProvider.with(
+                ClassLoaderResourceProviders.fake(),
+                "",
+                store,
+                ClassLoaderResourceProviderMetrics.empty()
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullStoreFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> DiskCachingClassLoaderResourceProvider.with(
+                ClassLoaderResourceProviders.fake(),
+                NAMESPACE,
+                null,
+                ClassLoaderResourceProviderMetrics.empty()
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullMetricsFails() throws IOException {
+        final ContentAddressedFileStore store = this.store();
+
+        assertThrows(
+            NullPointerException.class,
+            () -> DiskCachingClassLoaderResourceProvider.with(
+                ClassLoaderResourceProviders.fake(),
+                NAMESPACE,
+                store,
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testLoadTwice() throws IOException {
+        final Map<ClassLoaderResourcePath, Integer> loads = Maps.sorted();
+        final ClassLoaderResourceProviderMetrics metrics = ClassLoaderResourceProviderMetrics.empty();
+        final DiskCachingClassLoaderResourceProvider provider = DiskCachingClassLoaderResourceProvider.with(
+            this.loadCounting(loads),
+            NAMESPACE,
+            this.store(),
+            metrics
+        );
+
+        this.loadAndCheck(provider, PATH1, RESOURCE1);
+        this.loadAndCheck(provider, PATH1, RESOURCE1);
+
+        this.checkEquals(
+            Maps.of(PATH1, 1),
+            loads,
+            "loads"
+        );
+        this.metricsAndCheck(
+            metrics,
+            1,
+            1,
+            0
+        );
+    }
+
+    @Test
+    public void testLoadSameContentDifferentPaths() throws IOException {
+        final Map<ClassLoaderResourcePath, Integer> loads = Maps.sorted();
+        final Path directory = this.directory();
+        final DiskCachingClassLoaderResourceProvider provider = DiskCachingClassLoaderResourceProvider.with(
+            this.loadCounting(loads),
+            NAMESPACE,
+            ContentAddressedFileStore.with(
+                directory,
+                MAX_BYTES
+            ),
+            ClassLoaderResourceProviderMetrics.empty()
+        );
+
+        this.loadAndCheck(provider, PATH1, RESOURCE1);
+        this.loadAndCheck(provider, PATH2, RESOURCE1);
+        this.loadAndCheck(provider, PATH2, RESOURCE1);
+
+        this.checkEquals(
+            Maps.of(PATH1, 1, PATH2, 1),
+            loads,
+            "loads"
+        );
+        this.checkEquals(
+            3L,
+            Files.list(directory)
+                .filter(f -> false == f.getFileName().toString().startsWith("."))
+                .count(),
+            "files, one content and two paths"
+        );
+    }
+
+    @Test
+    public void testLoadUnknownNotStored() throws IOException {
+        final Map<ClassLoaderResourcePath, Integer> loads = Maps.sorted();
+        final ClassLoaderResourceProviderMetrics metrics = ClassLoaderResourceProviderMetrics.empty();
+        final DiskCachingClassLoaderResourceProvider provider = DiskCachingClassLoaderResourceProvider.with(
+            this.loadCounting(loads),
+            NAMESPACE,
+            this.store(),
+            metrics
+        );
+
+        this.loadAndCheck(provider, UNKNOWN);
+        this.loadAndCheck(provider, UNKNOWN);
+
+        this.checkEquals(
+            Maps.of(UNKNOWN, 2),
+            loads,
+            "loads"
+        );
+        this.metricsAndCheck(
+            metrics,
+            0,
+            2,
+            0
+        );
+    }
+
+    @Test
+    public void testLoadAfterRestart() throws IOException {
+        final Path directory = this.directory();
+
+        this.loadAndCheck(
+            DiskCachingClassLoaderResourceProvider.with(
+                this.loadCounting(Maps.sorted()),
+                NAMESPACE,
+                ContentAddressedFileStore.with(
+                    directory,
+                    MAX_BYTES
+                ),
+                ClassLoaderResourceProviderMetrics.empty()
+            ),
+            PATH1,
+            RESOURCE1
+        );
+
+        final Map<ClassLoaderResourcePath, Integer> loads = Maps.sorted();
+        final ClassLoaderResourceProviderMetrics metrics = ClassLoaderResourceProviderMetrics.empty();
+
+        this.loadAndCheck(
+            DiskCachingClassLoaderResourceProvider.with(
+                this.loadCounting(loads),
+                NAMESPACE,
+                ContentAddressedFileStore.with(
+                    directory,
+                    MAX_BYTES
+                ),
+                metrics
+            ),
+            PATH1,
+            RESOURCE1
+        );
+
+        this.checkEquals(
+            Maps.empty(),
+            loads,
+            "loads"
+        );
+        this.metricsAndCheck(
+            metrics,
+            1,
+            0,
+            0
+        );
+    }
+
+    @Test
+    public void testLoadDifferentNamespaceNotShared() throws IOException {
+        final Path directory = this.directory();
+
+        this.loadAndCheck(
+            DiskCachingClassLoaderResourceProvider.with(
+                this.loadCounting(Maps.sorted()),
+                NAMESPACE,
+                ContentAddressedFileStore.with(
+                    directory,
+                    MAX_BYTES
+                ),
+                ClassLoaderResourceProviderMetrics.empty()
+            ),
+            PATH1,
+            RESOURCE1
+        );
+
+        final Map<ClassLoaderResourcePath, Integer> loads = Maps.sorted();
+        final ClassLoaderResourceProviderMetrics metrics = ClassLoaderResourceProviderMetrics.empty();
+
+        this.loadAndCheck(
+            DiskCachingClassLoaderResourceProvider.with(
+                this.loadCounting(loads),
+                "test.jar 456",
+                ContentAddressedFileStore.with(
+                    directory,
+                    MAX_BYTES
+                ),
+                metrics
+            ),
+            PATH1,
+            RESOURCE1
+        );
+
+        this.checkEquals(
+            Maps.of(PATH1, 1),
+            loads,
+            "loads"
+        );
+        this.metricsAndCheck(
+            metrics,
+            0,
+            1,
+            0
+        );
+    }
+
+    @Test
+    public void testLoadUnreadableCacheLoadsWrapped() throws IOException {
+        final Path directory = this.directory();
+
+        // a directory where the path file belongs fails to read
+        Files.createDirectory(
+            directory.resolve(
+                ContentAddressedFileStore.digest(
+                    (NAMESPACE + '\0' + PATH1.value())
+                        .getBytes(StandardCharsets.UTF_8)
+                ) + ".path"
+            )
+        );
+
+        final Map<ClassLoaderResourcePath, Integer> loads = Maps.sorted();
+        final ClassLoaderResourceProviderMetrics metrics = ClassLoaderResourceProviderMetrics.empty();
+
+        this.loadAndCheck(
+            DiskCachingClassLoaderResourceProvider.with(
+                this.loadCounting(loads),
+                NAMESPACE,
+                ContentAddressedFileStore.with(
+                    directory,
+                    MAX_BYTES
+                ),
+                metrics
+            ),
+            PATH1,
+            RESOURCE1
+        );
+
+        this.checkEquals(
+            Maps.of(PATH1, 1),
+            loads,
+            "loads"
+        );
+        this.metricsAndCheck(
+            metrics,
+            0,
+            1,
+            0
+        );
+    }
+
+    @Test
+    public void testLoadCorruptedContentReloaded() throws IOException {
+        final Map<ClassLoaderResourcePath, Integer> loads = Maps.sorted();
+        final ClassLoaderResourceProviderMetrics metrics = ClassLoaderResourceProviderMetrics.empty();
+        final ContentAddressedFileStore store = this.store();
+        final DiskCachingClassLoaderResourceProvider provider = DiskCachingClassLoaderResourceProvider.with(
+            this.loadCounting(loads),
+            NAMESPACE,
+            store,
+            metrics
+        );
+
+        this.loadAndCheck(provider, PATH1, RESOURCE1);
+
+        final Path content = store.get(
+            ContentAddressedFileStore.digest(
+                RESOURCE1.value()
+                    .value()
+            ) + ".resource"
+        );
+        Files.write(
+            content,
+            "corrupted".getBytes(StandardCharsets.UTF_8)
+        );
+
+        this.loadAndCheck(provider, PATH1, RESOURCE1);
+        this.loadAndCheck(provider, PATH1, RESOURCE1);
+
+        this.checkEquals(
+            Maps.of(PATH1, 2),
+            loads,
+            "loads"
+        );
+        this.metricsAndCheck(
+            metrics,
+            1,
+            2,
+            1
+        );
+    }
+
+    private Path directory() throws IOException {
+        final Path directory = Files.createTempDirectory(DiskCachingClassLoaderResourceProviderTest.class.getSimpleName());
+        directory.toFile()
+            .deleteOnExit();
+        return directory;
+    }
+
+    private ContentAddressedFileStore store() throws IOException {
+        return ContentAddressedFileStore.with(
+            this.directory(),
+            MAX_BYTES
+        );
+    }
+
+    private ClassLoaderResourceProvider loadCounting(final Map<ClassLoaderResourcePath, Integer> loads) {
+        final ClassLoaderResourceProvider map = ClassLoaderResourceProviders.map(
+            Maps.of(
+                PATH1,
+                RESOURCE1,
+                PATH2,
+                RESOURCE1
+            ),
+            LineEnding.NL
+        );
+
+        return new FakeClassLoaderResourceProvider() {
+            @Override
+            public Optional<ClassLoaderResource> load(final ClassLoaderResourcePath path) {
+                loads.merge(path, 1, Integer::sum);
+                return map.load(path);
+            }
+        };
+    }
+
+    private void metricsAndCheck(final ClassLoaderResourceProviderMetrics metrics,
+                                 final long hits,
+                                 final long misses,
+                                 final long corruptions) {
+        this.checkEquals(
+            hits,
+            metrics.get(ClassLoaderResourceProviderMetric.DISK_CACHE_HITS),
+            "hits"
+        );
+        this.checkEquals(
+            misses,
+            metrics.get(ClassLoaderResourceProviderMetric.DISK_CACHE_MISSES),
+            "misses"
+        );
+        this.checkEquals(
+            corruptions,
+            metrics.get(ClassLoaderResourceProviderMetric.DISK_CACHE_CORRUPTIONS),
+            "corruptions"
+        );
+    }
+
+    private static ClassLoaderResource resource(final String content) {
+        return ClassLoaderResource.with(
+            Binary.with(
+                content.getBytes(StandardCharsets.UTF_8)
+            )
+        );
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<DiskCachingClassLoaderResourceProvider> type() {
+        return DiskCachingClassLoaderResourceProvider.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,419 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Binary;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.LineEnding;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class IndexedUrlClassLoaderClassLoaderResourceProviderTest implements ClassLoaderResourceProviderTesting,
+    ClassTesting<IndexedUrlClassLoaderClassLoaderResourceProvider>,
+    ToStringTesting<IndexedUrlClassLoaderClassLoaderResourceProvider> {
+
+    private final static Path JAR_FILE = Paths.get("./src/test/resources/JarFileClassLoaderResourceProviderTest.jar");
+
+    private final static LineEnding EOL = LineEnding.NL;
+
+    @Test
+    public void testWithNullUrlClassLoaderFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> IndexedUrlClassLoaderClassLoaderResourceProvider.with(
+                null,
+                EOL
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullLineEndingFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> IndexedUrlClassLoaderClassLoaderResourceProvider.with(
+                urlClassLoader(),
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testLoadUnknown() throws IOException {
+        this.loadAndCheck(
+            IndexedUrlClassLoaderClassLoaderResourceProvider.with(
+                urlClassLoader(JAR_FILE),
+                EOL
+            ),
+            ClassLoaderResourcePath.parse("/walkingkooka/classloader/unknown.txt")
+        );
+    }
+
+    @Test
+    public void testLoadParentResourceIgnored() throws IOException {
+        this.loadAndCheck(
+            IndexedUrlClassLoaderClassLoaderResourceProvider.with(
+                urlClassLoader(JAR_FILE),
+                EOL
+            ),
+            ClassLoaderResourcePath.parse("/walkingkooka/classloader/TestClass.class")
+        );
+    }
+
+    @Test
+    public void testLoadJarFileResource() throws IOException {
+        this.loadAndCheck(
+            IndexedUrlClassLoaderClassLoaderResourceProvider.with(
+                urlClassLoader(JAR_FILE),
+                EOL
+            ),
+            ClassLoaderResourcePath.parse("/walkingkooka/classloader/test-resource-123.txt"),
+            resource("123")
+        );
+    }
+
+    @Test
+    public void testLoadJarFileDirectory() throws IOException {
+        this.loadAndCheck(
+            IndexedUrlClassLoaderClassLoaderResourceProvider.with(
+                urlClassLoader(JAR_FILE),
+                EOL
+            ),
+            ClassLoaderResourcePath.parse("/walkingkooka/classloader"),
+            resource("test-resource-123.txt" + EOL)
+        );
+    }
+
+    @Test
+    public void testLoadJarFileManifestDifferentCase() throws IOException {
+        this.loadAndCheck(
+            IndexedUrlClassLoaderClassLoaderResourceProvider.with(
+                urlClassLoader(JAR_FILE),
+                EOL
+            ),
+            ClassLoaderResourcePath.parse("/meta-inf/manifest.mf"),
+            ClassLoaderResource.with(
+                Binary.with(
+                    ("Manifest-Version: 1.0\r\n" +
+                        "Created-By: 11.0.5 (Oracle Corporation)\r\n\r\n")
+                        .getBytes(StandardCharsets.UTF_8)
+                )
+            )
+        );
+    }
+
+    @Test
+    public void testLoadDirectoryResource() throws IOException {
+        this.loadAndCheck(
+            IndexedUrlClassLoaderClassLoaderResourceProvider.with(
+                urlClassLoader(
+                    createDirectory()
+                ),
+                EOL
+            ),
+            ClassLoaderResourcePath.parse("/walkingkooka/classloader/test-resource-123.txt"),
+            resource("directory")
+        );
+    }
+
+    @Test
+    public void testLoadDirectoryBeforeJarFile() throws IOException {
+        this.loadAndCheck(
+            IndexedUrlClassLoaderClassLoaderResourceProvider.with(
+                urlClassLoader(
+                    createDirectory(),
+                    JAR_FILE
+                ),
+                EOL
+            ),
+            ClassLoaderResourcePath.parse("/walkingkooka/classloader/test-resource-123.txt"),
+            resource("directory")
+        );
+    }
+
+    @Test
+    public void testLoadJarFileBeforeDirectory() throws IOException {
+        this.loadAndCheck(
+            IndexedUrlClassLoaderClassLoaderResourceProvider.with(
+                urlClassLoader(
+                    JAR_FILE,
+                    createDirectory()
+                ),
+                EOL
+            ),
+            ClassLoaderResourcePath.parse("/walkingkooka/classloader/test-resource-123.txt"),
+            resource("123")
+        );
+    }
+
+    @Test
+    public void testLoadSecondUrl() throws IOException {
+        this.loadAndCheck(
+            IndexedUrlClassLoaderClassLoaderResourceProvider.with(
+                urlClassLoader(
+                    JAR_FILE,
+                    createDirectory()
+                ),
+                EOL
+            ),
+            ClassLoaderResourcePath.parse("/directory-only.txt"),
+            resource("only")
+        );
+    }
+
+    @Test
+    public void testLoadMissingFileIgnored() throws IOException {
+        this.loadAndCheck(
+            IndexedUrlClassLoaderClassLoaderResourceProvider.with(
+                urlClassLoader(
+                    Paths.get("./src/test/resources/missing.jar"),
+                    JAR_FILE
+                ),
+                EOL
+            ),
+            ClassLoaderResourcePath.parse("/walkingkooka/classloader/test-resource-123.txt"),
+            resource("123")
+        );
+    }
+
+    @Test
+    public void testLoadJarFileWithInvalidEntryNameSkipped() throws IOException {
+        final Path file = Files.createTempFile(
+            IndexedUrlClassLoaderClassLoaderResourceProviderTest.class.getSimpleName(),
+            ".jar"
+        );
+        file.toFile()
+            .deleteOnExit();
+
+        try (final ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(file))) {
+            zip.putNextEntry(new ZipEntry("invalid//name.txt"));
+            zip.write("invalid".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+
+            zip.putNextEntry(new ZipEntry("valid.txt"));
+            zip.write("valid".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+
+        this.loadAndCheck(
+            IndexedUrlClassLoaderClassLoaderResourceProvider.with(
+                urlClassLoader(file),
+                EOL
+            ),
+            ClassLoaderResourcePath.parse("/valid.txt"),
+            resource("valid")
+        );
+    }
+
+    @Test
+    public void testLoadMultiReleaseJarFileVersionedOnly() throws IOException {
+        this.loadAndCheck(
+            IndexedUrlClassLoaderClassLoaderResourceProvider.with(
+                urlClassLoader(
+                    createMultiReleaseJarFile(false),
+                    createDirectory()
+                ),
+                EOL
+            ),
+            ClassLoaderResourcePath.parse("/directory-only.txt"),
+            resource("9")
+        );
+    }
+
+    @Test
+    public void testLoadMultiReleaseJarFileVersionedOverridesBase() throws IOException {
+        this.loadAndCheck(
+            IndexedUrlClassLoaderClassLoaderResourceProvider.with(
+                urlClassLoader(
+                    createMultiReleaseJarFile(true),
+                    createDirectory()
+                ),
+                EOL
+            ),
+            ClassLoaderResourcePath.parse("/directory-only.txt"),
+            resource("9")
+        );
+    }
+
+    @Test
+    public void testCloseClosesOtherUrlClassLoaders() throws IOException {
+        final URLClassLoader urlClassLoader = URLClassLoader.newInstance(
+            new URL[]{
+                new URL("jar:" + JAR_FILE.toUri() + "!/")
+            }
+        );
+        final IndexedUrlClassLoaderClassLoaderResourceProvider provider = IndexedUrlClassLoaderClassLoaderResourceProvider.with(
+            urlClassLoader,
+            EOL
+        );
+        final ClassLoaderResourcePath path = ClassLoaderResourcePath.parse("/walkingkooka/classloader/test-resource-123.txt");
+
+        this.loadAndCheck(
+            provider,
+            path,
+            resource("123")
+        );
+
+        provider.close();
+
+        this.loadAndCheck(
+            provider,
+            path
+        );
+
+        // the given URLClassLoader is not closed
+        this.checkNotEquals(
+            null,
+            urlClassLoader.getResource("walkingkooka/classloader/test-resource-123.txt")
+        );
+    }
+
+    @Test
+    public void testToString() throws IOException {
+        final URL url = JAR_FILE.toUri()
+            .toURL();
+
+        this.toStringAndCheck(
+            IndexedUrlClassLoaderClassLoaderResourceProvider.with(
+                urlClassLoader(JAR_FILE),
+                EOL
+            ),
+            url.toString()
+        );
+    }
+
+    private static URLClassLoader urlClassLoader(final Path... files) throws IOException {
+        final URL[] urls = new URL[files.length];
+        for (int i = 0; i < files.length; i++) {
+            urls[i] = files[i].toUri()
+                .toURL();
+        }
+        return URLClassLoader.newInstance(urls);
+    }
+
+    /**
+     * Creates a temporary directory holding
+     * <pre>
+     * directory-only.txt
+     * walkingkooka/classloader/test-resource-123.txt
+     * </pre>
+     */
+    private static Path createDirectory() throws IOException {
+        final Path root = Files.createTempDirectory(IndexedUrlClassLoaderClassLoaderResourceProviderTest.class.getSimpleName());
+        root.toFile()
+            .deleteOnExit();
+
+        write(
+            root.resolve("directory-only.txt"),
+            "only"
+        );
+
+        final Path walkingkooka = Files.createDirectory(
+            root.resolve("walkingkooka")
+        );
+        walkingkooka.toFile()
+            .deleteOnExit();
+
+        final Path classloader = Files.createDirectory(
+            walkingkooka.resolve("classloader")
+        );
+        classloader.toFile()
+            .deleteOnExit();
+
+        write(
+            classloader.resolve("test-resource-123.txt"),
+            "directory"
+        );
+
+        return root;
+    }
+
+    /**
+     * Creates a multi-release JAR file holding <code>META-INF/versions/9/directory-only.txt</code> and optionally the
+     * base <code>directory-only.txt</code>.
+     */
+    private static Path createMultiReleaseJarFile(final boolean base) throws IOException {
+        final Path file = Files.createTempFile(
+            IndexedUrlClassLoaderClassLoaderResourceProviderTest.class.getSimpleName(),
+            ".jar"
+        );
+        file.toFile()
+            .deleteOnExit();
+
+        try (final ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(file))) {
+            zip.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+            zip.write("Manifest-Version: 1.0\r\nMulti-Release: true\r\n".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+
+            if (base) {
+                zip.putNextEntry(new ZipEntry("directory-only.txt"));
+                zip.write("base".getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+
+            zip.putNextEntry(new ZipEntry("META-INF/versions/9/directory-only.txt"));
+            zip.write("9".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+
+        return file;
+    }
+
+    private static void write(final Path file,
+                              final String content) throws IOException {
+        Files.write(
+            file,
+            content.getBytes(StandardCharsets.UTF_8)
+        );
+        file.toFile()
+            .deleteOnExit();
+    }
+
+    private static ClassLoaderResource resource(final String content) {
+        return ClassLoaderResource.with(
+            Binary.with(
+                content.getBytes(StandardCharsets.UTF_8)
+            )
+        );
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<IndexedUrlClassLoaderClassLoaderResourceProvider> type() {
+        return IndexedUrlClassLoaderClassLoaderResourceProvider.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
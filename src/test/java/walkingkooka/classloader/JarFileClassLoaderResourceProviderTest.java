@@ -23,10 +23,18 @@ import walkingkooka.reflect.ClassTesting;
 import walkingkooka.reflect.JavaVisibility;
 import walkingkooka.text.LineEnding;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -112,6 +120,149 @@ public final class JarFileClassLoaderResourceProviderTest implements ClassLoader
         );
     }
 
+    @Test
+    public void testLoadNameUnknown() throws IOException {
+        this.loadNameAndCheck(
+            this.classLoaderResourceProvider(),
+            "walkingkooka/classloader/UNKNOWN.txt"
+        );
+    }
+
+    @Test
+    public void testLoadNameResourceManifest() throws IOException {
+        this.loadNameAndCheck(
+            this.classLoaderResourceProvider(),
+            "META-INF/Manifest.MF",
+            ClassLoaderResource.with(
+                Binary.with(
+                    ("Manifest-Version: 1.0\r\n" +
+                        "Created-By: 11.0.5 (Oracle Corporation)\r\n\r\n")
+                        .getBytes(Charset.defaultCharset())
+                )
+            )
+        );
+    }
+
+    @Test
+    public void testLoadNameResource() throws IOException {
+        this.loadNameAndCheck(
+            this.classLoaderResourceProvider(),
+            "walkingkooka/classloader/test-resource-123.txt",
+            ClassLoaderResource.with(
+                Binary.with(
+                    new byte[]{
+                        '1',
+                        '2',
+                        '3'
+                    }
+                )
+            )
+        );
+    }
+
+    @Test
+    public void testLoadNameDirectory() throws IOException {
+        this.loadNameAndCheck(
+            this.classLoaderResourceProvider(),
+            "/walkingkooka/classloader",
+            ClassLoaderResource.with(
+                Binary.with(
+                    "test-resource-123.txt\n".getBytes(StandardCharsets.UTF_8)
+                )
+            )
+        );
+    }
+
+    @Test
+    public void testInputStreamName() throws IOException {
+        try (final InputStream inputStream = this.classLoaderResourceProvider()
+            .inputStreamName("walkingkooka/classloader/test-resource-123.txt")
+            .get()) {
+            this.checkEquals(
+                "123",
+                new String(
+                    inputStream.readAllBytes(),
+                    StandardCharsets.UTF_8
+                )
+            );
+        }
+    }
+
+    @Test
+    public void testInputStreamNameUnknown() throws IOException {
+        this.checkEquals(
+            Optional.empty(),
+            this.classLoaderResourceProvider()
+                .inputStreamName("walkingkooka/classloader/UNKNOWN.txt")
+        );
+    }
+
+    @Test
+    public void testLoadMultiRelease() throws IOException {
+        this.loadMultiReleaseAndCheck(
+            "Manifest-Version: 1.0\r\nMulti-Release: true\r\n",
+            "9"
+        );
+    }
+
+    @Test
+    public void testLoadNotMultiRelease() throws IOException {
+        this.loadMultiReleaseAndCheck(
+            "Manifest-Version: 1.0\r\n",
+            "base"
+        );
+    }
+
+    private void loadMultiReleaseAndCheck(final String manifest,
+                                          final String expected) throws IOException {
+        final Path file = Files.createTempFile(
+            JarFileClassLoaderResourceProviderTest.class.getSimpleName(),
+            ".jar"
+        );
+        try {
+            try (final JarOutputStream jarOut = new JarOutputStream(
+                Files.newOutputStream(file),
+                new Manifest(
+                    new ByteArrayInputStream(
+                        manifest.getBytes(StandardCharsets.UTF_8)
+                    )
+                )
+            )) {
+                for (final String name : new String[]{
+                    "test/test-resource.txt",
+                    "META-INF/versions/9/test/test-resource.txt",
+                    "META-INF/versions/99999/test/test-resource.txt"
+                }) {
+                    jarOut.putNextEntry(new JarEntry(name));
+                    jarOut.write(
+                        (name.startsWith("META-INF/versions/") ?
+                            name.substring("META-INF/versions/".length(), name.indexOf('/', "META-INF/versions/".length())) :
+                            "base"
+                        ).getBytes(StandardCharsets.UTF_8)
+                    );
+                    jarOut.closeEntry();
+                }
+            }
+
+            try (final JarFile jarFile = new JarFile(file.toFile())) {
+                this.loadAndCheck(
+                    JarFileClassLoaderResourceProvider.with(
+                        jarFile,
+                        EOL
+                    ),
+                    ClassLoaderResourcePath.parse("/test/test-resource.txt"),
+                    ClassLoaderResource.with(
+                        Binary.with(
+                            expected.getBytes(StandardCharsets.UTF_8)
+                        )
+                    )
+                );
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
     private JarFileClassLoaderResourceProvider classLoaderResourceProvider() throws IOException {
         return JarFileClassLoaderResourceProvider.with(
             new JarFile(TEST_JAR_FILE),
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class LruCacheTest implements ClassTesting<LruCache<?, ?>> {
+
+    @Test
+    public void testWithZeroMaxEntriesFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> LruCache.with(0)
+        );
+    }
+
+    @Test
+    public void testGetMissing() {
+        this.checkEquals(
+            null,
+            LruCache.with(2)
+                .get("missing")
+        );
+    }
+
+    @Test
+    public void testPutGet() {
+        final LruCache<String, Integer> cache = LruCache.with(2);
+        cache.put("a", 1);
+
+        this.checkEquals(
+            1,
+            cache.get("a")
+        );
+    }
+
+    @Test
+    public void testPutEvictsLeastRecentlyUsed() {
+        final LruCache<String, Integer> cache = LruCache.with(2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+
+        this.checkEquals(
+            1,
+            cache.get("a"),
+            "a"
+        );
+        this.checkEquals(
+            null,
+            cache.get("b"),
+            "b"
+        );
+        this.checkEquals(
+            3,
+            cache.get("c"),
+            "c"
+        );
+        this.checkEquals(
+            2,
+            cache.size()
+        );
+    }
+
+    @Test
+    public void testRemove() {
+        final LruCache<String, Integer> cache = LruCache.with(2);
+        cache.put("a", 1);
+        cache.remove("a");
+
+        this.checkEquals(
+            null,
+            cache.get("a")
+        );
+    }
+
+    @Test
+    public void testToString() {
+        final LruCache<String, Integer> cache = LruCache.with(2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+
+        this.checkEquals(
+            "[b, a]",
+            cache.toString()
+        );
+    }
+
+    @Test
+    public void testClear() {
+        final LruCache<String, Integer> cache = LruCache.with(2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.clear();
+
+        this.checkEquals(
+            0,
+            cache.size(),
+            "size"
+        );
+        this.checkEquals(
+            null,
+            cache.get("a"),
+            "a"
+        );
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Class<LruCache<?, ?>> type() {
+        return (Class<LruCache<?, ?>>) (Object) LruCache.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -19,12 +19,14 @@ package walkingkooka.classloader;
 
 import org.junit.jupiter.api.Test;
 import walkingkooka.Binary;
+import walkingkooka.collect.list.Lists;
 import walkingkooka.collect.map.Maps;
 import walkingkooka.reflect.ClassTesting;
 import walkingkooka.reflect.JavaVisibility;
 import walkingkooka.text.LineEnding;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -63,6 +65,116 @@ public final class MapClassLoaderResourceProviderTest implements ClassLoaderReso
         );
     }
 
+    @Test
+    public void testMetadata() {
+        final ClassLoaderResourceProvider provider = this.classLoaderResourceProvider();
+
+        this.checkEquals(
+            Optional.of(
+                ClassLoaderResourceMetadata.with(
+                    3,
+                    Optional.empty(),
+                    Optional.empty(),
+                    provider
+                )
+            ),
+            provider.metadata(
+                ClassLoaderResourcePath.parse("/walkingkooka/classloader/test-resource-123.txt")
+            )
+        );
+    }
+
+    @Test
+    public void testMetadataUnknown() {
+        this.checkEquals(
+            Optional.empty(),
+            this.classLoaderResourceProvider()
+                .metadata(
+                    ClassLoaderResourcePath.parse("/walkingkooka/classloader/UNKNOWN.txt")
+                )
+        );
+    }
+
+    @Test
+    public void testRange() {
+        this.rangeAndCheck(
+            this.classLoaderResourceProvider(),
+            ClassLoaderResourcePath.parse("/walkingkooka/classloader/test-resource-123.txt"),
+            1,
+            1,
+            Binary.with(
+                new byte[]{
+                    '2'
+                }
+            )
+        );
+    }
+
+    @Test
+    public void testRangePastEnd() {
+        this.rangeAndCheck(
+            this.classLoaderResourceProvider(),
+            ClassLoaderResourcePath.parse("/walkingkooka/classloader/test-resource-123.txt"),
+            1,
+            100,
+            Binary.with(
+                new byte[]{
+                    '2',
+                    '3'
+                }
+            )
+        );
+    }
+
+    @Test
+    public void testRangeOffsetAfterEnd() {
+        this.rangeAndCheck(
+            this.classLoaderResourceProvider(),
+            ClassLoaderResourcePath.parse("/walkingkooka/classloader/test-resource-123.txt"),
+            100,
+            1,
+            Binary.with(
+                new byte[0]
+            )
+        );
+    }
+
+    @Test
+    public void testRangeUnknown() {
+        this.rangeAndCheck(
+            this.classLoaderResourceProvider(),
+            ClassLoaderResourcePath.parse("/walkingkooka/classloader/UNKNOWN.txt"),
+            0,
+            1
+        );
+    }
+
+    @Test
+    public void testRangeInvalidOffsetFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> this.classLoaderResourceProvider()
+                .range(
+                    ClassLoaderResourcePath.parse("/walkingkooka/classloader/test-resource-123.txt"),
+                    -1,
+                    1
+                )
+        );
+    }
+
+    @Test
+    public void testRangeInvalidLengthFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> this.classLoaderResourceProvider()
+                .range(
+                    ClassLoaderResourcePath.parse("/walkingkooka/classloader/test-resource-123.txt"),
+                    0,
+                    -1
+                )
+        );
+    }
+
     @Test
     public void testLoadResource() {
         this.loadAndCheck(
@@ -111,6 +223,132 @@ public final class MapClassLoaderResourceProviderTest implements ClassLoaderReso
         );
     }
 
+    @Test
+    public void testLoadNameResource() {
+        this.loadNameAndCheck(
+            this.classLoaderResourceProvider(),
+            "walkingkooka/classloader/test-resource-123.txt",
+            ClassLoaderResource.with(
+                Binary.with(
+                    new byte[]{
+                        '1',
+                        '2',
+                        '3'
+                    }
+                )
+            )
+        );
+    }
+
+    @Test
+    public void testLoadNameResourceLeadingSlash() {
+        this.loadNameAndCheck(
+            this.classLoaderResourceProvider(),
+            new StringBuilder("/walkingkooka/classloader/test-resource-234.txt"),
+            ClassLoaderResource.with(
+                Binary.with(
+                    new byte[]{
+                        '2',
+                        '3',
+                        '4'
+                    }
+                )
+            )
+        );
+    }
+
+    @Test
+    public void testLoadNameNotNormalized() {
+        this.loadNameAndCheck(
+            this.classLoaderResourceProvider(),
+            "walkingkooka/classloader/test/../test-resource-123.txt",
+            ClassLoaderResource.with(
+                Binary.with(
+                    new byte[]{
+                        '1',
+                        '2',
+                        '3'
+                    }
+                )
+            )
+        );
+    }
+
+    @Test
+    public void testLoadNameUnknown() {
+        this.loadNameAndCheck(
+            this.classLoaderResourceProvider(),
+            "walkingkooka/classloader/unknown.txt"
+        );
+    }
+
+    @Test
+    public void testLoadNameDirectory() {
+        this.loadNameAndCheck(
+            this.classLoaderResourceProvider(),
+            "walkingkooka/classloader",
+            ClassLoaderResource.with(
+                Binary.with(
+                    (
+                        "test-resource-123.txt" + EOL +
+                            "test-resource-234.txt" + EOL
+                    ).getBytes(StandardCharsets.UTF_8)
+                )
+            )
+        );
+    }
+
+    @Test
+    public void testLoadNameDirectoryWithoutFiles() {
+        this.loadNameAndCheck(
+            this.classLoaderResourceProvider(),
+            "walkingkooka"
+        );
+    }
+
+    @Test
+    public void testLoadAllNullPathsFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.classLoaderResourceProvider()
+                .loadAll(null)
+        );
+    }
+
+    @Test
+    public void testLoadAll() {
+        final ClassLoaderResourcePath resource = ClassLoaderResourcePath.parse("/walkingkooka/classloader/test-resource-123.txt");
+        final ClassLoaderResourcePath directory = ClassLoaderResourcePath.parse("/walkingkooka/classloader/test");
+        final ClassLoaderResourcePath unknown = ClassLoaderResourcePath.parse("/walkingkooka/classloader/unknown.txt");
+
+        this.loadAllAndCheck(
+            this.classLoaderResourceProvider(),
+            Lists.of(
+                resource,
+                directory,
+                unknown
+            ),
+            Maps.of(
+                resource,
+                ClassLoaderResource.with(
+                    Binary.with(
+                        new byte[]{
+                            '1',
+                            '2',
+                            '3'
+                        }
+                    )
+                ),
+                directory,
+                ClassLoaderResource.with(
+                    Binary.with(
+                        ("test-resource-456.txt" + EOL).getBytes(StandardCharsets.UTF_8)
+                    )
+                )
+            )
+        );
+    }
+
     private MapClassLoaderResourceProvider classLoaderResourceProvider() {
         return MapClassLoaderResourceProvider.with(
             Maps.of(
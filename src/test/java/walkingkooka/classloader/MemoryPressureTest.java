@@ -0,0 +1,199 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+
+import javax.management.Notification;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class MemoryPressureTest implements ClassTesting<MemoryPressure> {
+
+    @Test
+    public void testAddNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> new MemoryPressure()
+                .add(null)
+        );
+    }
+
+    @Test
+    public void testFire() {
+        final MemoryPressure pressure = new MemoryPressure();
+        final int[] fired = new int[1];
+        final MemoryPressureListener listener = () -> fired[0]++;
+
+        pressure.add(listener);
+        pressure.fire();
+
+        this.checkEquals(
+            1,
+            fired[0]
+        );
+
+        Reference.reachabilityFence(listener);
+    }
+
+    @Test
+    public void testAddForgetsCollected() {
+        final MemoryPressure pressure = new MemoryPressure();
+
+        final WeakReference<MemoryPressureListener> collected = new WeakReference<>(
+            () -> {
+                throw new UnsupportedOperationException();
+            }
+        );
+        collected.clear();
+        pressure.addReference(collected);
+
+        final MemoryPressureListener listener = () -> {
+        };
+        pressure.add(listener);
+
+        this.checkEquals(
+            1,
+            pressure.size()
+        );
+
+        Reference.reachabilityFence(listener);
+    }
+
+    @Test
+    public void testFireForgetsCollected() {
+        final MemoryPressure pressure = new MemoryPressure();
+        final int[] fired = new int[1];
+        final MemoryPressureListener listener = () -> fired[0]++;
+        pressure.add(listener);
+
+        final WeakReference<MemoryPressureListener> collected = new WeakReference<>(
+            () -> {
+                throw new UnsupportedOperationException();
+            }
+        );
+        collected.clear();
+        pressure.addReference(collected);
+
+        pressure.fire();
+
+        this.checkEquals(
+            1,
+            fired[0],
+            "fired"
+        );
+        this.checkEquals(
+            1,
+            pressure.size(),
+            "size"
+        );
+
+        Reference.reachabilityFence(listener);
+    }
+
+    @Test
+    public void testHandleNotificationCollectionThresholdExceeded() {
+        this.handleNotificationAndCheck(
+            MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED,
+            1
+        );
+    }
+
+    @Test
+    public void testHandleNotificationThresholdExceeded() {
+        this.handleNotificationAndCheck(
+            MemoryNotificationInfo.MEMORY_THRESHOLD_EXCEEDED,
+            1
+        );
+    }
+
+    @Test
+    public void testHandleNotificationOther() {
+        this.handleNotificationAndCheck(
+            "other",
+            0
+        );
+    }
+
+    private void handleNotificationAndCheck(final String type,
+                                            final int expected) {
+        final MemoryPressure pressure = new MemoryPressure();
+        final int[] fired = new int[1];
+        final MemoryPressureListener listener = () -> fired[0]++;
+
+        pressure.add(listener);
+        pressure.handleNotification(
+            new Notification(
+                type,
+                this,
+                1
+            ),
+            null
+        );
+
+        this.checkEquals(
+            expected,
+            fired[0],
+            type
+        );
+
+        // the listener is only weakly held and must remain reachable until after the notification is handled
+        Reference.reachabilityFence(listener);
+    }
+
+    @Test
+    public void testInstance() {
+        this.checkEquals(
+            true,
+            null != MemoryPressure.INSTANCE
+        );
+    }
+
+    @Test
+    public void testToString() {
+        final MemoryPressure pressure = new MemoryPressure();
+        final MemoryPressureListener listener = () -> {
+        };
+        pressure.add(listener);
+
+        this.checkEquals(
+            "1 listeners",
+            pressure.toString()
+        );
+
+        Reference.reachabilityFence(listener);
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<MemoryPressure> type() {
+        return MemoryPressure.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.jar.Manifest;
+
+public final class MultiReleaseJarTest implements ClassTesting<MultiReleaseJar> {
+
+    private final static int FEATURE = 11;
+
+    // isMultiRelease...................................................................................................
+
+    @Test
+    public void testIsMultiReleaseNullManifest() {
+        this.checkEquals(
+            false,
+            MultiReleaseJar.isMultiRelease(null)
+        );
+    }
+
+    @Test
+    public void testIsMultiReleaseMissing() throws IOException {
+        this.isMultiReleaseAndCheck(
+            "Manifest-Version: 1.0\r\n",
+            false
+        );
+    }
+
+    @Test
+    public void testIsMultiReleaseFalse() throws IOException {
+        this.isMultiReleaseAndCheck(
+            "Manifest-Version: 1.0\r\nMulti-Release: false\r\n",
+            false
+        );
+    }
+
+    @Test
+    public void testIsMultiReleaseTrue() throws IOException {
+        this.isMultiReleaseAndCheck(
+            "Manifest-Version: 1.0\r\nMulti-Release: true\r\n",
+            true
+        );
+    }
+
+    @Test
+    public void testIsMultiReleaseTrueDifferentCase() throws IOException {
+        this.isMultiReleaseAndCheck(
+            "Manifest-Version: 1.0\r\nMulti-Release: TRUE\r\n",
+            true
+        );
+    }
+
+    private void isMultiReleaseAndCheck(final String manifest,
+                                        final boolean expected) throws IOException {
+        this.checkEquals(
+            expected,
+            MultiReleaseJar.isMultiRelease(
+                new Manifest(
+                    new ByteArrayInputStream(
+                        manifest.getBytes(StandardCharsets.UTF_8)
+                    )
+                )
+            ),
+            manifest
+        );
+    }
+
+    // version..........................................................................................................
+
+    @Test
+    public void testVersionBase() {
+        this.versionAndCheck(
+            "a/b.class",
+            0
+        );
+    }
+
+    @Test
+    public void testVersionVersionsDirectory() {
+        this.versionAndCheck(
+            "META-INF/versions/9/",
+            0
+        );
+    }
+
+    @Test
+    public void testVersionNotNumber() {
+        this.versionAndCheck(
+            "META-INF/versions/nine/a/b.class",
+            0
+        );
+    }
+
+    @Test
+    public void testVersionBeforeBaseVersion() {
+        this.versionAndCheck(
+            "META-INF/versions/8/a/b.class",
+            0
+        );
+    }
+
+    @Test
+    public void testVersionAfterFeature() {
+        this.versionAndCheck(
+            "META-INF/versions/12/a/b.class",
+            0
+        );
+    }
+
+    @Test
+    public void testVersion() {
+        this.versionAndCheck(
+            "META-INF/versions/9/a/b.class",
+            9
+        );
+    }
+
+    @Test
+    public void testVersionFeature() {
+        this.versionAndCheck(
+            "META-INF/versions/11/a/b.class",
+            11
+        );
+    }
+
+    private void versionAndCheck(final String name,
+                                 final int expected) {
+        this.checkEquals(
+            expected,
+            MultiReleaseJar.version(
+                name,
+                FEATURE
+            ),
+            name
+        );
+    }
+
+    // index............................................................................................................
+
+    @Test
+    public void testIndexNotMultiRelease() {
+        this.checkEquals(
+            Maps.of(
+                "a/b.class",
+                "a/b.class",
+                "META-INF/versions/9/a/b.class",
+                "META-INF/versions/9/a/b.class"
+            ),
+            MultiReleaseJar.index(
+                Lists.of(
+                    "a/b.class",
+                    "META-INF/versions/9/a/b.class"
+                ),
+                Function.identity(),
+                false,
+                FEATURE
+            )
+        );
+    }
+
+    @Test
+    public void testIndexMultiRelease() {
+        this.checkEquals(
+            Maps.of(
+                "a/b.class",
+                "META-INF/versions/11/a/b.class",
+                "META-INF/versions/9/a/b.class",
+                "META-INF/versions/9/a/b.class",
+                "META-INF/versions/11/a/b.class",
+                "META-INF/versions/11/a/b.class",
+                "META-INF/versions/12/a/b.class",
+                "META-INF/versions/12/a/b.class"
+            ),
+            MultiReleaseJar.index(
+                Lists.of(
+                    "META-INF/versions/12/a/b.class",
+                    "META-INF/versions/9/a/b.class",
+                    "a/b.class",
+                    "META-INF/versions/11/a/b.class"
+                ),
+                Function.identity(),
+                true,
+                FEATURE
+            )
+        );
+    }
+
+    @Test
+    public void testIndexMultiReleaseVersionedOnly() {
+        this.checkEquals(
+            Maps.of(
+                "c.class",
+                "META-INF/versions/10/c.class",
+                "META-INF/versions/10/c.class",
+                "META-INF/versions/10/c.class"
+            ),
+            MultiReleaseJar.index(
+                Lists.of(
+                    "META-INF/versions/10/c.class"
+                ),
+                Function.identity(),
+                true,
+                FEATURE
+            )
+        );
+    }
+
+    // resolve..........................................................................................................
+
+    @Test
+    public void testResolve() {
+        final Map<ClassLoaderResourcePath, String> pathToValue = Maps.sorted();
+        pathToValue.put(ClassLoaderResourcePath.parse("/a/b.class"), "base");
+        pathToValue.put(ClassLoaderResourcePath.parse("/META-INF/versions/9/a/b.class"), "9");
+        pathToValue.put(ClassLoaderResourcePath.parse("/META-INF/versions/10/a/b.class"), "10");
+        pathToValue.put(ClassLoaderResourcePath.parse("/META-INF/versions/12/a/b.class"), "12");
+
+        MultiReleaseJar.resolve(
+            pathToValue,
+            FEATURE
+        );
+
+        this.checkEquals(
+            "10",
+            pathToValue.get(ClassLoaderResourcePath.parse("/a/b.class"))
+        );
+        this.checkEquals(
+            "9",
+            pathToValue.get(ClassLoaderResourcePath.parse("/META-INF/versions/9/a/b.class"))
+        );
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<MultiReleaseJar> type() {
+        return MultiReleaseJar.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Binary;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.LineEnding;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SpillFileClassLoaderResourceProviderTest implements ClassLoaderResourceProviderTesting,
+    ClassTesting<SpillFileClassLoaderResourceProvider> {
+
+    private final static LineEnding EOL = LineEnding.NL;
+
+    @Test
+    public void testWithNullPathToResourceFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpillFileClassLoaderResourceProvider.with(
+                null,
+                Maps.empty(),
+                EOL
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullPathToFileFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpillFileClassLoaderResourceProvider.with(
+                Maps.empty(),
+                null,
+                EOL
+            )
+        );
+    }
+
+    @Test
+    public void testLoadUnknown() throws IOException {
+        this.loadAndCheck(
+            this.classLoaderResourceProvider(),
+            ClassLoaderResourcePath.parse("/dir/unknown.txt")
+        );
+    }
+
+    @Test
+    public void testLoadHeap() throws IOException {
+        this.loadAndCheck(
+            this.classLoaderResourceProvider(),
+            ClassLoaderResourcePath.parse("/dir/heap.txt"),
+            ClassLoaderResource.with(
+                Binary.with(
+                    "heap".getBytes(StandardCharsets.UTF_8)
+                )
+            )
+        );
+    }
+
+    @Test
+    public void testLoadFile() throws IOException {
+        this.loadAndCheck(
+            this.classLoaderResourceProvider(),
+            ClassLoaderResourcePath.parse("/dir/file.txt"),
+            ClassLoaderResource.with(
+                Binary.with(
+                    "file".getBytes(StandardCharsets.UTF_8)
+                )
+            )
+        );
+    }
+
+    @Test
+    public void testLoadFileReadWhenValueRequired() throws IOException {
+        final Path file = Files.createTempFile("spill", ".tmp");
+        file.toFile()
+            .deleteOnExit();
+
+        final ClassLoaderResourceProvider provider = SpillFileClassLoaderResourceProvider.with(
+            Maps.empty(),
+            Maps.of(
+                ClassLoaderResourcePath.parse("/dir/file.txt"),
+                file
+            ),
+            EOL
+        );
+
+        final ClassLoaderResource resource = provider.load(
+            ClassLoaderResourcePath.parse("/dir/file.txt")
+        ).get();
+
+        Files.write(
+            file,
+            "written after load".getBytes(StandardCharsets.UTF_8)
+        );
+
+        this.checkEquals(
+            Binary.with(
+                "written after load".getBytes(StandardCharsets.UTF_8)
+            ),
+            resource.value()
+        );
+    }
+
+    @Test
+    public void testLoadDirectory() throws IOException {
+        this.loadAndCheck(
+            this.classLoaderResourceProvider(),
+            ClassLoaderResourcePath.parse("/dir"),
+            ClassLoaderResource.with(
+                Binary.with(
+                    ("file.txt" + EOL + "heap.txt" + EOL).getBytes(StandardCharsets.UTF_8)
+                )
+            )
+        );
+    }
+
+    @Test
+    public void testCloseDeletesSpillFiles() throws IOException {
+        final Path file = Files.createTempFile("spill", ".tmp");
+
+        SpillFileClassLoaderResourceProvider.with(
+            Maps.empty(),
+            Maps.of(
+                ClassLoaderResourcePath.parse("/dir/file.txt"),
+                file
+            ),
+            EOL
+        ).close();
+
+        this.checkEquals(
+            false,
+            Files.exists(file)
+        );
+    }
+
+    private SpillFileClassLoaderResourceProvider classLoaderResourceProvider() throws IOException {
+        final Path file = Files.createTempFile("spill", ".tmp");
+        file.toFile()
+            .deleteOnExit();
+        Files.write(
+            file,
+            "file".getBytes(StandardCharsets.UTF_8)
+        );
+
+        return SpillFileClassLoaderResourceProvider.with(
+            Maps.of(
+                ClassLoaderResourcePath.parse("/dir/heap.txt"),
+                ClassLoaderResource.with(
+                    Binary.with(
+                        "heap".getBytes(StandardCharsets.UTF_8)
+                    )
+                )
+            ),
+            Maps.of(
+                ClassLoaderResourcePath.parse("/dir/file.txt"),
+                file
+            ),
+            EOL
+        );
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<SpillFileClassLoaderResourceProvider> type() {
+        return SpillFileClassLoaderResourceProvider.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
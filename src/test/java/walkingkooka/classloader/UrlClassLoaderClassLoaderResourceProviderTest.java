@@ -27,6 +27,7 @@ import java.io.File;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.charset.StandardCharsets;
+import java.util.Optional;
 
 public final class UrlClassLoaderClassLoaderResourceProviderTest implements ClassLoaderResourceProviderTesting,
     ClassTesting<UrlClassLoaderClassLoaderResourceProvider>,
@@ -55,6 +56,38 @@ public final class UrlClassLoaderClassLoaderResourceProviderTest implements Clas
         );
     }
 
+    @Test
+    public void testMetadata() throws Exception {
+        this.checkEquals(
+            Optional.of(3L),
+            UrlClassLoaderClassLoaderResourceProvider.with(
+                URLClassLoader.newInstance(
+                    new URL[]{
+                        new File("./src/test/resources/JarFileClassLoaderResourceProviderTest.jar").toURL()
+                    }
+                )
+            ).metadata(
+                ClassLoaderResourcePath.parse("/walkingkooka/classloader/test-resource-123.txt")
+            ).map(ClassLoaderResourceMetadata::size)
+        );
+    }
+
+    @Test
+    public void testMetadataUnknown() throws Exception {
+        this.checkEquals(
+            Optional.empty(),
+            UrlClassLoaderClassLoaderResourceProvider.with(
+                URLClassLoader.newInstance(
+                    new URL[]{
+                        new File("./src/test/resources/JarFileClassLoaderResourceProviderTest.jar").toURL()
+                    }
+                )
+            ).metadata(
+                ClassLoaderResourcePath.parse("/unknown.txt")
+            )
+        );
+    }
+
     @Test
     public void testLoadDirectoryListing() throws Exception {
         this.loadAndCheck(
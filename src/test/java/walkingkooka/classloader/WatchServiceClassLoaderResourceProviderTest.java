@@ -0,0 +1,418 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Binary;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.LineEnding;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class WatchServiceClassLoaderResourceProviderTest implements ClassLoaderResourceProviderTesting,
+    ClassTesting<WatchServiceClassLoaderResourceProvider> {
+
+    private final static LineEnding EOL = LineEnding.NL;
+
+    private final static long TIMEOUT_SECONDS = 30;
+
+    @Test
+    public void testWithNullRootFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> WatchServiceClassLoaderResourceProvider.with(
+                null,
+                EOL,
+                (g, p) -> {
+                }
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullLineEndingFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> WatchServiceClassLoaderResourceProvider.with(
+                Paths.get("."),
+                null,
+                (g, p) -> {
+                }
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullListenerFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> WatchServiceClassLoaderResourceProvider.with(
+                Paths.get("."),
+                EOL,
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testLoadUnknown() throws IOException {
+        try (final WatchServiceClassLoaderResourceProvider provider = this.createProvider(new LinkedBlockingQueue<>())) {
+            this.loadAndCheck(
+                provider,
+                ClassLoaderResourcePath.parse("/dir/unknown.txt")
+            );
+        }
+    }
+
+    @Test
+    public void testLoadFile() throws IOException {
+        try (final WatchServiceClassLoaderResourceProvider provider = this.createProvider(new LinkedBlockingQueue<>())) {
+            this.loadAndCheck(
+                provider,
+                ClassLoaderResourcePath.parse("/dir/a.txt"),
+                resource("a")
+            );
+        }
+    }
+
+    @Test
+    public void testLoadDirectory() throws IOException {
+        try (final WatchServiceClassLoaderResourceProvider provider = this.createProvider(new LinkedBlockingQueue<>())) {
+            this.loadAndCheck(
+                provider,
+                ClassLoaderResourcePath.parse("/dir"),
+                resource("a.txt" + EOL + "b.txt" + EOL)
+            );
+        }
+    }
+
+    @Test
+    public void testLoadManifestDifferentCase() throws IOException {
+        try (final WatchServiceClassLoaderResourceProvider provider = this.createProvider(new LinkedBlockingQueue<>())) {
+            this.loadAndCheck(
+                provider,
+                ClassLoaderResourcePath.parse("/meta-inf/manifest.MF"),
+                resource("Manifest-Version: 1.0\r\n")
+            );
+        }
+    }
+
+    @Test
+    public void testGenerationInitial() throws IOException {
+        try (final WatchServiceClassLoaderResourceProvider provider = this.createProvider(new LinkedBlockingQueue<>())) {
+            this.checkEquals(
+                0L,
+                provider.generation()
+            );
+        }
+    }
+
+    @Test
+    public void testRescan() throws IOException {
+        try (final WatchServiceClassLoaderResourceProvider provider = this.createProvider(new LinkedBlockingQueue<>())) {
+            final Set<ClassLoaderResourcePath> changed = Sets.hash();
+            provider.rescan(changed);
+
+            this.checkEquals(
+                true,
+                changed.contains(
+                    ClassLoaderResourcePath.parse("/dir/a.txt")
+                ),
+                () -> "changed " + changed
+            );
+
+            this.loadAndCheck(
+                provider,
+                ClassLoaderResourcePath.parse("/dir"),
+                resource("a.txt" + EOL + "b.txt" + EOL)
+            );
+            this.loadAndCheck(
+                provider,
+                ClassLoaderResourcePath.parse("/meta-inf/manifest.MF"),
+                resource("Manifest-Version: 1.0\r\n")
+            );
+        }
+    }
+
+    @Test
+    public void testCreateFile() throws Exception {
+        final BlockingQueue<Map.Entry<Long, Set<ClassLoaderResourcePath>>> changes = new LinkedBlockingQueue<>();
+
+        try (final WatchServiceClassLoaderResourceProvider provider = this.createProvider(changes)) {
+            write(
+                this.root.resolve("dir")
+                    .resolve("created.txt"),
+                "created"
+            );
+
+            final ClassLoaderResourcePath path = ClassLoaderResourcePath.parse("/dir/created.txt");
+            final long generation = awaitChange(
+                changes,
+                path
+            );
+
+            this.checkEquals(
+                true,
+                generation > 0,
+                () -> "generation " + generation
+            );
+            this.checkEquals(
+                generation,
+                provider.generation()
+            );
+
+            this.loadAndCheck(
+                provider,
+                path,
+                resource("created")
+            );
+            this.loadAndCheck(
+                provider,
+                ClassLoaderResourcePath.parse("/dir"),
+                resource("a.txt" + EOL + "b.txt" + EOL + "created.txt" + EOL)
+            );
+        }
+    }
+
+    @Test
+    public void testModifyFile() throws Exception {
+        final BlockingQueue<Map.Entry<Long, Set<ClassLoaderResourcePath>>> changes = new LinkedBlockingQueue<>();
+
+        try (final WatchServiceClassLoaderResourceProvider provider = this.createProvider(changes)) {
+            write(
+                this.root.resolve("dir")
+                    .resolve("a.txt"),
+                "modified"
+            );
+
+            final ClassLoaderResourcePath path = ClassLoaderResourcePath.parse("/dir/a.txt");
+            awaitChange(
+                changes,
+                path
+            );
+
+            this.loadAndCheck(
+                provider,
+                path,
+                resource("modified")
+            );
+        }
+    }
+
+    @Test
+    public void testDeleteFile() throws Exception {
+        final BlockingQueue<Map.Entry<Long, Set<ClassLoaderResourcePath>>> changes = new LinkedBlockingQueue<>();
+
+        try (final WatchServiceClassLoaderResourceProvider provider = this.createProvider(changes)) {
+            Files.delete(
+                this.root.resolve("dir")
+                    .resolve("a.txt")
+            );
+
+            final ClassLoaderResourcePath path = ClassLoaderResourcePath.parse("/dir/a.txt");
+            awaitChange(
+                changes,
+                path
+            );
+
+            this.loadAndCheck(
+                provider,
+                path
+            );
+            this.loadAndCheck(
+                provider,
+                ClassLoaderResourcePath.parse("/dir"),
+                resource("b.txt" + EOL)
+            );
+        }
+    }
+
+    @Test
+    public void testCreateDirectoryWithFile() throws Exception {
+        final BlockingQueue<Map.Entry<Long, Set<ClassLoaderResourcePath>>> changes = new LinkedBlockingQueue<>();
+
+        try (final WatchServiceClassLoaderResourceProvider provider = this.createProvider(changes)) {
+            final Path created = createDirectory(
+                this.root.resolve("dir"),
+                "created"
+            );
+            write(
+                created.resolve("c.txt"),
+                "c"
+            );
+
+            final ClassLoaderResourcePath path = ClassLoaderResourcePath.parse("/dir/created/c.txt");
+            awaitChange(
+                changes,
+                path
+            );
+
+            this.loadAndCheck(
+                provider,
+                path,
+                resource("c")
+            );
+        }
+    }
+
+    @Test
+    public void testCloseStopsWatching() throws Exception {
+        final BlockingQueue<Map.Entry<Long, Set<ClassLoaderResourcePath>>> changes = new LinkedBlockingQueue<>();
+
+        final WatchServiceClassLoaderResourceProvider provider = this.createProvider(changes);
+        provider.close();
+
+        write(
+            this.root.resolve("dir")
+                .resolve("created.txt"),
+            "created"
+        );
+
+        this.checkEquals(
+            null,
+            changes.poll(1, TimeUnit.SECONDS)
+        );
+        this.checkEquals(
+            0L,
+            provider.generation()
+        );
+    }
+
+    /**
+     * Waits for a notification that includes the given path, returning its generation.
+     */
+    private static long awaitChange(final BlockingQueue<Map.Entry<Long, Set<ClassLoaderResourcePath>>> changes,
+                                    final ClassLoaderResourcePath path) throws InterruptedException {
+        final long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+
+        for (; ; ) {
+            final Map.Entry<Long, Set<ClassLoaderResourcePath>> change = changes.poll(
+                end - System.nanoTime(),
+                TimeUnit.NANOSECONDS
+            );
+            if (null == change) {
+                throw new AssertionError("No change for " + path + " within " + TIMEOUT_SECONDS + " seconds");
+            }
+            if (change.getValue().contains(path)) {
+                return change.getKey();
+            }
+        }
+    }
+
+    private WatchServiceClassLoaderResourceProvider createProvider(final BlockingQueue<Map.Entry<Long, Set<ClassLoaderResourcePath>>> changes) throws IOException {
+        return WatchServiceClassLoaderResourceProvider.with(
+            this.createDirectory(),
+            EOL,
+            (g, p) -> changes.add(
+                new SimpleImmutableEntry<>(
+                    g,
+                    p
+                )
+            )
+        );
+    }
+
+    /**
+     * Creates a temporary directory holding
+     * <pre>
+     * META-INF/manifest.mf
+     * dir/a.txt
+     * dir/b.txt
+     * </pre>
+     */
+    private Path createDirectory() throws IOException {
+        final Path root = Files.createTempDirectory(WatchServiceClassLoaderResourceProviderTest.class.getSimpleName());
+        root.toFile()
+            .deleteOnExit();
+
+        final Path metaInf = createDirectory(root, "META-INF");
+        write(
+            metaInf.resolve("manifest.mf"),
+            "Manifest-Version: 1.0\r\n"
+        );
+
+        final Path dir = createDirectory(root, "dir");
+        write(
+            dir.resolve("a.txt"),
+            "a"
+        );
+        write(
+            dir.resolve("b.txt"),
+            "b"
+        );
+
+        this.root = root;
+        return root;
+    }
+
+    private Path root;
+
+    private static Path createDirectory(final Path parent,
+                                        final String name) throws IOException {
+        final Path directory = Files.createDirectory(
+            parent.resolve(name)
+        );
+        directory.toFile()
+            .deleteOnExit();
+        return directory;
+    }
+
+    private static void write(final Path file,
+                              final String content) throws IOException {
+        Files.write(
+            file,
+            content.getBytes(StandardCharsets.UTF_8)
+        );
+        file.toFile()
+            .deleteOnExit();
+    }
+
+    private static ClassLoaderResource resource(final String content) {
+        return ClassLoaderResource.with(
+            Binary.with(
+                content.getBytes(StandardCharsets.UTF_8)
+            )
+        );
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<WatchServiceClassLoaderResourceProvider> type() {
+        return WatchServiceClassLoaderResourceProvider.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
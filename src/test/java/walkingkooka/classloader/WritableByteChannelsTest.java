@@ -0,0 +1,166 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public final class WritableByteChannelsTest implements ClassTesting<WritableByteChannels> {
+
+    private final static byte[] CONTENT = "0123456789".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void testWrite() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ByteBuffer buffer = ByteBuffer.wrap(CONTENT);
+
+        this.checkEquals(
+            10L,
+            WritableByteChannels.write(
+                buffer,
+                Channels.newChannel(bytes)
+            )
+        );
+        this.checkEquals(
+            CONTENT,
+            bytes.toByteArray()
+        );
+        this.checkEquals(
+            false,
+            buffer.hasRemaining()
+        );
+    }
+
+    @Test
+    public void testTransfer() throws IOException {
+        final Path file = this.file();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        this.checkEquals(
+            10L,
+            WritableByteChannels.transfer(
+                file,
+                Channels.newChannel(bytes)
+            )
+        );
+        this.checkEquals(
+            CONTENT,
+            bytes.toByteArray()
+        );
+    }
+
+    @Test
+    public void testTransferRegion() throws IOException {
+        final Path file = this.file();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        this.checkEquals(
+            4L,
+            WritableByteChannels.transfer(
+                file,
+                3,
+                4,
+                Channels.newChannel(bytes)
+            )
+        );
+        this.checkEquals(
+            "3456",
+            new String(
+                bytes.toByteArray(),
+                StandardCharsets.UTF_8
+            )
+        );
+    }
+
+    @Test
+    public void testTransferRegionPastEnd() throws IOException {
+        final Path file = this.file();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        this.checkEquals(
+            2L,
+            WritableByteChannels.transfer(
+                file,
+                8,
+                100,
+                Channels.newChannel(bytes)
+            )
+        );
+        this.checkEquals(
+            "89",
+            new String(
+                bytes.toByteArray(),
+                StandardCharsets.UTF_8
+            )
+        );
+    }
+
+    @Test
+    public void testCopy() throws IOException {
+        final byte[] content = new byte[20000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        this.checkEquals(
+            (long) content.length,
+            WritableByteChannels.copy(
+                new ByteArrayInputStream(content),
+                Channels.newChannel(bytes)
+            )
+        );
+        this.checkEquals(
+            content,
+            bytes.toByteArray()
+        );
+    }
+
+    private Path file() throws IOException {
+        final Path file = Files.createTempFile(WritableByteChannelsTest.class.getSimpleName(), ".txt");
+        file.toFile()
+            .deleteOnExit();
+        Files.write(
+            file,
+            CONTENT
+        );
+        return file;
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<WritableByteChannels> type() {
+        return WritableByteChannels.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
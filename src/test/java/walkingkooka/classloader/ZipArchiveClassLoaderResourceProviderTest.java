@@ -0,0 +1,496 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Binary;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.LineEnding;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class ZipArchiveClassLoaderResourceProviderTest implements ClassLoaderResourceProviderTesting,
+    ClassTesting<ZipArchiveClassLoaderResourceProvider> {
+
+    private final static LineEnding EOL = LineEnding.NL;
+
+    private final static byte[] MANIFEST = "Manifest-Version: 1.0\r\n\r\n".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * MS-DOS times only have a two second precision.
+     */
+    private final static Instant LAST_MODIFIED = LocalDateTime.of(2024, 1, 2, 3, 4, 6)
+        .atZone(ZoneId.systemDefault())
+        .toInstant();
+
+    private final static byte[] RESOURCE1 = "111".getBytes(StandardCharsets.UTF_8);
+
+    private final static byte[] RESOURCE2 = "222".getBytes(StandardCharsets.UTF_8);
+
+    private final static byte[] RESOURCE3 = "333".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void testWithLibsNullArchiveFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ZipArchiveClassLoaderResourceProvider.withLibs(
+                null,
+                EOL
+            )
+        );
+    }
+
+    @Test
+    public void testWithLibsNullLineEndingFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ZipArchiveClassLoaderResourceProvider.withLibs(
+                this.archive(),
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testLoadUnknown() throws IOException {
+        this.loadAndCheck(
+            this.classLoaderResourceProvider(),
+            ClassLoaderResourcePath.parse("/test/unknown.txt")
+        );
+    }
+
+    @Test
+    public void testLoadManifestDifferentCase() throws IOException {
+        this.loadAndCheck(
+            this.classLoaderResourceProvider(),
+            ClassLoaderResourcePath.parse("/meta-inf/manifest.mf"),
+            ClassLoaderResource.with(
+                Binary.with(MANIFEST)
+            )
+        );
+    }
+
+    @Test
+    public void testLoadResource() throws IOException {
+        this.loadAndCheck(
+            this.classLoaderResourceProvider(),
+            ClassLoaderResourcePath.parse("/test/resource1.txt"),
+            ClassLoaderResource.with(
+                Binary.with(RESOURCE1)
+            )
+        );
+    }
+
+    @Test
+    public void testLoadResourceStoredLib() throws IOException {
+        this.loadAndCheck(
+            this.classLoaderResourceProvider(),
+            ClassLoaderResourcePath.parse("/test/resource2.txt"),
+            ClassLoaderResource.with(
+                Binary.with(RESOURCE2)
+            )
+        );
+    }
+
+    @Test
+    public void testLoadResourceDeflatedLib() throws IOException {
+        this.loadAndCheck(
+            this.classLoaderResourceProvider(),
+            ClassLoaderResourcePath.parse("/test/resource3.txt"),
+            ClassLoaderResource.with(
+                Binary.with(RESOURCE3)
+            )
+        );
+    }
+
+    @Test
+    public void testLoadLibIgnored() throws IOException {
+        this.loadAndCheck(
+            this.classLoaderResourceProvider(),
+            ClassLoaderResourcePath.parse("/libs/stored.jar")
+        );
+    }
+
+    @Test
+    public void testLoadDirectory() throws IOException {
+        this.loadAndCheck(
+            this.classLoaderResourceProvider(),
+            ClassLoaderResourcePath.parse("/test"),
+            ClassLoaderResource.with(
+                Binary.with(
+                    ("resource1.txt" + EOL).getBytes(StandardCharsets.UTF_8)
+                )
+            )
+        );
+    }
+
+    @Test
+    public void testLoadNameUnknown() throws IOException {
+        this.loadNameAndCheck(
+            this.classLoaderResourceProvider(),
+            "test/unknown.txt"
+        );
+    }
+
+    @Test
+    public void testLoadNameManifestDifferentCase() throws IOException {
+        this.loadNameAndCheck(
+            this.classLoaderResourceProvider(),
+            "meta-inf/manifest.mf",
+            ClassLoaderResource.with(
+                Binary.with(MANIFEST)
+            )
+        );
+    }
+
+    @Test
+    public void testLoadNameResource() throws IOException {
+        this.loadNameAndCheck(
+            this.classLoaderResourceProvider(),
+            "test/resource1.txt",
+            ClassLoaderResource.with(
+                Binary.with(RESOURCE1)
+            )
+        );
+    }
+
+    @Test
+    public void testLoadNameResourceDeflatedLib() throws IOException {
+        this.loadNameAndCheck(
+            this.classLoaderResourceProvider(),
+            "/test/resource3.txt",
+            ClassLoaderResource.with(
+                Binary.with(RESOURCE3)
+            )
+        );
+    }
+
+    @Test
+    public void testLoadNameLibIgnored() throws IOException {
+        this.loadNameAndCheck(
+            this.classLoaderResourceProvider(),
+            "libs/stored.jar"
+        );
+    }
+
+    @Test
+    public void testLoadNameDirectory() throws IOException {
+        this.loadNameAndCheck(
+            this.classLoaderResourceProvider(),
+            "test",
+            ClassLoaderResource.with(
+                Binary.with(
+                    ("resource1.txt" + EOL).getBytes(StandardCharsets.UTF_8)
+                )
+            )
+        );
+    }
+
+    @Test
+    public void testInputStreamName() throws IOException {
+        try (final InputStream inputStream = this.classLoaderResourceProvider()
+            .inputStreamName("test/resource1.txt")
+            .get()) {
+            this.checkEquals(
+                Binary.with(RESOURCE1),
+                Binary.with(
+                    inputStream.readAllBytes()
+                )
+            );
+        }
+    }
+
+    @Test
+    public void testInputStreamNameUnknown() throws IOException {
+        this.checkEquals(
+            Optional.empty(),
+            this.classLoaderResourceProvider()
+                .inputStreamName("test/unknown.txt")
+        );
+    }
+
+    @Test
+    public void testMetadataResource() throws IOException {
+        final ZipArchive archive = this.archive();
+        final ClassLoaderResourceProvider provider = ZipArchiveClassLoaderResourceProvider.with(
+            archive,
+            EOL
+        );
+
+        this.checkEquals(
+            Optional.of(
+                ClassLoaderResourceMetadata.with(
+                    RESOURCE1.length,
+                    Optional.of(
+                        archive.entry("test/resource1.txt")
+                            .compressedSize
+                    ),
+                    Optional.of(LAST_MODIFIED),
+                    provider
+                )
+            ),
+            provider.metadata(
+                ClassLoaderResourcePath.parse("/test/resource1.txt")
+            )
+        );
+    }
+
+    @Test
+    public void testMetadataResourceStored() throws IOException {
+        final ClassLoaderResourceProvider provider = ZipArchiveClassLoaderResourceProvider.with(
+            this.archive(),
+            EOL
+        );
+
+        this.checkEquals(
+            Optional.of(
+                ClassLoaderResourceMetadata.with(
+                    provider.load(
+                        ClassLoaderResourcePath.parse("/libs/stored.jar")
+                    ).get()
+                        .value()
+                        .size(),
+                    Optional.empty(),
+                    Optional.of(LAST_MODIFIED),
+                    provider
+                )
+            ),
+            provider.metadata(
+                ClassLoaderResourcePath.parse("/libs/stored.jar")
+            )
+        );
+    }
+
+    @Test
+    public void testMetadataDirectory() throws IOException {
+        final ClassLoaderResourceProvider provider = ZipArchiveClassLoaderResourceProvider.with(
+            this.archive(),
+            EOL
+        );
+
+        this.checkEquals(
+            Optional.of(
+                ClassLoaderResourceMetadata.with(
+                    ("resource1.txt" + EOL).length(),
+                    Optional.empty(),
+                    Optional.empty(),
+                    provider
+                )
+            ),
+            provider.metadata(
+                ClassLoaderResourcePath.parse("/test")
+            )
+        );
+    }
+
+    @Test
+    public void testMetadataUnknown() throws IOException {
+        this.checkEquals(
+            Optional.empty(),
+            this.classLoaderResourceProvider()
+                .metadata(
+                    ClassLoaderResourcePath.parse("/test/unknown.txt")
+                )
+        );
+    }
+
+    @Test
+    public void testWithLoadLib() throws IOException {
+        final ZipArchive archive = this.archive();
+
+        this.loadAndCheck(
+            ZipArchiveClassLoaderResourceProvider.with(
+                archive,
+                EOL
+            ),
+            ClassLoaderResourcePath.parse("/libs/stored.jar"),
+            ClassLoaderResource.with(
+                Binary.with(
+                    archive.read(
+                        archive.entry("libs/stored.jar")
+                    )
+                )
+            )
+        );
+    }
+
+    @Test
+    public void testWithLoadLibResourceIgnored() throws IOException {
+        this.loadAndCheck(
+            ZipArchiveClassLoaderResourceProvider.with(
+                this.archive(),
+                EOL
+            ),
+            ClassLoaderResourcePath.parse("/test/resource2.txt")
+        );
+    }
+
+    @Test
+    public void testLoadAll() throws IOException {
+        final ClassLoaderResourcePath resource1 = ClassLoaderResourcePath.parse("/test/resource1.txt");
+        final ClassLoaderResourcePath resource2 = ClassLoaderResourcePath.parse("/test/resource2.txt");
+        final ClassLoaderResourcePath resource3 = ClassLoaderResourcePath.parse("/test/resource3.txt");
+        final ClassLoaderResourcePath directory = ClassLoaderResourcePath.parse("/test");
+
+        this.loadAllAndCheck(
+            this.classLoaderResourceProvider(),
+            Lists.of(
+                resource3,
+                directory,
+                ClassLoaderResourcePath.parse("/libs/stored.jar"),
+                ClassLoaderResourcePath.parse("/test/unknown.txt"),
+                resource2,
+                resource1
+            ),
+            Maps.of(
+                directory,
+                ClassLoaderResource.with(
+                    Binary.with(
+                        ("resource1.txt" + EOL).getBytes(StandardCharsets.UTF_8)
+                    )
+                ),
+                resource1,
+                ClassLoaderResource.with(
+                    Binary.with(RESOURCE1)
+                ),
+                resource2,
+                ClassLoaderResource.with(
+                    Binary.with(RESOURCE2)
+                ),
+                resource3,
+                ClassLoaderResource.with(
+                    Binary.with(RESOURCE3)
+                )
+            )
+        );
+    }
+
+    @Test
+    public void testLoadAllManifest() throws IOException {
+        this.loadAllAndCheck(
+            this.classLoaderResourceProvider(),
+            Lists.of(
+                ClassLoaderResourcePath.MANIFEST
+            ),
+            Maps.of(
+                ClassLoaderResourcePath.MANIFEST,
+                ClassLoaderResource.with(
+                    Binary.with(MANIFEST)
+                )
+            )
+        );
+    }
+
+    private ClassLoaderResourceProvider classLoaderResourceProvider() throws IOException {
+        return ZipArchiveClassLoaderResourceProvider.withLibs(
+            this.archive(),
+            EOL
+        );
+    }
+
+    private ZipArchive archive() throws IOException {
+        return ZipArchive.with(
+            ByteBuffer.wrap(
+                zip(
+                    Maps.of(
+                        "META-INF/MANIFEST.MF",
+                        MANIFEST,
+                        "test/resource1.txt",
+                        RESOURCE1,
+                        "libs/stored.jar",
+                        zip(
+                            Maps.of(
+                                "test/resource2.txt",
+                                RESOURCE2
+                            )
+                        ),
+                        "libs/deflated.jar",
+                        zip(
+                            Maps.of(
+                                "test/resource3.txt",
+                                RESOURCE3
+                            )
+                        )
+                    )
+                )
+            ),
+            "test.jar"
+        );
+    }
+
+    /**
+     * Entries with stored in their name are STORED all others are DEFLATED.
+     */
+    private static byte[] zip(final Map<String, byte[]> contents) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (final ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (final Map.Entry<String, byte[]> mapEntry : contents.entrySet()) {
+                final byte[] content = mapEntry.getValue();
+                final String name = mapEntry.getKey();
+                final ZipEntry entry = new ZipEntry(name);
+                entry.setTime(LAST_MODIFIED.toEpochMilli());
+
+                if (name.contains("stored")) {
+                    final CRC32 crc = new CRC32();
+                    crc.update(content);
+
+                    entry.setMethod(ZipEntry.STORED);
+                    entry.setSize(content.length);
+                    entry.setCompressedSize(content.length);
+                    entry.setCrc(crc.getValue());
+                }
+
+                zip.putNextEntry(entry);
+                zip.write(content);
+                zip.closeEntry();
+            }
+        }
+
+        return bytes.toByteArray();
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<ZipArchiveClassLoaderResourceProvider> type() {
+        return ZipArchiveClassLoaderResourceProvider.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
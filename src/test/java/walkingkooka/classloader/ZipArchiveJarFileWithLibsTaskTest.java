@@ -0,0 +1,156 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Binary;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.text.LineEnding;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public final class ZipArchiveJarFileWithLibsTaskTest implements ClassLoaderResourceProviderTesting,
+    ClassTesting<ZipArchiveJarFileWithLibsTask> {
+
+    private final static int COUNT = ZipArchiveJarFileWithLibsTask.BATCH_SIZE * 3 + 1;
+
+    @Test
+    public void testLoadManyBatches() throws IOException {
+        final ClassLoaderResourceProvider provider = new ForkJoinPool(4)
+            .invoke(
+                ZipArchiveJarFileWithLibsTask.with(
+                    ZipArchive.with(
+                        ByteBuffer.wrap(zip("outer", "libs/lib.jar", zip("inner", null, null))),
+                        "test.jar"
+                    ),
+                    LineEnding.NL
+                )
+            );
+
+        for (int i = 0; i < COUNT; i++) {
+            this.loadAndCheck(
+                provider,
+                ClassLoaderResourcePath.parse("/outer/" + i + ".txt"),
+                resource(i)
+            );
+            this.loadAndCheck(
+                provider,
+                ClassLoaderResourcePath.parse("/inner/" + i + ".txt"),
+                resource(i)
+            );
+        }
+    }
+
+    @Test
+    public void testLoadFirstLibWins() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (int i = 0; i < COUNT; i++) {
+                zip.putNextEntry(new ZipEntry("libs/" + i + ".jar"));
+                zip.write(zip("same", null, null, i));
+                zip.closeEntry();
+            }
+        }
+
+        final ClassLoaderResourceProvider provider = ForkJoinPool.commonPool()
+            .invoke(
+                ZipArchiveJarFileWithLibsTask.with(
+                    ZipArchive.with(
+                        ByteBuffer.wrap(bytes.toByteArray()),
+                        "test.jar"
+                    ),
+                    LineEnding.NL
+                )
+            );
+
+        this.loadAndCheck(
+            provider,
+            ClassLoaderResourcePath.parse("/same/1.txt"),
+            resource(1)
+        );
+    }
+
+    private static byte[] zip(final String directory,
+                              final String lib,
+                              final byte[] libContent) throws IOException {
+        return zip(
+            directory,
+            lib,
+            libContent,
+            0
+        );
+    }
+
+    /**
+     * Creates a zip with {@link #COUNT} entries within the given directory, the content of each entry is offset by
+     * the given value.
+     */
+    private static byte[] zip(final String directory,
+                              final String lib,
+                              final byte[] libContent,
+                              final int offset) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (final ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (int i = 0; i < COUNT; i++) {
+                zip.putNextEntry(new ZipEntry(directory + "/" + i + ".txt"));
+                zip.write(content(offset + i));
+                zip.closeEntry();
+            }
+
+            if (null != lib) {
+                zip.putNextEntry(new ZipEntry(lib));
+                zip.write(libContent);
+                zip.closeEntry();
+            }
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static ClassLoaderResource resource(final int i) {
+        return ClassLoaderResource.with(
+            Binary.with(
+                content(i)
+            )
+        );
+    }
+
+    private static byte[] content(final int i) {
+        return ("content-" + i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<ZipArchiveJarFileWithLibsTask> type() {
+        return ZipArchiveJarFileWithLibsTask.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,433 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.classloader;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class ZipArchiveTest implements ClassTesting<ZipArchive> {
+
+    private final static byte[] STORED = "stored-content-111".getBytes(StandardCharsets.UTF_8);
+
+    private final static byte[] DEFLATED = "deflated-content-222-deflated-content-222".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void testWithNullBufferFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ZipArchive.with(
+                null,
+                "name"
+            )
+        );
+    }
+
+    @Test
+    public void testWithMissingEndOfCentralDirectoryFails() {
+        assertThrows(
+            ZipException.class,
+            () -> ZipArchive.with(
+                ByteBuffer.wrap(new byte[100]),
+                "name"
+            )
+        );
+    }
+
+    @Test
+    public void testWithCentralDirectoryOffsetOver2GbFails() throws IOException {
+        this.withCentralDirectoryOffsetFails(0x80000000);
+    }
+
+    @Test
+    public void testWithCentralDirectoryOffsetAfterEndFails() throws IOException {
+        this.withCentralDirectoryOffsetFails(0x7FFFFFF0);
+    }
+
+    private void withCentralDirectoryOffsetFails(final int centralDirectoryOffset) throws IOException {
+        final byte[] zip = zip();
+        final ByteBuffer buffer = ByteBuffer.wrap(zip)
+            .order(ByteOrder.LITTLE_ENDIAN);
+
+        // the archive has no comment so the end of central directory record is the last 22 bytes
+        buffer.putInt(
+            zip.length - 22 + 16,
+            centralDirectoryOffset
+        );
+
+        final ZipException thrown = assertThrows(
+            ZipException.class,
+            () -> ZipArchive.with(
+                buffer,
+                "crafted.zip"
+            )
+        );
+        this.checkEquals(
+            "Invalid central directory offset " + (centralDirectoryOffset & 0xFFFFFFFFL) + " in crafted.zip",
+            thrown.getMessage()
+        );
+    }
+
+    @Test
+    public void testWithEntryNameAfterEndFails() throws IOException {
+        final byte[] zip = zip();
+        final ByteBuffer buffer = ByteBuffer.wrap(zip)
+            .order(ByteOrder.LITTLE_ENDIAN);
+
+        final int centralDirectoryOffset = buffer.getInt(zip.length - 22 + 16);
+        buffer.putShort(
+            centralDirectoryOffset + 28,
+            (short) 0xFFFF
+        );
+
+        assertThrows(
+            ZipException.class,
+            () -> ZipArchive.with(
+                buffer,
+                "crafted.zip"
+            )
+        );
+    }
+
+    @Test
+    public void testEntries() throws IOException {
+        this.checkEquals(
+            "dir/,dir/stored.txt,dir/deflated.txt",
+            this.archive()
+                .entries()
+                .stream()
+                .map(e -> e.name)
+                .collect(Collectors.joining(","))
+        );
+    }
+
+    @Test
+    public void testEntryUnknown() throws IOException {
+        this.checkEquals(
+            null,
+            this.archive()
+                .entry("unknown.txt")
+        );
+    }
+
+    @Test
+    public void testReadStored() throws IOException {
+        final ZipArchive archive = this.archive();
+
+        this.checkEquals(
+            STORED,
+            archive.read(
+                archive.entry("dir/stored.txt")
+            )
+        );
+    }
+
+    @Test
+    public void testReadDeflated() throws IOException {
+        final ZipArchive archive = this.archive();
+
+        this.checkEquals(
+            DEFLATED,
+            archive.read(
+                archive.entry("dir/deflated.txt")
+            )
+        );
+    }
+
+    @Test
+    public void testReadRangeStored() throws IOException {
+        final ZipArchive archive = this.archive();
+
+        this.checkEquals(
+            "content",
+            new String(
+                archive.read(
+                    archive.entry("dir/stored.txt"),
+                    7,
+                    7
+                ),
+                StandardCharsets.UTF_8
+            )
+        );
+    }
+
+    @Test
+    public void testReadRangeStoredPastEnd() throws IOException {
+        final ZipArchive archive = this.archive();
+
+        this.checkEquals(
+            "111",
+            new String(
+                archive.read(
+                    archive.entry("dir/stored.txt"),
+                    15,
+                    100
+                ),
+                StandardCharsets.UTF_8
+            )
+        );
+    }
+
+    @Test
+    public void testReadRangeDeflated() throws IOException {
+        final ZipArchive archive = this.archive();
+
+        this.checkEquals(
+            "content",
+            new String(
+                archive.read(
+                    archive.entry("dir/deflated.txt"),
+                    9,
+                    7
+                ),
+                StandardCharsets.UTF_8
+            )
+        );
+    }
+
+    @Test
+    public void testReadRangeDeflatedOffsetAfterEnd() throws IOException {
+        final ZipArchive archive = this.archive();
+
+        this.checkEquals(
+            0,
+            archive.read(
+                archive.entry("dir/deflated.txt"),
+                1000,
+                7
+            ).length
+        );
+    }
+
+    @Test
+    public void testInputStreamStored() throws IOException {
+        final ZipArchive archive = this.archive();
+
+        try (final InputStream inputStream = archive.inputStream(archive.entry("dir/stored.txt"))) {
+            this.checkEquals(
+                STORED,
+                inputStream.readAllBytes()
+            );
+        }
+    }
+
+    @Test
+    public void testInputStreamDeflated() throws IOException {
+        final ZipArchive archive = this.archive();
+
+        try (final InputStream inputStream = archive.inputStream(archive.entry("dir/deflated.txt"))) {
+            this.checkEquals(
+                DEFLATED,
+                inputStream.readAllBytes()
+            );
+        }
+    }
+
+    @Test
+    public void testInputStreamDeflatedSkip() throws IOException {
+        final ZipArchive archive = this.archive();
+
+        try (final InputStream inputStream = archive.inputStream(archive.entry("dir/deflated.txt"))) {
+            this.checkEquals(
+                9L,
+                inputStream.skip(9)
+            );
+            this.checkEquals(
+                new String(DEFLATED, StandardCharsets.UTF_8).substring(9),
+                new String(
+                    inputStream.readAllBytes(),
+                    StandardCharsets.UTF_8
+                )
+            );
+        }
+    }
+
+    @Test
+    public void testInputStreamClosedReadFails() throws IOException {
+        final ZipArchive archive = this.archive();
+
+        final InputStream inputStream = archive.inputStream(archive.entry("dir/stored.txt"));
+        inputStream.close();
+
+        assertThrows(
+            IOException.class,
+            inputStream::read
+        );
+    }
+
+    @Test
+    public void testTransferToStored() throws IOException {
+        final ZipArchive archive = this.archive();
+
+        this.transferToAndCheck(
+            archive,
+            "dir/stored.txt",
+            STORED
+        );
+    }
+
+    @Test
+    public void testTransferToDeflated() throws IOException {
+        final ZipArchive archive = this.archive();
+
+        this.transferToAndCheck(
+            archive,
+            "dir/deflated.txt",
+            DEFLATED
+        );
+    }
+
+    @Test
+    public void testTransferToMappedStored() throws IOException {
+        final Path file = Files.createTempFile(ZipArchiveTest.class.getSimpleName(), ".zip");
+        try {
+            Files.write(
+                file,
+                zip()
+            );
+
+            this.transferToAndCheck(
+                ZipArchive.map(file),
+                "dir/stored.txt",
+                STORED
+            );
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testTransferToMappedDeflated() throws IOException {
+        final Path file = Files.createTempFile(ZipArchiveTest.class.getSimpleName(), ".zip");
+        try {
+            Files.write(
+                file,
+                zip()
+            );
+
+            this.transferToAndCheck(
+                ZipArchive.map(file),
+                "dir/deflated.txt",
+                DEFLATED
+            );
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private void transferToAndCheck(final ZipArchive archive,
+                                    final String name,
+                                    final byte[] expected) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        this.checkEquals(
+            (long) expected.length,
+            archive.transferTo(
+                archive.entry(name),
+                Channels.newChannel(bytes)
+            ),
+            "transferTo " + name
+        );
+        this.checkEquals(
+            expected,
+            bytes.toByteArray(),
+            "transferTo " + name
+        );
+    }
+
+    @Test
+    public void testMap() throws IOException {
+        final ZipArchive archive = ZipArchive.map(
+            Paths.get("./src/test/resources/JarFileClassLoaderResourceProviderTest.jar")
+        );
+
+        this.checkEquals(
+            "123",
+            new String(
+                archive.read(
+                    archive.entry("walkingkooka/classloader/test-resource-123.txt")
+                ),
+                StandardCharsets.UTF_8
+            )
+        );
+    }
+
+    private ZipArchive archive() throws IOException {
+        return ZipArchive.with(
+            ByteBuffer.wrap(zip()),
+            "test.zip"
+        );
+    }
+
+    private static byte[] zip() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (final ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            zip.putNextEntry(new ZipEntry("dir/"));
+            zip.closeEntry();
+
+            final CRC32 crc = new CRC32();
+            crc.update(STORED);
+
+            final ZipEntry stored = new ZipEntry("dir/stored.txt");
+            stored.setMethod(ZipEntry.STORED);
+            stored.setSize(STORED.length);
+            stored.setCompressedSize(STORED.length);
+            stored.setCrc(crc.getValue());
+            zip.putNextEntry(stored);
+            zip.write(STORED);
+            zip.closeEntry();
+
+            zip.putNextEntry(new ZipEntry("dir/deflated.txt"));
+            zip.write(DEFLATED);
+            zip.closeEntry();
+        }
+
+        return bytes.toByteArray();
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<ZipArchive> type() {
+        return ZipArchive.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}